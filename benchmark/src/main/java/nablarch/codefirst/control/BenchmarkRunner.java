@@ -0,0 +1,46 @@
+package nablarch.codefirst.control;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ベンチマークを実行するクラス。
+ * <p/>
+ * JMHのコマンドラインオプションをそのまま受け付ける。
+ * 実行時間に加えて{@link GCProfiler}でアロケーションレートを計測し、
+ * 結果を{@code jmh-result.json}(JSON形式)に出力する。
+ * 対象のベンチマークを指定しない場合は、全てのベンチマークを実行する。
+ * <pre>
+ * java -jar target/benchmarks.jar RenderBenchmark -p columns=100 -p beans=100
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    /** 隠蔽コンストラクタ。 */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * ベンチマークを実行する。
+     *
+     * @param args JMHのコマンドラインオプション
+     * @throws Exception 実行に失敗した場合
+     */
+    public static void main(String[] args) throws Exception {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        final ChainedOptionsBuilder builder = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON).result("jmh-result.json");
+        }
+        new Runner(builder.build()).run();
+    }
+}
@@ -0,0 +1,70 @@
+package nablarch.codefirst.control;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Beanクラスから{@link ControlDefinition}を生成する処理のベンチマーク。
+ * <p/>
+ * {@code cold}では呼び出しごとに新しいセッションを作成し、全てのBeanクラスのメタデータを読み込む。
+ * {@code warm}では同じセッションを使い回し、キャッシュした{@link ControlDefinition}を取得する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControlDefinitionBenchmark {
+
+    /** 1クラスあたりのカラム数 */
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    /** 1回の実行で処理するBeanクラスの数 */
+    @Param({"1", "100", "1000"})
+    public int beans;
+
+    /** セッションの状態(cold又はwarm) */
+    @Param({"cold", "warm"})
+    public String generator;
+
+    /** Beanクラス */
+    private List<Class<?>> beanClasses;
+
+    /** warmで使い回すセッション */
+    private ControlFileGenerationSession warmSession;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        beanClasses = SyntheticBeans.create(columns, beans).load();
+        warmSession = new ControlFileGenerator().createSession("template/template.ftl");
+        for (Class<?> beanClass : beanClasses) {
+            warmSession.getControlDefinition(beanClass);
+        }
+    }
+
+    @Benchmark
+    public void createControlDefinition(Blackhole blackhole) {
+        final ControlFileGenerationSession session = "warm".equals(generator)
+                ? warmSession
+                : new ControlFileGenerator().createSession("template/template.ftl");
+        for (Class<?> beanClass : beanClasses) {
+            blackhole.consume(session.getControlDefinition(beanClass));
+        }
+    }
+}
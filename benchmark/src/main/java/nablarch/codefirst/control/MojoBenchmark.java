@@ -0,0 +1,107 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ControlFileGeneratorMojo#execute()}全体のベンチマーク。
+ * <p/>
+ * Beanクラスのロード、メタデータの読み込み、テンプレートの処理及びファイル出力を含む。
+ * 呼び出しごとに新しいクラスローダとセッションが作成されるため、常にcoldな状態の計測となる。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MojoBenchmark {
+
+    /** 1クラスあたりのカラム数 */
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    /** 1回の実行で処理するBeanクラスの数 */
+    @Param({"1", "100", "1000"})
+    public int beans;
+
+    /** テンプレートファイル */
+    @Param({"template/template.ftl", "benchmark/custom.ftl"})
+    public String template;
+
+    /** Beanクラスのメタデータをクラスファイルから読み込むか否か */
+    @Param({"false", "true"})
+    public boolean classFileMetadata;
+
+    /** ベンチマーク対象 */
+    private ControlFileGeneratorMojo mojo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final SyntheticBeans syntheticBeans = SyntheticBeans.create(columns, beans);
+        final File outputDir = File.createTempFile("nablarch-etl-benchmark", "");
+        if (!outputDir.delete() || !outputDir.mkdirs()) {
+            throw new IllegalStateException("failed to create output directory. dir = [" + outputDir + ']');
+        }
+        mojo = new ControlFileGeneratorMojo();
+        mojo.project = new BenchmarkProject(syntheticBeans.getClassesDir());
+        mojo.outputPath = outputDir;
+        mojo.templateFilePath = template;
+        mojo.classes = new ArrayList<String>(syntheticBeans.getClassNames());
+        mojo.classFileMetadata = classFileMetadata;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        final File[] files = mojo.outputPath.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mojo.outputPath.delete();
+    }
+
+    @Benchmark
+    public void execute() throws Exception {
+        mojo.execute();
+    }
+
+    /**
+     * Beanクラスのクラスファイルの出力先のみをクラスパスとするプロジェクト。
+     */
+    private static class BenchmarkProject extends MavenProject {
+
+        /** クラスパスの要素 */
+        private final List<String> classpathElements;
+
+        BenchmarkProject(File classesDir) {
+            super(new Model());
+            classpathElements = Collections.singletonList(classesDir.getAbsolutePath());
+        }
+
+        @Override
+        public List getRuntimeClasspathElements() {
+            return classpathElements;
+        }
+    }
+}
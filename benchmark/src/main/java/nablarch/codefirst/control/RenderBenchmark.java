@@ -0,0 +1,105 @@
+package nablarch.codefirst.control;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link ControlDefinition}からテンプレートを使用してコントロールファイルを出力する処理のベンチマーク。
+ * <p/>
+ * 出力先は文字数を数えるだけの{@link Writer}とし、ファイル出力のコストは含めない。
+ * {@code cold}では呼び出しごとに新しいセッションを作成するため、テンプレートの読み込みを含む。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    /** 1クラスあたりのカラム数 */
+    @Param({"10", "100", "500"})
+    public int columns;
+
+    /** 1回の実行で処理するBeanクラスの数 */
+    @Param({"1", "100", "1000"})
+    public int beans;
+
+    /** テンプレートファイル */
+    @Param({"template/template.ftl", "benchmark/custom.ftl"})
+    public String template;
+
+    /** セッションの状態(cold又はwarm) */
+    @Param({"cold", "warm"})
+    public String generator;
+
+    /** 出力するコントロールファイルの定義 */
+    private List<ControlDefinition> definitions;
+
+    /** warmで使い回すセッション */
+    private ControlFileGenerationSession warmSession;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        warmSession = new ControlFileGenerator().createSession(template);
+        definitions = new ArrayList<ControlDefinition>();
+        for (Class<?> beanClass : SyntheticBeans.create(columns, beans).load()) {
+            definitions.add(warmSession.getControlDefinition(beanClass));
+        }
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        final ControlFileGenerationSession session = "warm".equals(generator)
+                ? warmSession
+                : new ControlFileGenerator().createSession(template);
+        final CountingWriter writer = new CountingWriter();
+        for (ControlDefinition definition : definitions) {
+            session.render(definition, writer);
+        }
+        blackhole.consume(writer.count);
+    }
+
+    /**
+     * 書き込まれた文字数のみを数える{@link Writer}。
+     */
+    private static class CountingWriter extends Writer {
+
+        /** 書き込まれた文字数 */
+        private long count;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void write(String str, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * ベンチマークで使用する{@code WorkItem}のBeanクラスを生成するクラス。
+ * <p/>
+ * 指定したカラム数のBeanクラスのソースを生成してコンパイルする。
+ * コンパイル結果は一時ディレクトリに保存し、同じカラム数、クラス数の場合は再利用する。
+ */
+public final class SyntheticBeans {
+
+    /** カラムの型 */
+    private static final String[] TYPES = {
+            "String", "Long", "java.math.BigDecimal", "java.sql.Date", "java.sql.Timestamp"
+    };
+
+    /** クラスファイルの出力先 */
+    private final File classesDir;
+
+    /** Beanクラスの完全修飾名 */
+    private final List<String> classNames;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param classesDir クラスファイルの出力先
+     * @param classNames Beanクラスの完全修飾名
+     */
+    private SyntheticBeans(File classesDir, List<String> classNames) {
+        this.classesDir = classesDir;
+        this.classNames = classNames;
+    }
+
+    /**
+     * Beanクラスを生成する。
+     *
+     * @param columns 1クラスあたりのカラム数
+     * @param count クラス数
+     * @return 生成したBeanクラス
+     */
+    public static SyntheticBeans create(int columns, int count) {
+        final String packageName = "benchmark.beans.c" + columns;
+        final List<String> classNames = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            classNames.add(packageName + ".Bean" + i);
+        }
+        final File baseDir = new File(System.getProperty("java.io.tmpdir"),
+                "nablarch-etl-benchmark" + File.separator + "c" + columns + "-b" + count);
+        final File classesDir = new File(baseDir, "classes");
+        final File completed = new File(baseDir, "completed");
+        if (!completed.exists()) {
+            compile(baseDir, classesDir, packageName, columns, count);
+            try {
+                if (!completed.createNewFile()) {
+                    throw new IllegalStateException("failed to create marker file. file = [" + completed + ']');
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("failed to create marker file. file = [" + completed + ']', e);
+            }
+        }
+        return new SyntheticBeans(classesDir, Collections.unmodifiableList(classNames));
+    }
+
+    /**
+     * クラスファイルの出力先を取得する。
+     *
+     * @return クラスファイルの出力先
+     */
+    public File getClassesDir() {
+        return classesDir;
+    }
+
+    /**
+     * Beanクラスの完全修飾名を取得する。
+     *
+     * @return Beanクラスの完全修飾名
+     */
+    public List<String> getClassNames() {
+        return classNames;
+    }
+
+    /**
+     * Beanクラスをロードする。
+     * <p/>
+     * 呼び出すたびに新しいクラスローダでロードする。
+     *
+     * @return ロードしたBeanクラス
+     */
+    public List<Class<?>> load() {
+        try {
+            final ClassLoader loader = new URLClassLoader(new URL[] {classesDir.toURI().toURL()},
+                    SyntheticBeans.class.getClassLoader());
+            final List<Class<?>> result = new ArrayList<Class<?>>();
+            for (String className : classNames) {
+                result.add(Class.forName(className, true, loader));
+            }
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to load synthetic beans. dir = [" + classesDir + ']', e);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("failed to load synthetic beans. dir = [" + classesDir + ']', e);
+        }
+    }
+
+    /**
+     * Beanクラスのソースを生成してコンパイルする。
+     *
+     * @param baseDir 作業ディレクトリ
+     * @param classesDir クラスファイルの出力先
+     * @param packageName パッケージ名
+     * @param columns 1クラスあたりのカラム数
+     * @param count クラス数
+     */
+    private static void compile(File baseDir, File classesDir, String packageName, int columns, int count) {
+        final File sourceDir = new File(baseDir, "src" + File.separator + packageName.replace('.', File.separatorChar));
+        if (!sourceDir.exists() && !sourceDir.mkdirs() || !classesDir.exists() && !classesDir.mkdirs()) {
+            throw new IllegalStateException("failed to create directory. dir = [" + baseDir + ']');
+        }
+        final List<String> arguments = new ArrayList<String>();
+        arguments.add("-nowarn");
+        arguments.add("-proc:none");
+        arguments.add("-encoding");
+        arguments.add("UTF-8");
+        arguments.add("-cp");
+        arguments.add(System.getProperty("java.class.path"));
+        arguments.add("-d");
+        arguments.add(classesDir.getAbsolutePath());
+        for (int i = 0; i < count; i++) {
+            final File source = new File(sourceDir, "Bean" + i + ".java");
+            write(source, createSource(packageName, "Bean" + i, columns));
+            arguments.add(source.getAbsolutePath());
+        }
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("JavaCompiler is not available. run benchmarks on a JDK.");
+        }
+        final int status = compiler.run(null, null, null, arguments.toArray(new String[arguments.size()]));
+        if (status != 0) {
+            throw new IllegalStateException("failed to compile synthetic beans. status = [" + status + ']');
+        }
+    }
+
+    /**
+     * Beanクラスのソースを生成する。
+     *
+     * @param packageName パッケージ名
+     * @param simpleName クラス名
+     * @param columns カラム数
+     * @return ソース
+     */
+    static String createSource(String packageName, String simpleName, int columns) {
+        final StringBuilder properties = new StringBuilder();
+        final StringBuilder headers = new StringBuilder();
+        final StringBuilder members = new StringBuilder();
+        for (int i = 0; i < columns; i++) {
+            final String type = TYPES[i % TYPES.length];
+            final String property = "column" + i;
+            final String accessor = "Column" + i;
+            if (i != 0) {
+                properties.append(", ");
+                headers.append(", ");
+            }
+            properties.append('"').append(property).append('"');
+            headers.append("\"COLUMN_").append(i).append('"');
+            members.append("    private ").append(type).append(' ').append(property).append(";\n")
+                   .append("    @javax.persistence.Column(name = \"COLUMN_").append(i).append('"')
+                   .append("String".equals(type) ? ", length = " + (10 + i % 200) : "").append(")\n")
+                   .append("    public ").append(type).append(" get").append(accessor).append("() { return ")
+                   .append(property).append("; }\n")
+                   .append("    public void set").append(accessor).append('(').append(type).append(" value) { ")
+                   .append(property).append(" = value; }\n");
+        }
+        return "package " + packageName + ";\n"
+                + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,\n"
+                + "    properties = {" + properties + "},\n"
+                + "    headers = {" + headers + "})\n"
+                + "@javax.persistence.Entity\n"
+                + "@javax.persistence.Table(name = \"" + simpleName.toUpperCase() + "\")\n"
+                + "public class " + simpleName + " extends nablarch.etl.WorkItem {\n"
+                + members
+                + "}\n";
+    }
+
+    private static void write(File file, String content) {
+        try {
+            final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            try {
+                writer.write(content);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write source file. file = [" + file + ']', e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package nablarch.codefirst.classfile;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * クラスファイルから読み込んだアノテーションの情報を保持するクラス。
+ * <p/>
+ * 要素の値は、クラスファイルに記録されている(明示的に指定された)値のみを保持する。
+ * 値の型は、要素の型に応じて以下となる。
+ * <ul>
+ *     <li>プリミティブ型:対応するラッパー型</li>
+ *     <li>{@link String}:{@link String}</li>
+ *     <li>列挙型:{@link EnumValue}</li>
+ *     <li>{@link Class}:型名({@link String})</li>
+ *     <li>アノテーション:{@link AnnotationInfo}</li>
+ *     <li>配列:{@code Object[]}</li>
+ * </ul>
+ */
+public class AnnotationInfo {
+
+    /** アノテーション型の完全修飾名 */
+    private final String typeName;
+
+    /** 要素名と値のマッピング */
+    private final Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+    /**
+     * アノテーションの情報を生成する。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     */
+    AnnotationInfo(String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * アノテーション型の完全修飾名を取得する。
+     *
+     * @return アノテーション型の完全修飾名
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * 要素の値を取得する。
+     *
+     * @param name 要素名
+     * @return 要素の値。クラスファイルに値が記録されていない場合は{@code null}
+     */
+    public Object get(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * 要素名と値のマッピングを取得する。
+     *
+     * @return 要素名と値のマッピング
+     */
+    public Map<String, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * 要素の値を設定する。
+     *
+     * @param name 要素名
+     * @param value 値
+     */
+    void put(String name, Object value) {
+        values.put(name, value);
+    }
+
+    /**
+     * 列挙型の要素の値を保持するクラス。
+     */
+    public static class EnumValue {
+
+        /** 列挙型の完全修飾名 */
+        private final String typeName;
+
+        /** 列挙定数の名前 */
+        private final String constantName;
+
+        /**
+         * 列挙型の要素の値を生成する。
+         *
+         * @param typeName 列挙型の完全修飾名
+         * @param constantName 列挙定数の名前
+         */
+        EnumValue(String typeName, String constantName) {
+            this.typeName = typeName;
+            this.constantName = constantName;
+        }
+
+        /**
+         * 列挙型の完全修飾名を取得する。
+         *
+         * @return 列挙型の完全修飾名
+         */
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * 列挙定数の名前を取得する。
+         *
+         * @return 列挙定数の名前
+         */
+        public String getConstantName() {
+            return constantName;
+        }
+
+        @Override
+        public String toString() {
+            return constantName;
+        }
+    }
+}
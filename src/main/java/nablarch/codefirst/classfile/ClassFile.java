@@ -0,0 +1,126 @@
+package nablarch.codefirst.classfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * クラスファイルから読み込んだクラスの情報を保持するクラス。
+ */
+public class ClassFile {
+
+    /** インタフェースを表すアクセスフラグ */
+    static final int ACC_INTERFACE = 0x0200;
+
+    /** 抽象クラスを表すアクセスフラグ */
+    static final int ACC_ABSTRACT = 0x0400;
+
+    /** アノテーション型を表すアクセスフラグ */
+    static final int ACC_ANNOTATION = 0x2000;
+
+    /** 列挙型を表すアクセスフラグ */
+    static final int ACC_ENUM = 0x4000;
+
+    /** クラスの完全修飾名 */
+    private final String name;
+
+    /** スーパクラスの完全修飾名 */
+    private final String superName;
+
+    /** アクセスフラグ */
+    private final int access;
+
+    /** アノテーション型の完全修飾名とアノテーションのマッピング */
+    private final Map<String, AnnotationInfo> annotations = new LinkedHashMap<String, AnnotationInfo>();
+
+    /** メソッド */
+    private final List<MethodInfo> methods = new ArrayList<MethodInfo>();
+
+    /**
+     * クラスの情報を生成する。
+     *
+     * @param name クラスの完全修飾名
+     * @param superName スーパクラスの完全修飾名
+     * @param access アクセスフラグ
+     */
+    ClassFile(String name, String superName, int access) {
+        this.name = name;
+        this.superName = superName;
+        this.access = access;
+    }
+
+    /**
+     * クラスの完全修飾名を取得する。
+     *
+     * @return クラスの完全修飾名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * スーパクラスの完全修飾名を取得する。
+     *
+     * @return スーパクラスの完全修飾名。{@link Object}の場合は{@code null}
+     */
+    public String getSuperName() {
+        return superName;
+    }
+
+    /**
+     * インスタンス化可能な具象クラスか否かを判定する。
+     *
+     * @return インタフェース、抽象クラス、アノテーション型及び列挙型以外の場合は{@code true}
+     */
+    public boolean isConcrete() {
+        return (access & (ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION | ACC_ENUM)) == 0;
+    }
+
+    /**
+     * クラスに付与されたアノテーションを取得する。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     * @return アノテーション。付与されていない場合は{@code null}
+     */
+    public AnnotationInfo getAnnotation(String typeName) {
+        return annotations.get(typeName);
+    }
+
+    /**
+     * クラスに付与されたアノテーションを取得する。
+     *
+     * @return アノテーション型の完全修飾名とアノテーションのマッピング
+     */
+    public Map<String, AnnotationInfo> getAnnotations() {
+        return Collections.unmodifiableMap(annotations);
+    }
+
+    /**
+     * クラスに宣言されたメソッド(コンストラクタ及びクラス初期化子を含む)を取得する。
+     *
+     * @return メソッド
+     */
+    public List<MethodInfo> getMethods() {
+        return Collections.unmodifiableList(methods);
+    }
+
+    /**
+     * メソッドを追加する。
+     *
+     * @param method メソッド
+     */
+    void addMethod(MethodInfo method) {
+        methods.add(method);
+    }
+
+    /**
+     * アノテーションを追加する。
+     *
+     * @param annotation アノテーション
+     */
+    void addAnnotation(AnnotationInfo annotation) {
+        annotations.put(annotation.getTypeName(), annotation);
+    }
+}
@@ -0,0 +1,462 @@
+package nablarch.codefirst.classfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * クラスファイルを読み込むクラス。
+ * <p/>
+ * クラスをロード(及び初期化)することなく、クラスファイルのバイト列から
+ * クラス名、スーパクラス名、アクセスフラグ、メソッド及び実行時に参照可能なアノテーションを読み込む。
+ * <p/>
+ * コンスタントプールの文字列は必要になった時点でデコードするため、
+ * {@link #containsUtf8(String)}で読み込み対象外のクラスファイルを判定した場合は、
+ * 文字列のデコードは行われない。
+ * <p/>
+ * 本クラスはスレッドセーフではない。
+ */
+public class ClassFileReader {
+
+    /** クラスファイルのマジックナンバー */
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /** 実行時に参照可能なアノテーションを保持する属性の名前 */
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    /** アノテーション型の要素のデフォルト値を保持する属性の名前 */
+    private static final String ANNOTATION_DEFAULT = "AnnotationDefault";
+
+    /** クラスファイルのバイト列 */
+    private final byte[] bytes;
+
+    /** コンスタントプールの各エントリの開始位置(タグの位置) */
+    private final int[] constantOffsets;
+
+    /** アクセスフラグの位置(コンスタントプールの直後) */
+    private final int headerOffset;
+
+    /** デコード済みの文字列のキャッシュ */
+    private final String[] strings;
+
+    /**
+     * クラスファイルのバイト列を元に、リーダを生成する。
+     *
+     * @param bytes クラスファイルのバイト列
+     */
+    public ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+        if (bytes.length < 10 || readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("invalid class file format.");
+        }
+        final int count = readUnsignedShort(8);
+        constantOffsets = new int[count];
+        strings = new String[count];
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            constantOffsets[i] = offset;
+            final int tag = bytes[offset] & 0xFF;
+            switch (tag) {
+                case 1:     // Utf8
+                    offset += 3 + readUnsignedShort(offset + 1);
+                    break;
+                case 3:     // Integer
+                case 4:     // Float
+                case 9:     // Fieldref
+                case 10:    // Methodref
+                case 11:    // InterfaceMethodref
+                case 12:    // NameAndType
+                case 17:    // Dynamic
+                case 18:    // InvokeDynamic
+                    offset += 5;
+                    break;
+                case 5:     // Long
+                case 6:     // Double
+                    offset += 9;
+                    i++;
+                    break;
+                case 7:     // Class
+                case 8:     // String
+                case 16:    // MethodType
+                case 19:    // Module
+                case 20:    // Package
+                    offset += 3;
+                    break;
+                case 15:    // MethodHandle
+                    offset += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("invalid constant pool tag. tag = [" + tag + ']');
+            }
+        }
+        headerOffset = offset;
+    }
+
+    /**
+     * ストリームからクラスファイルのバイト列を読み込み、リーダを生成する。
+     * <p/>
+     * ストリームはクローズしない。
+     *
+     * @param stream クラスファイルのストリーム
+     * @return リーダ
+     * @throws IOException 入出力例外
+     */
+    public static ClassFileReader read(InputStream stream) throws IOException {
+        byte[] buffer = new byte[4096];
+        int length = 0;
+        int read;
+        while ((read = stream.read(buffer, length, buffer.length - length)) != -1) {
+            length += read;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return new ClassFileReader(length == buffer.length ? buffer : Arrays.copyOf(buffer, length));
+    }
+
+    /**
+     * クラスファイルのバイト列を取得する。
+     *
+     * @return クラスファイルのバイト列
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * コンスタントプールに指定された文字列が含まれるか否かを判定する。
+     * <p/>
+     * 文字列はデコードせずにバイト列のまま比較するため、ASCII文字のみからなる文字列を指定すること。
+     * アノテーション型の記述子(例:{@code Ljavax/persistence/Entity;})を指定することで、
+     * アノテーションの読み込みを行わずに対象外のクラスを除外できる。
+     *
+     * @param value ASCII文字のみからなる文字列
+     * @return 含まれる場合は{@code true}
+     */
+    public boolean containsUtf8(String value) {
+        final int length = value.length();
+        for (int i = 1; i < constantOffsets.length; i++) {
+            final int offset = constantOffsets[i];
+            if (offset == 0 || bytes[offset] != 1 || readUnsignedShort(offset + 1) != length) {
+                continue;
+            }
+            int j = 0;
+            while (j < length && bytes[offset + 3 + j] == value.charAt(j)) {
+                j++;
+            }
+            if (j == length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * クラスの完全修飾名を読み込む。
+     *
+     * @return クラスの完全修飾名
+     */
+    public String readClassName() {
+        return readClass(headerOffset + 2);
+    }
+
+    /**
+     * スーパクラスの完全修飾名を読み込む。
+     *
+     * @return スーパクラスの完全修飾名。{@link Object}の場合は{@code null}
+     */
+    public String readSuperName() {
+        return readClass(headerOffset + 4);
+    }
+
+    /**
+     * クラスファイルを読み込む。
+     *
+     * @return クラスの情報
+     */
+    public ClassFile readClassFile() {
+        int offset = headerOffset;
+        final ClassFile classFile = new ClassFile(readClass(offset + 2), readClass(offset + 4), readUnsignedShort(offset));
+        offset += 8 + readUnsignedShort(offset + 6) * 2;
+        offset = skipMembers(offset);
+
+        final int methodCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < methodCount; i++) {
+            final MethodInfo method = new MethodInfo(
+                    readUtf8(readUnsignedShort(offset + 2)), readUtf8(readUnsignedShort(offset + 4)), readUnsignedShort(offset));
+            final int attributeCount = readUnsignedShort(offset + 6);
+            offset += 8;
+            for (int j = 0; j < attributeCount; j++) {
+                final String name = readUtf8(readUnsignedShort(offset));
+                if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                    for (AnnotationInfo annotation : readAnnotations(offset + 6)) {
+                        method.addAnnotation(annotation);
+                    }
+                } else if (ANNOTATION_DEFAULT.equals(name)) {
+                    method.setDefaultValue(readElementValue(new int[] {offset + 6}));
+                }
+                offset += 6 + readInt(offset + 2);
+            }
+            classFile.addMethod(method);
+        }
+
+        final int attributeCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributeCount; i++) {
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(readUtf8(readUnsignedShort(offset)))) {
+                for (AnnotationInfo annotation : readAnnotations(offset + 6)) {
+                    classFile.addAnnotation(annotation);
+                }
+            }
+            offset += 6 + readInt(offset + 2);
+        }
+        return classFile;
+    }
+
+    /**
+     * 型の記述子を型名に変換する。
+     *
+     * @param descriptor 型の記述子(例:{@code Ljava/lang/String;}、{@code I}、{@code [J})
+     * @return 型名(例:{@code java.lang.String}、{@code int}、{@code long[]})
+     */
+    static String toTypeName(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'D':
+                return "double";
+            case 'F':
+                return "float";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'S':
+                return "short";
+            case 'Z':
+                return "boolean";
+            case 'V':
+                return "void";
+            case '[':
+                return toTypeName(descriptor.substring(1)) + "[]";
+            default:
+                return toClassName(descriptor);
+        }
+    }
+
+    /**
+     * フィールドの定義を読み飛ばす。
+     *
+     * @param offset 定義の数の位置
+     * @return 定義の直後の位置
+     */
+    private int skipMembers(int offset) {
+        final int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset = skipAttributes(offset + 6);
+        }
+        return offset;
+    }
+
+    /**
+     * RuntimeVisibleAnnotations属性のアノテーションを読み込む。
+     *
+     * @param offset 属性の値の位置(アノテーションの数の位置)
+     * @return アノテーション
+     */
+    private AnnotationInfo[] readAnnotations(int offset) {
+        final AnnotationInfo[] annotations = new AnnotationInfo[readUnsignedShort(offset)];
+        final int[] position = {offset + 2};
+        for (int i = 0; i < annotations.length; i++) {
+            annotations[i] = readAnnotation(position);
+        }
+        return annotations;
+    }
+
+    /**
+     * 属性を読み飛ばす。
+     *
+     * @param offset 属性の数の位置
+     * @return 属性の直後の位置
+     */
+    private int skipAttributes(int offset) {
+        final int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset += 6 + readInt(offset + 2);
+        }
+        return offset;
+    }
+
+    /**
+     * アノテーションを読み込む。
+     *
+     * @param position 読み込み位置(読み込み後の位置に更新される)
+     * @return アノテーション
+     */
+    private AnnotationInfo readAnnotation(int[] position) {
+        int offset = position[0];
+        final AnnotationInfo annotation = new AnnotationInfo(toClassName(readUtf8(readUnsignedShort(offset))));
+        final int pairCount = readUnsignedShort(offset + 2);
+        position[0] = offset + 4;
+        for (int i = 0; i < pairCount; i++) {
+            final String name = readUtf8(readUnsignedShort(position[0]));
+            position[0] += 2;
+            annotation.put(name, readElementValue(position));
+        }
+        return annotation;
+    }
+
+    /**
+     * アノテーションの要素の値を読み込む。
+     *
+     * @param position 読み込み位置(読み込み後の位置に更新される)
+     * @return 要素の値
+     */
+    private Object readElementValue(int[] position) {
+        final int offset = position[0];
+        final char tag = (char) (bytes[offset] & 0xFF);
+        position[0] = offset + 3;
+        switch (tag) {
+            case 'B':
+                return (byte) readConstantInt(readUnsignedShort(offset + 1));
+            case 'C':
+                return (char) readConstantInt(readUnsignedShort(offset + 1));
+            case 'S':
+                return (short) readConstantInt(readUnsignedShort(offset + 1));
+            case 'Z':
+                return readConstantInt(readUnsignedShort(offset + 1)) != 0;
+            case 'I':
+                return readConstantInt(readUnsignedShort(offset + 1));
+            case 'F':
+                return Float.intBitsToFloat(readConstantInt(readUnsignedShort(offset + 1)));
+            case 'J':
+                return readConstantLong(readUnsignedShort(offset + 1));
+            case 'D':
+                return Double.longBitsToDouble(readConstantLong(readUnsignedShort(offset + 1)));
+            case 's':
+                return readUtf8(readUnsignedShort(offset + 1));
+            case 'c':
+                return toTypeName(readUtf8(readUnsignedShort(offset + 1)));
+            case 'e':
+                position[0] = offset + 5;
+                return new AnnotationInfo.EnumValue(
+                        toClassName(readUtf8(readUnsignedShort(offset + 1))), readUtf8(readUnsignedShort(offset + 3)));
+            case '@':
+                position[0] = offset + 1;
+                return readAnnotation(position);
+            case '[':
+                final Object[] values = new Object[readUnsignedShort(offset + 1)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = readElementValue(position);
+                }
+                return values;
+            default:
+                throw new IllegalArgumentException("invalid element value tag. tag = [" + tag + ']');
+        }
+    }
+
+    /**
+     * Classエントリが参照するクラスの完全修飾名を読み込む。
+     *
+     * @param offset Classエントリのインデックスの位置
+     * @return クラスの完全修飾名。インデックスが0の場合は{@code null}
+     */
+    private String readClass(int offset) {
+        final int index = readUnsignedShort(offset);
+        if (index == 0) {
+            return null;
+        }
+        return readUtf8(readUnsignedShort(constantOffsets[index] + 1)).replace('/', '.');
+    }
+
+    /**
+     * Utf8エントリの文字列を読み込む。
+     * <p/>
+     * クラスファイルの文字列は修正UTF-8で符号化されている。
+     *
+     * @param index Utf8エントリのインデックス
+     * @return 文字列
+     */
+    private String readUtf8(int index) {
+        String value = strings[index];
+        if (value != null) {
+            return value;
+        }
+        final int offset = constantOffsets[index];
+        final int length = readUnsignedShort(offset + 1);
+        final char[] chars = new char[length];
+        int count = 0;
+        int i = offset + 3;
+        final int end = i + length;
+        while (i < end) {
+            final int c = bytes[i++] & 0xFF;
+            if (c < 0x80) {
+                chars[count++] = (char) c;
+            } else if (c < 0xE0) {
+                chars[count++] = (char) (((c & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((c & 0x0F) << 12) | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F));
+            }
+        }
+        value = new String(chars, 0, count);
+        strings[index] = value;
+        return value;
+    }
+
+    /**
+     * Integerエントリ(Byte、Char、Short及びBooleanを含む)の値を読み込む。
+     *
+     * @param index エントリのインデックス
+     * @return 値
+     */
+    private int readConstantInt(int index) {
+        return readInt(constantOffsets[index] + 1);
+    }
+
+    /**
+     * Longエントリ(Doubleを含む)の値を読み込む。
+     *
+     * @param index エントリのインデックス
+     * @return 値
+     */
+    private long readConstantLong(int index) {
+        final int offset = constantOffsets[index] + 1;
+        return ((long) readInt(offset) << 32) | (readInt(offset + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 型の記述子(例:{@code Ljava/lang/String;})をクラスの完全修飾名に変換する。
+     *
+     * @param descriptor 型の記述子
+     * @return クラスの完全修飾名
+     */
+    private static String toClassName(String descriptor) {
+        return descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+    }
+
+    /**
+     * 符号なし2バイト整数を読み込む。
+     *
+     * @param offset 位置
+     * @return 値
+     */
+    private int readUnsignedShort(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    /**
+     * 4バイト整数を読み込む。
+     *
+     * @param offset 位置
+     * @return 値
+     */
+    private int readInt(int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
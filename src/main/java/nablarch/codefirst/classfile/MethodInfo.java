@@ -0,0 +1,139 @@
+package nablarch.codefirst.classfile;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * クラスファイルから読み込んだメソッドの情報を保持するクラス。
+ */
+public class MethodInfo {
+
+    /** publicを表すアクセスフラグ */
+    static final int ACC_PUBLIC = 0x0001;
+
+    /** staticを表すアクセスフラグ */
+    static final int ACC_STATIC = 0x0008;
+
+    /** ブリッジメソッドを表すアクセスフラグ */
+    static final int ACC_BRIDGE = 0x0040;
+
+    /** コンパイラが生成したメソッドを表すアクセスフラグ */
+    static final int ACC_SYNTHETIC = 0x1000;
+
+    /** メソッド名 */
+    private final String name;
+
+    /** メソッドの記述子(例:{@code ()Ljava/lang/String;}) */
+    private final String descriptor;
+
+    /** アクセスフラグ */
+    private final int access;
+
+    /** アノテーション型の完全修飾名とアノテーションのマッピング */
+    private final Map<String, AnnotationInfo> annotations = new LinkedHashMap<String, AnnotationInfo>();
+
+    /** アノテーション型の要素のデフォルト値 */
+    private Object defaultValue;
+
+    /**
+     * メソッドの情報を生成する。
+     *
+     * @param name メソッド名
+     * @param descriptor メソッドの記述子
+     * @param access アクセスフラグ
+     */
+    MethodInfo(String name, String descriptor, int access) {
+        this.name = name;
+        this.descriptor = descriptor;
+        this.access = access;
+    }
+
+    /**
+     * メソッド名を取得する。
+     *
+     * @return メソッド名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * メソッドの記述子を取得する。
+     *
+     * @return メソッドの記述子
+     */
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * ソースコードに宣言された、publicかつstaticでないメソッドか否かを判定する。
+     * <p/>
+     * ブリッジメソッドなどのコンパイラが生成したメソッドは対象外とする。
+     *
+     * @return publicかつstaticでなく、コンパイラが生成したメソッドでない場合は{@code true}
+     */
+    public boolean isPublicInstanceMethod() {
+        return (access & ACC_PUBLIC) != 0 && (access & (ACC_STATIC | ACC_BRIDGE | ACC_SYNTHETIC)) == 0;
+    }
+
+    /**
+     * 引数を持たないメソッドの戻り値の型を取得する。
+     *
+     * @return 戻り値の型の完全修飾名(プリミティブ型の場合は型名、配列の場合は要素の型名に{@code []}を付与したもの)。
+     *         引数を持つメソッド又は戻り値が{@code void}のメソッドの場合は{@code null}
+     */
+    public String getNoArgReturnTypeName() {
+        if (!descriptor.startsWith("()") || descriptor.equals("()V")) {
+            return null;
+        }
+        return ClassFileReader.toTypeName(descriptor.substring(2));
+    }
+
+    /**
+     * メソッドに付与されたアノテーションを取得する。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     * @return アノテーション。付与されていない場合は{@code null}
+     */
+    public AnnotationInfo getAnnotation(String typeName) {
+        return annotations.get(typeName);
+    }
+
+    /**
+     * メソッドに付与されたアノテーションを取得する。
+     *
+     * @return アノテーション型の完全修飾名とアノテーションのマッピング
+     */
+    public Map<String, AnnotationInfo> getAnnotations() {
+        return Collections.unmodifiableMap(annotations);
+    }
+
+    /**
+     * アノテーション型の要素のデフォルト値を取得する。
+     *
+     * @return デフォルト値。アノテーション型の要素でない場合やデフォルト値が定義されていない場合は{@code null}
+     */
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * アノテーションを追加する。
+     *
+     * @param annotation アノテーション
+     */
+    void addAnnotation(AnnotationInfo annotation) {
+        annotations.put(annotation.getTypeName(), annotation);
+    }
+
+    /**
+     * アノテーション型の要素のデフォルト値を設定する。
+     *
+     * @param defaultValue デフォルト値
+     */
+    void setDefaultValue(Object defaultValue) {
+        this.defaultValue = defaultValue;
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * クラスをロードせずに、クラスファイルの内容を読み込む機能を提供する。
+ */
+package nablarch.codefirst.classfile;
@@ -0,0 +1,205 @@
+package nablarch.codefirst.control;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Beanクラスやプロパティに付与されたアノテーションの要素の値を保持するクラス。
+ * <p/>
+ * リフレクション及びクラスファイルのいずれから読み込んだ場合も同じ形式で値を保持するため、
+ * 要素の値は以下の形式に正規化する。
+ * <ul>
+ *     <li>プリミティブ型及び{@link String}:対応するラッパー型又は{@link String}</li>
+ *     <li>列挙型:列挙定数の名前({@link String})</li>
+ *     <li>{@link Class}:型名({@link String})</li>
+ *     <li>アノテーション:{@link AnnotationValues}</li>
+ *     <li>配列:{@code Object[]}</li>
+ * </ul>
+ */
+public class AnnotationValues {
+
+    /** アノテーション型の完全修飾名 */
+    private final String typeName;
+
+    /** 要素名と値のマッピング */
+    private final Map<String, Object> values;
+
+    /**
+     * アノテーションの要素の値を生成する。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     * @param values 要素名と値(正規化済み)のマッピング
+     * @see ClassFileBeanMetadata
+     */
+    public AnnotationValues(String typeName, Map<String, Object> values) {
+        this.typeName = typeName;
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<String, Object>(values));
+    }
+
+    /**
+     * リフレクションで取得したアノテーションから、要素の値を生成する。
+     * <p/>
+     * 明示的に指定されていない要素は、デフォルト値を保持する。
+     *
+     * @param annotation アノテーション
+     * @return アノテーションの要素の値
+     */
+    public static AnnotationValues of(Annotation annotation) {
+        final Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Method method : annotation.annotationType().getDeclaredMethods()) {
+            if (method.getParameterTypes().length != 0) {
+                continue;
+            }
+            try {
+                values.put(method.getName(), normalize(method.invoke(annotation)));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return new AnnotationValues(annotation.annotationType().getName(), values);
+    }
+
+    /**
+     * アノテーション型の完全修飾名を取得する。
+     *
+     * @return アノテーション型の完全修飾名
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * 要素の値を取得する。
+     *
+     * @param name 要素名
+     * @return 要素の値。値が存在しない場合は{@code null}
+     */
+    public Object get(String name) {
+        return values.get(name);
+    }
+
+    /**
+     * 文字列(列挙定数の名前及び型名を含む)の要素の値を取得する。
+     *
+     * @param name 要素名
+     * @return 要素の値。値が存在しない場合は{@code null}
+     */
+    public String getString(String name) {
+        final Object value = values.get(name);
+        return value == null ? null : String.valueOf(value);
+    }
+
+    /**
+     * 文字列の配列の要素の値を取得する。
+     *
+     * @param name 要素名
+     * @return 要素の値。値が存在しない場合は空の配列
+     */
+    public String[] getStringArray(String name) {
+        final Object[] value = (Object[]) values.get(name);
+        if (value == null) {
+            return new String[0];
+        }
+        final String[] result = new String[value.length];
+        for (int i = 0; i < value.length; i++) {
+            result[i] = String.valueOf(value[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 数値の要素の値を取得する。
+     *
+     * @param name 要素名
+     * @param defaultValue 値が存在しない場合に返す値
+     * @return 要素の値
+     */
+    public int getInt(String name, int defaultValue) {
+        final Object value = values.get(name);
+        return value == null ? defaultValue : ((Number) value).intValue();
+    }
+
+    /**
+     * 真偽値の要素の値を取得する。
+     *
+     * @param name 要素名
+     * @param defaultValue 値が存在しない場合に返す値
+     * @return 要素の値
+     */
+    public boolean getBoolean(String name, boolean defaultValue) {
+        final Object value = values.get(name);
+        return value == null ? defaultValue : (Boolean) value;
+    }
+
+    /**
+     * 文字の要素の値を取得する。
+     *
+     * @param name 要素名
+     * @param defaultValue 値が存在しない場合に返す値
+     * @return 要素の値
+     */
+    public char getChar(String name, char defaultValue) {
+        final Object value = values.get(name);
+        return value == null ? defaultValue : (Character) value;
+    }
+
+    /**
+     * アノテーションの配列の要素の値を取得する。
+     *
+     * @param name 要素名
+     * @return 要素の値。値が存在しない場合は空の配列
+     */
+    public AnnotationValues[] getAnnotationArray(String name) {
+        final Object[] value = (Object[]) values.get(name);
+        if (value == null) {
+            return new AnnotationValues[0];
+        }
+        final AnnotationValues[] result = new AnnotationValues[value.length];
+        for (int i = 0; i < value.length; i++) {
+            result[i] = (AnnotationValues) value[i];
+        }
+        return result;
+    }
+
+    /**
+     * 要素名と値のマッピングを取得する。
+     *
+     * @return 要素名と値のマッピング
+     */
+    public Map<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * 要素の値を正規化する。
+     *
+     * @param value 要素の値
+     * @return 正規化した値
+     */
+    private static Object normalize(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        }
+        if (value instanceof Annotation) {
+            return of((Annotation) value);
+        }
+        if (value != null && value.getClass().isArray()) {
+            final Object[] result = new Object[Array.getLength(value)];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = normalize(Array.get(value, i));
+            }
+            return result;
+        }
+        return value;
+    }
+}
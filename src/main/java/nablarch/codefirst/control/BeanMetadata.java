@@ -0,0 +1,65 @@
+package nablarch.codefirst.control;
+
+import java.util.List;
+
+/**
+ * コントロールファイルの生成に必要な、Beanクラスのメタデータを提供するインタフェース。
+ * <p/>
+ * 実装クラスにより、メタデータの取得元(リフレクション、クラスファイルなど)が異なる。
+ * いずれの実装クラスも、Nablarchのデータバインド及びユニバーサルDAOと同じ規約でメタデータを提供する。
+ *
+ * @see ReflectionBeanMetadata
+ * @see ClassFileBeanMetadata
+ */
+public interface BeanMetadata {
+
+    /**
+     * Beanクラスの完全修飾名を取得する。
+     *
+     * @return Beanクラスの完全修飾名
+     */
+    String getClassName();
+
+    /**
+     * Beanクラスの単純名を取得する。
+     *
+     * @return Beanクラスの単純名
+     */
+    String getSimpleName();
+
+    /**
+     * Beanクラスが{@code nablarch.etl.WorkItem}を継承しているか否かを判定する。
+     *
+     * @return 継承している場合は{@code true}
+     */
+    boolean isWorkItem();
+
+    /**
+     * スキーマ名で修飾したテーブル名を取得する。
+     *
+     * @return テーブル名
+     */
+    String getTableNameWithSchema();
+
+    /**
+     * CSVファイルのフォーマットを取得する。
+     *
+     * @return CSVファイルのフォーマット。{@code @Csv}が付与されていない場合は{@code null}
+     */
+    CsvLayout getCsvLayout();
+
+    /**
+     * Beanクラスに付与されたアノテーションを取得する。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     * @return アノテーション。付与されていない場合は{@code null}
+     */
+    AnnotationValues getAnnotation(String typeName);
+
+    /**
+     * テーブルのカラムに対応するプロパティのメタデータを取得する。
+     *
+     * @return プロパティのメタデータ
+     */
+    List<PropertyMetadata> getProperties();
+}
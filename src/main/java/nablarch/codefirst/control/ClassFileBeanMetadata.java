@@ -0,0 +1,459 @@
+package nablarch.codefirst.control;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nablarch.codefirst.classfile.AnnotationInfo;
+import nablarch.codefirst.classfile.ClassFile;
+import nablarch.codefirst.classfile.ClassFileReader;
+import nablarch.codefirst.classfile.MethodInfo;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.core.util.FileUtil;
+
+/**
+ * クラスファイルを直接読み込み、Beanクラスをロードせずにメタデータを取得する{@link BeanMetadata}実装クラス。
+ * <p/>
+ * Beanクラスのロード及び初期化を行わないため、{@link ReflectionBeanMetadata}に比べて
+ * クラスロードのコストやヒープの使用量を抑えることができる。
+ * テーブル名、カラム及びCSVファイルのフォーマットは、ユニバーサルDAO及びデータバインドと同じ規約で導出する。
+ * <p/>
+ * クラスファイルから導出できないBeanクラスの場合、{@link #create(String, ClassLoader)}は{@code null}を返す。
+ * この場合は{@link ReflectionBeanMetadata}を使用すること。
+ */
+public class ClassFileBeanMetadata implements BeanMetadata {
+
+    /** WorkItemの完全修飾名 */
+    private static final String WORK_ITEM = "nablarch.etl.WorkItem";
+
+    /** {@code @Csv}の完全修飾名 */
+    static final String CSV = "nablarch.common.databind.csv.Csv";
+
+    /** {@code @CsvFormat}の完全修飾名 */
+    static final String CSV_FORMAT = "nablarch.common.databind.csv.CsvFormat";
+
+    /** {@code @Entity}の完全修飾名 */
+    static final String ENTITY = "javax.persistence.Entity";
+
+    /** {@code @Table}の完全修飾名 */
+    static final String TABLE = "javax.persistence.Table";
+
+    /** {@code @Column}の完全修飾名 */
+    static final String COLUMN = "javax.persistence.Column";
+
+    /** {@code @Transient}の完全修飾名 */
+    static final String TRANSIENT = "javax.persistence.Transient";
+
+    /** {@code @LineNumber}の完全修飾名 */
+    static final String LINE_NUMBER = "nablarch.common.databind.LineNumber";
+
+    /** {@code @FixedLength}の完全修飾名 */
+    static final String FIXED_LENGTH = "nablarch.common.databind.fixedlength.FixedLength";
+
+    /** {@code @Field}(固定長ファイルのフィールド定義)の完全修飾名 */
+    static final String FIELD = "nablarch.common.databind.fixedlength.Field";
+
+    /** {@code @Temporal}の完全修飾名 */
+    static final String TEMPORAL = "javax.persistence.Temporal";
+
+    /**
+     * クラスローダごとの、アノテーション型の完全修飾名と要素のデフォルト値のキャッシュ。
+     * <p/>
+     * 同じ完全修飾名のアノテーション型でもクラスローダによってデフォルト値が異なる可能性があるため、クラスローダごとに保持する。
+     * 不要になったクラスローダを解放できるように、クラスローダは弱参照で保持する。
+     */
+    private static final Map<ClassLoader, ConcurrentMap<String, Map<String, Object>>> DEFAULTS_CACHE =
+            new WeakHashMap<ClassLoader, ConcurrentMap<String, Map<String, Object>>>();
+
+    /** Beanクラスから{@link Object}の直前のスーパクラスまでのクラスファイル */
+    private final List<ClassFile> hierarchy;
+
+    /** クラスファイルの読み込みに使用するクラスローダ */
+    private final ClassLoader classLoader;
+
+    /**
+     * Beanクラスのメタデータを生成する。
+     *
+     * @param hierarchy Beanクラスから{@link Object}の直前のスーパクラスまでのクラスファイル
+     * @param classLoader クラスファイルの読み込みに使用するクラスローダ
+     */
+    private ClassFileBeanMetadata(List<ClassFile> hierarchy, ClassLoader classLoader) {
+        this.hierarchy = hierarchy;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * クラスローダのリソースとしてクラスファイルを読み込み、Beanクラスのメタデータを生成する。
+     * <p/>
+     * 以下の場合は、クラスファイルからメタデータを導出できないため{@code null}を返す。
+     * <ul>
+     *     <li>Beanクラス又はスーパクラスのクラスファイルがリソースとして取得できない場合</li>
+     *     <li>{@code @Csv}(又は{@code @FixedLength})若しくは{@code @Entity}がBeanクラス自身に付与されていない場合(スーパクラスから継承している場合を含む)</li>
+     * </ul>
+     *
+     * @param className Beanクラスの完全修飾名
+     * @param classLoader クラスファイルの読み込みに使用するクラスローダ
+     * @return Beanクラスのメタデータ。クラスファイルから導出できない場合は{@code null}
+     */
+    public static ClassFileBeanMetadata create(String className, ClassLoader classLoader) {
+        final List<ClassFile> hierarchy = new ArrayList<ClassFile>();
+        for (String name = className; name != null && !"java.lang.Object".equals(name); ) {
+            final ClassFile classFile = read(name, classLoader);
+            if (classFile == null) {
+                return null;
+            }
+            hierarchy.add(classFile);
+            name = classFile.getSuperName();
+        }
+        if (hierarchy.isEmpty()) {
+            return null;
+        }
+        final ClassFile bean = hierarchy.get(0);
+        if ((bean.getAnnotation(CSV) == null && bean.getAnnotation(FIXED_LENGTH) == null) || bean.getAnnotation(ENTITY) == null) {
+            return null;
+        }
+        return new ClassFileBeanMetadata(hierarchy, classLoader);
+    }
+
+    @Override
+    public String getClassName() {
+        return hierarchy.get(0).getName();
+    }
+
+    @Override
+    public String getSimpleName() {
+        final String name = getClassName();
+        return name.substring(Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1);
+    }
+
+    @Override
+    public boolean isWorkItem() {
+        for (ClassFile classFile : hierarchy) {
+            if (WORK_ITEM.equals(classFile.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getTableNameWithSchema() {
+        return deriveTableNameWithSchema(this);
+    }
+
+    @Override
+    public CsvLayout getCsvLayout() {
+        return deriveCsvLayout(this);
+    }
+
+    /**
+     * {@code @Table}とBeanクラスの単純名から、ユニバーサルDAOと同じ規約でスキーマ名で修飾したテーブル名を導出する。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @return テーブル名
+     */
+    static String deriveTableNameWithSchema(BeanMetadata metadata) {
+        final AnnotationValues table = metadata.getAnnotation(TABLE);
+        String tableName = table == null ? null : table.getString("name");
+        if (tableName == null || tableName.length() == 0) {
+            tableName = deCamelize(metadata.getSimpleName());
+        }
+        final String schema = table == null ? null : table.getString("schema");
+        return schema == null || schema.length() == 0 ? tableName : schema + '.' + tableName;
+    }
+
+    /**
+     * {@code @Csv}及び{@code @CsvFormat}から、データバインドと同じ規約でCSVファイルのフォーマットを導出する。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @return CSVファイルのフォーマット。{@code @Csv}が付与されていない場合は{@code null}
+     */
+    static CsvLayout deriveCsvLayout(BeanMetadata metadata) {
+        final AnnotationValues csv = metadata.getAnnotation(CSV);
+        if (csv == null) {
+            return null;
+        }
+        final String type = csv.getString("type");
+        if ("CUSTOM".equals(type)) {
+            final AnnotationValues format = metadata.getAnnotation(CSV_FORMAT);
+            if (format == null) {
+                throw new IllegalStateException("CsvFormat annotation is required for CUSTOM type. class = ["
+                        + metadata.getClassName() + ']');
+            }
+            return new CsvLayout(
+                    Charset.forName(format.getString("charset")).name(),
+                    format.getChar("fieldSeparator", ','),
+                    format.getString("lineSeparator"),
+                    format.getChar("quote", '"'),
+                    format.getBoolean("requiredHeader", true));
+        }
+        final CsvDataBindConfig config = getPredefinedConfig(type);
+        return new CsvLayout(config.getCharset().name(), config.getFieldSeparator(), config.getLineSeparator(),
+                config.getQuote(), config.isRequiredHeader());
+    }
+
+    @Override
+    public AnnotationValues getAnnotation(String typeName) {
+        final AnnotationInfo annotation = hierarchy.get(0).getAnnotation(typeName);
+        return annotation == null ? null : toAnnotationValues(annotation);
+    }
+
+    @Override
+    public List<PropertyMetadata> getProperties() {
+        // サブクラスのgetterを優先するため、Beanクラスからスーパクラスの順に検索する
+        final Map<String, MethodInfo> getters = new LinkedHashMap<String, MethodInfo>();
+        for (ClassFile classFile : hierarchy) {
+            for (MethodInfo method : classFile.getMethods()) {
+                final String propertyName = toPropertyName(method);
+                if (propertyName != null && !getters.containsKey(propertyName)) {
+                    getters.put(propertyName, method);
+                }
+            }
+        }
+
+        final List<PropertyMetadata> properties = new ArrayList<PropertyMetadata>();
+        for (Map.Entry<String, MethodInfo> getter : getters.entrySet()) {
+            final MethodInfo method = getter.getValue();
+            if (method.getAnnotation(TRANSIENT) != null) {
+                continue;
+            }
+            final List<AnnotationValues> annotations = new ArrayList<AnnotationValues>();
+            for (AnnotationInfo annotation : method.getAnnotations().values()) {
+                annotations.add(toAnnotationValues(annotation));
+            }
+            final AnnotationInfo column = method.getAnnotation(COLUMN);
+            final Object columnName = column == null ? null : column.get("name");
+            final String typeName = method.getNoArgReturnTypeName();
+            final AnnotationInfo temporal = method.getAnnotation(TEMPORAL);
+            properties.add(new PropertyMetadata(
+                    getter.getKey(),
+                    columnName == null || "".equals(columnName) ? deCamelize(getter.getKey()) : (String) columnName,
+                    typeName,
+                    toJdbcTypeName(typeName, temporal == null ? null : String.valueOf(temporal.get("value"))),
+                    method.getAnnotation(LINE_NUMBER) != null,
+                    annotations));
+        }
+        return properties;
+    }
+
+    /**
+     * カラムのJDBCの型名を導出する。
+     * <p/>
+     * {@code @Temporal}が付与されている場合は、指定された{@code TemporalType}に対応する型名を返す。
+     *
+     * @param typeName プロパティの型名
+     * @param temporalType {@code @Temporal}に指定された{@code TemporalType}の名前。付与されていない場合は{@code null}
+     * @return カラムのJDBCの型名
+     */
+    static String toJdbcTypeName(String typeName, String temporalType) {
+        if (temporalType == null) {
+            return typeName;
+        }
+        if ("DATE".equals(temporalType)) {
+            return "java.sql.Date";
+        }
+        if ("TIME".equals(temporalType)) {
+            return "java.sql.Time";
+        }
+        return "java.sql.Timestamp";
+    }
+
+    /**
+     * getterのメソッドからプロパティ名を導出する。
+     *
+     * @param method メソッド
+     * @return プロパティ名。getterでない場合は{@code null}
+     */
+    private static String toPropertyName(MethodInfo method) {
+        if (!method.isPublicInstanceMethod()) {
+            return null;
+        }
+        return toPropertyName(method.getName(), method.getNoArgReturnTypeName());
+    }
+
+    /**
+     * getterのメソッド名と戻り値の型名からプロパティ名を導出する。
+     *
+     * @param name メソッド名
+     * @param returnType 引数を持たないメソッドの戻り値の型名。引数を持つメソッド及び戻り値を持たないメソッドの場合は{@code null}
+     * @return プロパティ名。getterでない場合は{@code null}
+     */
+    static String toPropertyName(String name, String returnType) {
+        if (returnType == null) {
+            return null;
+        }
+        if (name.startsWith("get") && name.length() > 3) {
+            return decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2 && "boolean".equals(returnType)) {
+            return decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    /**
+     * {@link java.beans.Introspector#decapitalize(String)}と同じ規約で、先頭の文字を小文字に変換する。
+     *
+     * @param name 名前
+     * @return 変換後の名前
+     */
+    private static String decapitalize(String name) {
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1)) && Character.isUpperCase(name.charAt(0))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * キャメルケースの名前を、大文字のスネークケースに変換する。
+     * <p/>
+     * ユニバーサルDAOがアノテーションで名前が指定されていないテーブル名及びカラム名を導出する際の規約と同じ変換を行う。
+     *
+     * @param name キャメルケースの名前(例:{@code personId})
+     * @return スネークケースの名前(例:{@code PERSON_ID})
+     */
+    static String deCamelize(String name) {
+        final StringBuilder builder = new StringBuilder(name.length() + 8);
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (i != 0 && Character.isUpperCase(c)) {
+                builder.append('_');
+            }
+            builder.append(Character.toUpperCase(c));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 定義済みのフォーマット種別に対応する{@link CsvDataBindConfig}を取得する。
+     *
+     * @param type フォーマット種別
+     * @return {@link CsvDataBindConfig}
+     */
+    private static CsvDataBindConfig getPredefinedConfig(String type) {
+        if ("DEFAULT".equals(type)) {
+            return CsvDataBindConfig.DEFAULT;
+        } else if ("RFC4180".equals(type)) {
+            return CsvDataBindConfig.RFC4180;
+        } else if ("EXCEL".equals(type)) {
+            return CsvDataBindConfig.EXCEL;
+        } else if ("TSV".equals(type)) {
+            return CsvDataBindConfig.TSV;
+        }
+        throw new IllegalStateException("unsupported csv type. type = [" + type + ']');
+    }
+
+    /**
+     * クラスファイルから読み込んだアノテーションを、デフォルト値を補完した{@link AnnotationValues}に変換する。
+     *
+     * @param annotation クラスファイルから読み込んだアノテーション
+     * @return アノテーションの要素の値
+     */
+    private AnnotationValues toAnnotationValues(AnnotationInfo annotation) {
+        final Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, Object> entry : getDefaults(annotation.getTypeName()).entrySet()) {
+            values.put(entry.getKey(), normalize(entry.getValue()));
+        }
+        for (Map.Entry<String, Object> entry : annotation.getValues().entrySet()) {
+            values.put(entry.getKey(), normalize(entry.getValue()));
+        }
+        return new AnnotationValues(annotation.getTypeName(), values);
+    }
+
+    /**
+     * クラスファイルから読み込んだ要素の値を、{@link AnnotationValues}の形式に正規化する。
+     *
+     * @param value 要素の値
+     * @return 正規化した値
+     */
+    private Object normalize(Object value) {
+        if (value instanceof AnnotationInfo.EnumValue) {
+            return ((AnnotationInfo.EnumValue) value).getConstantName();
+        }
+        if (value instanceof AnnotationInfo) {
+            return toAnnotationValues((AnnotationInfo) value);
+        }
+        if (value instanceof Object[]) {
+            final Object[] array = (Object[]) value;
+            final Object[] result = new Object[array.length];
+            for (int i = 0; i < array.length; i++) {
+                result[i] = normalize(array[i]);
+            }
+            return result;
+        }
+        return value;
+    }
+
+    /**
+     * アノテーション型のクラスファイルから、要素のデフォルト値を取得する。
+     * <p/>
+     * アノテーション型のクラスファイルが取得できない場合は、空のマッピングを返す。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     * @return 要素名とデフォルト値のマッピング
+     */
+    private Map<String, Object> getDefaults(String typeName) {
+        final ConcurrentMap<String, Map<String, Object>> cache = getDefaultsCache();
+        final Map<String, Object> cached = cache.get(typeName);
+        if (cached != null) {
+            return cached;
+        }
+        final ClassFile classFile = read(typeName, classLoader);
+        if (classFile == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, Object> defaults = new LinkedHashMap<String, Object>();
+        for (MethodInfo method : classFile.getMethods()) {
+            if (method.getDefaultValue() != null) {
+                defaults.put(method.getName(), method.getDefaultValue());
+            }
+        }
+        cache.putIfAbsent(typeName, defaults);
+        return defaults;
+    }
+
+    /**
+     * クラスファイルの読み込みに使用するクラスローダの、アノテーション型の要素のデフォルト値のキャッシュを取得する。
+     *
+     * @return アノテーション型の完全修飾名と要素のデフォルト値のキャッシュ
+     */
+    private ConcurrentMap<String, Map<String, Object>> getDefaultsCache() {
+        synchronized (DEFAULTS_CACHE) {
+            ConcurrentMap<String, Map<String, Object>> cache = DEFAULTS_CACHE.get(classLoader);
+            if (cache == null) {
+                cache = new ConcurrentHashMap<String, Map<String, Object>>();
+                DEFAULTS_CACHE.put(classLoader, cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * クラスローダのリソースとしてクラスファイルを読み込む。
+     *
+     * @param className クラスの完全修飾名
+     * @param classLoader クラスローダ
+     * @return クラスファイル。存在しない場合は{@code null}
+     */
+    private static ClassFile read(String className, ClassLoader classLoader) {
+        final InputStream stream = classLoader.getResourceAsStream(className.replace('.', '/') + ".class");
+        if (stream == null) {
+            return null;
+        }
+        try {
+            return ClassFileReader.read(stream).readClassFile();
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to read class file. class = [" + className + ']', e);
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+    }
+}
@@ -16,6 +16,9 @@ public class ControlDefinition {
     /** 文字コード */
     private String charset;
 
+    /** データファイルの文字コード(Javaの文字セット名。例:{@code UTF-8}) */
+    private String encoding;
+
     /** テーブル名 */
     private String tableName;
 
@@ -31,6 +34,39 @@ public class ControlDefinition {
     /** カラム名のリスト */
     private List<String> columnNames = new ArrayList<String>();
 
+    /** フィールド指定のリスト */
+    private List<FieldDefinition> fields = new ArrayList<FieldDefinition>();
+
+    /** 固定長ファイルか否か */
+    private boolean fixedLength;
+
+    /** 固定長ファイルのレコード長(行区切り文字を含むバイト長) */
+    private int recordSize;
+
+    /** ロード方法(例:{@code TRUNCATE}、{@code APPEND}) */
+    private String loadMethod = "TRUNCATE";
+
+    /** ロード先のパーティション名 */
+    private String partition;
+
+    /** Beanクラスの単純名 */
+    private String beanName;
+
+    /** セッションごとのロード先のパーティション名(パーティションを指定しない場合は要素が{@code null}) */
+    private List<String> sessionPartitions = new ArrayList<String>();
+
+    /** セッションごとのデータファイルにヘッダ行が含まれるか否か */
+    private boolean headerInEachSession = true;
+
+    /** ロードオプション */
+    private LoadOptions loadOptions = new LoadOptions();
+
+    /** {@code WHEN}句の条件(条件を指定しない場合は{@code null}) */
+    private String condition;
+
+    /** {@code INTO TABLE}句ごとの定義(1つのテーブルにロードする場合は空) */
+    private List<ControlDefinition> tables = new ArrayList<ControlDefinition>();
+
     /**
      * ヘッダ有無を取得する。
      * @return ヘッダ有無
@@ -63,6 +99,22 @@ public class ControlDefinition {
         this.charset = charset;
     }
 
+    /**
+     * データファイルの文字コードを取得する。
+     * @return Javaの文字セット名(例:{@code UTF-8}、{@code windows-31j})
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * データファイルの文字コードを設定する。
+     * @param encoding Javaの文字セット名
+     */
+    public void setEncoding(String encoding) {
+        this.encoding = encoding;
+    }
+
     /**
      * テーブル名を取得する。
      * @return テーブル名
@@ -142,4 +194,268 @@ public class ControlDefinition {
     public void setColumnNames(List<String> columnNames) {
         this.columnNames = columnNames;
     }
+
+    /**
+     * フィールド指定のリストを取得する。
+     * <p/>
+     * カラム名のリストと同じ順序で、カラムごとのデータ型を保持する。
+     * @return フィールド指定のリスト
+     */
+    public List<FieldDefinition> getFields() {
+        return fields;
+    }
+
+    /**
+     * フィールド指定のリストを設定する。
+     * @param fields フィールド指定のリスト
+     */
+    public void setFields(List<FieldDefinition> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * 固定長ファイルか否かを取得する。
+     * @return 固定長ファイルの場合は{@code true}
+     */
+    public boolean isFixedLength() {
+        return fixedLength;
+    }
+
+    /**
+     * 固定長ファイルか否かを設定する。
+     * @param fixedLength 固定長ファイルか否か
+     */
+    public void setFixedLength(boolean fixedLength) {
+        this.fixedLength = fixedLength;
+    }
+
+    /**
+     * 固定長ファイルのレコード長を取得する。
+     * @return 固定長ファイルのレコード長(行区切り文字を含むバイト長)
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * 固定長ファイルのレコード長を設定する。
+     * @param recordSize 固定長ファイルのレコード長(行区切り文字を含むバイト長)
+     */
+    public void setRecordSize(int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * ロード方法を取得する。
+     * @return ロード方法
+     */
+    public String getLoadMethod() {
+        return loadMethod;
+    }
+
+    /**
+     * ロード方法を設定する。
+     * @param loadMethod ロード方法
+     */
+    public void setLoadMethod(String loadMethod) {
+        this.loadMethod = loadMethod;
+    }
+
+    /**
+     * ロード先のパーティション名を取得する。
+     * @return ロード先のパーティション名。パーティションを指定しない場合は{@code null}
+     */
+    public String getPartition() {
+        return partition;
+    }
+
+    /**
+     * ロード先のパーティション名を設定する。
+     * @param partition ロード先のパーティション名
+     */
+    public void setPartition(String partition) {
+        this.partition = partition;
+    }
+
+    /**
+     * セッションごとのロード先のパーティション名を取得する。
+     * <p/>
+     * 要素数がセッション数となる。空の場合は、セッションごとのコントロールファイルを生成しない。
+     * @return セッションごとのロード先のパーティション名(パーティションを指定しない場合は要素が{@code null})
+     */
+    public List<String> getSessionPartitions() {
+        return sessionPartitions;
+    }
+
+    /**
+     * セッションごとのロード先のパーティション名を設定する。
+     * @param sessionPartitions セッションごとのロード先のパーティション名
+     */
+    public void setSessionPartitions(List<String> sessionPartitions) {
+        this.sessionPartitions = sessionPartitions;
+    }
+
+    /**
+     * セッションごとのデータファイルにヘッダ行が含まれるか否かを取得する。
+     *
+     * @return セッションごとのデータファイルにヘッダ行が含まれる場合は{@code true}
+     */
+    public boolean isHeaderInEachSession() {
+        return headerInEachSession;
+    }
+
+    /**
+     * セッションごとのデータファイルにヘッダ行が含まれるか否かを設定する。
+     *
+     * @param headerInEachSession セッションごとのデータファイルにヘッダ行が含まれる場合は{@code true}
+     */
+    public void setHeaderInEachSession(boolean headerInEachSession) {
+        this.headerInEachSession = headerInEachSession;
+    }
+
+    /**
+     * 指定されたセッションのコントロールファイルの定義を生成する。
+     * <p/>
+     * 本オブジェクトの設定を引き継ぎ、ロード方法を{@code APPEND}、{@code PARALLEL}を{@code TRUE}とする。
+     * ヘッダ行の読み飛ばしは、セッションごとのデータファイルにヘッダ行が含まれる場合は全セッション、
+     * 含まれない場合は1番目のセッションのみとする。
+     *
+     * @param sessionNumber セッション番号(1始まり)
+     * @return 指定されたセッションのコントロールファイルの定義
+     */
+    public ControlDefinition forSession(int sessionNumber) {
+        final ControlDefinition session = copy();
+        session.requiredHeader = requiredHeader && (headerInEachSession || sessionNumber == 1);
+        session.loadMethod = "APPEND";
+        session.partition = sessionPartitions.get(sessionNumber - 1);
+        session.sessionPartitions = new ArrayList<String>();
+        session.loadOptions = loadOptions.override(null);
+        session.loadOptions.setParallel(Boolean.TRUE);
+        return session;
+    }
+
+    /**
+     * Beanクラスの単純名を取得する。
+     * @return Beanクラスの単純名
+     */
+    public String getBeanName() {
+        return beanName;
+    }
+
+    /**
+     * Beanクラスの単純名を設定する。
+     * @param beanName Beanクラスの単純名
+     */
+    public void setBeanName(String beanName) {
+        this.beanName = beanName;
+    }
+
+    /**
+     * ロードオプションを取得する。
+     * @return ロードオプション
+     */
+    public LoadOptions getLoadOptions() {
+        return loadOptions;
+    }
+
+    /**
+     * ロードオプションを設定する。
+     * @param loadOptions ロードオプション
+     */
+    public void setLoadOptions(LoadOptions loadOptions) {
+        this.loadOptions = loadOptions;
+    }
+
+    /**
+     * {@code WHEN}句の条件を取得する。
+     * @return {@code WHEN}句の条件(例:{@code (1:1) = 'H'})。条件を指定しない場合は{@code null}
+     */
+    public String getCondition() {
+        return condition;
+    }
+
+    /**
+     * {@code WHEN}句の条件を設定する。
+     * @param condition {@code WHEN}句の条件
+     */
+    public void setCondition(String condition) {
+        this.condition = condition;
+    }
+
+    /**
+     * {@code INTO TABLE}句ごとの定義を取得する。
+     * <p/>
+     * 1つのデータファイルを複数のテーブルにロードする場合、本オブジェクトはデータファイルのフォーマットとロードオプションを保持し、
+     * 各要素はテーブル名、{@code WHEN}句の条件及びフィールド指定のリストを保持する。
+     * @return {@code INTO TABLE}句ごとの定義。1つのテーブルにロードする場合は空のリスト
+     * @see MultiTableGroup
+     */
+    public List<ControlDefinition> getTables() {
+        return tables;
+    }
+
+    /**
+     * {@code INTO TABLE}句ごとの定義を設定する。
+     * @param tables {@code INTO TABLE}句ごとの定義
+     */
+    public void setTables(List<ControlDefinition> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * 複数のテーブルにロードするコントロールファイルの、{@code INTO TABLE}句の定義を生成する。
+     * <p/>
+     * 本オブジェクトの設定を引き継ぎ、{@code WHEN}句の条件を設定する。
+     * 可変長ファイルの2番目以降の{@code INTO TABLE}句では、レコードの先頭からフィールドを読み込むように、
+     * 行番号以外の最初のフィールドに{@code POSITION(1)}を指定する。
+     *
+     * @param condition {@code WHEN}句の条件
+     * @param first 最初の{@code INTO TABLE}句か否か
+     * @return {@code INTO TABLE}句の定義
+     */
+    public ControlDefinition forTable(String condition, boolean first) {
+        final ControlDefinition table = copy();
+        table.condition = condition;
+        if (!first && !fixedLength) {
+            final List<FieldDefinition> repositioned = new ArrayList<FieldDefinition>(fields);
+            for (int i = 0; i < repositioned.size(); i++) {
+                final FieldDefinition field = repositioned.get(i);
+                if (!"RECNUM".equals(field.getDataType()) && !field.isLobFile()) {
+                    repositioned.set(i, new FieldDefinition(field.getColumnName(), field.getDataType(), "1", field.isFiller()));
+                    break;
+                }
+            }
+            table.fields = repositioned;
+        }
+        return table;
+    }
+
+    /**
+     * 本オブジェクトの設定を引き継いだ定義を生成する。
+     *
+     * @return 本オブジェクトの設定を引き継いだ定義
+     */
+    private ControlDefinition copy() {
+        final ControlDefinition copy = new ControlDefinition();
+        copy.requiredHeader = requiredHeader;
+        copy.charset = charset;
+        copy.encoding = encoding;
+        copy.tableName = tableName;
+        copy.quote = quote;
+        copy.fieldSeparator = fieldSeparator;
+        copy.lineSeparator = lineSeparator;
+        copy.columnNames = columnNames;
+        copy.fields = fields;
+        copy.fixedLength = fixedLength;
+        copy.recordSize = recordSize;
+        copy.loadMethod = loadMethod;
+        copy.partition = partition;
+        copy.beanName = beanName;
+        copy.sessionPartitions = sessionPartitions;
+        copy.headerInEachSession = headerInEachSession;
+        copy.loadOptions = loadOptions;
+        copy.condition = condition;
+        copy.tables = tables;
+        return copy;
+    }
 }
@@ -0,0 +1,321 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+
+/**
+ * リアクタの全モジュールのコントロールファイルを、1回の実行でまとめて生成するMavenプラグイン。
+ * <p/>
+ * 各モジュールの{@code generate-ctrl-file}の設定のうち、生成対象({@code classes}、{@code packages}、{@code includes}、
+ * {@code excludes}、{@code multiTableGroups})及び出力先({@code outputPath}、{@code indexFile}、{@code fingerprintFile})を
+ * モジュールごとに使用し、
+ * それ以外の設定(テンプレート、ロードオプション、スレッド数など)は本ゴールの設定を全モジュールに適用する。
+ * 本ゴール自身の{@code classes}、{@code packages}などの生成対象の設定は使用しない。
+ * 生成対象は、{@code generate-ctrl-file}を実行するexecutionを持つか、プラグインの設定に{@code classes}又は{@code packages}を
+ * 指定したモジュールとする。
+ * <p/>
+ * Beanクラスは、モジュールごとにそのモジュールのクラスパスから生成したクラスローダで読み込むため、
+ * 同じ完全修飾名のクラスが複数のモジュールにある場合も、各モジュールのクラスからコントロールファイルを生成する。
+ * モジュールごとに実行する場合と異なり、解析済みのテンプレートを全モジュールで共有し、
+ * 全モジュールのBeanクラスを1つのスレッドプールで並行に生成する。
+ * <pre>
+ * {@code mvn compile nablarch-etl:generate-ctrl-file-aggregate}
+ * </pre>
+ */
+@Mojo(name = "generate-ctrl-file-aggregate", aggregator = true, requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class ControlFileAggregatorMojo extends ControlFileGeneratorMojo {
+
+    /** 本プラグインのartifactId */
+    private static final String PLUGIN_ARTIFACT_ID = "nablarch-etl-maven-plugin";
+
+    /** モジュールごとのコントロールファイルを生成するゴール */
+    private static final String GENERATE_GOAL = "generate-ctrl-file";
+
+    /** リアクタのモジュール */
+    @Parameter(defaultValue = "${reactorProjects}", required = true, readonly = true)
+    List<MavenProject> reactorProjects;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final List<ControlFileGeneratorMojo> modules = createModules();
+        if (modules.isEmpty()) {
+            getLog().info("コントロールファイルを生成するモジュールがありません。");
+            return;
+        }
+
+        final GenerationProfiler profiler = timingReport ? new GenerationProfiler() : GenerationProfiler.DISABLED;
+        final LoadSizingAdvisor sizingAdvisor = memoryBudget > 0 ? new LoadSizingAdvisor(memoryBudget) : null;
+        final ControlFileGenerationSession session = createSession(sizingAdvisor, profiler);
+
+        final List<ModuleGeneration> generations = new ArrayList<ModuleGeneration>();
+        final StringBuilder message = new StringBuilder();
+        int failureCount = 0;
+        final ExecutorService executor = Executors.newFixedThreadPool(getThreadCount());
+        try {
+            for (ControlFileGeneratorMojo module : modules) {
+                generations.add(new ModuleGeneration(module, session, profiler, executor));
+            }
+            for (ModuleGeneration generation : generations) {
+                final Map<String, Throwable> failures = generation.failures;
+                failures.putAll(generation.module.await(generation.futures));
+                saveFingerprints(generation.cache, generation.futures.keySet(), generation.fingerprints, failures);
+                final Map<String, Throwable> groupFailures =
+                        generation.module.generateMultiTableGroups(session, generation.loader);
+                final String artifactId = generation.module.project.getArtifactId();
+                appendFailures(message, "モジュール=[" + artifactId + "] Beanクラス", failures);
+                appendFailures(message, "モジュール=[" + artifactId + "] グループ", groupFailures);
+                failureCount += failures.size() + groupFailures.size();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (sizingAdvisor != null) {
+            sizingAdvisor.writeReport(sizingReportFile);
+        }
+
+        if (timingReport) {
+            profiler.writeReport(timingReportFile);
+        }
+
+        if (failureCount > 0) {
+            throw new MojoFailureException("コントロールファイルの生成に失敗しました。 失敗件数=[" + failureCount + ']' + message);
+        }
+    }
+
+    /**
+     * リアクタのモジュールのうち、コントロールファイルを生成するモジュールの設定を作成する。
+     *
+     * @return モジュールごとの設定を反映した{@link ControlFileGeneratorMojo}
+     */
+    List<ControlFileGeneratorMojo> createModules() {
+        final List<ControlFileGeneratorMojo> modules = new ArrayList<ControlFileGeneratorMojo>();
+        for (MavenProject module : reactorProjects) {
+            for (Xpp3Dom configuration : getGenerateConfigurations(module)) {
+                modules.add(createModule(module, configuration));
+            }
+        }
+        return modules;
+    }
+
+    /**
+     * モジュールの{@code generate-ctrl-file}の設定を取得する。
+     * <p/>
+     * {@code generate-ctrl-file}を実行するexecutionがある場合は、executionごとにプラグインの設定と併合した設定を返す。
+     * executionが無い場合は、プラグインの設定に{@code classes}又は{@code packages}が指定されている場合のみ、プラグインの設定を返す。
+     *
+     * @param module モジュール
+     * @return {@code generate-ctrl-file}の設定(生成しないモジュールの場合は空)
+     */
+    private static List<Xpp3Dom> getGenerateConfigurations(MavenProject module) {
+        final List<Xpp3Dom> configurations = new ArrayList<Xpp3Dom>();
+        for (Object buildPlugin : module.getBuildPlugins()) {
+            final Plugin plugin = (Plugin) buildPlugin;
+            if (!PLUGIN_ARTIFACT_ID.equals(plugin.getArtifactId())) {
+                continue;
+            }
+            final Xpp3Dom pluginConfiguration = (Xpp3Dom) plugin.getConfiguration();
+            for (Object pluginExecution : plugin.getExecutions()) {
+                final PluginExecution execution = (PluginExecution) pluginExecution;
+                if (!execution.getGoals().contains(GENERATE_GOAL)) {
+                    continue;
+                }
+                final Xpp3Dom executionConfiguration = (Xpp3Dom) execution.getConfiguration();
+                if (executionConfiguration == null) {
+                    configurations.add(pluginConfiguration == null ? new Xpp3Dom("configuration") : pluginConfiguration);
+                } else {
+                    configurations.add(Xpp3Dom.mergeXpp3Dom(new Xpp3Dom(executionConfiguration), pluginConfiguration));
+                }
+            }
+            if (configurations.isEmpty() && pluginConfiguration != null
+                    && (pluginConfiguration.getChild("classes") != null || pluginConfiguration.getChild("packages") != null)) {
+                configurations.add(pluginConfiguration);
+            }
+        }
+        return configurations;
+    }
+
+    /**
+     * モジュールの設定と本ゴールの設定から、モジュールのコントロールファイルを生成する{@link ControlFileGeneratorMojo}を作成する。
+     *
+     * @param module モジュール
+     * @param configuration モジュールの{@code generate-ctrl-file}の設定
+     * @return モジュールのコントロールファイルを生成する{@link ControlFileGeneratorMojo}
+     */
+    private ControlFileGeneratorMojo createModule(MavenProject module, Xpp3Dom configuration) {
+        final ControlFileGeneratorMojo mojo = new ControlFileGeneratorMojo();
+        mojo.setLog(getLog());
+        mojo.project = module;
+        mojo.classes = getValues(configuration, "classes");
+        mojo.packages = getValues(configuration, "packages");
+        mojo.includes = getValues(configuration, "includes");
+        mojo.excludes = getValues(configuration, "excludes");
+        mojo.multiTableGroups = getMultiTableGroups(configuration);
+        mojo.outputPath = getFile(module, configuration, "outputPath", "etl/ctrl-file");
+        mojo.indexFile = getFile(module, configuration, "indexFile", "etl/work-item.index");
+        mojo.fingerprintFile = getFile(module, configuration, "fingerprintFile", "etl/ctrl-file.fingerprint");
+
+        mojo.templateFilePath = templateFilePath;
+        mojo.templateDirectory = templateDirectory;
+        mojo.outputFormat = outputFormat;
+        mojo.incremental = incremental;
+        mojo.threads = threads;
+        mojo.classFileMetadata = classFileMetadata;
+        mojo.loadOptions = loadOptions;
+        mojo.memoryBudget = memoryBudget;
+        mojo.profileDirectory = profileDirectory;
+        mojo.profileMargin = profileMargin;
+        mojo.launcherScript = launcherScript;
+        mojo.outputExtension = outputExtension;
+        return mojo;
+    }
+
+    /**
+     * リスト形式の設定値を取得する。
+     *
+     * @param configuration 設定
+     * @param name 設定名
+     * @return 設定値(指定されていない場合は{@code null})
+     */
+    private static List<String> getValues(Xpp3Dom configuration, String name) {
+        final Xpp3Dom parent = configuration.getChild(name);
+        if (parent == null) {
+            return null;
+        }
+        final List<String> values = new ArrayList<String>();
+        for (Xpp3Dom child : parent.getChildren()) {
+            if (child.getValue() != null) {
+                values.add(child.getValue().trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * {@code multiTableGroups}の設定値を取得する。
+     * <p/>
+     * 設定方法は{@link MultiTableGroup}を参照。
+     *
+     * @param configuration 設定
+     * @return Beanクラスのグループのリスト(指定されていない場合は{@code null})
+     */
+    private static List<MultiTableGroup> getMultiTableGroups(Xpp3Dom configuration) {
+        final Xpp3Dom parent = configuration.getChild("multiTableGroups");
+        if (parent == null) {
+            return null;
+        }
+        final List<MultiTableGroup> groups = new ArrayList<MultiTableGroup>();
+        for (Xpp3Dom groupConfiguration : parent.getChildren()) {
+            final MultiTableGroup group = new MultiTableGroup();
+            group.setName(getValue(groupConfiguration, "name"));
+            group.setDiscriminator(getValue(groupConfiguration, "discriminator"));
+            final Xpp3Dom members = groupConfiguration.getChild("members");
+            if (members != null) {
+                for (Xpp3Dom memberConfiguration : members.getChildren()) {
+                    final MultiTableMember member = new MultiTableMember();
+                    member.setClassName(getValue(memberConfiguration, "className"));
+                    member.setValue(getValue(memberConfiguration, "value"));
+                    group.getMembers().add(member);
+                }
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+
+    /**
+     * 単一の設定値を取得する。
+     *
+     * @param configuration 設定
+     * @param name 設定名
+     * @return 設定値(指定されていない場合は{@code null})
+     */
+    private static String getValue(Xpp3Dom configuration, String name) {
+        final Xpp3Dom child = configuration.getChild(name);
+        return child == null || child.getValue() == null ? null : child.getValue().trim();
+    }
+
+    /**
+     * ファイルの設定値を取得する。
+     * <p/>
+     * 相対パスはモジュールのディレクトリからのパスとする。
+     *
+     * @param module モジュール
+     * @param configuration 設定
+     * @param name 設定名
+     * @param defaultPath 指定されていない場合の、モジュールのビルドディレクトリからのパス
+     * @return ファイル
+     */
+    private static File getFile(MavenProject module, Xpp3Dom configuration, String name, String defaultPath) {
+        final Xpp3Dom child = configuration.getChild(name);
+        if (child == null || child.getValue() == null) {
+            return new File(module.getBuild().getDirectory(), defaultPath);
+        }
+        final File file = new File(child.getValue().trim());
+        return file.isAbsolute() ? file : new File(module.getBasedir(), file.getPath());
+    }
+
+    /**
+     * モジュールのコントロールファイルの生成。
+     * <p/>
+     * モジュールのクラスパスからクラスローダを生成し、生成対象のBeanクラスを決定して共有のスレッドプールに生成を登録する。
+     */
+    private static class ModuleGeneration {
+
+        /** モジュールのコントロールファイルを生成する{@link ControlFileGeneratorMojo} */
+        private final ControlFileGeneratorMojo module;
+
+        /** モジュールのクラスパスを元に生成したクラスローダ */
+        private final ClassLoader loader;
+
+        /** インクリメンタル生成で使用する{@link FingerprintCache}(インクリメンタル生成でない場合は{@code null}) */
+        private final FingerprintCache cache;
+
+        /** 算出したフィンガープリント */
+        private final Map<String, String> fingerprints = new HashMap<String, String>();
+
+        /** 生成に失敗したBeanクラスの完全修飾名と原因のマッピング */
+        private final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+
+        /** Beanクラスの完全修飾名と生成の完了を待つ{@link Future}のマッピング */
+        private final Map<String, Future<?>> futures;
+
+        /**
+         * モジュールの生成対象のBeanクラスを決定し、共有のスレッドプールに生成を登録する。
+         *
+         * @param module モジュールのコントロールファイルを生成する{@link ControlFileGeneratorMojo}
+         * @param session 全モジュールで共有するセッション
+         * @param profiler 処理フェーズを計測するプロファイラ
+         * @param executor 全モジュールで共有するスレッドプール
+         */
+        ModuleGeneration(ControlFileGeneratorMojo module, ControlFileGenerationSession session,
+                GenerationProfiler profiler, ExecutorService executor) {
+            this.module = module;
+            final List<String> classpathElements = getClasspathElements(module.project);
+            loader = createClassLoader(classpathElements);
+            final Set<String> beanClassNames = module.collectBeanClassNames(classpathElements, loader);
+            module.createOutputDirectory();
+            cache = module.incremental ? module.createFingerprintCache() : null;
+            futures = module.submit(executor, session,
+                    module.collectTargets(beanClassNames, loader, cache, fingerprints, profiler, failures), loader);
+        }
+    }
+}
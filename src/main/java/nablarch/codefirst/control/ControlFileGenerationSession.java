@@ -0,0 +1,883 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import freemarker.cache.ClassTemplateLoader;
+import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.MultiTemplateLoader;
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+
+import nablarch.codefirst.control.GenerationProfiler.Phase;
+import nablarch.core.util.FileUtil;
+import nablarch.etl.WorkItem;
+
+/**
+ * 1つのテンプレートファイルを使用して、複数のBeanクラスのコントロールファイルを生成するセッション。
+ * <p/>
+ * テンプレートファイルの解析及び文字コードのマッピング定義の読み込みはセッションの生成時に1度だけ行い、
+ * Beanクラスから生成した{@link ControlDefinition}はセッション内でキャッシュする。
+ * このため、多数のBeanクラスのコントロールファイルを生成する場合は、
+ * {@link ControlFileGenerator#execute(Class, String, File)}を繰り返し呼び出すのではなく、
+ * 1つのセッションを使用すること。
+ * <p/>
+ * セッションはスレッドセーフであり、複数のスレッドから並行にコントロールファイルを生成できる。
+ *
+ * @see ControlFileGenerator#createSession(String)
+ * @see ControlFileGenerator#createSession(ControlFileGenerationSettings)
+ */
+public class ControlFileGenerationSession {
+
+    /** 文字コードのマッピングを定義したプロパティファイル名 */
+    private static final String PROPERTIES_FILE_NAME = "charset.properties";
+
+    /** コントロールファイルの文字コード */
+    private static final Charset CONTROL_FILE_CHARSET = Charset.forName("UTF-8");
+
+    /** 名前付きパイプ経由でロードする起動スクリプトのテンプレートファイル */
+    static final String LAUNCHER_TEMPLATE_FILE = "template/pipe_launcher.sh.ftl";
+
+    /** 起動スクリプトの拡張子 */
+    private static final String LAUNCHER_EXTENSION = ".sh";
+
+    /** LOBファイルのパスの最大長のデフォルト値({@link SqlLoaderLobFile#fileNameLength()}) */
+    private static final int DEFAULT_FILE_NAME_LENGTH = 255;
+
+    /** テンプレートファイル */
+    private final String templateFile;
+
+    /** 生成するファイルの拡張子 */
+    private final String extension;
+
+    /** 解析済みのテンプレート */
+    private final Template template;
+
+    /** 解析済みの起動スクリプトのテンプレート(起動スクリプトを生成しない場合は{@code null}) */
+    private final Template launcherTemplate;
+
+    /** 文字コードのマッピング */
+    private final Properties charsets;
+
+    /** ロードオプションのデフォルト値 */
+    private final LoadOptions defaultLoadOptions;
+
+    /** バインド配列及び読み込みバッファのサイズを算出するアドバイザ(算出しない場合は{@code null}) */
+    private final LoadSizingAdvisor sizingAdvisor;
+
+    /** フィールドの長さを実データに合わせるサイザ(合わせない場合は{@code null}) */
+    private final ProfileFieldSizer fieldSizer;
+
+    /** 処理フェーズごとの所要時間とアロケーション量を計測するプロファイラ */
+    private final GenerationProfiler profiler;
+
+    /** Beanクラス(又はクラスローダとBeanクラスの完全修飾名)と{@link ControlDefinition}のキャッシュ */
+    private final ConcurrentMap<Object, ControlDefinition> definitions = new ConcurrentHashMap<Object, ControlDefinition>();
+
+    /**
+     * 設定に従ってテンプレートファイルを解析し、セッションを生成する。
+     * <p/>
+     * 起動スクリプトを生成する場合、起動スクリプトのテンプレートファイル({@value #LAUNCHER_TEMPLATE_FILE})も、
+     * テンプレートファイルと同じ方法で検索する。
+     *
+     * @param settings セッションの設定
+     */
+    ControlFileGenerationSession(ControlFileGenerationSettings settings) {
+        final String templateFile = settings.getTemplateFile();
+        final File templateDirectory = settings.getTemplateDirectory();
+        this.templateFile = templateFile;
+        extension = settings.getOutputExtension();
+        defaultLoadOptions = settings.getLoadOptions();
+        sizingAdvisor = settings.getSizingAdvisor();
+        fieldSizer = settings.getFieldSizer();
+        profiler = settings.getProfiler() == null ? GenerationProfiler.DISABLED : settings.getProfiler();
+        final GenerationProfiler.Measurement measurement = profiler.start(templateFile, Phase.CREATE_TEMPLATE);
+        try {
+            template = createTemplate(templateFile, templateDirectory);
+            launcherTemplate = settings.isLauncherScript() && OutputFormat.SQL_LOADER.getExtension().equals(extension)
+                    ? createTemplate(LAUNCHER_TEMPLATE_FILE, templateDirectory) : null;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to generate control file.", e);
+        } finally {
+            measurement.end();
+        }
+        charsets = loadCharsets();
+    }
+
+    /**
+     * Beanクラスからコントロールファイルを作成し、指定された出力先ディレクトリに配置する。
+     * <p/>
+     * 生成内容が既存のコントロールファイルと同一の場合、ファイルは書き換えない。
+     *
+     * @param beanClass Beanクラス
+     * @param outputDir 出力先のディレクトリ
+     */
+    public void execute(Class<?> beanClass, File outputDir) {
+        final ControlDefinition control;
+        final GenerationProfiler.Measurement measurement = profiler.start(beanClass.getName(), Phase.CREATE_CONTROL_DEFINITION);
+        try {
+            control = getControlDefinition(beanClass);
+        } finally {
+            measurement.end();
+        }
+        write(control, outputDir, beanClass.getSimpleName(), beanClass.getName());
+    }
+
+    /**
+     * Beanクラスのクラスファイルからメタデータを読み込み、コントロールファイルを作成して指定された出力先ディレクトリに配置する。
+     * <p/>
+     * Beanクラスはロードせずに、クラスローダのリソースとして取得したクラスファイルからメタデータを読み込む。
+     * クラスファイルからメタデータを導出できない場合のみ、Beanクラスをロードしてリフレクションでメタデータを取得する。
+     * <p/>
+     * 生成内容が既存のコントロールファイルと同一の場合、ファイルは書き換えない。
+     *
+     * @param className Beanクラスの完全修飾名
+     * @param classLoader Beanクラスのクラスファイルを読み込むクラスローダ
+     * @param outputDir 出力先のディレクトリ
+     * @see ClassFileBeanMetadata
+     */
+    public void execute(String className, ClassLoader classLoader, File outputDir) {
+        final BeanMetadata metadata;
+        GenerationProfiler.Measurement measurement = profiler.start(className, Phase.CLASS_LOAD);
+        try {
+            metadata = getBeanMetadata(className, classLoader);
+        } finally {
+            measurement.end();
+        }
+        final ControlDefinition control;
+        measurement = profiler.start(className, Phase.CREATE_CONTROL_DEFINITION);
+        try {
+            control = getControlDefinition(metadata, Arrays.asList(classLoader, className));
+        } finally {
+            measurement.end();
+        }
+        write(control, outputDir, metadata.getSimpleName(), className);
+    }
+
+    /**
+     * Beanクラスのメタデータからコントロールファイルを作成し、指定された出力先ディレクトリに配置する。
+     * <p/>
+     * 任意の取得元から{@link BeanMetadata}を構築してコントロールファイルを生成する場合に使用する。
+     * 生成した{@link ControlDefinition}はキャッシュしない。
+     * <p/>
+     * 生成内容が既存のコントロールファイルと同一の場合、ファイルは書き換えない。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @param outputDir 出力先のディレクトリ
+     */
+    public void execute(BeanMetadata metadata, File outputDir) {
+        final ControlDefinition control;
+        final GenerationProfiler.Measurement measurement =
+                profiler.start(metadata.getClassName(), Phase.CREATE_CONTROL_DEFINITION);
+        try {
+            control = createControlDefinition(metadata);
+        } finally {
+            measurement.end();
+        }
+        write(control, outputDir, metadata.getSimpleName(), metadata.getClassName());
+    }
+
+    /**
+     * Beanクラスのグループから、1つのデータファイルを複数のテーブルにロードするコントロールファイルを作成し、
+     * 指定された出力先ディレクトリに配置する。
+     * <p/>
+     * コントロールファイルのファイル名は{@code <グループ名>.ctl}(拡張子はテンプレートファイル名から決定する)とする。
+     * 生成内容が既存のコントロールファイルと同一の場合、ファイルは書き換えない。
+     *
+     * @param group Beanクラスのグループ
+     * @param classLoader Beanクラスを読み込むクラスローダ
+     * @param outputDir 出力先のディレクトリ
+     * @see MultiTableGroup
+     */
+    public void execute(MultiTableGroup group, ClassLoader classLoader, File outputDir) {
+        final ControlDefinition control;
+        final GenerationProfiler.Measurement measurement = profiler.start(group.getName(), Phase.CREATE_CONTROL_DEFINITION);
+        try {
+            control = getControlDefinition(group, classLoader);
+        } finally {
+            measurement.end();
+        }
+        write(control, outputDir, group.getName(), group.getName());
+    }
+
+    /**
+     * Beanクラスから生成したコントロールファイルの内容を、指定された{@link Writer}に出力する。
+     *
+     * @param beanClass Beanクラス
+     * @param writer 出力先
+     */
+    public void render(Class<?> beanClass, Writer writer) {
+        render(getControlDefinition(beanClass), writer);
+    }
+
+    /**
+     * Beanクラスから生成したコントロールファイルの内容を取得する。
+     * <p/>
+     * 生成した{@link ControlDefinition}はキャッシュしない。
+     * 1つのコントロールファイルに出力できない{@link SqlLoaderPartitions}が付与されたBeanクラスは扱わない。
+     *
+     * @param beanClass Beanクラス
+     * @return コントロールファイルの内容
+     * @throws IllegalStateException Beanクラスに{@link SqlLoaderPartitions}が付与されている場合
+     * @see ControlFileRenderer
+     */
+    String renderUncached(Class<?> beanClass) {
+        final ControlDefinition control = createControlDefinition(new ReflectionBeanMetadata(beanClass));
+        if (!control.getSessionPartitions().isEmpty()) {
+            throw new IllegalStateException("SqlLoaderPartitions is not supported in ControlFileRenderer."
+                    + " use ControlFileGenerator to generate control files for each session. class = ["
+                    + beanClass.getName() + ']');
+        }
+        final StringWriter writer = new StringWriter();
+        render(control, writer);
+        return writer.toString();
+    }
+
+    /**
+     * {@link ControlDefinition}から生成したコントロールファイルの内容を、指定された{@link Writer}に出力する。
+     *
+     * @param control コントロールファイルの定義
+     * @param writer 出力先
+     */
+    public void render(ControlDefinition control, Writer writer) {
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("control", control);
+        try {
+            template.process(params, writer);
+        } catch (TemplateException e) {
+            throw new InvalidTemplateFormatException("template file format is invalid. template file = [" + templateFile + ']', e);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to generate control file.", e);
+        }
+    }
+
+    /**
+     * Beanクラスの定義から生成した{@link ControlDefinition}を取得する。
+     * <p/>
+     * 同一のBeanクラスに対する2回目以降の呼び出しでは、キャッシュした{@link ControlDefinition}を返す。
+     *
+     * @param beanClass Beanクラス
+     * @return Beanクラスから生成した{@link ControlDefinition}オブジェクト
+     */
+    public ControlDefinition getControlDefinition(Class<?> beanClass) {
+        return getControlDefinition(new ReflectionBeanMetadata(beanClass), beanClass);
+    }
+
+    /**
+     * Beanクラスのメタデータから生成した{@link ControlDefinition}を取得する。
+     * <p/>
+     * 同一のキャッシュキーに対する2回目以降の呼び出しでは、キャッシュした{@link ControlDefinition}を返す。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @param cacheKey キャッシュキー
+     * @return Beanクラスのメタデータから生成した{@link ControlDefinition}オブジェクト
+     */
+    private ControlDefinition getControlDefinition(BeanMetadata metadata, Object cacheKey) {
+        final ControlDefinition control = definitions.get(cacheKey);
+        if (control != null) {
+            return control;
+        }
+        final ControlDefinition created = createControlDefinition(metadata);
+        final ControlDefinition existing = definitions.putIfAbsent(cacheKey, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Beanクラスのグループから、複数のテーブルにロードする{@link ControlDefinition}を生成する。
+     * <p/>
+     * データファイルのフォーマットとロードオプションは先頭のBeanクラスから引き継ぎ、
+     * Beanクラスごとの定義を{@link ControlDefinition#getTables()}に保持する。
+     * Beanクラスごとの定義はキャッシュしたものを使用する。
+     *
+     * @param group Beanクラスのグループ
+     * @param classLoader Beanクラスを読み込むクラスローダ
+     * @return Beanクラスのグループから生成した{@link ControlDefinition}オブジェクト
+     */
+    ControlDefinition getControlDefinition(MultiTableGroup group, ClassLoader classLoader) {
+        if (group.getName() == null || group.getDiscriminator() == null || group.getMembers() == null
+                || group.getMembers().isEmpty()) {
+            throw new IllegalArgumentException("name, discriminator and members must be specified. group = [" + group + ']');
+        }
+        final List<ControlDefinition> tables = new ArrayList<ControlDefinition>();
+        ControlDefinition first = null;
+        for (MultiTableMember member : group.getMembers()) {
+            final String className = member.getClassName();
+            if (className == null || member.getValue() == null) {
+                throw new IllegalArgumentException("className and value must be specified. group = [" + group.getName() + ']');
+            }
+            final ControlDefinition table = getControlDefinition(
+                    getBeanMetadata(className, classLoader), Arrays.asList(classLoader, className));
+            if (!table.getSessionPartitions().isEmpty()) {
+                throw new IllegalStateException("SqlLoaderPartitions is not supported in multi table group. group = ["
+                        + group.getName() + "], class = [" + className + ']');
+            }
+            if (!group.isPositionDiscriminator() && !table.getColumnNames().contains(group.getDiscriminator())) {
+                throw new IllegalStateException("discriminator column is not found. group = [" + group.getName()
+                        + "], class = [" + className + "], discriminator = [" + group.getDiscriminator() + ']');
+            }
+            if (first == null) {
+                first = table;
+            } else if (!isSameDataFormat(first, table)) {
+                throw new IllegalStateException("data file format must be same in multi table group. group = ["
+                        + group.getName() + "], class = [" + className + ']');
+            }
+            tables.add(table.forTable(group.toCondition(member.getValue()), tables.isEmpty()));
+        }
+
+        final ControlDefinition control = first.forTable(null, true);
+        control.setTableName(null);
+        control.setBeanName(group.getName());
+        control.setColumnNames(new ArrayList<String>());
+        control.setFields(new ArrayList<FieldDefinition>());
+        control.setTables(tables);
+        return control;
+    }
+
+    /**
+     * 2つの定義のデータファイルのフォーマットが同じか否かを判定する。
+     *
+     * @param control 比較元の定義
+     * @param other 比較先の定義
+     * @return 文字コード、ヘッダ有無、区切り文字、クォート及びレコード長が同じ場合は{@code true}
+     */
+    private static boolean isSameDataFormat(ControlDefinition control, ControlDefinition other) {
+        return control.isFixedLength() == other.isFixedLength()
+                && control.isRequiredHeader() == other.isRequiredHeader()
+                && control.getRecordSize() == other.getRecordSize()
+                && isEqual(control.getCharset(), other.getCharset())
+                && isEqual(control.getQuote(), other.getQuote())
+                && isEqual(control.getFieldSeparator(), other.getFieldSeparator())
+                && isEqual(control.getLineSeparator(), other.getLineSeparator());
+    }
+
+    /**
+     * 2つの値が等しいか否かを判定する。
+     *
+     * @param value 値
+     * @param other 比較する値
+     * @return 等しい場合(共に{@code null}の場合を含む)は{@code true}
+     */
+    private static boolean isEqual(String value, String other) {
+        return value == null ? other == null : value.equals(other);
+    }
+
+    /**
+     * Beanクラスのメタデータを取得する。
+     * <p/>
+     * クラスファイルからメタデータを導出できない場合は、Beanクラスをロードしてリフレクションでメタデータを取得する。
+     *
+     * @param className Beanクラスの完全修飾名
+     * @param classLoader Beanクラスのクラスファイルを読み込むクラスローダ
+     * @return Beanクラスのメタデータ
+     */
+    private BeanMetadata getBeanMetadata(String className, ClassLoader classLoader) {
+        final BeanMetadata metadata = ClassFileBeanMetadata.create(className, classLoader);
+        if (metadata != null) {
+            return metadata;
+        }
+        try {
+            return new ReflectionBeanMetadata(classLoader.loadClass(className));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + className + ']', e);
+        }
+    }
+
+    /**
+     * Beanクラスのメタデータからコントロールファイルを生成し、ファイル名と内容を取得する。
+     * <p/>
+     * ファイルシステム以外(アノテーションプロセッサの{@code Filer}など)に出力する場合に使用する。
+     * 生成した{@link ControlDefinition}はキャッシュしない。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @return ファイル名と内容(UTF-8)のマッピング(生成順)
+     * @see #execute(BeanMetadata, File)
+     */
+    Map<String, byte[]> generate(BeanMetadata metadata) {
+        final ControlDefinition control;
+        final GenerationProfiler.Measurement measurement =
+                profiler.start(metadata.getClassName(), Phase.CREATE_CONTROL_DEFINITION);
+        try {
+            control = createControlDefinition(metadata);
+        } finally {
+            measurement.end();
+        }
+        return generate(control, metadata.getSimpleName(), metadata.getClassName());
+    }
+
+    /**
+     * コントロールファイルを生成し、出力先ディレクトリに書き込む。
+     * <p/>
+     * 生成するファイルは{@link #generate(ControlDefinition, String, String)}を参照。
+     *
+     * @param control コントロールファイルの定義
+     * @param outputDir 出力先のディレクトリ
+     * @param baseName 拡張子を除いたファイル名
+     * @param className Beanクラスの完全修飾名
+     */
+    private void write(ControlDefinition control, File outputDir, String baseName, String className) {
+        deleteStaleFiles(control, outputDir, baseName);
+        for (Map.Entry<String, byte[]> file : generate(control, baseName, className).entrySet()) {
+            final GenerationProfiler.Measurement measurement = profiler.start(className, Phase.WRITE);
+            try {
+                final File outputFile = new File(outputDir, file.getKey());
+                writeIfChanged(outputFile, file.getValue());
+                if (file.getKey().endsWith(LAUNCHER_EXTENSION)) {
+                    outputFile.setExecutable(true);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("failed to generate control file.", e);
+            } finally {
+                measurement.end();
+            }
+        }
+    }
+
+    /**
+     * {@link SqlLoaderPartitions}の付与有無が変更される前に生成したファイルを削除する。
+     * <p/>
+     * セッションごとのコントロールファイルを生成する場合は単一のコントロールファイルとその起動スクリプトを、
+     * 単一のコントロールファイルを生成する場合はマニフェストファイルを削除する。
+     * 残ったファイルが、生成済みのファイルとして扱われることを防ぐ。
+     *
+     * @param control コントロールファイルの定義
+     * @param outputDir 出力先のディレクトリ
+     * @param baseName 拡張子を除いたファイル名
+     */
+    private void deleteStaleFiles(ControlDefinition control, File outputDir, String baseName) {
+        final List<String> staleFiles = control.getSessionPartitions().isEmpty()
+                ? Arrays.asList(baseName + ".manifest")
+                : Arrays.asList(baseName + extension, baseName + LAUNCHER_EXTENSION);
+        for (String staleFile : staleFiles) {
+            final File file = new File(outputDir, staleFile);
+            if (file.exists() && !file.delete()) {
+                throw new RuntimeException("failed to delete stale file. file = [" + file + ']');
+            }
+        }
+    }
+
+    /**
+     * コントロールファイルを生成する。
+     * <p/>
+     * セッションごとのパーティション名が設定されている場合は、セッションごとのコントロールファイル
+     * ({@code <ファイル名>_<セッション番号>.ctl})とマニフェストファイル({@code <ファイル名>.manifest})を生成する。
+     * それ以外の場合は、1つのコントロールファイル({@code <ファイル名>.ctl})を生成する。
+     * 拡張子はセッションの設定から決定する({@link ControlFileGenerationSettings#getOutputExtension()})。
+     * 起動スクリプトを生成する場合は、コントロールファイルごとに起動スクリプト({@code .sh})を生成する。
+     *
+     * @param control コントロールファイルの定義
+     * @param baseName 拡張子を除いたファイル名
+     * @param className Beanクラスの完全修飾名
+     * @return ファイル名と内容(UTF-8)のマッピング(生成順)
+     * @see SqlLoaderPartitions
+     */
+    private Map<String, byte[]> generate(ControlDefinition control, String baseName, String className) {
+        final Map<String, byte[]> files = new LinkedHashMap<String, byte[]>();
+        final int sessionCount = control.getSessionPartitions().size();
+        if (sessionCount == 0) {
+            files.put(baseName + extension, render(control, className));
+            putLauncherScript(files, control, baseName, className);
+            return files;
+        }
+        final StringBuilder manifest = new StringBuilder();
+        manifest.append("table=").append(control.getTableName()).append('\n');
+        manifest.append("sessions=").append(sessionCount).append('\n');
+        for (int i = 1; i <= sessionCount; i++) {
+            final ControlDefinition session = control.forSession(i);
+            final String fileName = baseName + '_' + i + extension;
+            files.put(fileName, render(session, className));
+            putLauncherScript(files, session, baseName + '_' + i, className);
+            manifest.append("session.").append(i).append(".controlFile=").append(fileName).append('\n');
+            if (session.getPartition() != null) {
+                manifest.append("session.").append(i).append(".partition=").append(session.getPartition()).append('\n');
+            }
+        }
+        files.put(baseName + ".manifest", manifest.toString().getBytes(CONTROL_FILE_CHARSET));
+        return files;
+    }
+
+    /**
+     * 起動スクリプトを生成する場合、コントロールファイルの起動スクリプトを生成する。
+     *
+     * @param files ファイル名と内容(UTF-8)のマッピング
+     * @param control コントロールファイルの定義
+     * @param baseName 拡張子を除いたコントロールファイルのファイル名
+     * @param className Beanクラスの完全修飾名
+     */
+    private void putLauncherScript(Map<String, byte[]> files, ControlDefinition control, String baseName, String className) {
+        if (launcherTemplate == null) {
+            return;
+        }
+        final Map<String, Object> params = new HashMap<String, Object>();
+        params.put("control", control);
+        params.put("controlFile", baseName + extension);
+        final StringWriter writer = new StringWriter();
+        final GenerationProfiler.Measurement measurement = profiler.start(className, Phase.TEMPLATE_PROCESS);
+        try {
+            launcherTemplate.process(params, writer);
+        } catch (TemplateException e) {
+            throw new InvalidTemplateFormatException(
+                    "template file format is invalid. template file = [" + LAUNCHER_TEMPLATE_FILE + ']', e);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to generate control file.", e);
+        } finally {
+            measurement.end();
+        }
+        files.put(baseName + LAUNCHER_EXTENSION, writer.toString().getBytes(CONTROL_FILE_CHARSET));
+    }
+
+    /**
+     * コントロールファイルの内容を生成する。
+     *
+     * @param control コントロールファイルの定義
+     * @param className Beanクラスの完全修飾名
+     * @return コントロールファイルの内容(UTF-8)
+     */
+    private byte[] render(ControlDefinition control, String className) {
+        final StringWriter writer = new StringWriter();
+        final GenerationProfiler.Measurement measurement = profiler.start(className, Phase.TEMPLATE_PROCESS);
+        try {
+            render(control, writer);
+        } finally {
+            measurement.end();
+        }
+        return writer.toString().getBytes(CONTROL_FILE_CHARSET);
+    }
+
+    /**
+     * 出力先ファイルの内容が生成内容と異なる場合のみ、ファイルを書き込む。
+     * <p/>
+     * 内容が同一の場合はファイルを書き換えないため、ファイルの更新日時は変更されない。
+     *
+     * @param outputFile 出力先ファイル
+     * @param content 生成内容
+     * @throws IOException 入出力例外
+     */
+    private void writeIfChanged(File outputFile, byte[] content) throws IOException {
+        if (outputFile.isFile() && outputFile.length() == content.length && Arrays.equals(readAll(outputFile), content)) {
+            return;
+        }
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(outputFile);
+            stream.write(content);
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * ファイルの内容をすべて読み込む。
+     *
+     * @param file ファイル
+     * @return ファイルの内容
+     * @throws IOException 入出力例外
+     */
+    private byte[] readAll(File file) throws IOException {
+        InputStream stream = null;
+        try {
+            stream = new FileInputStream(file);
+            final byte[] content = new byte[(int) file.length()];
+            int offset = 0;
+            int length;
+            while (offset < content.length && (length = stream.read(content, offset, content.length - offset)) != -1) {
+                offset += length;
+            }
+            return content;
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * テンプレートファイルから{@link Template}を生成する。
+     * @param templateFile テンプレートファイル
+     * @param templateDirectory テンプレートファイルを検索するディレクトリ(クラスパスからのみ検索する場合は{@code null})
+     * @return 指定したテンプレートファイルの{@link Template}オブジェクト
+     * @throws IOException 入出力例外
+     */
+    private Template createTemplate(String templateFile, File templateDirectory) throws IOException {
+        Configuration config = new Configuration(Configuration.VERSION_2_3_22);
+        config.setEncoding(Locale.getDefault(), "UTF-8");
+        final TemplateLoader classTemplateLoader = new ClassTemplateLoader(getClass(), "");
+        if (templateDirectory == null) {
+            config.setTemplateLoader(classTemplateLoader);
+        } else {
+            config.setTemplateLoader(new MultiTemplateLoader(new TemplateLoader[] {
+                    new FileTemplateLoader(templateDirectory), classTemplateLoader}));
+        }
+        return config.getTemplate(templateFile);
+    }
+
+    /**
+     * クラスパス配下に格納された"charset.properties"から、文字コードのマッピングを読み込む。
+     *
+     * @return 文字コードのマッピング
+     */
+    private Properties loadCharsets() {
+        Properties properties = new Properties();
+        InputStream is = FileUtil.getResource("classpath:" + PROPERTIES_FILE_NAME);
+        try {
+            properties.load(is);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            FileUtil.closeQuietly(is);
+        }
+        return properties;
+    }
+
+    /**
+     * Beanクラスのメタデータから{@link ControlDefinition}を生成する。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @return Beanクラスのメタデータから生成した{@link ControlDefinition}オブジェクト
+     */
+    private ControlDefinition createControlDefinition(BeanMetadata metadata) {
+        if(!metadata.isWorkItem()){
+            // ETLで使うbeanclassはnablarch.etl.WorkItemを継承するべき
+            throw new IllegalStateException("beanClass should extend " + WorkItem.class.getName());
+        }
+
+        ControlDefinition control = new ControlDefinition();
+        control.setTableName(metadata.getTableNameWithSchema());
+        control.setBeanName(metadata.getSimpleName());
+        control.setLoadOptions(defaultLoadOptions.override(metadata.getAnnotation(SqlLoaderOptions.class.getName())));
+
+        AnnotationValues fixedLength = metadata.getAnnotation(ClassFileBeanMetadata.FIXED_LENGTH);
+        List<FieldDefinition> fields;
+        if (fixedLength != null) {
+            fields = setFixedLengthLayout(control, fixedLength, metadata);
+        } else {
+            CsvLayout layout = metadata.getCsvLayout();
+            control.setCharset(convertCharset(layout.getCharset()));
+            control.setEncoding(layout.getCharset());
+            control.setRequiredHeader(layout.isRequiredHeader());
+            control.setQuote(escape(String.valueOf(layout.getQuote())));
+            control.setFieldSeparator(escape(String.valueOf(layout.getFieldSeparator())));
+            control.setLineSeparator(escape(layout.getLineSeparator()));
+            fields = getFields(metadata, Charset.forName(layout.getCharset()));
+            if (fieldSizer != null) {
+                fields = fieldSizer.resize(metadata.getClassName(), fields);
+            }
+        }
+        control.setFields(fields);
+        control.setColumnNames(getColumnNames(fields));
+        control.setSessionPartitions(getSessionPartitions(metadata));
+        final AnnotationValues partitions = metadata.getAnnotation(SqlLoaderPartitions.class.getName());
+        if (partitions != null) {
+            control.setHeaderInEachSession(partitions.getBoolean("headerInEachFile", true));
+        }
+        if (sizingAdvisor != null) {
+            control.setLoadOptions(sizingAdvisor.advise(metadata.getClassName(), control));
+        }
+
+        return control;
+    }
+
+    /**
+     * {@link SqlLoaderPartitions}から、セッションごとのロード先のパーティション名を取得する。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @return セッションごとのロード先のパーティション名。{@link SqlLoaderPartitions}が付与されていない場合は空のリスト
+     */
+    private List<String> getSessionPartitions(BeanMetadata metadata) {
+        final List<String> sessionPartitions = new ArrayList<String>();
+        final AnnotationValues partitions = metadata.getAnnotation(SqlLoaderPartitions.class.getName());
+        if (partitions == null) {
+            return sessionPartitions;
+        }
+        sessionPartitions.addAll(Arrays.asList(partitions.getStringArray("partitions")));
+        if (sessionPartitions.isEmpty()) {
+            final int sessions = partitions.getInt("sessions", 0);
+            if (sessions < 1) {
+                throw new IllegalStateException("partitions or sessions must be specified. class = [" + metadata.getClassName() + ']');
+            }
+            for (int i = 0; i < sessions; i++) {
+                sessionPartitions.add(null);
+            }
+        }
+        return sessionPartitions;
+    }
+
+    /**
+     * 固定長ファイルのフォーマットを{@link ControlDefinition}に設定し、フィールド指定のリストを取得する。
+     * <p/>
+     * レコード長は、{@code @FixedLength}の{@code length}に行区切り文字のバイト長(ファイルの文字コードで算出)を加えた値とする。
+     * 各フィールドの位置は、{@code @Field}の{@code offset}(1始まりのバイト位置)と{@code length}から算出する。
+     *
+     * @param control コントロールファイルの定義
+     * @param fixedLength {@code @FixedLength}の値
+     * @param metadata Beanクラスのメタデータ
+     * @return フィールド指定のリスト(行番号のフィールドを先頭とし、その他のフィールドは位置の昇順)
+     */
+    private List<FieldDefinition> setFixedLengthLayout(ControlDefinition control, AnnotationValues fixedLength,
+            BeanMetadata metadata) {
+        if (fixedLength.getBoolean("multiLayout", false)) {
+            throw new IllegalStateException("multi layout fixed-length file is not supported. class = [" + metadata.getClassName() + ']');
+        }
+        final Charset charset = Charset.forName(fixedLength.getString("charset"));
+        final String lineSeparator = fixedLength.getString("lineSeparator");
+        final int length = fixedLength.getInt("length", 0);
+
+        control.setCharset(convertCharset(charset.name()));
+        control.setEncoding(charset.name());
+        control.setRequiredHeader(false);
+        control.setFixedLength(true);
+        control.setLineSeparator(lineSeparator == null ? "" : escape(lineSeparator));
+        control.setRecordSize(length + (lineSeparator == null ? 0 : lineSeparator.getBytes(charset).length));
+
+        final List<FieldDefinition> fields = new ArrayList<FieldDefinition>();
+        final Map<Integer, PropertyMetadata> positioned = new TreeMap<Integer, PropertyMetadata>();
+        for (PropertyMetadata property : metadata.getProperties()) {
+            if (property.isLineNumber()) {
+                fields.add(new FieldDefinition(property.getColumnName(), "RECNUM"));
+                continue;
+            }
+            final AnnotationValues field = property.getAnnotation(ClassFileBeanMetadata.FIELD);
+            if (field == null) {
+                continue;
+            }
+            final int offset = field.getInt("offset", 0);
+            final int fieldLength = field.getInt("length", 0);
+            if (offset < 1 || fieldLength < 1 || offset + fieldLength - 1 > length) {
+                throw new IllegalStateException("field position is out of record. class = [" + metadata.getClassName()
+                        + "], property = [" + property.getName() + "], offset = [" + offset + "], length = [" + fieldLength + ']');
+            }
+            positioned.put(offset, property);
+        }
+        for (Map.Entry<Integer, PropertyMetadata> property : positioned.entrySet()) {
+            final int offset = property.getKey();
+            final int fieldLength = property.getValue().getAnnotation(ClassFileBeanMetadata.FIELD).getInt("length", 0);
+            addFields(fields, property.getValue(), fieldLength, offset + ":" + (offset + fieldLength - 1), charset);
+        }
+        return fields;
+    }
+
+    /**
+     * プロパティのフィールド指定を追加する。
+     * <p/>
+     * {@link SqlLoaderLobFile}が付与されたプロパティは、LOBファイルのパスを読み込む{@code FILLER}フィールドと、
+     * LOBファイルからロードするフィールドを追加する。
+     *
+     * @param fields フィールド指定のリスト
+     * @param property プロパティのメタデータ
+     * @param length フィールドのバイト長(固定長ファイルの場合)。可変長ファイルの場合は{@code null}
+     * @param position フィールドの位置(固定長ファイルの場合)。可変長ファイルの場合は{@code null}
+     * @param charset データファイルの文字コード
+     */
+    private void addFields(List<FieldDefinition> fields, PropertyMetadata property, Integer length, String position,
+            Charset charset) {
+        final AnnotationValues lobFile = property.getAnnotation(SqlLoaderLobFile.class.getName());
+        if (lobFile == null) {
+            fields.add(new FieldDefinition(property.getColumnName(), SqlLoaderDataTypes.resolve(property, length, charset), position));
+            return;
+        }
+        final String fileNameField = property.getColumnName() + "_LOBFILE";
+        final int fileNameLength = length != null ? length : lobFile.getInt("fileNameLength", DEFAULT_FILE_NAME_LENGTH);
+        fields.add(new FieldDefinition(fileNameField, "CHAR(" + fileNameLength + ')', position, true));
+
+        final StringBuilder lobSpec = new StringBuilder("LOBFILE(").append(fileNameField);
+        final String lobCharset = lobFile.getString("charset");
+        if (lobCharset != null && lobCharset.length() != 0) {
+            final String oracleCharset = convertCharset(Charset.forName(lobCharset).name());
+            if (oracleCharset == null) {
+                throw new IllegalStateException("unsupported LOB file charset. property = [" + property.getName()
+                        + "], charset = [" + lobCharset + ']');
+            }
+            lobSpec.append(" CHARACTERSET ").append(oracleCharset);
+        }
+        lobSpec.append(") TERMINATED BY EOF NULLIF ").append(fileNameField).append(" = BLANKS");
+        fields.add(new FieldDefinition(property.getColumnName(), lobSpec.toString()));
+    }
+
+    /**
+     * 引数で受け取った文字コードを、文字コードのマッピングを利用してOracle用の文字コードに変換する。
+     *
+     * @param charset 文字コード
+     * @return 変換後文字コード
+     */
+    private String convertCharset(String charset) {
+        return charsets.getProperty(charset);
+    }
+
+    /**
+     * Beanに定義されているフィールド指定のリストを取得する。
+     * <p/>
+     * 行番号を保持するプロパティは{@code RECNUM}とし、先頭に配置する。
+     * その他のプロパティは{@code @Csv}の{@code properties}の順に配置する。
+     * {@link SqlLoaderLobFile}が付与されたプロパティは、{@code FILLER}フィールドとLOBファイルのフィールドを配置する。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @param charset データファイルの文字コード
+     * @return フィールド指定のリスト
+     */
+    private List<FieldDefinition> getFields(BeanMetadata metadata, Charset charset) {
+        Map<String, PropertyMetadata> propertyMap = new HashMap<String, PropertyMetadata>();
+        List<FieldDefinition> fields = new ArrayList<FieldDefinition>();
+
+        for (PropertyMetadata property : metadata.getProperties()) {
+            if(property.isLineNumber()){
+                fields.add(new FieldDefinition(property.getColumnName(), "RECNUM"));
+            }else{
+                propertyMap.put(property.getName(), property);
+            }
+        }
+
+        String[] properties = metadata.getAnnotation(ClassFileBeanMetadata.CSV).getStringArray("properties");
+        for (String property : properties) {
+            if (propertyMap.containsKey(property)) {
+                addFields(fields, propertyMap.get(property), null, null, charset);
+            } else {
+                fields.add(null);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * フィールド指定のリストから、カラム名のリストを取得する。
+     * <p/>
+     * 行番号のカラムには{@code RECNUM}を付与する。
+     * {@code FILLER}フィールド及びLOBファイルのフィールドは、フィールド指定全体とする。
+     *
+     * @param fields フィールド指定のリスト
+     * @return カラム名のリスト
+     */
+    private List<String> getColumnNames(List<FieldDefinition> fields) {
+        List<String> columnNames = new ArrayList<String>();
+        for (FieldDefinition field : fields) {
+            columnNames.add("RECNUM".equals(field.getDataType()) || field.isFiller() || field.isLobFile()
+                    ? field.toString() : field.getColumnName());
+        }
+        return columnNames;
+    }
+
+    /**
+     * 文字列中に含まれる改行コードやタブをエスケープする。
+     * @param str 文字列
+     * @return エスケープ後の文字列
+     */
+    private String escape(String str) {
+        return str.replace("\r", "\\r").replace("\n", "\\n").replace("\t", "\\t");
+    }
+}
@@ -0,0 +1,229 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+
+/**
+ * {@link ControlFileGenerationSession}の生成に使用する設定を保持するクラス。
+ * <p/>
+ * テンプレートファイル以外の設定は省略でき、省略した場合は以下の値を使用する。
+ * <ul>
+ * <li>テンプレートファイルを検索するディレクトリ:クラスパスからのみ検索する</li>
+ * <li>ロードオプションのデフォルト値:全てのオプションが未指定の{@link LoadOptions}</li>
+ * <li>アドバイザ、プロファイラ、サイザ:使用しない</li>
+ * <li>起動スクリプト:生成しない</li>
+ * <li>生成するファイルの拡張子:{@link OutputFormat}の標準のテンプレートファイルの場合はその形式の拡張子、
+ * それ以外の場合は{@code .ctl}</li>
+ * </ul>
+ * 各設定メソッドは本オブジェクトを返すため、以下のように連続して設定できる。
+ * <pre>
+ * {@code new ControlFileGenerator().createSession(new ControlFileGenerationSettings("template/template.ftl")}
+ * {@code         .setLoadOptions(loadOptions)}
+ * {@code         .setSizingAdvisor(new LoadSizingAdvisor(memoryBudget)));}
+ * </pre>
+ *
+ * @see ControlFileGenerator#createSession(ControlFileGenerationSettings)
+ */
+public class ControlFileGenerationSettings {
+
+    /** テンプレートファイル */
+    private final String templateFile;
+
+    /** テンプレートファイルを検索するディレクトリ */
+    private File templateDirectory;
+
+    /** ロードオプションのデフォルト値 */
+    private LoadOptions loadOptions;
+
+    /** バインド配列及び読み込みバッファのサイズを算出するアドバイザ */
+    private LoadSizingAdvisor sizingAdvisor;
+
+    /** 処理フェーズを計測するプロファイラ */
+    private GenerationProfiler profiler;
+
+    /** 起動スクリプトを生成するか否か */
+    private boolean launcherScript;
+
+    /** フィールドの長さを実データに合わせるサイザ */
+    private ProfileFieldSizer fieldSizer;
+
+    /** 生成するファイルの拡張子 */
+    private String outputExtension;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param templateFile テンプレートファイル
+     */
+    public ControlFileGenerationSettings(String templateFile) {
+        this.templateFile = templateFile;
+    }
+
+    /**
+     * テンプレートファイルを取得する。
+     *
+     * @return テンプレートファイル
+     */
+    public String getTemplateFile() {
+        return templateFile;
+    }
+
+    /**
+     * テンプレートファイルを検索するディレクトリを取得する。
+     *
+     * @return テンプレートファイルを検索するディレクトリ(クラスパスからのみ検索する場合は{@code null})
+     */
+    public File getTemplateDirectory() {
+        return templateDirectory;
+    }
+
+    /**
+     * テンプレートファイルを検索するディレクトリを設定する。
+     * <p/>
+     * 指定した場合は、クラスパスより優先してディレクトリから検索する。
+     *
+     * @param templateDirectory テンプレートファイルを検索するディレクトリ(クラスパスからのみ検索する場合は{@code null})
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setTemplateDirectory(File templateDirectory) {
+        this.templateDirectory = templateDirectory;
+        return this;
+    }
+
+    /**
+     * ロードオプションのデフォルト値を取得する。
+     *
+     * @return ロードオプションのデフォルト値(未設定の場合は全てのオプションが未指定の{@link LoadOptions})
+     */
+    public LoadOptions getLoadOptions() {
+        return loadOptions == null ? new LoadOptions() : loadOptions;
+    }
+
+    /**
+     * ロードオプションのデフォルト値を設定する。
+     * <p/>
+     * {@link SqlLoaderOptions}が付与されていないBeanクラス及び{@link SqlLoaderOptions}で指定されていないオプションに使用する。
+     *
+     * @param loadOptions ロードオプションのデフォルト値
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setLoadOptions(LoadOptions loadOptions) {
+        this.loadOptions = loadOptions;
+        return this;
+    }
+
+    /**
+     * バインド配列及び読み込みバッファのサイズを算出するアドバイザを取得する。
+     *
+     * @return アドバイザ(算出しない場合は{@code null})
+     */
+    public LoadSizingAdvisor getSizingAdvisor() {
+        return sizingAdvisor;
+    }
+
+    /**
+     * バインド配列及び読み込みバッファのサイズを算出するアドバイザを設定する。
+     * <p/>
+     * 指定した場合、Beanクラスごとにメモリ予算に収まる読み込みバッファ、列配列及びバインド配列のサイズを算出し、
+     * 明示的に指定されていないロードオプションに設定する。
+     *
+     * @param sizingAdvisor アドバイザ(算出しない場合は{@code null})
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setSizingAdvisor(LoadSizingAdvisor sizingAdvisor) {
+        this.sizingAdvisor = sizingAdvisor;
+        return this;
+    }
+
+    /**
+     * 処理フェーズを計測するプロファイラを取得する。
+     *
+     * @return プロファイラ(計測しない場合は{@code null})
+     */
+    public GenerationProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * 処理フェーズを計測するプロファイラを設定する。
+     * <p/>
+     * 指定した場合、テンプレートファイルの解析及びBeanクラスごとの処理フェーズ
+     * (メタデータの読み込み、{@link ControlDefinition}の生成、テンプレートの処理、ファイルの書き込み)の
+     * 所要時間とアロケーション量を計測する。
+     *
+     * @param profiler プロファイラ(計測しない場合は{@code null})
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setProfiler(GenerationProfiler profiler) {
+        this.profiler = profiler;
+        return this;
+    }
+
+    /**
+     * 起動スクリプトを生成するか否かを取得する。
+     *
+     * @return 起動スクリプトを生成する場合は{@code true}
+     */
+    public boolean isLauncherScript() {
+        return launcherScript;
+    }
+
+    /**
+     * 起動スクリプトを生成するか否かを設定する。
+     * <p/>
+     * 生成する場合は、SQL*Loaderのコントロールファイル({@code .ctl})ごとに、
+     * データファイルを名前付きパイプ経由で展開しながらロードする起動スクリプト({@code <ファイル名>.sh})を生成する。
+     *
+     * @param launcherScript 起動スクリプトを生成するか否か
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setLauncherScript(boolean launcherScript) {
+        this.launcherScript = launcherScript;
+        return this;
+    }
+
+    /**
+     * フィールドの長さを実データに合わせるサイザを取得する。
+     *
+     * @return サイザ(合わせない場合は{@code null})
+     */
+    public ProfileFieldSizer getFieldSizer() {
+        return fieldSizer;
+    }
+
+    /**
+     * フィールドの長さを実データに合わせるサイザを設定する。
+     * <p/>
+     * 指定した場合は、データファイルのプロファイルがあるBeanクラスの
+     * 可変長ファイルの{@code CHAR(n)}のフィールドの長さを、実データの最大長に合わせる。
+     *
+     * @param fieldSizer サイザ(合わせない場合は{@code null})
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setFieldSizer(ProfileFieldSizer fieldSizer) {
+        this.fieldSizer = fieldSizer;
+        return this;
+    }
+
+    /**
+     * 生成するファイルの拡張子を取得する。
+     *
+     * @return 生成するファイルの拡張子(ピリオドを含む)。
+     * 未設定の場合は{@link OutputFormat}の標準のテンプレートファイルであればその形式の拡張子、それ以外は{@code .ctl}
+     */
+    public String getOutputExtension() {
+        return outputExtension == null ? OutputFormat.extensionOf(templateFile) : outputExtension;
+    }
+
+    /**
+     * 生成するファイルの拡張子を設定する。
+     * <p/>
+     * 独自のテンプレートファイルで{@code .ctl}以外のファイルを生成する場合に指定する。
+     *
+     * @param outputExtension 生成するファイルの拡張子(ピリオドを含む。例えば{@code .sql})
+     * @return 本オブジェクト
+     */
+    public ControlFileGenerationSettings setOutputExtension(String outputExtension) {
+        this.outputExtension = outputExtension;
+        return this;
+    }
+}
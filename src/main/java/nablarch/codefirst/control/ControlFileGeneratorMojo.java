@@ -1,10 +1,22 @@
 package nablarch.codefirst.control;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugin.AbstractMojo;
@@ -15,6 +27,8 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 
+import nablarch.core.util.FileUtil;
+
 /**
  * Oracle SQL*Loaderのコントロールファイル生成用Mavenプラグイン。
  *
@@ -23,6 +37,9 @@ import org.apache.maven.project.MavenProject;
 @Mojo(name = "generate-ctrl-file", requiresDependencyResolution = ResolutionScope.RUNTIME)
 public class ControlFileGeneratorMojo extends AbstractMojo {
 
+    /** 改行文字 */
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
     @Parameter(defaultValue = "${project}", required = true, readonly = true)
     MavenProject project;
 
@@ -37,52 +54,616 @@ public class ControlFileGeneratorMojo extends AbstractMojo {
      * 例えば、テンプレートファイルのパスがnablarch/codefirst/control/custom/template.ftlの場合には、custom/template.ftlを設定する。
      * <p/>
      * テンプレートファイルは、クラスパス配下から検索する。
+     * <p/>
+     * 指定しない場合は、{@link #outputFormat}の標準テンプレートファイルを使用する。
+     * 標準以外のテンプレートファイルを指定した場合、生成するファイルの拡張子は{@link #outputExtension}で指定する。
      */
-    @Parameter(defaultValue = "template/template.ftl")
+    @Parameter
     String templateFilePath;
 
+    /**
+     * テンプレートファイルを検索するディレクトリ。
+     * <p/>
+     * 指定した場合は、クラスパスより優先してこのディレクトリからテンプレートファイルを検索する。
+     */
+    @Parameter
+    File templateDirectory;
+
+    /**
+     * 生成するファイルの形式。
+     * <p/>
+     * {@code SQL_LOADER}(SQL*Loaderのコントロールファイル)、
+     * {@code ORACLE_EXTERNAL_TABLE}(Oracleの外部表のDDLとパラレル・ダイレクト・パス・インサート文)又は
+     * {@code POSTGRESQL_COPY}(PostgreSQLの{@code COPY}文)を指定する。
+     */
+    @Parameter(defaultValue = "SQL_LOADER")
+    OutputFormat outputFormat;
+
+    /**
+     * 生成するファイルの拡張子(ピリオドを含む。例えば{@code .sql})。
+     * <p/>
+     * 指定しない場合は、{@link #templateFilePath}を指定していなければ{@link #outputFormat}の拡張子、
+     * 指定していれば{@code .ctl}とする。
+     */
+    @Parameter
+    String outputExtension;
+
     /**
      * コントロールファイルの生成対象となるクラスの完全修飾名リスト
+     * <p/>
+     * {@link #packages}と併用した場合は、両方のクラスが生成対象となる。
      */
-    @Parameter(required = true)
+    @Parameter
     List<String> classes;
 
+    /**
+     * コントロールファイルの生成対象となるクラスを検索するパッケージのリスト
+     * <p/>
+     * 指定したパッケージ(サブパッケージを含む)配下から、{@code nablarch.etl.WorkItem}を継承し、
+     * {@code @Csv}及び{@code @Entity}が付与された具象クラスを検索し、生成対象とする。
+     * 検索はクラスファイルを直接読み込んで行うため、クラスのロードは行わない。
+     */
+    @Parameter
+    List<String> packages;
+
+    /**
+     * パッケージから検索したクラスのうち、生成対象とするクラスの完全修飾名のパターン
+     * <p/>
+     * パターン中の{@code **}は任意の文字列に、{@code *}は{@code .}を含まない任意の文字列にマッチする。
+     * 指定しない場合は、検索した全てのクラスが生成対象となる。
+     */
+    @Parameter
+    List<String> includes;
+
+    /**
+     * パッケージから検索したクラスのうち、生成対象外とするクラスの完全修飾名のパターン
+     * <p/>
+     * パターンの書式は{@link #includes}と同じ。
+     */
+    @Parameter
+    List<String> excludes;
+
+    /**
+     * 1つのデータファイルを複数のテーブルにロードするBeanクラスのグループのリスト
+     * <p/>
+     * グループごとに、Beanクラスごとの{@code INTO TABLE ... WHEN (...)}句を持つ1つのコントロールファイル
+     * ({@code <グループ名>.ctl})を生成する。設定方法は{@link MultiTableGroup}を参照。
+     * グループに属するBeanクラスが{@link #classes}又は{@link #packages}の生成対象でもある場合は、個別のコントロールファイルも生成する。
+     */
+    @Parameter
+    List<MultiTableGroup> multiTableGroups;
+
+    /**
+     * パッケージの検索結果を保存するインデックスファイル
+     * <p/>
+     * 次回の検索では、前回から変更があったクラスパスの要素(ディレクトリ又はjarファイル)のみを再検索する。
+     */
+    @Parameter(defaultValue = "${project.build.directory}/etl/work-item.index")
+    File indexFile;
+
+    /**
+     * インクリメンタル生成を行うか否か。
+     * <p/>
+     * {@code true}の場合、Beanクラスのクラスファイル、テンプレートファイル及び文字コードのマッピング定義から算出した
+     * フィンガープリントを{@link #fingerprintFile}に保存し、前回生成時からフィンガープリントが変わっていないBeanクラスは
+     * コントロールファイルの生成をスキップする。
+     */
+    @Parameter(defaultValue = "false")
+    boolean incremental;
+
+    /** インクリメンタル生成で使用するフィンガープリントの保存先ファイル */
+    @Parameter(defaultValue = "${project.build.directory}/etl/ctrl-file.fingerprint")
+    File fingerprintFile;
+
+    /**
+     * コントロールファイルを並行に生成するスレッド数。
+     * <p/>
+     * 0以下を指定した場合は、利用可能なプロセッサ数を使用する。
+     */
+    @Parameter(defaultValue = "0")
+    int threads;
+
+    /**
+     * Beanクラスのメタデータをクラスファイルから直接読み込むか否か。
+     * <p/>
+     * {@code true}の場合、Beanクラスをロード(及び初期化)せずに、クラスファイルから
+     * テーブル名、カラム及びCSVファイルのフォーマットを読み込む。
+     * クラスファイルから導出できないBeanクラスのみ、ロードしてリフレクションでメタデータを取得する。
+     */
+    @Parameter(defaultValue = "false")
+    boolean classFileMetadata;
+
+    /**
+     * SQL*Loaderのロードオプションのデフォルト値。
+     * <p/>
+     * Beanクラスに{@link SqlLoaderOptions}が付与されている場合は、アノテーションの指定値が優先される。
+     */
+    @Parameter
+    LoadOptions loadOptions;
+
+    /**
+     * SQL*Loaderの1セッションあたりのメモリ予算(バイト)。
+     * <p/>
+     * 0より大きい値を指定した場合、Beanクラスごとに1レコードの最大長を推定し、
+     * メモリ予算に収まる{@code READSIZE}と、ダイレクト・パス・ロードの場合は{@code COLUMNARRAYROWS}及び{@code STREAMSIZE}、
+     * 従来型パス・ロードの場合は{@code ROWS}及び{@code BINDSIZE}をコントロールファイルに出力する。
+     * ロードオプションで明示的に指定された値が優先される。
+     */
+    @Parameter(defaultValue = "0")
+    long memoryBudget;
+
+    /**
+     * {@link #memoryBudget}から算出したサイズのレポートファイル。
+     * <p/>
+     * 今回生成したBeanクラスの算出結果をCSV形式で出力する。
+     */
+    @Parameter(defaultValue = "${project.build.directory}/etl/load-sizing.csv")
+    File sizingReportFile;
+
+    /**
+     * {@code profile-data}で出力したデータファイルのプロファイルのディレクトリ。
+     * <p/>
+     * 指定した場合、プロファイル({@code <Beanクラスの完全修飾名>.json})があるBeanクラスの
+     * 可変長ファイルの{@code CHAR(n)}のフィールドの長さを、実データの最大長に{@link #profileMargin}を加えた長さとする
+     * (Beanクラスの定義から導出した長さを超えない)。{@link #memoryBudget}を指定した場合は、
+     * 読み込みバッファ、列配列及びバインド配列のサイズも変更後の長さから算出する。
+     */
+    @Parameter
+    File profileDirectory;
+
+    /** プロファイルの最大長に加える余裕率(%) */
+    @Parameter(defaultValue = "20")
+    int profileMargin;
+
+    /**
+     * コントロールファイルごとに、名前付きパイプ経由でロードする起動スクリプトを生成するか否か。
+     * <p/>
+     * {@code true}の場合、SQL*Loaderのコントロールファイル({@code .ctl})と同じディレクトリに
+     * 起動スクリプト({@code <ファイル名>.sh})を生成する。起動スクリプトは、名前付きパイプを作成してデータファイル
+     * (gzip又はzstdで圧縮されたファイルも可)を展開しながらパイプに書き込み、{@code INFILE}をパイプに置き換えた
+     * コントロールファイルで{@code sqlldr}を実行する。展開したファイルを作成しないため、展開とロードが並行に行われる。
+     * <pre>
+     * {@code ./Person.sh /data/person.csv.zst userid=etl/etl@orcl}
+     * </pre>
+     */
+    @Parameter(defaultValue = "false")
+    boolean launcherScript;
+
+    /**
+     * 処理フェーズごとの所要時間とアロケーション量を計測するか否か。
+     * <p/>
+     * {@code true}の場合、Beanクラスごとにクラスのロード、{@link ControlDefinition}の生成、テンプレートの処理及び
+     * ファイルの書き込みと、テンプレートファイルの解析を計測し、{@link #timingReportFile}に出力する。
+     * JFRを利用できる実行環境では、フェーズごとにJFRのイベントも記録する。
+     */
+    @Parameter(defaultValue = "false")
+    boolean timingReport;
+
+    /**
+     * {@link #timingReport}の計測結果のレポートファイル。
+     * <p/>
+     * 拡張子が{@code .json}の場合はJSON形式、それ以外はCSV形式で出力する。
+     */
+    @Parameter(defaultValue = "${project.build.directory}/etl/generation-timings.json")
+    File timingReportFile;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
 
-        final ClassLoader newLoader = createClassLoader();
+        final List<String> classpathElements = getClasspathElements();
+        final ClassLoader newLoader = createClassLoader(classpathElements);
+        final Set<String> beanClassNames = collectBeanClassNames(classpathElements, newLoader);
+
+        createOutputDirectory();
+
+        final FingerprintCache cache = incremental ? createFingerprintCache() : null;
+        final GenerationProfiler profiler = timingReport ? new GenerationProfiler() : GenerationProfiler.DISABLED;
+        final Map<String, String> fingerprints = new HashMap<String, String>();
+        final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+        final Map<String, Class<?>> targets =
+                collectTargets(beanClassNames, newLoader, cache, fingerprints, profiler, failures);
+
+        final LoadSizingAdvisor sizingAdvisor = memoryBudget > 0 ? new LoadSizingAdvisor(memoryBudget) : null;
+        final ControlFileGenerationSession session = createSession(sizingAdvisor, profiler);
+        failures.putAll(generate(session, targets, newLoader));
+        final Map<String, Throwable> groupFailures = generateMultiTableGroups(session, newLoader);
 
+        saveFingerprints(cache, targets.keySet(), fingerprints, failures);
+
+        if (sizingAdvisor != null) {
+            sizingAdvisor.writeReport(sizingReportFile);
+        }
+
+        if (timingReport) {
+            profiler.writeReport(timingReportFile);
+        }
+
+        if (!failures.isEmpty() || !groupFailures.isEmpty()) {
+            final StringBuilder message = new StringBuilder("コントロールファイルの生成に失敗しました。 失敗件数=[")
+                    .append(failures.size() + groupFailures.size())
+                    .append(']');
+            appendFailures(message, "Beanクラス", failures);
+            appendFailures(message, "グループ", groupFailures);
+            throw new MojoFailureException(message.toString());
+        }
+    }
+
+    /**
+     * 出力先のディレクトリを作成する。
+     */
+    void createOutputDirectory() {
         if (!outputPath.exists() && !outputPath.mkdirs()) {
             throw new IllegalArgumentException("出力先ディレクトリの作成に失敗しました。");
         }
+    }
 
-        final ControlFileGenerator generator = new ControlFileGenerator();
-        for (String fqcn : classes) {
+    /**
+     * 生成対象のBeanクラスのうち、コントロールファイルを生成するBeanクラスを決定する。
+     * <p/>
+     * インクリメンタル生成の場合、前回生成時からフィンガープリントが変わっていないBeanクラスは除外する。
+     * 存在しないBeanクラスは生成の失敗として記録し、他のBeanクラスの決定は継続する。
+     *
+     * @param beanClassNames 生成対象のBeanクラスの完全修飾名
+     * @param loader プロジェクトのクラスパスを元に生成したクラスローダ
+     * @param cache インクリメンタル生成で使用する{@link FingerprintCache}(インクリメンタル生成でない場合は{@code null})
+     * @param fingerprints 算出したフィンガープリントの格納先
+     * @param profiler 処理フェーズを計測するプロファイラ
+     * @param failures 存在しないBeanクラスの完全修飾名と原因の格納先
+     * @return 生成するBeanクラスの完全修飾名とBeanクラスのマッピング
+     *         (クラスファイルからメタデータを読み込む場合、Beanクラスは{@code null})
+     */
+    Map<String, Class<?>> collectTargets(Set<String> beanClassNames, ClassLoader loader, FingerprintCache cache,
+            Map<String, String> fingerprints, GenerationProfiler profiler, Map<String, Throwable> failures) {
+        final Map<String, Class<?>> targets = new LinkedHashMap<String, Class<?>>();
+        for (String fqcn : beanClassNames) {
+            final Class<?> beanClass;
             try {
-                generator.execute(newLoader.loadClass(fqcn), templateFilePath, outputPath);
-            } catch (ClassNotFoundException e) {
-                throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + fqcn + ']', e);
+                beanClass = classFileMetadata ? null : loadBeanClass(loader, fqcn, profiler);
+                if (classFileMetadata && loader.getResource(fqcn.replace('.', '/') + ".class") == null) {
+                    throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + fqcn + ']');
+                }
+            } catch (IllegalArgumentException e) {
+                getLog().error(e.getMessage());
+                failures.put(fqcn, e);
+                continue;
+            }
+            if (cache != null) {
+                final String fingerprint = cache.fingerprint(fqcn, loader);
+                if (cache.isUpToDate(fqcn, fingerprint, getGeneratedFile(fqcn))) {
+                    getLog().debug("コントロールファイルは最新のため生成をスキップします。 Beanクラス=[" + fqcn + ']');
+                    continue;
+                }
+                fingerprints.put(fqcn, fingerprint);
             }
+            targets.put(fqcn, beanClass);
+        }
+        return targets;
+    }
+
+    /**
+     * 生成に成功したBeanクラスのフィンガープリントを保存する。
+     *
+     * @param cache インクリメンタル生成で使用する{@link FingerprintCache}(インクリメンタル生成でない場合は{@code null})
+     * @param generated 生成したBeanクラスの完全修飾名
+     * @param fingerprints 算出したフィンガープリント
+     * @param failures 生成に失敗したBeanクラスの完全修飾名と原因のマッピング
+     */
+    static void saveFingerprints(FingerprintCache cache, Set<String> generated, Map<String, String> fingerprints,
+            Map<String, Throwable> failures) {
+        if (cache == null) {
+            return;
+        }
+        for (String fqcn : generated) {
+            if (!failures.containsKey(fqcn)) {
+                cache.put(fqcn, fingerprints.get(fqcn));
+            }
+        }
+        cache.save();
+    }
+
+    /**
+     * 生成に失敗した対象と原因を、エラーメッセージに追加する。
+     *
+     * @param message エラーメッセージ
+     * @param label 生成に失敗した対象の種類
+     * @param failures 生成に失敗した対象と原因のマッピング
+     */
+    static void appendFailures(StringBuilder message, String label, Map<String, Throwable> failures) {
+        for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+            message.append(LINE_SEPARATOR)
+                   .append(label)
+                   .append("=[")
+                   .append(failure.getKey())
+                   .append("] 原因=[")
+                   .append(failure.getValue().getMessage())
+                   .append(']');
+        }
+    }
+
+    /**
+     * Beanクラスのグループごとに、複数のテーブルにロードするコントロールファイルを生成する。
+     * <p/>
+     * 生成に失敗したグループがあっても、他のグループの生成は継続する。
+     *
+     * @param session コントロールファイルを生成するセッション
+     * @param loader プロジェクトのクラスパスを元に生成したクラスローダ
+     * @return 生成に失敗したグループ名と原因のマッピング
+     */
+    Map<String, Throwable> generateMultiTableGroups(ControlFileGenerationSession session, ClassLoader loader) {
+        final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+        if (multiTableGroups == null) {
+            return failures;
+        }
+        for (MultiTableGroup group : multiTableGroups) {
+            try {
+                session.execute(group, loader, outputPath);
+            } catch (RuntimeException e) {
+                getLog().error("コントロールファイルの生成に失敗しました。 グループ=[" + group.getName() + ']', e);
+                failures.put(group.getName(), e);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Beanクラスごとのコントロールファイルの生成を、スレッド数を上限として並行に実行する。
+     * <p/>
+     * 生成に失敗したBeanクラスがあっても、他のBeanクラスの生成は継続する。
+     *
+     * @param session コントロールファイルを生成するセッション
+     * @param targets 生成対象のBeanクラスの完全修飾名とBeanクラスのマッピング
+     *                (クラスファイルからメタデータを読み込む場合、Beanクラスは{@code null})
+     * @param loader プロジェクトのクラスパスを元に生成したクラスローダ
+     * @return 生成に失敗したBeanクラスの完全修飾名と原因のマッピング
+     * @throws MojoExecutionException 生成の完了待ちで割り込みが発生した場合
+     */
+    private Map<String, Throwable> generate(ControlFileGenerationSession session, Map<String, Class<?>> targets,
+            ClassLoader loader) throws MojoExecutionException {
+        if (targets.isEmpty()) {
+            return new LinkedHashMap<String, Throwable>();
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(getThreadCount(), targets.size()));
+        try {
+            return await(submit(executor, session, targets, loader));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Beanクラスごとのコントロールファイルの生成を、{@link #outputPath}を出力先としてスレッドプールに登録する。
+     *
+     * @param executor 生成を実行するスレッドプール
+     * @param session コントロールファイルを生成するセッション
+     * @param targets 生成対象のBeanクラスの完全修飾名とBeanクラスのマッピング
+     *                (クラスファイルからメタデータを読み込む場合、Beanクラスは{@code null})
+     * @param loader プロジェクトのクラスパスを元に生成したクラスローダ
+     * @return Beanクラスの完全修飾名と生成の完了を待つ{@link Future}のマッピング
+     */
+    Map<String, Future<?>> submit(ExecutorService executor, final ControlFileGenerationSession session,
+            Map<String, Class<?>> targets, final ClassLoader loader) {
+        final File outputDir = outputPath;
+        final Map<String, Future<?>> futures = new LinkedHashMap<String, Future<?>>();
+        for (final Map.Entry<String, Class<?>> target : targets.entrySet()) {
+            futures.put(target.getKey(), executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    if (target.getValue() != null) {
+                        session.execute(target.getValue(), outputDir);
+                    } else {
+                        session.execute(target.getKey(), loader, outputDir);
+                    }
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Beanクラスごとのコントロールファイルの生成の完了を待つ。
+     *
+     * @param futures Beanクラスの完全修飾名と生成の完了を待つ{@link Future}のマッピング
+     * @return 生成に失敗したBeanクラスの完全修飾名と原因のマッピング
+     * @throws MojoExecutionException 生成の完了待ちで割り込みが発生した場合
+     */
+    Map<String, Throwable> await(Map<String, Future<?>> futures) throws MojoExecutionException {
+        final Map<String, Throwable> failures = new LinkedHashMap<String, Throwable>();
+        try {
+            for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+                try {
+                    future.getValue().get();
+                } catch (ExecutionException e) {
+                    getLog().error("コントロールファイルの生成に失敗しました。 Beanクラス=[" + future.getKey() + ']', e.getCause());
+                    failures.put(future.getKey(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("コントロールファイルの生成中に割り込みが発生しました。", e);
+        }
+        return failures;
+    }
+
+    /**
+     * コントロールファイルを生成するセッションを作成する。
+     *
+     * @param sizingAdvisor バインド配列及び読み込みバッファのサイズを算出するアドバイザ(算出しない場合は{@code null})
+     * @param profiler 処理フェーズを計測するプロファイラ
+     * @return セッション
+     */
+    ControlFileGenerationSession createSession(LoadSizingAdvisor sizingAdvisor, GenerationProfiler profiler) {
+        return new ControlFileGenerator().createSession(new ControlFileGenerationSettings(getTemplateFilePath())
+                .setTemplateDirectory(templateDirectory)
+                .setLoadOptions(loadOptions)
+                .setSizingAdvisor(sizingAdvisor)
+                .setProfiler(profiler)
+                .setLauncherScript(launcherScript)
+                .setFieldSizer(createFieldSizer())
+                .setOutputExtension(outputExtension));
+    }
+
+    /**
+     * Beanクラスをロードする。
+     *
+     * @param loader プロジェクトのクラスパスを元に生成したクラスローダ
+     * @param fqcn Beanクラスの完全修飾名
+     * @param profiler 処理フェーズを計測するプロファイラ
+     * @return Beanクラス
+     */
+    private static Class<?> loadBeanClass(ClassLoader loader, String fqcn, GenerationProfiler profiler) {
+        final GenerationProfiler.Measurement measurement = profiler.start(fqcn, GenerationProfiler.Phase.CLASS_LOAD);
+        try {
+            return loader.loadClass(fqcn);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + fqcn + ']', e);
+        } finally {
+            measurement.end();
+        }
+    }
+
+    /**
+     * Beanクラスから生成したファイル(コントロールファイル又はマニフェストファイル)を取得する。
+     *
+     * @param fqcn Beanクラスの完全修飾名
+     * @return 生成したファイル。セッションごとのコントロールファイルを生成した場合はマニフェストファイル
+     * @see SqlLoaderPartitions
+     */
+    private File getGeneratedFile(String fqcn) {
+        final String extension = outputExtension == null ? OutputFormat.extensionOf(getTemplateFilePath()) : outputExtension;
+        final File controlFile = new File(outputPath, toSimpleName(fqcn) + extension);
+        return controlFile.exists() ? controlFile : new File(outputPath, toSimpleName(fqcn) + ".manifest");
+    }
+
+    /**
+     * 使用するテンプレートファイルのパスを取得する。
+     *
+     * @return {@link #templateFilePath}。指定されていない場合は{@link #outputFormat}の標準テンプレートファイル
+     */
+    String getTemplateFilePath() {
+        if (templateFilePath != null) {
+            return templateFilePath;
+        }
+        return (outputFormat == null ? OutputFormat.SQL_LOADER : outputFormat).getTemplateFile();
+    }
+
+    /**
+     * クラスの完全修飾名から単純名を取得する。
+     *
+     * @param fqcn クラスの完全修飾名
+     * @return クラスの単純名
+     */
+    private static String toSimpleName(String fqcn) {
+        return fqcn.substring(Math.max(fqcn.lastIndexOf('.'), fqcn.lastIndexOf('$')) + 1);
+    }
+
+    /**
+     * インクリメンタル生成で使用する{@link FingerprintCache}を生成する。
+     *
+     * @return {@link FingerprintCache}
+     */
+    FingerprintCache createFingerprintCache() {
+        final File template = templateDirectory == null ? null : new File(templateDirectory, getTemplateFilePath());
+        final InputStream templateStream;
+        try {
+            templateStream = template != null && template.isFile()
+                    ? new FileInputStream(template)
+                    : ControlFileGenerator.class.getResourceAsStream(getTemplateFilePath());
+        } catch (FileNotFoundException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return new FingerprintCache(
+                fingerprintFile,
+                templateStream,
+                FileUtil.getResource("classpath:charset.properties"),
+                String.valueOf(loadOptions) + ", memoryBudget=" + memoryBudget + (launcherScript ? ", launcherScript=true" : "")
+                        + (profileDirectory == null ? "" : ", " + createFieldSizer().getFingerprint()));
+    }
+
+    /**
+     * フィールドの長さを実データに合わせる{@link ProfileFieldSizer}を生成する。
+     *
+     * @return {@link ProfileFieldSizer}({@link #profileDirectory}が指定されていない場合は{@code null})
+     */
+    private ProfileFieldSizer createFieldSizer() {
+        return profileDirectory == null ? null : new ProfileFieldSizer(profileDirectory, profileMargin);
+    }
+
+    /**
+     * 生成対象のBeanクラスの完全修飾名を収集する。
+     * <p/>
+     * {@link #classes}に指定されたクラスと、{@link #packages}から検索したクラスを生成対象とする。
+     * {@link #multiTableGroups}のみを指定した場合は、空となる。
+     *
+     * @param classpathElements プロジェクトのクラスパスの要素
+     * @param loader プロジェクトのクラスパスを元に生成したクラスローダ
+     * @return 生成対象のBeanクラスの完全修飾名
+     */
+    Set<String> collectBeanClassNames(List<String> classpathElements, ClassLoader loader) {
+        final boolean hasClasses = classes != null && !classes.isEmpty();
+        final boolean hasPackages = packages != null && !packages.isEmpty();
+        if (!hasClasses && !hasPackages && (multiTableGroups == null || multiTableGroups.isEmpty())) {
+            throw new IllegalArgumentException("classes又はpackagesを指定してください。");
+        }
+        final Set<String> beanClassNames = new LinkedHashSet<String>();
+        if (hasClasses) {
+            beanClassNames.addAll(classes);
+        }
+        if (hasPackages) {
+            final List<String> found = new WorkItemScanner(packages, loader, indexFile, getThreadCount())
+                    .scan(classpathElements, includes, excludes);
+            getLog().debug("パッケージから検索したBeanクラス=" + found);
+            beanClassNames.addAll(found);
+        }
+        return beanClassNames;
+    }
+
+    /**
+     * 並行処理に使用するスレッド数を取得する。
+     *
+     * @return {@link #threads}が0以下の場合は利用可能なプロセッサ数、それ以外は{@link #threads}
+     */
+    int getThreadCount() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * プロジェクトのクラスパスの要素を取得する。
+     *
+     * @return クラスパスの要素
+     */
+    private List<String> getClasspathElements() {
+        return getClasspathElements(project);
+    }
+
+    /**
+     * プロジェクトのクラスパスの要素を取得する。
+     *
+     * @param project プロジェクト
+     * @return クラスパスの要素
+     */
+    static List<String> getClasspathElements(MavenProject project) {
+        try {
+            return project.getRuntimeClasspathElements();
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException(e);
         }
     }
 
     /**
      * プロジェクトのクラスパスを元にクラスローダを生成する。
      *
+     * @param elements プロジェクトのクラスパスの要素
      * @return クラスローダ
      */
-    private ClassLoader createClassLoader() {
+    static URLClassLoader createClassLoader(List<String> elements) {
         URLClassLoader newLoader;
         try {
-            final List<String> elements = project.getRuntimeClasspathElements();
             final URL[] urls = new URL[elements.size()];
             for (int i = 0; i < elements.size(); i++) {
                 String element = elements.get(i);
                 urls[i] = new File(element).toURI().toURL();
             }
             newLoader = new URLClassLoader(urls, Thread.currentThread().getContextClassLoader());
-        } catch (DependencyResolutionRequiredException e) {
-            throw new IllegalArgumentException(e);
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException(e);
         }
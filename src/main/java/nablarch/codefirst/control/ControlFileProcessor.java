@@ -0,0 +1,172 @@
+package nablarch.codefirst.control;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * コンパイル時に、{@code @Csv}(又は{@code @FixedLength})と{@code @Entity}が付与された
+ * {@code WorkItem}のBeanクラスからコントロールファイルを生成するアノテーションプロセッサ。
+ * <p/>
+ * コントロールファイルは、クラスファイルの出力先にリソースとして生成する。
+ * Beanクラスはロードせずに、コンパイル中の要素からメタデータを取得する({@link ElementBeanMetadata})。
+ * 生成するファイルはBeanクラスを起点とするため、インクリメンタルコンパイルでは変更されたBeanクラスのみ再生成される。
+ * <p/>
+ * 本プロセッサは、本プラグインをクラスパスに含むプロジェクトのコンパイルで自動的に検出されるため、
+ * {@value #OUTPUT_PATH}オプションを指定した場合のみコントロールファイルを生成する(指定しない場合は何もしない)。
+ * <pre>
+ * {@code javac -Anablarch.etl.outputPath=etl/ctrl-file ...}
+ * </pre>
+ * 以下のオプション({@code -A<オプション名>=<値>})を指定できる。
+ * <ul>
+ *     <li>{@value #OUTPUT_PATH}:クラスファイルの出力先からの相対パス(必須。指定しない場合はコントロールファイルを生成しない)</li>
+ *     <li>{@value #OUTPUT_FORMAT}:生成するファイルの形式({@link OutputFormat}。デフォルトは{@code SQL_LOADER})</li>
+ *     <li>{@value #TEMPLATE_FILE_PATH}:テンプレートファイルのパス(デフォルトは出力形式の標準テンプレートファイル)。
+ *     テンプレートファイルは、アノテーションプロセッサのクラスパス配下から検索する。</li>
+ *     <li>{@value #OUTPUT_EXTENSION}:生成するファイルの拡張子(デフォルトは標準テンプレートファイルの場合は出力形式の拡張子、
+ *     それ以外の場合は{@code .ctl})</li>
+ * </ul>
+ * インスタンスを生成できないクラス(抽象クラス、インタフェース及び非staticの内部クラス)は対象外とする。
+ * コントロールファイルを生成できないBeanクラスは、コンパイルエラーとして報告する。
+ */
+@SupportedAnnotationTypes({ClassFileBeanMetadata.CSV, ClassFileBeanMetadata.FIXED_LENGTH})
+@SupportedOptions({
+        ControlFileProcessor.OUTPUT_PATH, ControlFileProcessor.OUTPUT_FORMAT, ControlFileProcessor.TEMPLATE_FILE_PATH,
+        ControlFileProcessor.OUTPUT_EXTENSION})
+public class ControlFileProcessor extends AbstractProcessor {
+
+    /** 出力先のオプション名 */
+    static final String OUTPUT_PATH = "nablarch.etl.outputPath";
+
+    /** 出力形式のオプション名 */
+    static final String OUTPUT_FORMAT = "nablarch.etl.outputFormat";
+
+    /** テンプレートファイルのオプション名 */
+    static final String TEMPLATE_FILE_PATH = "nablarch.etl.templateFilePath";
+
+    /** 生成するファイルの拡張子のオプション名 */
+    static final String OUTPUT_EXTENSION = "nablarch.etl.outputExtension";
+
+    /** コントロールファイル生成のセッション(最初に生成対象のBeanクラスを処理する際に生成する) */
+    private ControlFileGenerationSession session;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final String outputPath = getOption(OUTPUT_PATH, null);
+        if (outputPath == null) {
+            // 出力先が指定されていない場合は、コントロールファイルを生成しない
+            return false;
+        }
+        final Set<TypeElement> beans = new LinkedHashSet<TypeElement>();
+        for (TypeElement annotation : annotations) {
+            beans.addAll(ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation)));
+        }
+        for (TypeElement bean : beans) {
+            if (!isConcreteClass(bean)) {
+                continue;
+            }
+            final ElementBeanMetadata metadata = new ElementBeanMetadata(bean, processingEnv);
+            if (metadata.getAnnotation(ClassFileBeanMetadata.ENTITY) == null || !metadata.isWorkItem()) {
+                continue;
+            }
+            try {
+                generate(metadata, bean, outputPath);
+            } catch (RuntimeException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "failed to generate control file. class = [" + metadata.getClassName() + "], cause = [" + e + ']',
+                        bean);
+            }
+        }
+        // 他のアノテーションプロセッサも処理できるように、アノテーションは要求しない
+        return false;
+    }
+
+    /**
+     * 要素がインスタンスを生成できるクラス(トップレベル又はstaticのネストした具象クラス)か否かを判定する。
+     *
+     * @param bean Beanクラスの要素
+     * @return インスタンスを生成できるクラスの場合は{@code true}
+     */
+    private static boolean isConcreteClass(TypeElement bean) {
+        if (bean.getKind() != ElementKind.CLASS || bean.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        final NestingKind nesting = bean.getNestingKind();
+        return nesting == NestingKind.TOP_LEVEL
+                || (nesting == NestingKind.MEMBER && bean.getModifiers().contains(Modifier.STATIC));
+    }
+
+    /**
+     * Beanクラスのコントロールファイルを生成し、クラスファイルの出力先に書き込む。
+     *
+     * @param metadata Beanクラスのメタデータ
+     * @param bean Beanクラスの要素
+     * @param outputPath クラスファイルの出力先からの相対パス
+     */
+    private void generate(ElementBeanMetadata metadata, Element bean, String outputPath) {
+        for (Map.Entry<String, byte[]> file : getSession().generate(metadata).entrySet()) {
+            OutputStream out = null;
+            try {
+                final FileObject resource = processingEnv.getFiler().createResource(
+                        StandardLocation.CLASS_OUTPUT, "", outputPath + '/' + file.getKey(), bean);
+                out = resource.openOutputStream();
+                out.write(file.getValue());
+            } catch (IOException e) {
+                throw new RuntimeException("failed to write control file. file = [" + file.getKey() + ']', e);
+            } finally {
+                FileUtil.closeQuietly(out);
+            }
+        }
+    }
+
+    /**
+     * コントロールファイル生成のセッションを取得する。
+     *
+     * @return セッション
+     */
+    private ControlFileGenerationSession getSession() {
+        if (session == null) {
+            final String outputFormat = getOption(OUTPUT_FORMAT, OutputFormat.SQL_LOADER.name());
+            final String templateFilePath = getOption(TEMPLATE_FILE_PATH, OutputFormat.valueOf(outputFormat).getTemplateFile());
+            session = new ControlFileGenerator().createSession(new ControlFileGenerationSettings(templateFilePath)
+                    .setOutputExtension(getOption(OUTPUT_EXTENSION, null)));
+        }
+        return session;
+    }
+
+    /**
+     * オプションの値を取得する。
+     *
+     * @param name オプション名
+     * @param defaultValue 指定されていない場合の値
+     * @return オプションの値
+     */
+    private String getOption(String name, String defaultValue) {
+        final String value = processingEnv.getOptions().get(name);
+        return value == null || value.length() == 0 ? defaultValue : value;
+    }
+}
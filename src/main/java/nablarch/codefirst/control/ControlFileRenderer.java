@@ -0,0 +1,220 @@
+package nablarch.codefirst.control;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * バッチの実行時に、Beanクラスからコントロールファイルの内容を生成するクラス。
+ * <p/>
+ * ファイルに出力せずに、文字列、{@link Writer}又は{@link OutputStream}(UTF-8)に出力する。
+ * 解析済みのテンプレートはテンプレートファイルごとに、生成した内容はBeanクラスとテンプレートファイルの組ごとにキャッシュする。
+ * 生成した内容のキャッシュは最大件数を上限とし、上限を超えた場合は最も長く使用されていない内容を破棄する。
+ * 同じBeanクラスとテンプレートファイルの組を複数のスレッドから同時に要求した場合も、生成は1回のみ行う。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ * <p/>
+ * 1つのBeanクラスから1つのコントロールファイルを生成するため、以下には対応しない。
+ * これらは{@link ControlFileGenerator}又はプラグインの{@code generate-ctrl-file}でファイルとして生成すること。
+ * <ul>
+ * <li>{@link SqlLoaderPartitions}が付与されたBeanクラス(セッションごとのコントロールファイル)。指定した場合は例外を送出する。</li>
+ * <li>{@link MultiTableGroup}(複数のBeanクラスから生成する1つのコントロールファイル)</li>
+ * </ul>
+ * <pre>
+ * {@code
+ * private static final ControlFileRenderer RENDERER = new ControlFileRenderer();
+ *
+ * final String controlFile = RENDERER.render(Person.class, "template/template.ftl");
+ * }
+ * </pre>
+ */
+public class ControlFileRenderer {
+
+    /** 生成した内容をキャッシュする最大件数のデフォルト値 */
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+
+    /** {@link OutputStream}に出力する場合の文字コード */
+    private static final Charset OUTPUT_CHARSET = Charset.forName("UTF-8");
+
+    /** ロードオプションのデフォルト値 */
+    private final LoadOptions defaultLoadOptions;
+
+    /** テンプレートファイルとセッションのキャッシュ */
+    private final ConcurrentMap<String, ControlFileGenerationSession> sessions =
+            new ConcurrentHashMap<String, ControlFileGenerationSession>();
+
+    /** Beanクラス及びテンプレートファイルと、生成した内容のキャッシュ(アクセス順) */
+    private final Map<List<Object>, Future<String>> contents;
+
+    /**
+     * 最大件数を{@value #DEFAULT_MAX_ENTRIES}件としてキャッシュする。
+     */
+    public ControlFileRenderer() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * 指定された件数を上限としてキャッシュする。
+     *
+     * @param maxEntries 生成した内容をキャッシュする最大件数
+     */
+    public ControlFileRenderer(int maxEntries) {
+        this(maxEntries, new LoadOptions());
+    }
+
+    /**
+     * 指定された件数を上限としてキャッシュする。
+     * <p/>
+     * 指定したロードオプションは、{@link SqlLoaderOptions}が付与されていないBeanクラス
+     * 及び{@link SqlLoaderOptions}で指定されていないオプションに使用する。
+     *
+     * @param maxEntries 生成した内容をキャッシュする最大件数
+     * @param defaultLoadOptions ロードオプションのデフォルト値
+     */
+    public ControlFileRenderer(final int maxEntries, LoadOptions defaultLoadOptions) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive. maxEntries = [" + maxEntries + ']');
+        }
+        this.defaultLoadOptions = defaultLoadOptions;
+        contents = new LinkedHashMap<List<Object>, Future<String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, Future<String>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Beanクラスとテンプレートファイルから生成したコントロールファイルの内容を取得する。
+     *
+     * @param beanClass Beanクラス
+     * @param templateFile テンプレートファイル
+     * @return コントロールファイルの内容
+     */
+    public String render(final Class<?> beanClass, final String templateFile) {
+        final List<Object> key = Arrays.<Object>asList(beanClass, templateFile);
+        final FutureTask<String> created = new FutureTask<String>(new Callable<String>() {
+            @Override
+            public String call() {
+                return getSession(templateFile).renderUncached(beanClass);
+            }
+        });
+        final Future<String> content;
+        synchronized (contents) {
+            final Future<String> cached = contents.get(key);
+            if (cached == null) {
+                contents.put(key, created);
+            }
+            content = cached == null ? created : cached;
+        }
+        if (content == created) {
+            created.run();
+        }
+        try {
+            return content.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            synchronized (contents) {
+                if (contents.get(key) == content) {
+                    contents.remove(key);
+                }
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException("failed to generate control file.", e.getCause());
+        }
+    }
+
+    /**
+     * Beanクラスとテンプレートファイルから生成したコントロールファイルの内容を、指定された{@link Writer}に出力する。
+     *
+     * @param beanClass Beanクラス
+     * @param templateFile テンプレートファイル
+     * @param writer 出力先
+     */
+    public void render(Class<?> beanClass, String templateFile, Writer writer) {
+        final String content = render(beanClass, templateFile);
+        try {
+            writer.write(content);
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write control file.", e);
+        }
+    }
+
+    /**
+     * Beanクラスとテンプレートファイルから生成したコントロールファイルの内容を、
+     * 指定された{@link OutputStream}にUTF-8で出力する。
+     *
+     * @param beanClass Beanクラス
+     * @param templateFile テンプレートファイル
+     * @param out 出力先
+     */
+    public void render(Class<?> beanClass, String templateFile, OutputStream out) {
+        final byte[] content = render(beanClass, templateFile).getBytes(OUTPUT_CHARSET);
+        try {
+            out.write(content);
+            out.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write control file.", e);
+        }
+    }
+
+    /**
+     * キャッシュしている内容の件数を取得する。
+     *
+     * @return キャッシュしている内容の件数
+     */
+    public int getCacheSize() {
+        synchronized (contents) {
+            return contents.size();
+        }
+    }
+
+    /**
+     * キャッシュした内容を全て破棄する。
+     * <p/>
+     * 解析済みのテンプレートも破棄する。
+     */
+    public void clear() {
+        synchronized (contents) {
+            contents.clear();
+        }
+        sessions.clear();
+    }
+
+    /**
+     * テンプレートファイルを解析したセッションを取得する。
+     *
+     * @param templateFile テンプレートファイル
+     * @return セッション
+     */
+    private ControlFileGenerationSession getSession(String templateFile) {
+        final ControlFileGenerationSession session = sessions.get(templateFile);
+        if (session != null) {
+            return session;
+        }
+        final ControlFileGenerationSession created =
+                new ControlFileGenerator().createSession(
+                        new ControlFileGenerationSettings(templateFile).setLoadOptions(defaultLoadOptions));
+        final ControlFileGenerationSession existing = sessions.putIfAbsent(templateFile, created);
+        return existing != null ? existing : created;
+    }
+}
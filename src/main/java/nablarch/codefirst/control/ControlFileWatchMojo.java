@@ -0,0 +1,232 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * Beanクラス又はテンプレートファイルの変更を監視し、コントロールファイルを再生成するMavenプラグイン。
+ * <p/>
+ * 起動時に{@code generate-ctrl-file}と同じ生成を行った後、停止されるまで以下の変更を監視する。
+ * <ul>
+ *     <li>{@link #watchDirectory}配下の生成対象のBeanクラスのクラスファイル:変更されたBeanクラスのコントロールファイルを再生成する</li>
+ *     <li>{@link #templateDirectory}配下のファイル:テンプレートファイルを解析し直し、全てのBeanクラスのコントロールファイルを再生成する</li>
+ * </ul>
+ * クラスローダと解析済みのテンプレートは監視中に使い回し、Beanクラスのメタデータはクラスファイルから読み込む。
+ * クラスファイルからメタデータを導出できないBeanクラスは、変更を検出するごとに作り直すクラスローダでロードする。
+ * スーパクラスのみを変更した場合、サブクラスのコントロールファイルは再生成しない。
+ * <p/>
+ * {@link #multiTableGroups}のコントロールファイルは起動時にのみ生成し、監視中は再生成しない。
+ * グループに属するBeanクラスを変更した場合は、{@code generate-ctrl-file}を実行して再生成すること。
+ * <p/>
+ * 変更の検出は{@link #pollInterval}ごとのポーリングで行う。
+ */
+@Mojo(name = "watch", requiresDependencyResolution = ResolutionScope.RUNTIME)
+public class ControlFileWatchMojo extends ControlFileGeneratorMojo {
+
+    /** 監視するクラスファイルの出力先ディレクトリ */
+    @Parameter(defaultValue = "${project.build.outputDirectory}")
+    File watchDirectory;
+
+    /** 変更を検出する間隔(ミリ秒) */
+    @Parameter(defaultValue = "500")
+    long pollInterval;
+
+    /** プロジェクトのクラスパスの要素 */
+    private List<String> classpathElements;
+
+    /** プロジェクトのクラスパスを元に生成したクラスローダ */
+    private ClassLoader loader;
+
+    /** クラスファイルからメタデータを導出できないBeanクラスをロードするクラスローダ(未生成の場合は{@code null}) */
+    private URLClassLoader reflectionLoader;
+
+    /** 生成対象のBeanクラスの完全修飾名 */
+    private Set<String> targets;
+
+    /** コントロールファイルを生成するセッション */
+    private ControlFileGenerationSession session;
+
+    /** 変更の検出 */
+    private DirectoryPoller poller;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            super.execute();
+        } catch (MojoFailureException e) {
+            // 生成に失敗したBeanクラスは、変更を検出した時点で再生成する
+            getLog().error(e.getMessage());
+        }
+        startWatching();
+        getLog().info("Beanクラス及びテンプレートファイルの変更の監視を開始します。 停止する場合はCtrl+Cを入力してください。");
+        if (multiTableGroups != null && !multiTableGroups.isEmpty()) {
+            getLog().info("multiTableGroupsのコントロールファイルは監視中に再生成しません。");
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                poll();
+            }
+        } finally {
+            closeReflectionLoader();
+        }
+    }
+
+    /**
+     * 監視を開始する。
+     * <p/>
+     * クラスローダ、生成対象のBeanクラス及びセッションを準備し、監視するディレクトリの現在の状態を記録する。
+     */
+    void startWatching() {
+        classpathElements = getClasspathElements(project);
+        loader = createClassLoader(classpathElements);
+        targets = collectBeanClassNames(classpathElements, loader);
+        session = createSession(memoryBudget > 0 ? new LoadSizingAdvisor(memoryBudget) : null, null);
+
+        final List<File> directories = new ArrayList<File>();
+        directories.add(watchDirectory);
+        if (templateDirectory != null) {
+            directories.add(templateDirectory);
+        }
+        poller = new DirectoryPoller(directories);
+    }
+
+    /**
+     * 前回のポーリング以降の変更を検出し、影響を受けるコントロールファイルを再生成する。
+     *
+     * @return 再生成したBeanクラスの完全修飾名
+     */
+    Set<String> poll() {
+        final List<File> changed = poller.poll();
+        if (!changed.isEmpty()) {
+            // 変更後のクラスをロードできるように、前回までのクラスローダは破棄する
+            closeReflectionLoader();
+        }
+        final Set<String> regenerating = new LinkedHashSet<String>();
+        boolean templateChanged = false;
+        boolean otherClassChanged = false;
+        for (File file : changed) {
+            final String className = toClassName(file);
+            if (className != null) {
+                if (targets.contains(className)) {
+                    regenerating.add(className);
+                } else {
+                    otherClassChanged = true;
+                }
+            } else if (templateDirectory != null && isUnder(file, templateDirectory)) {
+                templateChanged = true;
+            }
+        }
+        if (otherClassChanged && packages != null && !packages.isEmpty()) {
+            // パッケージ配下に追加されたBeanクラスを生成対象とする
+            final Set<String> scanned = collectBeanClassNames(classpathElements, loader);
+            for (File file : changed) {
+                final String className = toClassName(file);
+                if (className != null && scanned.contains(className) && !targets.contains(className)) {
+                    regenerating.add(className);
+                }
+            }
+            targets = scanned;
+        }
+        if (templateChanged) {
+            try {
+                session = createSession(memoryBudget > 0 ? new LoadSizingAdvisor(memoryBudget) : null, null);
+                getLog().info("テンプレートファイルの変更を検出しました。 テンプレートファイル=[" + getTemplateFilePath() + ']');
+                regenerating.addAll(targets);
+            } catch (RuntimeException e) {
+                getLog().error("テンプレートファイルの解析に失敗しました。 テンプレートファイル=[" + getTemplateFilePath() + ']', e);
+            }
+        }
+
+        final Set<String> regenerated = new LinkedHashSet<String>();
+        for (String className : regenerating) {
+            try {
+                regenerate(className);
+                regenerated.add(className);
+            } catch (RuntimeException e) {
+                getLog().error("コントロールファイルの生成に失敗しました。 Beanクラス=[" + className + ']', e);
+            }
+        }
+        if (!regenerated.isEmpty()) {
+            getLog().info("コントロールファイルを再生成しました。 Beanクラス=" + regenerated);
+        }
+        return regenerated;
+    }
+
+    /**
+     * Beanクラスのコントロールファイルを再生成する。
+     * <p/>
+     * メタデータはクラスファイルから読み込む。クラスファイルから導出できない場合は、
+     * 変更を検出した後に作成したクラスローダでBeanクラスをロードする。
+     * クラスローダは同じポーリングで再生成する他のBeanクラスと共有する。
+     *
+     * @param className Beanクラスの完全修飾名
+     */
+    private void regenerate(String className) {
+        BeanMetadata metadata = ClassFileBeanMetadata.create(className, loader);
+        if (metadata == null) {
+            try {
+                if (reflectionLoader == null) {
+                    reflectionLoader = createClassLoader(classpathElements);
+                }
+                metadata = new ReflectionBeanMetadata(reflectionLoader.loadClass(className));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + className + ']', e);
+            }
+        }
+        session.execute(metadata, outputPath);
+    }
+
+    /**
+     * Beanクラスをロードしたクラスローダを閉じる。
+     */
+    private void closeReflectionLoader() {
+        if (reflectionLoader != null) {
+            FileUtil.closeQuietly(reflectionLoader);
+            reflectionLoader = null;
+        }
+    }
+
+    /**
+     * 監視するディレクトリ配下のクラスファイルから、クラスの完全修飾名を取得する。
+     *
+     * @param file ファイル
+     * @return クラスの完全修飾名。監視するディレクトリ配下のクラスファイルでない場合は{@code null}
+     */
+    private String toClassName(File file) {
+        final String root = watchDirectory.getAbsolutePath() + File.separator;
+        final String path = file.getAbsolutePath();
+        if (!path.startsWith(root) || !path.endsWith(".class")) {
+            return null;
+        }
+        return path.substring(root.length(), path.length() - ".class".length()).replace(File.separatorChar, '.');
+    }
+
+    /**
+     * ファイルがディレクトリ配下に存在するか否かを判定する。
+     *
+     * @param file ファイル
+     * @param directory ディレクトリ
+     * @return ディレクトリ配下に存在する場合は{@code true}
+     */
+    private static boolean isUnder(File file, File directory) {
+        return file.getAbsolutePath().startsWith(directory.getAbsolutePath() + File.separator);
+    }
+}
@@ -0,0 +1,79 @@
+package nablarch.codefirst.control;
+
+/**
+ * Beanクラスに定義されたCSVファイルのフォーマットを保持するクラス。
+ */
+public class CsvLayout {
+
+    /** 文字コード(Javaの正規名) */
+    private final String charset;
+
+    /** 列区切り文字 */
+    private final char fieldSeparator;
+
+    /** 行区切り文字 */
+    private final String lineSeparator;
+
+    /** クォート */
+    private final char quote;
+
+    /** ヘッダ有無 */
+    private final boolean requiredHeader;
+
+    /**
+     * CSVファイルのフォーマットを生成する。
+     *
+     * @param charset 文字コード(Javaの正規名)
+     * @param fieldSeparator 列区切り文字
+     * @param lineSeparator 行区切り文字
+     * @param quote クォート
+     * @param requiredHeader ヘッダ有無
+     */
+    public CsvLayout(String charset, char fieldSeparator, String lineSeparator, char quote, boolean requiredHeader) {
+        this.charset = charset;
+        this.fieldSeparator = fieldSeparator;
+        this.lineSeparator = lineSeparator;
+        this.quote = quote;
+        this.requiredHeader = requiredHeader;
+    }
+
+    /**
+     * 文字コード(Javaの正規名)を取得する。
+     * @return 文字コード
+     */
+    public String getCharset() {
+        return charset;
+    }
+
+    /**
+     * 列区切り文字を取得する。
+     * @return 列区切り文字
+     */
+    public char getFieldSeparator() {
+        return fieldSeparator;
+    }
+
+    /**
+     * 行区切り文字を取得する。
+     * @return 行区切り文字
+     */
+    public String getLineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * クォートを取得する。
+     * @return クォート
+     */
+    public char getQuote() {
+        return quote;
+    }
+
+    /**
+     * ヘッダ有無を取得する。
+     * @return ヘッダ有無
+     */
+    public boolean isRequiredHeader() {
+        return requiredHeader;
+    }
+}
@@ -0,0 +1,123 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.util.List;
+
+import nablarch.codefirst.loader.ColumnProfile;
+import nablarch.codefirst.loader.DataFileProfiler;
+import nablarch.codefirst.loader.DataProfile;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * サンプルのデータファイルから、カラムごとの実データの統計(プロファイル)を集計するMavenプラグイン。
+ * <p/>
+ * Beanクラスから生成したコントロールファイルの定義に従ってデータファイルを読み込み、
+ * カラムごとの最大長、平均長、NULLの割合及び数値・日付の書式を集計して、
+ * {@code <出力先ディレクトリ>/<Beanクラスの完全修飾名>.json}に出力する。
+ * 複数のデータファイルを指定した場合は、全てのデータファイルの集計結果を併合する。
+ * <p/>
+ * コントロールファイルは、{@code validate-data}と同じくテンプレート({@code templateFilePath}、{@code templateDirectory})
+ * 及びロードオプション({@code loadOptions})の設定で生成する。
+ * 実データをそのまま集計するため、既存のプロファイルによるフィールドの長さの調整は行わない。
+ * <p/>
+ * {@code generate-ctrl-file}の{@code profileDirectory}に出力先ディレクトリを指定すると、
+ * プロファイルに従ってフィールドの長さ並びに{@code ROWS}及び{@code BINDSIZE}を実データに合わせたコントロールファイルを生成する。
+ *
+ * @see DataFileProfiler
+ * @see ProfileFieldSizer
+ */
+@Mojo(name = "profile-data", requiresDependencyResolution = ResolutionScope.RUNTIME, requiresProject = true)
+public class DataFileProfilerMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    MavenProject project;
+
+    /** データファイルのフォーマットを定義したBeanクラスの完全修飾名 */
+    @Parameter(required = true)
+    String beanClass;
+
+    /** 集計するデータファイル */
+    @Parameter(required = true)
+    List<File> dataFiles;
+
+    /** プロファイルの出力先ディレクトリ */
+    @Parameter(defaultValue = "${project.build.directory}/etl/data-profile")
+    File profileDirectory;
+
+    /**
+     * 並行に集計するスレッド数(データファイルごとのチャンク数)
+     * <p/>
+     * 0の場合は、利用可能なプロセッサ数とする。
+     */
+    @Parameter(defaultValue = "0")
+    int threads;
+
+    /**
+     * コントロールファイルの生成に使用するテンプレートファイルのパス。
+     * <p/>
+     * 指定しない場合は、SQL*Loaderの標準テンプレートファイルを使用する。
+     *
+     * @see ControlFileGeneratorMojo#templateFilePath
+     */
+    @Parameter
+    String templateFilePath;
+
+    /**
+     * テンプレートファイルを検索するディレクトリ。
+     *
+     * @see ControlFileGeneratorMojo#templateDirectory
+     */
+    @Parameter
+    File templateDirectory;
+
+    /**
+     * SQL*Loaderのロードオプションのデフォルト値。
+     *
+     * @see ControlFileGeneratorMojo#loadOptions
+     */
+    @Parameter
+    LoadOptions loadOptions;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final ClassLoader loader = ControlFileGeneratorMojo.createClassLoader(
+                ControlFileGeneratorMojo.getClasspathElements(project));
+        final Class<?> clazz;
+        try {
+            clazz = loader.loadClass(beanClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + beanClass + ']', e);
+        }
+        if (dataFiles == null || dataFiles.isEmpty()) {
+            throw new IllegalArgumentException("dataFilesを指定してください。");
+        }
+
+        final int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final DataFileSplitter splitter = DataFileSplitter.forBean(clazz, threadCount);
+        final ControlFileGenerationSession session =
+                DataFileValidatorMojo.createSession(templateFilePath, templateDirectory, loadOptions, null);
+        final DataFileProfiler profiler =
+                new DataFileProfiler(DataFileValidatorMojo.createControlFile(session, clazz), threadCount);
+        final DataProfile profile = new DataProfile(beanClass);
+        for (File dataFile : dataFiles) {
+            if (!dataFile.isFile()) {
+                throw new IllegalArgumentException("指定されたデータファイルが存在しません。 データファイル=[" + dataFile + ']');
+            }
+            profile.add(dataFile.getPath(), profiler.profile(dataFile, splitter.findBoundaries(dataFile, threadCount)));
+        }
+
+        final File profileFile = DataProfile.getProfileFile(profileDirectory, beanClass);
+        profile.write(profileFile);
+        for (ColumnProfile column : profile.getColumns()) {
+            getLog().info(column.toString());
+        }
+        getLog().info("プロファイルを出力しました。 ファイル=[" + profileFile + ']');
+    }
+}
@@ -0,0 +1,362 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * データファイルを、レコードの境界で指定された数のチャンクに分割するクラス。
+ * <p/>
+ * CSVファイルの場合、囲み文字で囲まれたフィールド内の行区切り文字ではレコードを分割しない。
+ * 囲み文字の判定は、ファイルの先頭から境界の候補位置までに出現した囲み文字の数の偶奇で行う
+ * (エスケープされた囲み文字は2文字で出現するため、偶奇に影響しない)。
+ * 囲み文字の数はファイルをセグメントに分けてメモリマップし、並行に数える。
+ * <p/>
+ * 固定長ファイルの場合は、レコード長の倍数の位置で分割する。
+ * <p/>
+ * 分割後のチャンクは{@code <ファイル名>_<チャンク番号><拡張子>}(チャンク番号は1始まり)の名前で出力する。
+ * ヘッダ行は1番目のチャンクにのみ含まれるため、{@link SqlLoaderPartitions#headerInEachFile()}に{@code false}を指定した
+ * セッションごとのコントロールファイルと1対1に対応させてロードできる。
+ * <p/>
+ * 囲み文字及び行区切り文字は、ASCII互換の文字コード(UTF-8、Shift_JIS、EUC-JP等)で
+ * マルチバイト文字の一部として出現しないことを前提とする。
+ */
+public class DataFileSplitter {
+
+    /** 1セグメントのサイズ(バイト) */
+    static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** 囲み文字のバイト値(固定長ファイルの場合は-1) */
+    private final int quote;
+
+    /** 行区切り文字のバイト列 */
+    private final byte[] lineSeparator;
+
+    /** 固定長ファイルのレコード長(CSVファイルの場合は0) */
+    private final int recordSize;
+
+    /** 並行に処理するスレッド数 */
+    private final int threads;
+
+    /** 1セグメントのサイズ */
+    private int segmentSize = DEFAULT_SEGMENT_SIZE;
+
+    /**
+     * CSVファイルを分割する{@code DataFileSplitter}を生成する。
+     *
+     * @param charset ファイルの文字コード
+     * @param quote 囲み文字
+     * @param lineSeparator 行区切り文字
+     * @param threads 並行に処理するスレッド数
+     */
+    public DataFileSplitter(Charset charset, char quote, String lineSeparator, int threads) {
+        final byte[] quoteBytes = String.valueOf(quote).getBytes(charset);
+        if (quoteBytes.length != 1) {
+            throw new IllegalArgumentException("quote must be a single byte character. quote = [" + quote + ']');
+        }
+        if (lineSeparator == null || lineSeparator.length() == 0) {
+            throw new IllegalArgumentException("lineSeparator must not be empty.");
+        }
+        this.quote = quoteBytes[0] & 0xFF;
+        this.lineSeparator = lineSeparator.getBytes(charset);
+        this.recordSize = 0;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * 固定長ファイルを分割する{@code DataFileSplitter}を生成する。
+     *
+     * @param recordSize レコード長(行区切り文字を含むバイト長)
+     * @param threads 並行に処理するスレッド数
+     */
+    public DataFileSplitter(int recordSize, int threads) {
+        if (recordSize < 1) {
+            throw new IllegalArgumentException("recordSize must be greater than 0. recordSize = [" + recordSize + ']');
+        }
+        this.quote = -1;
+        this.lineSeparator = new byte[0];
+        this.recordSize = recordSize;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Beanクラスのフォーマット定義に従ってデータファイルを分割する{@code DataFileSplitter}を生成する。
+     * <p/>
+     * CSVファイルの場合は文字コード、囲み文字及び行区切り文字を、
+     * 固定長ファイルの場合はレコード長をBeanクラスのフォーマット定義から取得する。
+     *
+     * @param beanClass Beanクラス
+     * @param threads 並行に処理するスレッド数
+     * @return {@code DataFileSplitter}
+     */
+    public static DataFileSplitter forBean(Class<?> beanClass, int threads) {
+        final BeanMetadata metadata = new ReflectionBeanMetadata(beanClass);
+        final AnnotationValues fixedLength = metadata.getAnnotation(ClassFileBeanMetadata.FIXED_LENGTH);
+        if (fixedLength != null) {
+            final String separator = fixedLength.getString("lineSeparator");
+            final Charset charset = Charset.forName(fixedLength.getString("charset"));
+            return new DataFileSplitter(
+                    fixedLength.getInt("length", 0) + (separator == null ? 0 : separator.getBytes(charset).length), threads);
+        }
+        final CsvLayout layout = metadata.getCsvLayout();
+        if (layout == null) {
+            throw new IllegalArgumentException("beanClass should be annotated with Csv or FixedLength. class = [" + beanClass.getName() + ']');
+        }
+        return new DataFileSplitter(Charset.forName(layout.getCharset()), layout.getQuote(), layout.getLineSeparator(), threads);
+    }
+
+    /**
+     * 1セグメントのサイズを設定する。
+     *
+     * @param segmentSize 1セグメントのサイズ(バイト)
+     */
+    void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * データファイルをレコードの境界で分割する。
+     * <p/>
+     * チャンクはできるだけ均等なサイズとなるように分割する。
+     * レコード数がチャンク数より少ない場合は、空のチャンクを出力する。
+     *
+     * @param dataFile データファイル
+     * @param chunks チャンク数
+     * @param outputDir 出力先のディレクトリ
+     * @return 出力したチャンクのファイル(チャンク番号順)
+     */
+    public List<File> split(File dataFile, int chunks, File outputDir) {
+        if (chunks < 1) {
+            throw new IllegalArgumentException("chunks must be greater than 0. chunks = [" + chunks + ']');
+        }
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IllegalArgumentException("出力先ディレクトリの作成に失敗しました。 ディレクトリ=[" + outputDir + ']');
+        }
+        FileInputStream input = null;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            input = new FileInputStream(dataFile);
+            final FileChannel channel = input.getChannel();
+            final long[] boundaries = findBoundaries(channel, chunks, executor);
+            final List<File> files = new ArrayList<File>();
+            for (int i = 0; i < chunks; i++) {
+                final File file = new File(outputDir, toChunkName(dataFile.getName(), i + 1));
+                copy(channel, boundaries[i], boundaries[i + 1], file);
+                files.add(file);
+            }
+            return files;
+        } catch (IOException e) {
+            throw new RuntimeException("failed to split data file. file = [" + dataFile + ']', e);
+        } finally {
+            executor.shutdownNow();
+            FileUtil.closeQuietly(input);
+        }
+    }
+
+    /**
+     * データファイルをレコードの境界で分割する位置を算出する。
+     * <p/>
+     * チャンクのファイルは出力せず、{@link #split(File, int, File)}と同じ境界位置を返す。
+     * データファイルを分割せずに、チャンクごとに並行に読み込む場合に使用する。
+     *
+     * @param dataFile データファイル
+     * @param chunks チャンク数
+     * @return チャンクの境界位置(先頭は0、末尾はファイルサイズ。要素数はチャンク数 + 1)
+     */
+    public long[] findBoundaries(File dataFile, int chunks) {
+        if (chunks < 1) {
+            throw new IllegalArgumentException("chunks must be greater than 0. chunks = [" + chunks + ']');
+        }
+        FileInputStream input = null;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            input = new FileInputStream(dataFile);
+            return findBoundaries(input.getChannel(), chunks, executor);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to split data file. file = [" + dataFile + ']', e);
+        } finally {
+            executor.shutdownNow();
+            FileUtil.closeQuietly(input);
+        }
+    }
+
+    /**
+     * チャンクの境界位置を算出する。
+     *
+     * @param channel データファイルのチャネル
+     * @param chunks チャンク数
+     * @param executor 並行処理に使用する{@link ExecutorService}
+     * @return チャンクの境界位置(先頭は0、末尾はファイルサイズ。要素数はチャンク数 + 1)
+     * @throws IOException 入出力例外
+     */
+    private long[] findBoundaries(final FileChannel channel, int chunks, ExecutorService executor) throws IOException {
+        final long size = channel.size();
+        final long[] boundaries = new long[chunks + 1];
+        boundaries[chunks] = size;
+        if (recordSize > 0) {
+            final long records = size / recordSize + (size % recordSize == 0 ? 0 : 1);
+            for (int i = 1; i < chunks; i++) {
+                boundaries[i] = Math.min(size, records * i / chunks * recordSize);
+            }
+            return boundaries;
+        }
+
+        final int segments = (int) ((size + segmentSize - 1) / segmentSize);
+        final boolean[] oddAtSegmentStart = countQuoteParity(channel, size, segments, executor);
+
+        final List<Future<Long>> futures = new ArrayList<Future<Long>>();
+        for (int i = 1; i < chunks; i++) {
+            final long target = size * i / chunks;
+            final int segment = (int) (target / segmentSize);
+            final boolean odd = segment < segments && oddAtSegmentStart[segment];
+            futures.add(executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws IOException {
+                    return findRecordEnd(channel, size, (long) segment * segmentSize, odd, target);
+                }
+            }));
+        }
+        for (int i = 1; i < chunks; i++) {
+            boundaries[i] = Math.max(boundaries[i - 1], get(futures.get(i - 1)));
+        }
+        return boundaries;
+    }
+
+    /**
+     * セグメントごとに、セグメントの先頭時点で囲み文字の中にいるか否か(それまでの囲み文字の数が奇数か否か)を算出する。
+     *
+     * @param channel データファイルのチャネル
+     * @param size データファイルのサイズ
+     * @param segments セグメント数
+     * @param executor 並行処理に使用する{@link ExecutorService}
+     * @return セグメントの先頭時点で囲み文字の中にいる場合は{@code true}
+     */
+    private boolean[] countQuoteParity(final FileChannel channel, final long size, int segments, ExecutorService executor) {
+        final List<Future<Long>> counts = new ArrayList<Future<Long>>();
+        for (int i = 0; i < segments; i++) {
+            final long start = (long) i * segmentSize;
+            counts.add(executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws IOException {
+                    final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(segmentSize, size - start));
+                    long count = 0;
+                    while (buffer.hasRemaining()) {
+                        if ((buffer.get() & 0xFF) == quote) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }
+            }));
+        }
+        final boolean[] odd = new boolean[segments];
+        long total = 0;
+        for (int i = 0; i < segments; i++) {
+            odd[i] = total % 2 == 1;
+            total += get(counts.get(i));
+        }
+        return odd;
+    }
+
+    /**
+     * 指定された位置以降で、最初のレコードの終端(囲み文字の外にある行区切り文字の直後)を検索する。
+     *
+     * @param channel データファイルのチャネル
+     * @param size データファイルのサイズ
+     * @param start 検索を開始するセグメントの先頭位置
+     * @param oddAtStart セグメントの先頭時点で囲み文字の中にいるか否か
+     * @param target 境界の候補位置
+     * @return レコードの終端の位置。見つからない場合はファイルサイズ
+     * @throws IOException 入出力例外
+     */
+    private long findRecordEnd(FileChannel channel, long size, long start, boolean oddAtStart, long target) throws IOException {
+        boolean inQuote = oddAtStart;
+        int matched = 0;
+        for (long windowStart = start; windowStart < size; windowStart += segmentSize) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(segmentSize, size - windowStart));
+            for (long position = windowStart; buffer.hasRemaining(); position++) {
+                final int b = buffer.get() & 0xFF;
+                if (b == quote) {
+                    inQuote = !inQuote;
+                    matched = 0;
+                    continue;
+                }
+                if (position < target || inQuote) {
+                    continue;
+                }
+                matched = b == (lineSeparator[matched] & 0xFF) ? matched + 1 : (b == (lineSeparator[0] & 0xFF) ? 1 : 0);
+                if (matched == lineSeparator.length) {
+                    return position + 1;
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * データファイルの指定された範囲をファイルに出力する。
+     *
+     * @param channel データファイルのチャネル
+     * @param from 開始位置
+     * @param to 終了位置(この位置は含まない)
+     * @param file 出力先のファイル
+     * @throws IOException 入出力例外
+     */
+    private static void copy(FileChannel channel, long from, long to, File file) throws IOException {
+        final FileOutputStream output = new FileOutputStream(file);
+        try {
+            final FileChannel out = output.getChannel();
+            long position = from;
+            while (position < to) {
+                position += channel.transferTo(position, to - position, out);
+            }
+        } finally {
+            FileUtil.closeQuietly(output);
+        }
+    }
+
+    /**
+     * チャンクのファイル名を取得する。
+     *
+     * @param fileName データファイルのファイル名
+     * @param number チャンク番号
+     * @return チャンクのファイル名
+     */
+    static String toChunkName(String fileName, int number) {
+        final int dot = fileName.lastIndexOf('.');
+        return dot <= 0
+                ? fileName + '_' + number
+                : fileName.substring(0, dot) + '_' + number + fileName.substring(dot);
+    }
+
+    /**
+     * 並行処理の結果を取得する。
+     *
+     * @param future 並行処理の結果
+     * @param <T> 結果の型
+     * @return 結果
+     */
+    private static <T> T get(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("failed to split data file.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * パラレル・ダイレクト・パス・ロードのために、データファイルをレコードの境界で分割するMavenプラグイン。
+ * <p/>
+ * 分割のフォーマット(囲み文字、行区切り文字、ヘッダ有無等)はBeanクラスの定義から取得する。
+ * チャンク数を指定しない場合は、Beanクラスに付与された{@link SqlLoaderPartitions}のセッション数とするため、
+ * {@code generate-ctrl-file}で生成したセッションごとのコントロールファイルとチャンクが1対1に対応する。
+ * ヘッダ行は1番目のチャンクにのみ含まれるため、{@link SqlLoaderPartitions#headerInEachFile()}には{@code false}を指定する。
+ *
+ * @see DataFileSplitter
+ */
+@Mojo(name = "split-data-file", requiresDependencyResolution = ResolutionScope.RUNTIME, requiresProject = true)
+public class DataFileSplitterMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    MavenProject project;
+
+    /** データファイルのフォーマットを定義したBeanクラスの完全修飾名 */
+    @Parameter(required = true)
+    String beanClass;
+
+    /** 分割するデータファイル */
+    @Parameter(required = true)
+    File dataFile;
+
+    /**
+     * チャンク数
+     * <p/>
+     * 0の場合は、Beanクラスに付与された{@link SqlLoaderPartitions}のセッション数とする。
+     */
+    @Parameter(defaultValue = "0")
+    int chunks;
+
+    /** 出力先のディレクトリ */
+    @Parameter(defaultValue = "${project.build.directory}/etl/data")
+    File outputPath;
+
+    /**
+     * 分割位置の検索に使用するスレッド数
+     * <p/>
+     * 0の場合は、利用可能なプロセッサ数とする。
+     */
+    @Parameter(defaultValue = "0")
+    int threads;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final ClassLoader loader = ControlFileGeneratorMojo.createClassLoader(
+                ControlFileGeneratorMojo.getClasspathElements(project));
+        final Class<?> clazz;
+        try {
+            clazz = loader.loadClass(beanClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + beanClass + ']', e);
+        }
+        if (!dataFile.isFile()) {
+            throw new IllegalArgumentException("指定されたデータファイルが存在しません。 データファイル=[" + dataFile + ']');
+        }
+
+        final int chunkCount = chunks > 0 ? chunks : getSessionCount(clazz);
+        final DataFileSplitter splitter = DataFileSplitter.forBean(
+                clazz, threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        final List<File> files = splitter.split(dataFile, chunkCount, outputPath);
+        for (File file : files) {
+            getLog().info("データファイルを分割しました。 ファイル=[" + file + "] サイズ=[" + file.length() + ']');
+        }
+    }
+
+    /**
+     * Beanクラスに付与された{@link SqlLoaderPartitions}からセッション数を取得する。
+     *
+     * @param clazz Beanクラス
+     * @return セッション数
+     */
+    private static int getSessionCount(Class<?> clazz) {
+        final AnnotationValues partitions = new ReflectionBeanMetadata(clazz).getAnnotation(SqlLoaderPartitions.class.getName());
+        if (partitions == null) {
+            throw new IllegalArgumentException("chunksを指定するか、BeanクラスにSqlLoaderPartitionsを付与してください。 Beanクラス=[" + clazz.getName() + ']');
+        }
+        final int partitionCount = partitions.getStringArray("partitions").length;
+        return partitionCount > 0 ? partitionCount : partitions.getInt("sessions", 0);
+    }
+}
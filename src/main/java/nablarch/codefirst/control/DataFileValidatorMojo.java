@@ -0,0 +1,180 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import nablarch.codefirst.loader.ControlFile;
+import nablarch.codefirst.loader.ControlFileParser;
+import nablarch.codefirst.loader.DataFileValidator;
+import nablarch.codefirst.loader.ValidationResult;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * ロードの前に、データファイルの全レコードがBeanクラスの定義に従っているかを検証するMavenプラグイン。
+ * <p/>
+ * Beanクラスから生成したコントロールファイルの定義(文字コード、区切り文字、囲み文字、ヘッダ有無、フィールドのデータ型)に従って
+ * データファイルを読み込み、フィールド数、長さ及び書式が不正なレコードをレコード番号とともに報告する。
+ * データファイルはレコードの境界で分割し、チャンクごとに並行に検証する。
+ * <p/>
+ * コントロールファイルは、{@code generate-ctrl-file}と同じテンプレート({@code templateFilePath}、{@code templateDirectory})、
+ * ロードオプション({@code loadOptions})及びプロファイル({@code profileDirectory}、{@code profileMargin})の設定で生成する。
+ * プラグインの{@code configuration}に指定した設定は、両方のゴールに適用される。
+ * テンプレートはSQL*Loaderのコントロールファイルを出力するものを指定する。
+ * <p/>
+ * {@link SqlLoaderLobFile}が付与されたプロパティを持つBeanクラス(LOBファイルからロードするBeanクラス)は検証できない。
+ *
+ * @see DataFileValidator
+ */
+@Mojo(name = "validate-data", requiresDependencyResolution = ResolutionScope.RUNTIME, requiresProject = true)
+public class DataFileValidatorMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    MavenProject project;
+
+    /** データファイルのフォーマットを定義したBeanクラスの完全修飾名 */
+    @Parameter(required = true)
+    String beanClass;
+
+    /** 検証するデータファイル */
+    @Parameter(required = true)
+    File dataFile;
+
+    /**
+     * 並行に検証するスレッド数(チャンク数)
+     * <p/>
+     * 0の場合は、利用可能なプロセッサ数とする。
+     */
+    @Parameter(defaultValue = "0")
+    int threads;
+
+    /** 不正なレコードが存在する場合に、ビルドを失敗させるか否か */
+    @Parameter(defaultValue = "true")
+    boolean failOnError;
+
+    /**
+     * コントロールファイルの生成に使用するテンプレートファイルのパス。
+     * <p/>
+     * 指定しない場合は、SQL*Loaderの標準テンプレートファイルを使用する。
+     *
+     * @see ControlFileGeneratorMojo#templateFilePath
+     */
+    @Parameter
+    String templateFilePath;
+
+    /**
+     * テンプレートファイルを検索するディレクトリ。
+     *
+     * @see ControlFileGeneratorMojo#templateDirectory
+     */
+    @Parameter
+    File templateDirectory;
+
+    /**
+     * SQL*Loaderのロードオプションのデフォルト値。
+     *
+     * @see ControlFileGeneratorMojo#loadOptions
+     */
+    @Parameter
+    LoadOptions loadOptions;
+
+    /**
+     * フィールドの長さを実データに合わせるためのプロファイルの格納ディレクトリ。
+     *
+     * @see ControlFileGeneratorMojo#profileDirectory
+     */
+    @Parameter
+    File profileDirectory;
+
+    /**
+     * プロファイルの最大長に加える余裕率(%)
+     *
+     * @see ControlFileGeneratorMojo#profileMargin
+     */
+    @Parameter(defaultValue = "20")
+    int profileMargin;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        final ClassLoader loader = ControlFileGeneratorMojo.createClassLoader(
+                ControlFileGeneratorMojo.getClasspathElements(project));
+        final Class<?> clazz;
+        try {
+            clazz = loader.loadClass(beanClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("指定されたBeanクラスが存在しません。 Beanクラス=[" + beanClass + ']', e);
+        }
+        if (!dataFile.isFile()) {
+            throw new IllegalArgumentException("指定されたデータファイルが存在しません。 データファイル=[" + dataFile + ']');
+        }
+
+        final int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        final long[] boundaries = DataFileSplitter.forBean(clazz, threadCount).findBoundaries(dataFile, threadCount);
+        final ControlFileGenerationSession session = createSession(templateFilePath, templateDirectory, loadOptions,
+                profileDirectory == null ? null : new ProfileFieldSizer(profileDirectory, profileMargin));
+        final ValidationResult result = new DataFileValidator(createControlFile(session, clazz), threadCount)
+                .validate(dataFile, boundaries);
+
+        for (String message : result.getRejectedMessages()) {
+            getLog().error(message);
+        }
+        if (result.getRejected() > result.getRejectedMessages().size()) {
+            getLog().error("ほか" + (result.getRejected() - result.getRejectedMessages().size()) + "件の不正なレコードがあります。");
+        }
+        getLog().info("データファイルを検証しました。 データファイル=[" + dataFile + "] " + result);
+        if (!result.isValid() && failOnError) {
+            throw new MojoFailureException("データファイルに不正なレコードがあります。 データファイル=[" + dataFile
+                    + "] 件数=[" + result.getRejected() + ']');
+        }
+    }
+
+    /**
+     * {@code generate-ctrl-file}と同じテンプレート及びロードオプションの設定で、コントロールファイル生成のセッションを生成する。
+     * <p/>
+     * データファイルを読み込むゴール({@code validate-data}、{@code profile-data})で共通に使用する。
+     *
+     * @param templateFilePath テンプレートファイルのパス(指定しない場合はSQL*Loaderの標準テンプレートファイル)
+     * @param templateDirectory テンプレートファイルを検索するディレクトリ(クラスパスからのみ検索する場合は{@code null})
+     * @param loadOptions ロードオプションのデフォルト値(指定しない場合は{@code null})
+     * @param fieldSizer フィールドの長さを実データに合わせるサイザ(合わせない場合は{@code null})
+     * @return セッション
+     */
+    static ControlFileGenerationSession createSession(String templateFilePath, File templateDirectory,
+            LoadOptions loadOptions, ProfileFieldSizer fieldSizer) {
+        return new ControlFileGenerator().createSession(new ControlFileGenerationSettings(
+                templateFilePath == null ? OutputFormat.SQL_LOADER.getTemplateFile() : templateFilePath)
+                .setTemplateDirectory(templateDirectory)
+                .setLoadOptions(loadOptions)
+                .setFieldSizer(fieldSizer));
+    }
+
+    /**
+     * Beanクラスからコントロールファイルを生成し、解析する。
+     *
+     * @param session コントロールファイル生成のセッション
+     * @param clazz Beanクラス
+     * @return 解析済みのコントロールファイル
+     * @throws IllegalArgumentException 生成したコントロールファイルに、検証できない構文が含まれる場合
+     */
+    static ControlFile createControlFile(ControlFileGenerationSession session, Class<?> clazz) {
+        final StringWriter writer = new StringWriter();
+        session.render(clazz, writer);
+        try {
+            return new ControlFileParser().parse(new StringReader(writer.toString()));
+        } catch (IOException e) {
+            throw new RuntimeException("failed to parse control file. class = [" + clazz.getName() + ']', e);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Beanクラスから生成したコントロールファイルに、検証できない構文が含まれています。"
+                    + "(SqlLoaderLobFileが付与されたプロパティを持つBeanクラス及びSQL*Loader以外のテンプレートは検証できません)"
+                    + " Beanクラス=[" + clazz.getName() + "] 原因=[" + e.getMessage() + ']', e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ディレクトリ配下のファイルの追加及び更新を、ポーリングで検出するクラス。
+ * <p/>
+ * ファイルの更新日時とサイズを前回のポーリング時と比較し、異なるファイルを変更されたファイルとする。
+ * 削除されたファイルは検出しない。
+ */
+class DirectoryPoller {
+
+    /** 監視するディレクトリ */
+    private final List<File> directories;
+
+    /** 前回のポーリング時のファイルと、更新日時及びサイズのマッピング */
+    private Map<File, List<Long>> snapshot;
+
+    /**
+     * 監視するディレクトリの現在の状態を記録し、ポーリングを開始する。
+     *
+     * @param directories 監視するディレクトリ(存在しないディレクトリは、作成された時点から監視する)
+     */
+    DirectoryPoller(List<File> directories) {
+        this.directories = directories;
+        this.snapshot = scan();
+    }
+
+    /**
+     * 前回のポーリング以降に追加又は更新されたファイルを取得する。
+     *
+     * @return 追加又は更新されたファイル
+     */
+    List<File> poll() {
+        final Map<File, List<Long>> current = scan();
+        final List<File> changed = new ArrayList<File>();
+        for (Map.Entry<File, List<Long>> file : current.entrySet()) {
+            if (!file.getValue().equals(snapshot.get(file.getKey()))) {
+                changed.add(file.getKey());
+            }
+        }
+        snapshot = current;
+        return changed;
+    }
+
+    /**
+     * 監視するディレクトリ配下のファイルの更新日時とサイズを取得する。
+     *
+     * @return ファイルと、更新日時及びサイズのマッピング
+     */
+    private Map<File, List<Long>> scan() {
+        final Map<File, List<Long>> files = new HashMap<File, List<Long>>();
+        for (File directory : directories) {
+            scan(directory, files);
+        }
+        return files;
+    }
+
+    /**
+     * ディレクトリ配下のファイルの更新日時とサイズを再帰的に取得する。
+     *
+     * @param directory ディレクトリ
+     * @param files ファイルと、更新日時及びサイズのマッピング
+     */
+    private static void scan(File directory, Map<File, List<Long>> files) {
+        final File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                scan(child, files);
+            } else {
+                final List<Long> state = new ArrayList<Long>(2);
+                state.add(child.lastModified());
+                state.add(child.length());
+                files.put(child, state);
+            }
+        }
+    }
+}
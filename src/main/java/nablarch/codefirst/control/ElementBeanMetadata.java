@@ -0,0 +1,232 @@
+package nablarch.codefirst.control;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * コンパイル中のBeanクラスの要素({@code javax.lang.model})からメタデータを取得する{@link BeanMetadata}実装クラス。
+ * <p/>
+ * {@link ControlFileProcessor}で、コンパイル中にBeanクラスをロードせずにコントロールファイルを生成するために使用する。
+ * テーブル名、カラム及びCSVファイルのフォーマットは、{@link ClassFileBeanMetadata}と同じ規約で導出する。
+ */
+public class ElementBeanMetadata implements BeanMetadata {
+
+    /** WorkItemの完全修飾名 */
+    private static final String WORK_ITEM = "nablarch.etl.WorkItem";
+
+    /** Beanクラスの要素 */
+    private final TypeElement type;
+
+    /** 要素のユーティリティ */
+    private final Elements elements;
+
+    /** 型のユーティリティ */
+    private final Types types;
+
+    /**
+     * Beanクラスのメタデータを生成する。
+     *
+     * @param type Beanクラスの要素
+     * @param processingEnv アノテーションプロセッサの処理環境
+     */
+    public ElementBeanMetadata(TypeElement type, ProcessingEnvironment processingEnv) {
+        this.type = type;
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    @Override
+    public String getClassName() {
+        return elements.getBinaryName(type).toString();
+    }
+
+    @Override
+    public String getSimpleName() {
+        return type.getSimpleName().toString();
+    }
+
+    @Override
+    public boolean isWorkItem() {
+        for (TypeElement element : getHierarchy()) {
+            if (WORK_ITEM.equals(element.getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getTableNameWithSchema() {
+        return ClassFileBeanMetadata.deriveTableNameWithSchema(this);
+    }
+
+    @Override
+    public CsvLayout getCsvLayout() {
+        return ClassFileBeanMetadata.deriveCsvLayout(this);
+    }
+
+    @Override
+    public AnnotationValues getAnnotation(String typeName) {
+        return find(type, typeName);
+    }
+
+    @Override
+    public List<PropertyMetadata> getProperties() {
+        // サブクラスのgetterを優先するため、Beanクラスからスーパクラスの順に検索する
+        final Map<String, ExecutableElement> getters = new LinkedHashMap<String, ExecutableElement>();
+        for (TypeElement element : getHierarchy()) {
+            for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+                if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                final String propertyName = ClassFileBeanMetadata.toPropertyName(method.getSimpleName().toString(),
+                        method.getParameters().isEmpty() ? toTypeName(method.getReturnType()) : null);
+                if (propertyName != null && !getters.containsKey(propertyName)) {
+                    getters.put(propertyName, method);
+                }
+            }
+        }
+
+        final List<PropertyMetadata> properties = new ArrayList<PropertyMetadata>();
+        for (Map.Entry<String, ExecutableElement> getter : getters.entrySet()) {
+            final ExecutableElement method = getter.getValue();
+            if (find(method, ClassFileBeanMetadata.TRANSIENT) != null) {
+                continue;
+            }
+            final List<AnnotationValues> annotations = new ArrayList<AnnotationValues>();
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                annotations.add(toAnnotationValues(annotation));
+            }
+            final AnnotationValues column = find(method, ClassFileBeanMetadata.COLUMN);
+            final String columnName = column == null ? null : column.getString("name");
+            final AnnotationValues temporal = find(method, ClassFileBeanMetadata.TEMPORAL);
+            final String typeName = toTypeName(method.getReturnType());
+            properties.add(new PropertyMetadata(
+                    getter.getKey(),
+                    columnName == null || columnName.length() == 0
+                            ? ClassFileBeanMetadata.deCamelize(getter.getKey()) : columnName,
+                    typeName,
+                    ClassFileBeanMetadata.toJdbcTypeName(typeName, temporal == null ? null : temporal.getString("value")),
+                    find(method, ClassFileBeanMetadata.LINE_NUMBER) != null,
+                    annotations));
+        }
+        return properties;
+    }
+
+    /**
+     * Beanクラスから{@link Object}の直前のスーパクラスまでの要素を取得する。
+     *
+     * @return Beanクラスから順にスーパクラスの要素
+     */
+    private List<TypeElement> getHierarchy() {
+        final List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+        for (TypeElement element = type; element != null; ) {
+            if ("java.lang.Object".equals(element.getQualifiedName().toString())) {
+                break;
+            }
+            hierarchy.add(element);
+            final TypeMirror superclass = element.getSuperclass();
+            element = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+        return hierarchy;
+    }
+
+    /**
+     * 要素に直接付与されたアノテーションを取得する。
+     *
+     * @param element 要素
+     * @param typeName アノテーション型の完全修飾名
+     * @return アノテーション。付与されていない場合は{@code null}
+     */
+    private AnnotationValues find(Element element, String typeName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (toTypeName(annotation.getAnnotationType()).equals(typeName)) {
+                return toAnnotationValues(annotation);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * アノテーションを、デフォルト値を補完した{@link AnnotationValues}に変換する。
+     *
+     * @param annotation アノテーション
+     * @return アノテーションの要素の値
+     */
+    private AnnotationValues toAnnotationValues(AnnotationMirror annotation) {
+        final Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+            values.put(entry.getKey().getSimpleName().toString(), normalize(entry.getValue().getValue()));
+        }
+        return new AnnotationValues(toTypeName(annotation.getAnnotationType()), values);
+    }
+
+    /**
+     * アノテーションの要素の値を、{@link AnnotationValues}の形式に正規化する。
+     *
+     * @param value 要素の値
+     * @return 正規化した値
+     */
+    private Object normalize(Object value) {
+        if (value instanceof VariableElement && ((VariableElement) value).getKind() == ElementKind.ENUM_CONSTANT) {
+            return ((VariableElement) value).getSimpleName().toString();
+        }
+        if (value instanceof TypeMirror) {
+            return toTypeName((TypeMirror) value);
+        }
+        if (value instanceof AnnotationMirror) {
+            return toAnnotationValues((AnnotationMirror) value);
+        }
+        if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            final Object[] result = new Object[list.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = normalize(((AnnotationValue) list.get(i)).getValue());
+            }
+            return result;
+        }
+        return value;
+    }
+
+    /**
+     * 型の名前を取得する。
+     * <p/>
+     * {@link ClassFileBeanMetadata}と同じく、クラスはバイナリ名、配列は要素の型名に{@code []}を付与した名前とする。
+     *
+     * @param typeMirror 型
+     * @return 型の名前。{@code void}の場合は{@code null}
+     */
+    private String toTypeName(TypeMirror typeMirror) {
+        if (typeMirror.getKind() == TypeKind.VOID) {
+            return null;
+        }
+        if (typeMirror.getKind() == TypeKind.ARRAY) {
+            return toTypeName(((ArrayType) typeMirror).getComponentType()) + "[]";
+        }
+        if (typeMirror.getKind() == TypeKind.DECLARED) {
+            return elements.getBinaryName((TypeElement) ((DeclaredType) typeMirror).asElement()).toString();
+        }
+        return types.erasure(typeMirror).toString();
+    }
+}
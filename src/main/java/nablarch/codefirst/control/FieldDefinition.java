@@ -0,0 +1,113 @@
+package nablarch.codefirst.control;
+
+/**
+ * コントロールファイルのフィールド指定を保持するクラス。
+ *
+ * @see ControlDefinition#getFields()
+ */
+public class FieldDefinition {
+
+    /** カラム名 */
+    private final String columnName;
+
+    /** データ型(例:{@code CHAR(10)}、{@code DATE "YYYY-MM-DD"}、{@code RECNUM}、{@code LOBFILE(...) TERMINATED BY EOF}) */
+    private final String dataType;
+
+    /** 位置(例:{@code 1:10}) */
+    private final String position;
+
+    /** テーブルにロードしない{@code FILLER}フィールドか否か */
+    private final boolean filler;
+
+    /**
+     * フィールド指定を生成する。
+     *
+     * @param columnName カラム名
+     * @param dataType データ型。データ型を指定しない場合は{@code null}
+     */
+    public FieldDefinition(String columnName, String dataType) {
+        this(columnName, dataType, null);
+    }
+
+    /**
+     * 位置を指定したフィールド指定を生成する。
+     *
+     * @param columnName カラム名
+     * @param dataType データ型。データ型を指定しない場合は{@code null}
+     * @param position 位置({@code 開始位置:終了位置})。位置を指定しない場合は{@code null}
+     */
+    public FieldDefinition(String columnName, String dataType, String position) {
+        this(columnName, dataType, position, false);
+    }
+
+    /**
+     * {@code FILLER}フィールドか否かを指定したフィールド指定を生成する。
+     *
+     * @param columnName カラム名({@code FILLER}フィールドの場合はフィールド名)
+     * @param dataType データ型。データ型を指定しない場合は{@code null}
+     * @param position 位置({@code 開始位置:終了位置})。位置を指定しない場合は{@code null}
+     * @param filler テーブルにロードしない{@code FILLER}フィールドか否か
+     */
+    public FieldDefinition(String columnName, String dataType, String position, boolean filler) {
+        this.columnName = columnName;
+        this.dataType = dataType;
+        this.position = position;
+        this.filler = filler;
+    }
+
+    /**
+     * カラム名を取得する。
+     * @return カラム名
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * データ型を取得する。
+     * @return データ型。データ型を指定しない場合は{@code null}
+     */
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * 位置を取得する。
+     * @return 位置({@code 開始位置:終了位置})。位置を指定しない場合は{@code null}
+     */
+    public String getPosition() {
+        return position;
+    }
+
+    /**
+     * テーブルにロードしない{@code FILLER}フィールドか否かを取得する。
+     * @return {@code FILLER}フィールドの場合は{@code true}
+     */
+    public boolean isFiller() {
+        return filler;
+    }
+
+    /**
+     * LOBファイルからロードするフィールドか否かを取得する。
+     * @return データ型が{@code LOBFILE}の場合は{@code true}
+     * @see SqlLoaderLobFile
+     */
+    public boolean isLobFile() {
+        return dataType != null && dataType.startsWith("LOBFILE(");
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder spec = new StringBuilder(columnName);
+        if (filler) {
+            spec.append(" FILLER");
+        }
+        if (position != null) {
+            spec.append(" POSITION(").append(position).append(')');
+        }
+        if (dataType != null) {
+            spec.append(' ').append(dataType);
+        }
+        return spec.toString();
+    }
+}
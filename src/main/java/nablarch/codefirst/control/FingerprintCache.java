@@ -0,0 +1,191 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import nablarch.codefirst.classfile.ClassFileReader;
+import nablarch.core.util.FileUtil;
+
+/**
+ * コントロールファイルの生成元のフィンガープリントを、Beanクラスごとに保持するキャッシュ。
+ * <p/>
+ * フィンガープリントは、Beanクラス(スーパクラスを含む)のクラスファイル、テンプレートファイル及び
+ * 文字コードのマッピング定義の内容から算出する。
+ * フィンガープリントが前回生成時と一致するBeanクラスは、コントロールファイルの再生成が不要と判断できる。
+ */
+class FingerprintCache {
+
+    /** ダイジェストのアルゴリズム */
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /** 16進数の文字 */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** キャッシュファイル */
+    private final File cacheFile;
+
+    /** Beanクラスの完全修飾名とフィンガープリントのマッピング */
+    private final Properties fingerprints = new Properties();
+
+    /** 全Beanクラスに共通する生成元(テンプレートファイル、文字コードのマッピング定義及びプラグインの設定)のダイジェスト */
+    private final byte[] commonDigest;
+
+    /**
+     * キャッシュファイルを読み込み、キャッシュを生成する。
+     * <p/>
+     * キャッシュファイルが存在しない場合は、空のキャッシュを生成する。
+     *
+     * @param cacheFile キャッシュファイル
+     * @param templateFile テンプレートファイル
+     * @param charsetFile 文字コードのマッピング定義ファイル
+     * @param settings 生成内容に影響するプラグインの設定の文字列表現
+     */
+    FingerprintCache(File cacheFile, InputStream templateFile, InputStream charsetFile, String settings) {
+        this.cacheFile = cacheFile;
+        if (cacheFile.exists()) {
+            InputStream stream = null;
+            try {
+                stream = new FileInputStream(cacheFile);
+                fingerprints.load(stream);
+            } catch (IOException e) {
+                throw new RuntimeException("failed to read fingerprint file. file = [" + cacheFile + ']', e);
+            } finally {
+                FileUtil.closeQuietly(stream);
+            }
+        }
+        final MessageDigest digest = createDigest();
+        update(digest, templateFile);
+        update(digest, charsetFile);
+        try {
+            digest.update(settings.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        commonDigest = digest.digest();
+    }
+
+    /**
+     * Beanクラスのフィンガープリントを算出する。
+     * <p/>
+     * Beanクラス及びスーパクラスのクラスファイルは、クラスローダのリソースとして読み込む。
+     *
+     * @param fqcn Beanクラスの完全修飾名
+     * @param loader クラスファイルを読み込むクラスローダ
+     * @return フィンガープリント
+     */
+    String fingerprint(String fqcn, ClassLoader loader) {
+        final MessageDigest digest = createDigest();
+        digest.update(commonDigest);
+        for (String className = fqcn; className != null && !"java.lang.Object".equals(className); ) {
+            final InputStream stream = loader.getResourceAsStream(className.replace('.', '/') + ".class");
+            if (stream == null) {
+                break;
+            }
+            try {
+                final ClassFileReader reader = ClassFileReader.read(stream);
+                digest.update(reader.getBytes());
+                className = reader.readSuperName();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                FileUtil.closeQuietly(stream);
+            }
+        }
+        final byte[] bytes = digest.digest();
+        final char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * コントロールファイルが最新かどうかを判定する。
+     * <p/>
+     * コントロールファイルが存在し、かつフィンガープリントが前回生成時と一致する場合に最新と判定する。
+     *
+     * @param fqcn Beanクラスの完全修飾名
+     * @param fingerprint フィンガープリント
+     * @param controlFile コントロールファイル
+     * @return 最新の場合は{@code true}
+     */
+    boolean isUpToDate(String fqcn, String fingerprint, File controlFile) {
+        return controlFile.exists() && fingerprint.equals(fingerprints.getProperty(fqcn));
+    }
+
+    /**
+     * Beanクラスのフィンガープリントを設定する。
+     *
+     * @param fqcn Beanクラスの完全修飾名
+     * @param fingerprint フィンガープリント
+     */
+    void put(String fqcn, String fingerprint) {
+        fingerprints.setProperty(fqcn, fingerprint);
+    }
+
+    /**
+     * キャッシュをキャッシュファイルに保存する。
+     */
+    void save() {
+        final File dir = cacheFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("フィンガープリントファイルの出力先ディレクトリの作成に失敗しました。");
+        }
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(cacheFile);
+            fingerprints.store(stream, null);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write fingerprint file. file = [" + cacheFile + ']', e);
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * {@link MessageDigest}を生成する。
+     *
+     * @return {@link MessageDigest}
+     */
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * ストリームの内容でダイジェストを更新する。
+     * <p/>
+     * ストリームが{@code null}の場合は何もしない。
+     *
+     * @param digest ダイジェスト
+     * @param stream ストリーム
+     */
+    private static void update(MessageDigest digest, InputStream stream) {
+        if (stream == null) {
+            return;
+        }
+        try {
+            final byte[] buffer = new byte[8192];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, length);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+    }
+}
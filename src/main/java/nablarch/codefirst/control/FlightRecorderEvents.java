@@ -0,0 +1,127 @@
+package nablarch.codefirst.control;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * コントロールファイル生成の処理フェーズを、JDK Flight Recorderのカスタムイベントとして記録するクラス。
+ * <p/>
+ * イベントは{@code jdk.jfr.EventFactory}(Java 9以降)でリフレクションを使用して定義するため、
+ * JFRを利用できない実行環境では何も記録しない。
+ * イベント名は{@value #EVENT_NAME}で、対象(Beanクラス又はテンプレートファイル)、フェーズ及びアロケーション量を持つ。
+ */
+final class FlightRecorderEvents {
+
+    /** イベント名 */
+    static final String EVENT_NAME = "nablarch.etl.ControlFileGenerationPhase";
+
+    /** イベントファクトリ(JFRを利用できない場合は{@code null}) */
+    private static final Object FACTORY;
+
+    /** {@code EventFactory#newEvent()} */
+    private static final Method NEW_EVENT;
+
+    /** {@code Event#begin()} */
+    private static final Method BEGIN;
+
+    /** {@code Event#end()} */
+    private static final Method END;
+
+    /** {@code Event#commit()} */
+    private static final Method COMMIT;
+
+    /** {@code Event#set(int, Object)} */
+    private static final Method SET;
+
+    static {
+        Object factory = null;
+        Method newEvent = null;
+        Method begin = null;
+        Method end = null;
+        Method commit = null;
+        Method set = null;
+        try {
+            final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+            final Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+            final List<Object> annotations = new ArrayList<Object>();
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Name"), EVENT_NAME));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Label"), "Control File Generation Phase"));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[] {"Nablarch", "ETL"}));
+
+            final Constructor<?> field = Class.forName("jdk.jfr.ValueDescriptor").getConstructor(Class.class, String.class);
+            final List<Object> fields = new ArrayList<Object>();
+            fields.add(field.newInstance(String.class, "target"));
+            fields.add(field.newInstance(String.class, "phase"));
+            fields.add(field.newInstance(long.class, "allocatedBytes"));
+
+            final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+            final Class<?> event = Class.forName("jdk.jfr.Event");
+            factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+            newEvent = eventFactory.getMethod("newEvent");
+            begin = event.getMethod("begin");
+            end = event.getMethod("end");
+            commit = event.getMethod("commit");
+            set = event.getMethod("set", int.class, Object.class);
+        } catch (Exception e) {
+            // JFRを利用できない実行環境(Java 8以前など)では記録しない
+            factory = null;
+        } catch (LinkageError e) {
+            factory = null;
+        }
+        FACTORY = factory;
+        NEW_EVENT = newEvent;
+        BEGIN = begin;
+        END = end;
+        COMMIT = commit;
+        SET = set;
+    }
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * イベントを生成し、計測を開始する。
+     *
+     * @return イベント(JFRを利用できない場合は{@code null})
+     */
+    static Object begin() {
+        if (FACTORY == null) {
+            return null;
+        }
+        try {
+            final Object event = NEW_EVENT.invoke(FACTORY);
+            BEGIN.invoke(event);
+            return event;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 計測を終了し、イベントを記録する。
+     *
+     * @param event {@link #begin()}で生成したイベント
+     * @param target 対象(Beanクラスの完全修飾名又はテンプレートファイル)
+     * @param phase フェーズ
+     * @param allocatedBytes アロケーション量(バイト)
+     */
+    static void commit(Object event, String target, String phase, long allocatedBytes) {
+        if (event == null) {
+            return;
+        }
+        try {
+            END.invoke(event);
+            SET.invoke(event, 0, target);
+            SET.invoke(event, 1, phase);
+            SET.invoke(event, 2, allocatedBytes);
+            COMMIT.invoke(event);
+        } catch (Exception e) {
+            // 記録に失敗しても生成処理には影響させない
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * コントロールファイル生成の処理フェーズごとの所要時間とアロケーション量を計測するクラス。
+ * <p/>
+ * 計測はフェーズを実行したスレッドで行う。アロケーション量は{@code com.sun.management.ThreadMXBean}で取得し、
+ * 取得できない実行環境では-1とする。
+ * JFRを利用できる実行環境では、フェーズごとに{@value FlightRecorderEvents#EVENT_NAME}イベントを記録する。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ */
+public class GenerationProfiler {
+
+    /**
+     * 処理フェーズ。
+     */
+    public enum Phase {
+        /** Beanクラスのロード(又はクラスファイルからのメタデータの読み込み) */
+        CLASS_LOAD,
+        /** {@link ControlDefinition}の生成 */
+        CREATE_CONTROL_DEFINITION,
+        /** テンプレートファイルの解析 */
+        CREATE_TEMPLATE,
+        /** テンプレートの処理 */
+        TEMPLATE_PROCESS,
+        /** ファイルの書き込み */
+        WRITE
+    }
+
+    /** 計測しないプロファイラ */
+    static final GenerationProfiler DISABLED = new GenerationProfiler(false);
+
+    /** CSV形式のレポートのヘッダ */
+    private static final String CSV_HEADER = "target,phase,elapsedMicros,allocatedBytes";
+
+    /** スレッドのMXBean */
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    /** スレッドごとのアロケーション量を取得するメソッド(取得できない場合は{@code null}) */
+    private static final Method GET_THREAD_ALLOCATED_BYTES = findAllocatedBytesMethod();
+
+    /** 計測しない場合の{@link Measurement} */
+    private final Measurement noop = new Measurement(null, null);
+
+    /** 計測するか否か */
+    private final boolean enabled;
+
+    /** 計測結果 */
+    private final Queue<Record> records = new ConcurrentLinkedQueue<Record>();
+
+    /**
+     * コンストラクタ。
+     */
+    public GenerationProfiler() {
+        this(true);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param enabled 計測するか否か
+     */
+    private GenerationProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * フェーズの計測を開始する。
+     * <p/>
+     * フェーズの終了時に、同じスレッドで{@link Measurement#end()}を呼び出すこと。
+     *
+     * @param target 対象(Beanクラスの完全修飾名又はテンプレートファイル)
+     * @param phase フェーズ
+     * @return 計測
+     */
+    public Measurement start(String target, Phase phase) {
+        if (!enabled) {
+            return noop;
+        }
+        return new Measurement(target, phase);
+    }
+
+    /**
+     * 計測結果を取得する。
+     *
+     * @return 計測結果(計測が終了した順)
+     */
+    public List<Record> getRecords() {
+        return new ArrayList<Record>(records);
+    }
+
+    /**
+     * 計測結果のレポートを出力する。
+     * <p/>
+     * ファイルの拡張子が{@code .json}の場合はJSON形式、それ以外はCSV形式で出力する。
+     * JSON形式では、フェーズごとの合計も出力する。
+     *
+     * @param reportFile レポートファイル
+     */
+    public void writeReport(File reportFile) {
+        final File dir = reportFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("レポートファイルの出力先ディレクトリの作成に失敗しました。");
+        }
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8");
+            if (reportFile.getName().endsWith(".json")) {
+                writeJson(writer);
+            } else {
+                writeCsv(writer);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write timing report. file = [" + reportFile + ']', e);
+        } finally {
+            FileUtil.closeQuietly(writer);
+        }
+    }
+
+    /**
+     * CSV形式で計測結果を出力する。
+     *
+     * @param writer 出力先
+     * @throws IOException 入出力例外
+     */
+    private void writeCsv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        for (Record record : records) {
+            final String target = record.getTarget();
+            if (target.indexOf(',') >= 0 || target.indexOf('"') >= 0) {
+                writer.write('"' + target.replace("\"", "\"\"") + '"');
+            } else {
+                writer.write(target);
+            }
+            writer.write(',' + record.getPhase().name()
+                    + ',' + record.getElapsedNanos() / 1000
+                    + ',' + record.getAllocatedBytes()
+                    + '\n');
+        }
+    }
+
+    /**
+     * JSON形式で計測結果とフェーズごとの合計を出力する。
+     *
+     * @param writer 出力先
+     * @throws IOException 入出力例外
+     */
+    private void writeJson(Writer writer) throws IOException {
+        final Map<Phase, long[]> totals = new TreeMap<Phase, long[]>();
+        writer.write("{\n  \"records\": [");
+        boolean first = true;
+        for (Record record : records) {
+            writer.write(first ? "\n" : ",\n");
+            first = false;
+            writer.write("    {\"target\": " + quote(record.getTarget())
+                    + ", \"phase\": \"" + record.getPhase().name()
+                    + "\", \"elapsedMicros\": " + record.getElapsedNanos() / 1000
+                    + ", \"allocatedBytes\": " + record.getAllocatedBytes() + '}');
+            long[] total = totals.get(record.getPhase());
+            if (total == null) {
+                total = new long[3];
+                totals.put(record.getPhase(), total);
+            }
+            total[0]++;
+            total[1] += record.getElapsedNanos();
+            total[2] = record.getAllocatedBytes() < 0 || total[2] < 0 ? -1 : total[2] + record.getAllocatedBytes();
+        }
+        writer.write("\n  ],\n  \"totals\": [");
+        first = true;
+        for (Map.Entry<Phase, long[]> total : totals.entrySet()) {
+            writer.write(first ? "\n" : ",\n");
+            first = false;
+            writer.write("    {\"phase\": \"" + total.getKey().name()
+                    + "\", \"count\": " + total.getValue()[0]
+                    + ", \"elapsedMicros\": " + total.getValue()[1] / 1000
+                    + ", \"allocatedBytes\": " + total.getValue()[2] + '}');
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    /**
+     * JSONの文字列リテラルに変換する。
+     *
+     * @param value 値
+     * @return 文字列リテラル
+     */
+    private static String quote(String value) {
+        final StringBuilder result = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * 現在のスレッドのアロケーション量を取得する。
+     *
+     * @return アロケーション量(バイト)。取得できない場合は-1
+     */
+    private static long currentThreadAllocatedBytes() {
+        if (GET_THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(THREAD_MX_BEAN, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}を取得する。
+     *
+     * @return メソッド(アロケーション量を取得できない実行環境の場合は{@code null})
+     */
+    private static Method findAllocatedBytesMethod() {
+        try {
+            final Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (!type.isInstance(THREAD_MX_BEAN)) {
+                return null;
+            }
+            if (!(Boolean) type.getMethod("isThreadAllocatedMemorySupported").invoke(THREAD_MX_BEAN)
+                    || !(Boolean) type.getMethod("isThreadAllocatedMemoryEnabled").invoke(THREAD_MX_BEAN)) {
+                return null;
+            }
+            return type.getMethod("getThreadAllocatedBytes", long.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 1つのフェーズの計測。
+     */
+    public final class Measurement {
+
+        /** 対象 */
+        private final String target;
+
+        /** フェーズ */
+        private final Phase phase;
+
+        /** 開始時刻(ナノ秒) */
+        private final long startNanos;
+
+        /** 開始時点のアロケーション量 */
+        private final long startAllocatedBytes;
+
+        /** JFRのイベント */
+        private final Object event;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param target 対象
+         * @param phase フェーズ(計測しない場合は{@code null})
+         */
+        private Measurement(String target, Phase phase) {
+            this.target = target;
+            this.phase = phase;
+            if (phase == null) {
+                startNanos = 0;
+                startAllocatedBytes = 0;
+                event = null;
+            } else {
+                event = FlightRecorderEvents.begin();
+                startAllocatedBytes = currentThreadAllocatedBytes();
+                startNanos = System.nanoTime();
+            }
+        }
+
+        /**
+         * 計測を終了し、結果を記録する。
+         */
+        public void end() {
+            if (phase == null) {
+                return;
+            }
+            final long elapsed = System.nanoTime() - startNanos;
+            final long allocated = startAllocatedBytes < 0 ? -1 : currentThreadAllocatedBytes() - startAllocatedBytes;
+            records.add(new Record(target, phase, elapsed, allocated));
+            FlightRecorderEvents.commit(event, target, phase.name(), allocated);
+        }
+    }
+
+    /**
+     * 1つのフェーズの計測結果。
+     */
+    public static final class Record {
+
+        /** 対象 */
+        private final String target;
+
+        /** フェーズ */
+        private final Phase phase;
+
+        /** 所要時間(ナノ秒) */
+        private final long elapsedNanos;
+
+        /** アロケーション量(バイト) */
+        private final long allocatedBytes;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param target 対象
+         * @param phase フェーズ
+         * @param elapsedNanos 所要時間(ナノ秒)
+         * @param allocatedBytes アロケーション量(バイト)
+         */
+        Record(String target, Phase phase, long elapsedNanos, long allocatedBytes) {
+            this.target = target;
+            this.phase = phase;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        /**
+         * 対象を取得する。
+         *
+         * @return Beanクラスの完全修飾名又はテンプレートファイル
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * フェーズを取得する。
+         *
+         * @return フェーズ
+         */
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * 所要時間を取得する。
+         *
+         * @return 所要時間(ナノ秒)
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * アロケーション量を取得する。
+         *
+         * @return アロケーション量(バイト)。取得できない場合は-1
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package nablarch.codefirst.control;
+
+/**
+ * SQL*Loaderのロードオプションを保持するクラス。
+ * <p/>
+ * 値が{@code null}のオプションは、コントロールファイルに出力しない。
+ * <p/>
+ * プラグインの設定では、全Beanクラスに共通のデフォルト値として以下のように指定する。
+ * <pre>
+ * {@code <loadOptions>}
+ * {@code   <rows>5000</rows>}
+ * {@code   <multithreading>true</multithreading>}
+ * {@code </loadOptions>}
+ * </pre>
+ *
+ * @see SqlLoaderOptions
+ */
+public class LoadOptions {
+
+    /** ダイレクト・パス・ロードを行うか否か */
+    private Boolean direct;
+
+    /** パラレル・ダイレクト・パス・ロードを行うか否か */
+    private Boolean parallel;
+
+    /** データ保存を行う行数 */
+    private Integer rows;
+
+    /** バインド配列の最大サイズ */
+    private Integer bindSize;
+
+    /** データファイルの読み込みバッファのサイズ */
+    private Integer readSize;
+
+    /** ダイレクト・パスの列配列の行数 */
+    private Integer columnArrayRows;
+
+    /** ストリームバッファのサイズ */
+    private Integer streamSize;
+
+    /** 列配列からストリームへの変換をマルチスレッドで行うか否か */
+    private Boolean multithreading;
+
+    /** 索引のメンテナンスを行わないか否か */
+    private Boolean skipIndexMaintenance;
+
+    /** REDOログを生成しないか否か */
+    private Boolean unrecoverable;
+
+    /** 外部表のディレクトリ・オブジェクト名 */
+    private String directory;
+
+    /**
+     * 本オブジェクトの値をデフォルト値として、{@link SqlLoaderOptions}の指定値で上書きしたロードオプションを生成する。
+     * <p/>
+     * 本オブジェクトの値は変更しない。
+     *
+     * @param annotation {@link SqlLoaderOptions}の値。Beanクラスに付与されていない場合は{@code null}
+     * @return 上書きしたロードオプション
+     */
+    LoadOptions override(AnnotationValues annotation) {
+        final LoadOptions options = new LoadOptions();
+        options.direct = direct;
+        options.parallel = parallel;
+        options.rows = rows;
+        options.bindSize = bindSize;
+        options.readSize = readSize;
+        options.columnArrayRows = columnArrayRows;
+        options.streamSize = streamSize;
+        options.multithreading = multithreading;
+        options.skipIndexMaintenance = skipIndexMaintenance;
+        options.unrecoverable = unrecoverable;
+        options.directory = directory;
+        if (annotation == null) {
+            return options;
+        }
+        options.direct = toBoolean(annotation, "direct", options.direct);
+        options.parallel = toBoolean(annotation, "parallel", options.parallel);
+        options.rows = toInteger(annotation, "rows", options.rows);
+        options.bindSize = toInteger(annotation, "bindSize", options.bindSize);
+        options.readSize = toInteger(annotation, "readSize", options.readSize);
+        options.columnArrayRows = toInteger(annotation, "columnArrayRows", options.columnArrayRows);
+        options.streamSize = toInteger(annotation, "streamSize", options.streamSize);
+        options.multithreading = toBoolean(annotation, "multithreading", options.multithreading);
+        options.skipIndexMaintenance = toBoolean(annotation, "skipIndexMaintenance", options.skipIndexMaintenance);
+        options.unrecoverable = toBoolean(annotation, "unrecoverable", options.unrecoverable);
+        final String annotatedDirectory = annotation.getString("directory");
+        if (annotatedDirectory != null && annotatedDirectory.length() != 0) {
+            options.directory = annotatedDirectory;
+        }
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadOptions{direct=" + direct
+                + ", parallel=" + parallel
+                + ", rows=" + rows
+                + ", bindSize=" + bindSize
+                + ", readSize=" + readSize
+                + ", columnArrayRows=" + columnArrayRows
+                + ", streamSize=" + streamSize
+                + ", multithreading=" + multithreading
+                + ", skipIndexMaintenance=" + skipIndexMaintenance
+                + ", unrecoverable=" + unrecoverable
+                + ", directory=" + directory
+                + '}';
+    }
+
+    /**
+     * アノテーションの数値の属性を取得する。
+     *
+     * @param annotation アノテーションの値
+     * @param name 属性名
+     * @param defaultValue 属性が未指定(0以下)の場合に返す値
+     * @return 属性の値
+     */
+    private static Integer toInteger(AnnotationValues annotation, String name, Integer defaultValue) {
+        final int value = annotation.getInt(name, 0);
+        return value > 0 ? Integer.valueOf(value) : defaultValue;
+    }
+
+    /**
+     * アノテーションの{@link SqlLoaderOptions.Flag}の属性を取得する。
+     *
+     * @param annotation アノテーションの値
+     * @param name 属性名
+     * @param defaultValue 属性が{@link SqlLoaderOptions.Flag#DEFAULT}の場合に返す値
+     * @return 属性の値
+     */
+    private static Boolean toBoolean(AnnotationValues annotation, String name, Boolean defaultValue) {
+        final String value = annotation.getString(name);
+        if (SqlLoaderOptions.Flag.TRUE.name().equals(value)) {
+            return Boolean.TRUE;
+        }
+        if (SqlLoaderOptions.Flag.FALSE.name().equals(value)) {
+            return Boolean.FALSE;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * ダイレクト・パス・ロードを行うか否かを取得する。
+     * @return ダイレクト・パス・ロードを行うか否か(未指定の場合は{@code null})
+     */
+    public Boolean getDirect() {
+        return direct;
+    }
+
+    /**
+     * ダイレクト・パス・ロードを行うか否かを設定する。
+     * @param direct ダイレクト・パス・ロードを行うか否か
+     */
+    public void setDirect(Boolean direct) {
+        this.direct = direct;
+    }
+
+    /**
+     * ダイレクト・パス・ロードを行うか否かを判定する。
+     * @return 未指定又は{@code true}が指定された場合は{@code true}
+     */
+    public boolean isDirectPath() {
+        return direct == null || direct;
+    }
+
+    /**
+     * パラレル・ダイレクト・パス・ロードを行うか否かを取得する。
+     * @return パラレル・ダイレクト・パス・ロードを行うか否か
+     */
+    public Boolean getParallel() {
+        return parallel;
+    }
+
+    /**
+     * パラレル・ダイレクト・パス・ロードを行うか否かを設定する。
+     * @param parallel パラレル・ダイレクト・パス・ロードを行うか否か
+     */
+    public void setParallel(Boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * データ保存を行う行数を取得する。
+     * @return データ保存を行う行数
+     */
+    public Integer getRows() {
+        return rows;
+    }
+
+    /**
+     * データ保存を行う行数を設定する。
+     * @param rows データ保存を行う行数
+     */
+    public void setRows(Integer rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * バインド配列の最大サイズを取得する。
+     * @return バインド配列の最大サイズ
+     */
+    public Integer getBindSize() {
+        return bindSize;
+    }
+
+    /**
+     * バインド配列の最大サイズを設定する。
+     * @param bindSize バインド配列の最大サイズ
+     */
+    public void setBindSize(Integer bindSize) {
+        this.bindSize = bindSize;
+    }
+
+    /**
+     * データファイルの読み込みバッファのサイズを取得する。
+     * @return データファイルの読み込みバッファのサイズ
+     */
+    public Integer getReadSize() {
+        return readSize;
+    }
+
+    /**
+     * データファイルの読み込みバッファのサイズを設定する。
+     * @param readSize データファイルの読み込みバッファのサイズ
+     */
+    public void setReadSize(Integer readSize) {
+        this.readSize = readSize;
+    }
+
+    /**
+     * ダイレクト・パスの列配列の行数を取得する。
+     * @return ダイレクト・パスの列配列の行数
+     */
+    public Integer getColumnArrayRows() {
+        return columnArrayRows;
+    }
+
+    /**
+     * ダイレクト・パスの列配列の行数を設定する。
+     * @param columnArrayRows ダイレクト・パスの列配列の行数
+     */
+    public void setColumnArrayRows(Integer columnArrayRows) {
+        this.columnArrayRows = columnArrayRows;
+    }
+
+    /**
+     * ストリームバッファのサイズを取得する。
+     * @return ストリームバッファのサイズ
+     */
+    public Integer getStreamSize() {
+        return streamSize;
+    }
+
+    /**
+     * ストリームバッファのサイズを設定する。
+     * @param streamSize ストリームバッファのサイズ
+     */
+    public void setStreamSize(Integer streamSize) {
+        this.streamSize = streamSize;
+    }
+
+    /**
+     * 列配列からストリームへの変換をマルチスレッドで行うか否かを取得する。
+     * @return 列配列からストリームへの変換をマルチスレッドで行うか否か
+     */
+    public Boolean getMultithreading() {
+        return multithreading;
+    }
+
+    /**
+     * 列配列からストリームへの変換をマルチスレッドで行うか否かを設定する。
+     * @param multithreading 列配列からストリームへの変換をマルチスレッドで行うか否か
+     */
+    public void setMultithreading(Boolean multithreading) {
+        this.multithreading = multithreading;
+    }
+
+    /**
+     * 索引のメンテナンスを行わないか否かを取得する。
+     * @return 索引のメンテナンスを行わないか否か
+     */
+    public Boolean getSkipIndexMaintenance() {
+        return skipIndexMaintenance;
+    }
+
+    /**
+     * 索引のメンテナンスを行わないか否かを設定する。
+     * @param skipIndexMaintenance 索引のメンテナンスを行わないか否か
+     */
+    public void setSkipIndexMaintenance(Boolean skipIndexMaintenance) {
+        this.skipIndexMaintenance = skipIndexMaintenance;
+    }
+
+    /**
+     * REDOログを生成しないか否かを取得する。
+     * @return REDOログを生成しないか否か
+     */
+    public Boolean getUnrecoverable() {
+        return unrecoverable;
+    }
+
+    /**
+     * REDOログを生成しないか否かを設定する。
+     * @param unrecoverable REDOログを生成しないか否か
+     */
+    public void setUnrecoverable(Boolean unrecoverable) {
+        this.unrecoverable = unrecoverable;
+    }
+
+    /**
+     * 外部表のディレクトリ・オブジェクト名を取得する。
+     * @return 外部表のディレクトリ・オブジェクト名
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 外部表のディレクトリ・オブジェクト名を設定する。
+     * @param directory 外部表のディレクトリ・オブジェクト名
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+}
@@ -0,0 +1,290 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * コントロールファイルの定義から、メモリ予算に収まるバインド配列及び読み込みバッファのサイズを算出するクラス。
+ * <p/>
+ * フィールド指定(データ型及び位置)とファイルのフォーマットから1レコードの最大長を推定し、
+ * 1セッションあたりのメモリ予算の半分を読み込みバッファ({@code READSIZE})に割り当て、残りをロードの方式に応じて割り当てる。
+ * <ul>
+ *     <li>ダイレクト・パス・ロード:残りの半分を列配列に割り当てて列配列に収まる行数を{@code COLUMNARRAYROWS}とし、
+ *     残りをストリームバッファ({@code STREAMSIZE})に割り当てる。ダイレクト・パス・ロードでは{@code BINDSIZE}は使用されず、
+ *     {@code ROWS}はデータ保存の間隔となるため、{@code ROWS}及び{@code BINDSIZE}は設定しない。</li>
+ *     <li>従来型パス・ロード:残りをバインド配列({@code BINDSIZE})に割り当て、バインド配列に収まる行数を{@code ROWS}とする。</li>
+ * </ul>
+ * <p/>
+ * ロードオプションで明示的に指定された値は変更せず、未指定のオプションにのみ推奨値を設定する。
+ * 算出結果はBeanクラスごとに保持し、{@link #writeReport(File)}でレポートとして出力できる。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ */
+public class LoadSizingAdvisor {
+
+    /** 可変長のフィールドの最大長(SQL*Loaderのデフォルト) */
+    static final int DEFAULT_FIELD_LENGTH = 255;
+
+    /** 数値({@code INTEGER EXTERNAL})のフィールドの最大長(符号付き19桁) */
+    static final int INTEGER_FIELD_LENGTH = 20;
+
+    /** 数値({@code DECIMAL EXTERNAL})のフィールドの最大長 */
+    static final int DECIMAL_FIELD_LENGTH = 40;
+
+    /** 日時のフィールドで書式マスクに加えて許容する長さ(小数秒の桁数) */
+    static final int DATE_FIELD_MARGIN = 9;
+
+    /** バインド配列の1フィールドあたりのオーバーヘッド(長さインジケータ等) */
+    static final int FIELD_OVERHEAD = 4;
+
+    /** ストリームバッファの最小サイズ(SQL*Loaderの下限) */
+    static final int MIN_STREAM_SIZE = 65536;
+
+    /** レポートのヘッダ */
+    private static final String REPORT_HEADER =
+            "bean,table,path,recordLength,bindRowSize,rows,bindSize,readSize,columnArrayRows,streamSize";
+
+    /** {@code CHAR(n)}のパターン */
+    private static final Pattern CHAR_PATTERN = Pattern.compile("CHAR\\((\\d+)\\)");
+
+    /** 書式マスクのパターン */
+    private static final Pattern MASK_PATTERN = Pattern.compile("\"([^\"]*)\"");
+
+    /** 1セッションあたりのメモリ予算(バイト) */
+    private final long memoryBudget;
+
+    /** Beanクラスの完全修飾名と算出結果のマッピング */
+    private final Map<String, String> results = new ConcurrentSkipListMap<String, String>();
+
+    /**
+     * メモリ予算を指定して、{@code LoadSizingAdvisor}を生成する。
+     *
+     * @param memoryBudget 1セッションあたりのメモリ予算(バイト)
+     */
+    public LoadSizingAdvisor(long memoryBudget) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("memoryBudget must be greater than 0. memoryBudget = [" + memoryBudget + ']');
+        }
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * コントロールファイルの定義から推奨値を算出し、未指定のオプションに推奨値を設定したロードオプションを返す。
+     *
+     * @param className Beanクラスの完全修飾名
+     * @param control コントロールファイルの定義
+     * @return 推奨値を設定したロードオプション
+     */
+    public LoadOptions advise(String className, ControlDefinition control) {
+        final int recordLength = estimateRecordLength(control);
+        final int bindRowSize = estimateBindRowSize(control);
+
+        final long readSize = Math.max(memoryBudget / 2, recordLength);
+
+        final LoadOptions options = control.getLoadOptions().override(null);
+        if (options.isDirectPath()) {
+            adviseDirectPath(options, readSize, bindRowSize);
+        } else {
+            adviseConventionalPath(options, readSize, bindRowSize);
+        }
+
+        results.put(className, className
+                + ',' + control.getTableName()
+                + ',' + (options.isDirectPath() ? "DIRECT" : "CONVENTIONAL")
+                + ',' + recordLength
+                + ',' + bindRowSize
+                + ',' + toString(options.getRows())
+                + ',' + toString(options.getBindSize())
+                + ',' + toString(options.getReadSize())
+                + ',' + toString(options.getColumnArrayRows())
+                + ',' + toString(options.getStreamSize()));
+        return options;
+    }
+
+    /**
+     * ダイレクト・パス・ロードの{@code READSIZE}、{@code COLUMNARRAYROWS}及び{@code STREAMSIZE}の推奨値を設定する。
+     *
+     * @param options ロードオプション
+     * @param readSize 読み込みバッファに割り当てるサイズ
+     * @param bindRowSize 列配列の1行あたりのサイズ
+     */
+    private void adviseDirectPath(LoadOptions options, long readSize, int bindRowSize) {
+        if (options.getReadSize() == null) {
+            options.setReadSize(toInt(readSize));
+        }
+        final long remaining = Math.max(0, memoryBudget - options.getReadSize());
+        if (options.getColumnArrayRows() == null) {
+            options.setColumnArrayRows(toInt(Math.max(1, remaining / 2 / bindRowSize)));
+        }
+        if (options.getStreamSize() == null) {
+            final long columnArraySize = (long) options.getColumnArrayRows() * bindRowSize;
+            options.setStreamSize(toInt(Math.max(MIN_STREAM_SIZE, remaining - columnArraySize)));
+        }
+    }
+
+    /**
+     * 従来型パス・ロードの{@code ROWS}、{@code BINDSIZE}及び{@code READSIZE}の推奨値を設定する。
+     *
+     * @param options ロードオプション
+     * @param readSize 読み込みバッファに割り当てるサイズ
+     * @param bindRowSize バインド配列の1行あたりのサイズ
+     */
+    private void adviseConventionalPath(LoadOptions options, long readSize, int bindRowSize) {
+        if (options.getRows() == null) {
+            options.setRows(toInt(Math.max(1, (memoryBudget - readSize) / bindRowSize)));
+        }
+        if (options.getBindSize() == null) {
+            options.setBindSize(toInt((long) options.getRows() * bindRowSize));
+        }
+        if (options.getReadSize() == null) {
+            options.setReadSize(toInt(Math.max(readSize, options.getBindSize())));
+        }
+    }
+
+    /**
+     * 算出結果のレポート(CSV形式)を出力する。
+     *
+     * @param reportFile レポートファイル
+     */
+    public void writeReport(File reportFile) {
+        final File dir = reportFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("レポートファイルの出力先ディレクトリの作成に失敗しました。");
+        }
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8");
+            writer.write(REPORT_HEADER);
+            writer.write('\n');
+            for (String result : results.values()) {
+                writer.write(result);
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write sizing report. file = [" + reportFile + ']', e);
+        } finally {
+            FileUtil.closeQuietly(writer);
+        }
+    }
+
+    /**
+     * 1レコードの最大長(バイト)を推定する。
+     * <p/>
+     * 固定長ファイルの場合はレコード長とする。
+     * CSVファイルの場合は、各フィールドの最大長、囲み文字、列区切り文字及び行区切り文字の合計とする。
+     * LOBファイルからロードするフィールドは、レコードに含まれないため対象外とする。
+     *
+     * @param control コントロールファイルの定義
+     * @return 1レコードの最大長
+     */
+    static int estimateRecordLength(ControlDefinition control) {
+        if (control.isFixedLength()) {
+            return control.getRecordSize();
+        }
+        int length = 0;
+        int fieldCount = 0;
+        for (FieldDefinition field : control.getFields()) {
+            if ("RECNUM".equals(field.getDataType()) || field.isLobFile()) {
+                continue;
+            }
+            length += estimateFieldLength(field) + 2;
+            fieldCount++;
+        }
+        return length + Math.max(0, fieldCount - 1) + unescape(control.getLineSeparator()).length();
+    }
+
+    /**
+     * バインド配列の1行あたりのサイズ(バイト)を推定する。
+     * <p/>
+     * LOBファイルからロードするフィールドは、バインド配列を経由せずにロードされるため対象外とする。
+     *
+     * @param control コントロールファイルの定義
+     * @return バインド配列の1行あたりのサイズ
+     */
+    static int estimateBindRowSize(ControlDefinition control) {
+        int size = 0;
+        for (FieldDefinition field : control.getFields()) {
+            if (field.isLobFile()) {
+                continue;
+            }
+            size += estimateFieldLength(field) + FIELD_OVERHEAD;
+        }
+        return Math.max(size, 1);
+    }
+
+    /**
+     * フィールドの最大長(バイト)を推定する。
+     *
+     * @param field フィールド指定
+     * @return フィールドの最大長
+     */
+    static int estimateFieldLength(FieldDefinition field) {
+        final String position = field.getPosition();
+        if (position != null) {
+            final int separator = position.indexOf(':');
+            return Integer.parseInt(position.substring(separator + 1)) - Integer.parseInt(position.substring(0, separator)) + 1;
+        }
+        final String dataType = field.getDataType();
+        if (dataType == null) {
+            return DEFAULT_FIELD_LENGTH;
+        }
+        if ("RECNUM".equals(dataType)) {
+            return INTEGER_FIELD_LENGTH;
+        }
+        final Matcher charMatcher = CHAR_PATTERN.matcher(dataType);
+        if (charMatcher.lookingAt()) {
+            return Integer.parseInt(charMatcher.group(1));
+        }
+        if (dataType.startsWith("INTEGER EXTERNAL")) {
+            return INTEGER_FIELD_LENGTH;
+        }
+        if (dataType.startsWith("DECIMAL EXTERNAL")) {
+            return DECIMAL_FIELD_LENGTH;
+        }
+        final Matcher maskMatcher = MASK_PATTERN.matcher(dataType);
+        if (maskMatcher.find()) {
+            return maskMatcher.group(1).length() + DATE_FIELD_MARGIN;
+        }
+        return DEFAULT_FIELD_LENGTH;
+    }
+
+    /**
+     * エスケープされた行区切り文字を元に戻す。
+     *
+     * @param lineSeparator エスケープされた行区切り文字
+     * @return 行区切り文字
+     */
+    private static String unescape(String lineSeparator) {
+        return lineSeparator == null ? "" : lineSeparator.replace("\\r", "\r").replace("\\n", "\n").replace("\\t", "\t");
+    }
+
+    /**
+     * レポートに出力する値に変換する。
+     *
+     * @param value 値
+     * @return 値の文字列表現({@code null}の場合は空文字列)
+     */
+    private static String toString(Integer value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * {@code int}の範囲に収まるように値を変換する。
+     *
+     * @param value 値
+     * @return {@code int}の範囲に切り詰めた値
+     */
+    private static int toInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
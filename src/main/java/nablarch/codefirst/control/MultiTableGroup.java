@@ -0,0 +1,133 @@
+package nablarch.codefirst.control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 1つのデータファイルを複数のテーブルにロードするBeanクラスのグループを保持するクラス。
+ * <p/>
+ * レコード種別ごとに異なるBeanクラスに対応するデータファイルを、1回の読み込みで各テーブルにロードするため、
+ * Beanクラスごとの{@code INTO TABLE ... WHEN (...)}句を持つ1つのコントロールファイル({@code <グループ名>.ctl})を生成する。
+ * <p/>
+ * プラグインの設定では、以下のように指定する。
+ * <pre>
+ * {@code <multiTableGroups>}
+ * {@code   <multiTableGroup>}
+ * {@code     <name>Sales</name>}
+ * {@code     <discriminator>1:1</discriminator>}
+ * {@code     <members>}
+ * {@code       <multiTableMember>}
+ * {@code         <className>com.example.SalesHeader</className>}
+ * {@code         <value>H</value>}
+ * {@code       </multiTableMember>}
+ * {@code       <multiTableMember>}
+ * {@code         <className>com.example.SalesDetail</className>}
+ * {@code         <value>D</value>}
+ * {@code       </multiTableMember>}
+ * {@code     </members>}
+ * {@code   </multiTableGroup>}
+ * {@code </multiTableGroups>}
+ * </pre>
+ * グループ内のBeanクラスは、同じデータファイルのフォーマット(文字コード、区切り文字、ヘッダ有無及びレコード長など)である必要がある。
+ * ロードオプションは、先頭のBeanクラスのものを使用する。
+ *
+ * @see MultiTableMember
+ */
+public class MultiTableGroup {
+
+    /** レコード内の位置を表す識別項目のパターン(例:{@code 1:1}、{@code (1:2)}) */
+    private static final Pattern POSITION = Pattern.compile("\\(?\\d+(:\\d+)?\\)?");
+
+    /** グループ名(コントロールファイルのファイル名) */
+    private String name;
+
+    /** レコード種別の識別項目 */
+    private String discriminator;
+
+    /** グループに属するBeanクラス */
+    private List<MultiTableMember> members = new ArrayList<MultiTableMember>();
+
+    /**
+     * グループ名を取得する。
+     * @return グループ名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * グループ名を設定する。
+     * <p/>
+     * 拡張子を除いたコントロールファイルのファイル名となる。
+     * @param name グループ名
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * レコード種別の識別項目を取得する。
+     * @return レコード種別の識別項目
+     */
+    public String getDiscriminator() {
+        return discriminator;
+    }
+
+    /**
+     * レコード種別の識別項目を設定する。
+     * <p/>
+     * レコード内の位置({@code 開始位置:終了位置}。1始まりのバイト位置)又はカラム名を指定する。
+     * カラム名を指定した場合は、グループ内の全てのBeanクラスがそのカラムを持つ必要がある。
+     * @param discriminator レコード種別の識別項目
+     */
+    public void setDiscriminator(String discriminator) {
+        this.discriminator = discriminator;
+    }
+
+    /**
+     * グループに属するBeanクラスを取得する。
+     * @return グループに属するBeanクラス({@code INTO TABLE}句の順)
+     */
+    public List<MultiTableMember> getMembers() {
+        return members;
+    }
+
+    /**
+     * グループに属するBeanクラスを設定する。
+     * @param members グループに属するBeanクラス
+     */
+    public void setMembers(List<MultiTableMember> members) {
+        this.members = members;
+    }
+
+    /**
+     * レコード種別の識別項目がレコード内の位置か否かを判定する。
+     *
+     * @return レコード内の位置の場合は{@code true}、カラム名の場合は{@code false}
+     */
+    boolean isPositionDiscriminator() {
+        return POSITION.matcher(discriminator).matches();
+    }
+
+    /**
+     * {@code WHEN}句の条件を生成する。
+     *
+     * @param value レコード種別の値
+     * @return {@code WHEN}句の条件(例:{@code (1:1) = 'H'}、{@code RECORD_TYPE = 'H'})
+     */
+    String toCondition(String value) {
+        final String field;
+        if (isPositionDiscriminator()) {
+            field = discriminator.startsWith("(") ? discriminator : '(' + discriminator + ')';
+        } else {
+            field = discriminator;
+        }
+        return field + " = '" + value.replace("'", "''") + '\'';
+    }
+
+    @Override
+    public String toString() {
+        return "MultiTableGroup{name=" + name + ", discriminator=" + discriminator + ", members=" + members + '}';
+    }
+}
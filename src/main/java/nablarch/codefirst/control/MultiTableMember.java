@@ -0,0 +1,54 @@
+package nablarch.codefirst.control;
+
+/**
+ * {@link MultiTableGroup}に属するBeanクラスと、そのBeanクラスのレコード種別の値を保持するクラス。
+ *
+ * @see MultiTableGroup
+ */
+public class MultiTableMember {
+
+    /** Beanクラスの完全修飾名 */
+    private String className;
+
+    /** レコード種別の値 */
+    private String value;
+
+    /**
+     * Beanクラスの完全修飾名を取得する。
+     * @return Beanクラスの完全修飾名
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Beanクラスの完全修飾名を設定する。
+     * @param className Beanクラスの完全修飾名
+     */
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    /**
+     * レコード種別の値を取得する。
+     * @return レコード種別の値
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * レコード種別の値を設定する。
+     * <p/>
+     * レコード種別の識別項目がこの値と一致するレコードを、Beanクラスのテーブルにロードする。
+     * @param value レコード種別の値
+     */
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    @Override
+    public String toString() {
+        return className + '=' + value;
+    }
+}
@@ -0,0 +1,88 @@
+package nablarch.codefirst.control;
+
+/**
+ * Beanクラスから生成するファイルの形式。
+ * <p/>
+ * 形式ごとに、プラグインが提供する標準のテンプレートファイルと、生成するファイルの拡張子を持つ。
+ * 標準以外のテンプレートファイルを使用する場合、生成するファイルの拡張子は明示的に指定しない限り{@code .ctl}とする。
+ *
+ * @see ControlFileGeneratorMojo
+ */
+public enum OutputFormat {
+
+    /** SQL*Loaderのコントロールファイル({@code .ctl}) */
+    SQL_LOADER("template/template.ftl", ".ctl"),
+
+    /**
+     * Oracleの外部表({@code ORGANIZATION EXTERNAL})のDDLと、外部表からのパラレル・ダイレクト・パス・インサート文({@code .sql})。
+     * <p/>
+     * 外部表名はロード先のテーブル名に{@code _EXT}を付与した名前、データファイル名は{@code <Beanクラスの単純名>.dat}とする。
+     * データファイルを配置するディレクトリ・オブジェクトは{@link LoadOptions#getDirectory()}で指定する
+     * (未指定の場合は{@code ETL_DATA_DIR})。
+     */
+    ORACLE_EXTERNAL_TABLE("template/external_table.sql.ftl", ".sql"),
+
+    /**
+     * PostgreSQLの{@code COPY}文をpsqlで実行するスクリプト({@code .sql})。
+     * <p/>
+     * データファイル名は{@code <Beanクラスの単純名>.csv}とする。
+     * {@link LoadOptions#getDirectory()}を指定した場合は、そのディレクトリのファイルをサーバ側の{@code COPY}で読み込み、
+     * 指定しない場合はクライアント側の{@code \copy}で読み込む。
+     * 行番号のカラムを持つ場合は、一時テーブルに行番号を採番しながら読み込んだ後、ロード先のテーブルに登録する。
+     * 固定長ファイルには対応しない。
+     */
+    POSTGRESQL_COPY("template/postgresql_copy.sql.ftl", ".sql");
+
+    /** 標準のテンプレートファイル */
+    private final String templateFile;
+
+    /** 生成するファイルの拡張子 */
+    private final String extension;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param templateFile 標準のテンプレートファイル
+     * @param extension 生成するファイルの拡張子(ピリオドを含む)
+     */
+    OutputFormat(String templateFile, String extension) {
+        this.templateFile = templateFile;
+        this.extension = extension;
+    }
+
+    /**
+     * テンプレートファイルから生成するファイルの拡張子を取得する。
+     * <p/>
+     * いずれかの形式の標準のテンプレートファイルの場合はその形式の拡張子とし、
+     * それ以外のテンプレートファイルの場合は{@link #SQL_LOADER}の拡張子({@code .ctl})とする。
+     *
+     * @param templateFile テンプレートファイル
+     * @return 生成するファイルの拡張子(ピリオドを含む)
+     */
+    static String extensionOf(String templateFile) {
+        for (OutputFormat format : values()) {
+            if (format.templateFile.equals(templateFile)) {
+                return format.extension;
+            }
+        }
+        return SQL_LOADER.extension;
+    }
+
+    /**
+     * 標準のテンプレートファイルを取得する。
+     *
+     * @return テンプレートファイル(「nablarch/codefirst/control」からのパス)
+     */
+    public String getTemplateFile() {
+        return templateFile;
+    }
+
+    /**
+     * 生成するファイルの拡張子を取得する。
+     *
+     * @return 生成するファイルの拡張子(ピリオドを含む)
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
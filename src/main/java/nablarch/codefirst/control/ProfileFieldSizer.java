@@ -0,0 +1,119 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import nablarch.codefirst.loader.ColumnProfile;
+import nablarch.codefirst.loader.DataProfile;
+
+/**
+ * データファイルのプロファイル({@link DataProfile})に従って、フィールドの長さを実データに合わせるクラス。
+ * <p/>
+ * 可変長ファイルの{@code CHAR(n)}のフィールドの長さを、プロファイルの最大長に余裕率を加えた長さとする。
+ * ただし、Beanクラスの定義から導出した長さを超える長さにはしない。
+ * {@link LoadSizingAdvisor}はフィールドの長さから1レコードの最大長を推定するため、
+ * 読み込みバッファ、列配列及びバインド配列のサイズも実データに合わせた値となる。
+ * <p/>
+ * プロファイルは{@code <プロファイルのディレクトリ>/<Beanクラスの完全修飾名>.json}から読み込む。
+ * プロファイルが無いBeanクラス及びプロファイルに含まれないカラムのフィールドは変更しない。
+ * <p/>
+ * 本クラスはスレッドセーフである。
+ *
+ * @see nablarch.codefirst.loader.DataFileProfiler
+ */
+public class ProfileFieldSizer {
+
+    /** {@code CHAR(n)}のパターン */
+    private static final Pattern CHAR_PATTERN = Pattern.compile("CHAR\\((\\d+)\\)");
+
+    /** プロファイルのディレクトリ */
+    private final File profileDirectory;
+
+    /** 最大長に加える余裕率(%) */
+    private final int margin;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param profileDirectory プロファイルのディレクトリ
+     * @param margin 最大長に加える余裕率(%)
+     */
+    public ProfileFieldSizer(File profileDirectory, int margin) {
+        if (margin < 0) {
+            throw new IllegalArgumentException("margin must not be negative. margin = [" + margin + ']');
+        }
+        this.profileDirectory = profileDirectory;
+        this.margin = margin;
+    }
+
+    /**
+     * Beanクラスのプロファイルに従って、フィールドの長さを変更したフィールド指定のリストを返す。
+     *
+     * @param className Beanクラスの完全修飾名
+     * @param fields フィールド指定のリスト
+     * @return 長さを変更したフィールド指定のリスト。プロファイルが無い場合は引数のリスト
+     */
+    List<FieldDefinition> resize(String className, List<FieldDefinition> fields) {
+        final File profileFile = DataProfile.getProfileFile(profileDirectory, className);
+        if (!profileFile.isFile()) {
+            return fields;
+        }
+        final DataProfile profile = DataProfile.read(profileFile);
+        final List<FieldDefinition> resized = new ArrayList<FieldDefinition>(fields.size());
+        for (FieldDefinition field : fields) {
+            resized.add(resize(field, profile));
+        }
+        return resized;
+    }
+
+    /**
+     * プロファイルに従って、フィールドの長さを変更する。
+     *
+     * @param field フィールド指定
+     * @param profile プロファイル
+     * @return 長さを変更したフィールド指定。変更しない場合は引数のフィールド指定
+     */
+    private FieldDefinition resize(FieldDefinition field, DataProfile profile) {
+        if (field == null || field.isFiller() || field.getPosition() != null || field.getDataType() == null) {
+            return field;
+        }
+        final Matcher matcher = CHAR_PATTERN.matcher(field.getDataType());
+        final ColumnProfile column = profile.getColumn(field.getColumnName());
+        if (!matcher.matches() || column == null || column.getCount() == 0) {
+            return field;
+        }
+        final long length = Math.max(1, (column.getMaxLength() * (100 + margin) + 99) / 100);
+        if (length >= Integer.parseInt(matcher.group(1))) {
+            return field;
+        }
+        return new FieldDefinition(field.getColumnName(), "CHAR(" + length + ')', null);
+    }
+
+    /**
+     * インクリメンタル生成で使用する、プロファイルの状態を表す文字列を取得する。
+     * <p/>
+     * プロファイルが追加、削除又は更新された場合に、異なる値となる。
+     *
+     * @return プロファイルの状態を表す文字列
+     */
+    String getFingerprint() {
+        final StringBuilder fingerprint = new StringBuilder("profileMargin=").append(margin);
+        final File[] files = profileDirectory.listFiles();
+        if (files == null) {
+            return fingerprint.toString();
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.getName().endsWith(DataProfile.FILE_EXTENSION)) {
+                fingerprint.append(", ").append(file.getName())
+                           .append('@').append(file.lastModified())
+                           .append(':').append(file.length());
+            }
+        }
+        return fingerprint.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package nablarch.codefirst.control;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Beanクラスのプロパティ(テーブルのカラムに対応するもの)のメタデータを保持するクラス。
+ */
+public class PropertyMetadata {
+
+    /** プロパティ名 */
+    private final String name;
+
+    /** カラム名 */
+    private final String columnName;
+
+    /** プロパティの型名 */
+    private final String typeName;
+
+    /** カラムのJDBCの型名 */
+    private final String jdbcTypeName;
+
+    /** 行番号を保持するプロパティか否か */
+    private final boolean lineNumber;
+
+    /** getterに付与されたアノテーション */
+    private final Map<String, AnnotationValues> annotations = new LinkedHashMap<String, AnnotationValues>();
+
+    /**
+     * プロパティのメタデータを生成する。
+     *
+     * @param name プロパティ名
+     * @param columnName カラム名
+     * @param typeName プロパティの型名(例:{@code java.lang.String}、{@code int})
+     * @param jdbcTypeName カラムのJDBCの型名({@code @Temporal}により変換された型名。例:{@code java.sql.Date})
+     * @param lineNumber 行番号を保持するプロパティか否か
+     * @param annotations getterに付与されたアノテーション
+     */
+    public PropertyMetadata(String name, String columnName, String typeName, String jdbcTypeName, boolean lineNumber,
+            Iterable<AnnotationValues> annotations) {
+        this.name = name;
+        this.columnName = columnName;
+        this.typeName = typeName;
+        this.jdbcTypeName = jdbcTypeName;
+        this.lineNumber = lineNumber;
+        for (AnnotationValues annotation : annotations) {
+            this.annotations.put(annotation.getTypeName(), annotation);
+        }
+    }
+
+    /**
+     * プロパティ名を取得する。
+     * @return プロパティ名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * カラム名を取得する。
+     * @return カラム名
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * プロパティの型名を取得する。
+     * @return プロパティの型名
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    /**
+     * カラムのJDBCの型名を取得する。
+     * @return カラムのJDBCの型名
+     */
+    public String getJdbcTypeName() {
+        return jdbcTypeName;
+    }
+
+    /**
+     * 行番号を保持するプロパティか否かを取得する。
+     * @return 行番号を保持するプロパティの場合は{@code true}
+     */
+    public boolean isLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * getterに付与されたアノテーションを取得する。
+     *
+     * @param typeName アノテーション型の完全修飾名
+     * @return アノテーション。付与されていない場合は{@code null}
+     */
+    public AnnotationValues getAnnotation(String typeName) {
+        return annotations.get(typeName);
+    }
+
+    /**
+     * getterに付与されたアノテーションを取得する。
+     *
+     * @return アノテーション型の完全修飾名とアノテーションのマッピング
+     */
+    public Map<String, AnnotationValues> getAnnotations() {
+        return Collections.unmodifiableMap(annotations);
+    }
+}
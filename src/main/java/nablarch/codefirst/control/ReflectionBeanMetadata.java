@@ -0,0 +1,132 @@
+package nablarch.codefirst.control;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.common.dao.ColumnMeta;
+import nablarch.common.dao.EntityUtil;
+import nablarch.common.databind.DataBindUtil;
+import nablarch.common.databind.csv.CsvDataBindConfig;
+import nablarch.etl.WorkItem;
+
+/**
+ * リフレクションを使用して、ロード済みのBeanクラスからメタデータを取得する{@link BeanMetadata}実装クラス。
+ * <p/>
+ * テーブル名、カラム及びCSVファイルのフォーマットは、ユニバーサルDAO及びデータバインドのAPIを使用して取得する。
+ */
+public class ReflectionBeanMetadata implements BeanMetadata {
+
+    /** Beanクラス */
+    private final Class<?> beanClass;
+
+    /**
+     * Beanクラスのメタデータを生成する。
+     *
+     * @param beanClass Beanクラス
+     */
+    public ReflectionBeanMetadata(Class<?> beanClass) {
+        this.beanClass = beanClass;
+    }
+
+    @Override
+    public String getClassName() {
+        return beanClass.getName();
+    }
+
+    @Override
+    public String getSimpleName() {
+        return beanClass.getSimpleName();
+    }
+
+    @Override
+    public boolean isWorkItem() {
+        return WorkItem.class.isAssignableFrom(beanClass);
+    }
+
+    @Override
+    public String getTableNameWithSchema() {
+        return EntityUtil.getTableNameWithSchema(beanClass);
+    }
+
+    @Override
+    public CsvLayout getCsvLayout() {
+        if (getAnnotation(ClassFileBeanMetadata.CSV) == null) {
+            return null;
+        }
+        final CsvDataBindConfig config = (CsvDataBindConfig) DataBindUtil.createDataBindConfig(beanClass);
+        return new CsvLayout(config.getCharset().name(), config.getFieldSeparator(), config.getLineSeparator(),
+                config.getQuote(), config.isRequiredHeader());
+    }
+
+    @Override
+    public AnnotationValues getAnnotation(String typeName) {
+        return find(beanClass.getAnnotations(), typeName);
+    }
+
+    @Override
+    public List<PropertyMetadata> getProperties() {
+        final Map<String, Method> getters = new HashMap<String, Method>();
+        try {
+            for (PropertyDescriptor descriptor : Introspector.getBeanInfo(beanClass).getPropertyDescriptors()) {
+                if (descriptor.getReadMethod() != null) {
+                    getters.put(descriptor.getName(), descriptor.getReadMethod());
+                }
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException(e);
+        }
+
+        final String lineNumberPropertyName = DataBindUtil.findLineNumberProperty(beanClass);
+        final List<PropertyMetadata> properties = new ArrayList<PropertyMetadata>();
+        for (ColumnMeta column : EntityUtil.findAllColumns(beanClass)) {
+            final List<AnnotationValues> annotations = new ArrayList<AnnotationValues>();
+            final Method getter = getters.get(column.getPropertyName());
+            if (getter != null) {
+                for (Annotation annotation : getter.getAnnotations()) {
+                    annotations.add(AnnotationValues.of(annotation));
+                }
+            }
+            properties.add(new PropertyMetadata(
+                    column.getPropertyName(),
+                    column.getName(),
+                    getter != null ? toTypeName(getter.getReturnType()) : null,
+                    column.getJdbcType() != null ? toTypeName(column.getJdbcType()) : null,
+                    column.getPropertyName().equals(lineNumberPropertyName),
+                    annotations));
+        }
+        return properties;
+    }
+
+    /**
+     * 型名を取得する。
+     *
+     * @param type 型
+     * @return 型名(配列の場合は要素の型名に{@code []}を付与したもの)
+     */
+    private static String toTypeName(Class<?> type) {
+        return type.isArray() ? toTypeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    /**
+     * アノテーションの中から、指定された型のアノテーションを検索する。
+     *
+     * @param annotations アノテーション
+     * @param typeName アノテーション型の完全修飾名
+     * @return アノテーション。存在しない場合は{@code null}
+     */
+    private static AnnotationValues find(Annotation[] annotations, String typeName) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().getName().equals(typeName)) {
+                return AnnotationValues.of(annotation);
+            }
+        }
+        return null;
+    }
+}
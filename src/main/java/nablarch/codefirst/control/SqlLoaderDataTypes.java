@@ -0,0 +1,131 @@
+package nablarch.codefirst.control;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Beanクラスのプロパティから、コントロールファイルのフィールドのデータ型を導出するクラス。
+ * <p/>
+ * カラムのJDBCの型に応じて、以下のデータ型を導出する。
+ * <ul>
+ *     <li>文字列:{@code CHAR(n)}({@code n}はバイト長。固定長ファイルの場合はフィールドのバイト長、
+ *     可変長ファイルの場合は{@code @Column}の{@code length}(文字数)にデータファイルの文字コードの1文字の最大バイト長を乗じた値)</li>
+ *     <li>整数:{@code INTEGER EXTERNAL}</li>
+ *     <li>小数:{@code DECIMAL EXTERNAL}</li>
+ *     <li>日付:{@code DATE "mask"}</li>
+ *     <li>日時:{@code TIMESTAMP "mask"}</li>
+ * </ul>
+ * 上記以外の型の場合は、データ型を指定しない(SQL*Loaderのデフォルトである{@code CHAR(255)}として扱われる)。
+ */
+final class SqlLoaderDataTypes {
+
+    /** {@code DATE}のデフォルトの書式マスク */
+    static final String DEFAULT_DATE_MASK = "YYYY-MM-DD";
+
+    /** 時刻の{@code DATE}のデフォルトの書式マスク */
+    static final String DEFAULT_TIME_MASK = "HH24:MI:SS";
+
+    /** {@code TIMESTAMP}のデフォルトの書式マスク */
+    static final String DEFAULT_TIMESTAMP_MASK = "YYYY-MM-DD HH24:MI:SS.FF";
+
+    /** {@code @Column}の{@code length}のデフォルト値 */
+    private static final int DEFAULT_LENGTH = 255;
+
+    /** 文字列の型 */
+    private static final Set<String> CHAR_TYPES = new HashSet<String>(Arrays.asList(
+            "java.lang.String", "char", "java.lang.Character", "boolean", "java.lang.Boolean"));
+
+    /** 整数の型 */
+    private static final Set<String> INTEGER_TYPES = new HashSet<String>(Arrays.asList(
+            "byte", "java.lang.Byte", "short", "java.lang.Short", "int", "java.lang.Integer",
+            "long", "java.lang.Long", "java.math.BigInteger"));
+
+    /** 小数の型 */
+    private static final Set<String> DECIMAL_TYPES = new HashSet<String>(Arrays.asList(
+            "float", "java.lang.Float", "double", "java.lang.Double", "java.math.BigDecimal"));
+
+    /** 日付の型 */
+    private static final Set<String> DATE_TYPES = new HashSet<String>(Arrays.asList(
+            "java.sql.Date", "java.time.LocalDate"));
+
+    /** 時刻の型 */
+    private static final Set<String> TIME_TYPES = new HashSet<String>(Arrays.asList(
+            "java.sql.Time", "java.time.LocalTime"));
+
+    /** 日時の型 */
+    private static final Set<String> TIMESTAMP_TYPES = new HashSet<String>(Arrays.asList(
+            "java.sql.Timestamp", "java.util.Date", "java.util.Calendar", "java.time.LocalDateTime"));
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private SqlLoaderDataTypes() {
+    }
+
+    /**
+     * プロパティのメタデータから、フィールドのデータ型を導出する。
+     * <p/>
+     * SQL*Loaderは{@code CHAR(n)}の{@code n}をデータファイルの文字コードでのバイト長として扱うため、
+     * 可変長ファイルの場合は{@code @Column}の{@code length}(文字数)をバイト長に変換する。
+     *
+     * @param property プロパティのメタデータ
+     * @param length フィールドのバイト長(固定長ファイルの場合)。{@code null}の場合は{@code @Column}の{@code length}を使用する
+     * @param charset データファイルの文字コード({@code @Column}の{@code length}をバイト長に変換しない場合は{@code null})
+     * @return データ型。データ型を指定しない場合は{@code null}
+     */
+    static String resolve(PropertyMetadata property, Integer length, Charset charset) {
+        final String type = property.getJdbcTypeName();
+        if (type == null) {
+            return null;
+        }
+        if (CHAR_TYPES.contains(type)) {
+            if (length != null) {
+                return "CHAR(" + length + ')';
+            }
+            final AnnotationValues column = property.getAnnotation(ClassFileBeanMetadata.COLUMN);
+            final int columnLength = column == null ? DEFAULT_LENGTH : column.getInt("length", DEFAULT_LENGTH);
+            return "CHAR(" + columnLength * getMaxBytesPerChar(charset) + ')';
+        }
+        if (INTEGER_TYPES.contains(type)) {
+            return "INTEGER EXTERNAL";
+        }
+        if (DECIMAL_TYPES.contains(type)) {
+            return "DECIMAL EXTERNAL";
+        }
+        if (DATE_TYPES.contains(type)) {
+            return "DATE \"" + getMask(property, DEFAULT_DATE_MASK) + '"';
+        }
+        if (TIME_TYPES.contains(type)) {
+            return "DATE \"" + getMask(property, DEFAULT_TIME_MASK) + '"';
+        }
+        if (TIMESTAMP_TYPES.contains(type)) {
+            return "TIMESTAMP \"" + getMask(property, DEFAULT_TIMESTAMP_MASK) + '"';
+        }
+        return null;
+    }
+
+    /**
+     * 文字コードの1文字の最大バイト長を取得する。
+     *
+     * @param charset 文字コード
+     * @return 1文字の最大バイト長({@code null}の場合は1)
+     */
+    private static int getMaxBytesPerChar(Charset charset) {
+        return charset == null ? 1 : (int) Math.ceil(charset.newEncoder().maxBytesPerChar());
+    }
+
+    /**
+     * {@link SqlLoaderField}で指定された書式マスクを取得する。
+     *
+     * @param property プロパティのメタデータ
+     * @param defaultMask 書式マスクが指定されていない場合に使用する書式マスク
+     * @return 書式マスク
+     */
+    private static String getMask(PropertyMetadata property, String defaultMask) {
+        final AnnotationValues field = property.getAnnotation(SqlLoaderField.class.getName());
+        final String mask = field == null ? null : field.getString("mask");
+        return mask == null || mask.length() == 0 ? defaultMask : mask;
+    }
+}
@@ -0,0 +1,32 @@
+package nablarch.codefirst.control;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * コントロールファイルのフィールド指定をカスタマイズするアノテーション。
+ * <p/>
+ * Beanクラスのgetterに付与する。
+ * <pre>
+ * {@code @Temporal(TemporalType.DATE)}
+ * {@code @SqlLoaderField(mask = "YYYYMMDD")}
+ * public Date getBirthday() { ... }
+ * </pre>
+ *
+ * @see FieldDefinition
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlLoaderField {
+
+    /**
+     * 日付型({@code DATE}又は{@code TIMESTAMP})のフィールドの書式マスク。
+     * <p/>
+     * 未指定の場合は、データ型ごとのデフォルトの書式マスクを使用する。
+     */
+    String mask() default "";
+}
@@ -0,0 +1,47 @@
+package nablarch.codefirst.control;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * CLOB又はBLOBのカラムを、データファイルとは別のファイル(LOBファイル)からロードすることを指定するアノテーション。
+ * <p/>
+ * Beanクラスのgetterに付与する。データファイルのレコードにはLOBの値ではなくLOBファイルのパスを格納する。
+ * コントロールファイルには、LOBファイルのパスを読み込む{@code FILLER}フィールド({@code <カラム名>_LOBFILE})と、
+ * そのパスのファイル全体をロードする{@code LOBFILE}フィールドを出力する。
+ * <pre>
+ * {@code @SqlLoaderLobFile(fileNameLength = 100)}
+ * public String getDocument() { ... }
+ * </pre>
+ * 上記の場合、以下のフィールド指定を出力する。LOBファイルのパスが空の場合、カラムは{@code NULL}となる。
+ * <pre>
+ * DOCUMENT_LOBFILE FILLER CHAR(100),
+ * DOCUMENT LOBFILE(DOCUMENT_LOBFILE) TERMINATED BY EOF NULLIF DOCUMENT_LOBFILE = BLANKS
+ * </pre>
+ * LOBの値はレコードに含まれないため、バインド配列及び読み込みバッファのサイズはLOBの長さに依存しない。
+ *
+ * @see FieldDefinition
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlLoaderLobFile {
+
+    /**
+     * データファイルのレコードに格納するLOBファイルのパスの最大長(バイト)。
+     * <p/>
+     * 固定長ファイルの場合は使用せず、{@code @Field}の{@code length}をパスの長さとする。
+     */
+    int fileNameLength() default 255;
+
+    /**
+     * LOBファイルの文字コード(Javaの文字セット名。例:{@code UTF-8})。
+     * <p/>
+     * CLOBのカラムで、LOBファイルの文字コードがデータファイルと異なる場合に指定する。
+     * 未指定の場合は、データファイルの文字コードとする。
+     */
+    String charset() default "";
+}
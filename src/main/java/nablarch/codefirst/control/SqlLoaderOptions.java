@@ -0,0 +1,100 @@
+package nablarch.codefirst.control;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Beanクラスのコントロールファイルに出力するSQL*Loaderのロードオプションを指定するアノテーション。
+ * <p/>
+ * 本アノテーションで指定した値は、プラグインの設定({@code loadOptions})で指定したデフォルト値より優先される。
+ * 数値の属性に0以下の値を指定した場合、及び{@link Flag#DEFAULT}を指定した場合は、
+ * プラグインの設定で指定したデフォルト値を使用する(デフォルト値も未指定の場合はオプションを出力しない)。
+ * <pre>
+ * {@code @SqlLoaderOptions(rows = 50000, readSize = 20971520, skipIndexMaintenance = SqlLoaderOptions.Flag.TRUE)}
+ * {@code @Csv(...)}
+ * {@code @Entity}
+ * public class LargeTable extends WorkItem { ... }
+ * </pre>
+ *
+ * @see LoadOptions
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlLoaderOptions {
+
+    /**
+     * ダイレクト・パス・ロード({@code DIRECT})を行うか否か。
+     * <p/>
+     * プラグインの設定でも指定されていない場合は、ダイレクト・パス・ロードを行う。
+     */
+    Flag direct() default Flag.DEFAULT;
+
+    /**
+     * パラレル・ダイレクト・パス・ロード({@code PARALLEL})を行うか否か。
+     */
+    Flag parallel() default Flag.DEFAULT;
+
+    /**
+     * データ保存を行う行数({@code ROWS})。
+     */
+    int rows() default 0;
+
+    /**
+     * バインド配列の最大サイズ(バイト)({@code BINDSIZE})。
+     */
+    int bindSize() default 0;
+
+    /**
+     * データファイルの読み込みバッファのサイズ(バイト)({@code READSIZE})。
+     */
+    int readSize() default 0;
+
+    /**
+     * ダイレクト・パスの列配列の行数({@code COLUMNARRAYROWS})。
+     */
+    int columnArrayRows() default 0;
+
+    /**
+     * サーバへ送信するストリームバッファのサイズ(バイト)({@code STREAMSIZE})。
+     */
+    int streamSize() default 0;
+
+    /**
+     * 列配列からストリームへの変換をマルチスレッドで行うか否か({@code MULTITHREADING})。
+     */
+    Flag multithreading() default Flag.DEFAULT;
+
+    /**
+     * 索引のメンテナンスを行わないか否か({@code SKIP_INDEX_MAINTENANCE})。
+     */
+    Flag skipIndexMaintenance() default Flag.DEFAULT;
+
+    /**
+     * REDOログを生成しないか否か({@code UNRECOVERABLE})。
+     */
+    Flag unrecoverable() default Flag.DEFAULT;
+
+    /**
+     * 外部表のデータファイルを配置するディレクトリ・オブジェクト名({@code DEFAULT DIRECTORY})。
+     * <p/>
+     * 外部表のDDLを生成する場合({@link OutputFormat#ORACLE_EXTERNAL_TABLE})のみ使用する。
+     * 空文字列を指定した場合は、プラグインの設定で指定したデフォルト値を使用する。
+     */
+    String directory() default "";
+
+    /**
+     * 真偽値のオプションの指定値。
+     */
+    enum Flag {
+        /** プラグインの設定で指定したデフォルト値を使用する */
+        DEFAULT,
+        /** 有効 */
+        TRUE,
+        /** 無効 */
+        FALSE
+    }
+}
@@ -0,0 +1,53 @@
+package nablarch.codefirst.control;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * パラレル・ダイレクト・パス・ロードのために、セッションごとのコントロールファイルを生成することを指定するアノテーション。
+ * <p/>
+ * 本アノテーションが付与されたBeanクラスは、{@code <Beanクラスの単純名>.ctl}の代わりに、
+ * セッションごとのコントロールファイル({@code <Beanクラスの単純名>_<セッション番号>.ctl}、セッション番号は1始まり)と、
+ * コントロールファイルの一覧を記述したマニフェストファイル({@code <Beanクラスの単純名>.manifest})を生成する。
+ * <p/>
+ * 各コントロールファイルは{@code APPEND}及び{@code PARALLEL = TRUE}でロードする。
+ * パーティション名を指定した場合は、セッションごとに{@code INTO TABLE ... PARTITION (...)}でロード先のパーティションを指定する。
+ * ヘッダ行の読み飛ばしは、{@link #headerInEachFile()}が{@code true}(デフォルト)の場合は全セッションの、
+ * {@code false}の場合は1番目のセッションのコントロールファイルにのみ出力する。
+ * <pre>
+ * {@code @SqlLoaderPartitions(partitions = {"P2023", "P2024"})}
+ * {@code @SqlLoaderPartitions(sessions = 4)}
+ * </pre>
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlLoaderPartitions {
+
+    /**
+     * ロード先のパーティション名。
+     * <p/>
+     * 指定した場合、パーティションごとに1セッションのコントロールファイルを生成する。
+     */
+    String[] partitions() default {};
+
+    /**
+     * セッション数。
+     * <p/>
+     * {@link #partitions()}を指定しない場合に、パーティションを指定せずに指定した数のコントロールファイルを生成する。
+     */
+    int sessions() default 0;
+
+    /**
+     * セッションごとのデータファイルにヘッダ行が含まれるか否か。
+     * <p/>
+     * セッションごとに個別に出力したデータファイルをロードする場合は{@code true}とし、全セッションでヘッダ行を読み飛ばす。
+     * {@code split-data-file}({@link DataFileSplitter})で分割したチャンクをロードする場合は、
+     * ヘッダ行は1番目のチャンクにのみ含まれるため{@code false}を指定する。
+     * Beanクラスにヘッダ行が定義されていない場合は、本属性に関わらずヘッダ行を読み飛ばさない。
+     */
+    boolean headerInEachFile() default true;
+}
@@ -0,0 +1,461 @@
+package nablarch.codefirst.control;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import nablarch.codefirst.classfile.ClassFile;
+import nablarch.codefirst.classfile.ClassFileReader;
+import nablarch.core.util.FileUtil;
+
+/**
+ * クラスパスから、コントロールファイルの生成対象となるBeanクラスを検索するクラス。
+ * <p/>
+ * 指定されたパッケージ(サブパッケージを含む)配下のクラスファイルをロードせずに読み込み、
+ * {@code nablarch.etl.WorkItem}を継承し、{@code @Csv}(又は{@code @FixedLength})及び{@code @Entity}が付与された具象クラスを検索する。
+ * <p/>
+ * クラスパスの要素ごとの検索結果はインデックスファイルに保存し、
+ * 次回の検索では、前回から変更があった要素(ディレクトリ又はjarファイル)のみを再検索する。
+ */
+class WorkItemScanner {
+
+    /** WorkItemの完全修飾名 */
+    private static final String WORK_ITEM = "nablarch.etl.WorkItem";
+
+    /** {@code @Csv}の完全修飾名 */
+    private static final String CSV = "nablarch.common.databind.csv.Csv";
+
+    /** {@code @FixedLength}の完全修飾名 */
+    private static final String FIXED_LENGTH = "nablarch.common.databind.fixedlength.FixedLength";
+
+    /** {@code @Entity}の完全修飾名 */
+    private static final String ENTITY = "javax.persistence.Entity";
+
+    /** {@code @Csv}の型の記述子 */
+    private static final String CSV_DESCRIPTOR = "Lnablarch/common/databind/csv/Csv;";
+
+    /** {@code @FixedLength}の型の記述子 */
+    private static final String FIXED_LENGTH_DESCRIPTOR = "Lnablarch/common/databind/fixedlength/FixedLength;";
+
+    /** {@code @Entity}の型の記述子 */
+    private static final String ENTITY_DESCRIPTOR = "Ljavax/persistence/Entity;";
+
+    /** インデックスファイルに検索対象のパッケージを保存する際のキー */
+    private static final String PACKAGES_KEY = "packages";
+
+    /** インデックスファイルにクラスパスの要素ごとの検索結果を保存する際のキーの接頭辞 */
+    private static final String ELEMENT_KEY_PREFIX = "element.";
+
+    /** クラスファイルの拡張子 */
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    /** 検索対象のパッケージのパス(例:{@code com/example/etl/}) */
+    private final List<String> packagePaths = new ArrayList<String>();
+
+    /** 検索対象のパッケージ(インデックスの有効性の判定に使用する) */
+    private final String packages;
+
+    /** スーパクラスの検索に使用するクラスローダ */
+    private final ClassLoader classLoader;
+
+    /** インデックスファイル */
+    private final File indexFile;
+
+    /** 検索に使用するスレッド数 */
+    private final int threads;
+
+    /** 完全修飾名とWorkItemのサブクラスか否かのキャッシュ */
+    private final Map<String, Boolean> workItemCache = new HashMap<String, Boolean>();
+
+    /**
+     * 検索クラスを生成する。
+     *
+     * @param packages 検索対象のパッケージ
+     * @param classLoader スーパクラスの検索に使用するクラスローダ
+     * @param indexFile インデックスファイル
+     * @param threads 検索に使用するスレッド数
+     */
+    WorkItemScanner(List<String> packages, ClassLoader classLoader, File indexFile, int threads) {
+        for (String packageName : packages) {
+            packagePaths.add(packageName.trim().replace('.', '/') + '/');
+        }
+        Collections.sort(packagePaths);
+        this.packages = packagePaths.toString();
+        this.classLoader = classLoader;
+        this.indexFile = indexFile;
+        this.threads = threads;
+    }
+
+    /**
+     * クラスパスから生成対象のBeanクラスを検索する。
+     *
+     * @param classpathElements クラスパスの要素(ディレクトリ又はjarファイルのパス)
+     * @param includes 生成対象とするクラスの完全修飾名のパターン。{@code null}又は空の場合は全てのクラスを対象とする
+     * @param excludes 生成対象外とするクラスの完全修飾名のパターン
+     * @return 生成対象のBeanクラスの完全修飾名
+     */
+    List<String> scan(List<String> classpathElements, List<String> includes, List<String> excludes) {
+        final Properties index = loadIndex();
+        final Properties newIndex = new Properties();
+        newIndex.setProperty(PACKAGES_KEY, packages);
+
+        final Map<String, Future<String>> futures = new LinkedHashMap<String, Future<String>>();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            for (final String element : classpathElements) {
+                final File file = new File(element);
+                final String stamp = stamp(file);
+                final String cached = index.getProperty(ELEMENT_KEY_PREFIX + element);
+                if (cached != null && cached.startsWith(stamp + '|')) {
+                    newIndex.setProperty(ELEMENT_KEY_PREFIX + element, cached);
+                    continue;
+                }
+                futures.put(element, executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws IOException {
+                        return stamp + '|' + join(file.isDirectory() ? scanDirectory(file) : scanJar(file));
+                    }
+                }));
+            }
+            for (Map.Entry<String, Future<String>> future : futures.entrySet()) {
+                newIndex.setProperty(ELEMENT_KEY_PREFIX + future.getKey(), future.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("クラスパスの検索中に割り込みが発生しました。", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("クラスパスの検索に失敗しました。", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        saveIndex(newIndex);
+
+        final Pattern include = toPattern(includes);
+        final Pattern exclude = toPattern(excludes);
+        final Set<String> result = new LinkedHashSet<String>();
+        for (String element : classpathElements) {
+            final String value = newIndex.getProperty(ELEMENT_KEY_PREFIX + element);
+            final String candidates = value.substring(value.indexOf('|') + 1);
+            if (candidates.length() == 0) {
+                continue;
+            }
+            for (String candidate : candidates.split(",")) {
+                final int separator = candidate.indexOf('>');
+                final String className = candidate.substring(0, separator);
+                if ((include == null || include.matcher(className).matches())
+                        && (exclude == null || !exclude.matcher(className).matches())
+                        && isWorkItem(candidate.substring(separator + 1))) {
+                    result.add(className);
+                }
+            }
+        }
+        return new ArrayList<String>(result);
+    }
+
+    /**
+     * ディレクトリ配下の検索対象パッケージに含まれるクラスファイルを検索する。
+     *
+     * @param root ディレクトリ
+     * @return 候補となるクラスの完全修飾名とスーパクラスの完全修飾名を{@code >}で連結したもの
+     * @throws IOException 入出力例外
+     */
+    private List<String> scanDirectory(File root) throws IOException {
+        final List<String> candidates = new ArrayList<String>();
+        for (File file : listClassFiles(root)) {
+            final InputStream stream = new FileInputStream(file);
+            try {
+                addCandidate(ClassFileReader.read(stream), candidates);
+            } finally {
+                FileUtil.closeQuietly(stream);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * jarファイル内の検索対象パッケージに含まれるクラスファイルを検索する。
+     *
+     * @param jar jarファイル
+     * @return 候補となるクラスの完全修飾名とスーパクラスの完全修飾名を{@code >}で連結したもの
+     * @throws IOException 入出力例外
+     */
+    private List<String> scanJar(File jar) throws IOException {
+        final List<String> candidates = new ArrayList<String>();
+        if (!jar.isFile()) {
+            return candidates;
+        }
+        final ZipFile zip = new ZipFile(jar);
+        try {
+            final Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final String name = entry.getName();
+                if (!name.endsWith(CLASS_FILE_SUFFIX) || !isTargetPackage(name)) {
+                    continue;
+                }
+                final InputStream stream = zip.getInputStream(entry);
+                try {
+                    addCandidate(ClassFileReader.read(stream), candidates);
+                } finally {
+                    FileUtil.closeQuietly(stream);
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        return candidates;
+    }
+
+    /**
+     * クラスファイルが候補({@code @Csv}(又は{@code @FixedLength})及び{@code @Entity}が付与された具象クラス)の場合、候補に追加する。
+     *
+     * @param reader クラスファイルのリーダ
+     * @param candidates 候補
+     */
+    private static void addCandidate(ClassFileReader reader, List<String> candidates) {
+        if (!(reader.containsUtf8(CSV_DESCRIPTOR) || reader.containsUtf8(FIXED_LENGTH_DESCRIPTOR))
+                || !reader.containsUtf8(ENTITY_DESCRIPTOR)) {
+            return;
+        }
+        final ClassFile classFile = reader.readClassFile();
+        if (classFile.isConcrete()
+                && (classFile.getAnnotation(CSV) != null || classFile.getAnnotation(FIXED_LENGTH) != null)
+                && classFile.getAnnotation(ENTITY) != null) {
+            candidates.add(classFile.getName() + '>' + classFile.getSuperName());
+        }
+    }
+
+    /**
+     * スーパクラスを辿り、WorkItemのサブクラスか否かを判定する。
+     * <p/>
+     * スーパクラスのクラスファイルはクラスローダのリソースとして読み込むため、クラスのロードは行わない。
+     *
+     * @param className 判定対象のクラスの完全修飾名
+     * @return WorkItem又はWorkItemのサブクラスの場合は{@code true}
+     */
+    private boolean isWorkItem(String className) {
+        if (className == null || "null".equals(className) || "java.lang.Object".equals(className)) {
+            return false;
+        }
+        if (WORK_ITEM.equals(className)) {
+            return true;
+        }
+        final Boolean cached = workItemCache.get(className);
+        if (cached != null) {
+            return cached;
+        }
+        final InputStream stream = classLoader.getResourceAsStream(className.replace('.', '/') + CLASS_FILE_SUFFIX);
+        boolean workItem = false;
+        if (stream != null) {
+            try {
+                workItem = isWorkItem(ClassFileReader.read(stream).readSuperName());
+            } catch (IOException e) {
+                throw new IllegalStateException("クラスファイルの読み込みに失敗しました。 クラス=[" + className + ']', e);
+            } finally {
+                FileUtil.closeQuietly(stream);
+            }
+        }
+        workItemCache.put(className, workItem);
+        return workItem;
+    }
+
+    /**
+     * ディレクトリ配下の検索対象パッケージに含まれるクラスファイルを列挙する。
+     *
+     * @param root ディレクトリ
+     * @return クラスファイル
+     */
+    private List<File> listClassFiles(File root) {
+        final List<File> files = new ArrayList<File>();
+        if (!root.isDirectory()) {
+            return files;
+        }
+        for (String packagePath : packagePaths) {
+            collectClassFiles(new File(root, packagePath), files);
+        }
+        return files;
+    }
+
+    /**
+     * ディレクトリ配下(サブディレクトリを含む)のクラスファイルを収集する。
+     *
+     * @param dir ディレクトリ
+     * @param files 収集結果
+     */
+    private static void collectClassFiles(File dir, List<File> files) {
+        final File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                collectClassFiles(child, files);
+            } else if (child.getName().endsWith(CLASS_FILE_SUFFIX)) {
+                files.add(child);
+            }
+        }
+    }
+
+    /**
+     * クラスパスの要素の変更を検知するためのスタンプを算出する。
+     * <p/>
+     * jarファイルはファイルサイズと更新日時、ディレクトリは検索対象パッケージ配下のクラスファイルの
+     * パス、ファイルサイズ及び更新日時から算出する。クラスファイルの内容は読み込まない。
+     *
+     * @param file クラスパスの要素
+     * @return スタンプ
+     */
+    private String stamp(File file) {
+        if (!file.isDirectory()) {
+            return file.length() + ":" + file.lastModified();
+        }
+        long hash = 17;
+        final List<File> files = listClassFiles(file);
+        for (File classFile : files) {
+            hash = hash * 31 + classFile.getPath().hashCode();
+            hash = hash * 31 + classFile.length();
+            hash = hash * 31 + classFile.lastModified();
+        }
+        return files.size() + ":" + Long.toHexString(hash);
+    }
+
+    /**
+     * エントリ名が検索対象パッケージに含まれるか否かを判定する。
+     *
+     * @param entryName jarファイルのエントリ名
+     * @return 含まれる場合は{@code true}
+     */
+    private boolean isTargetPackage(String entryName) {
+        for (String packagePath : packagePaths) {
+            if (entryName.startsWith(packagePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * インデックスファイルを読み込む。
+     * <p/>
+     * インデックスファイルが存在しない場合や、検索対象のパッケージが前回と異なる場合は空のインデックスを返す。
+     *
+     * @return インデックス
+     */
+    private Properties loadIndex() {
+        final Properties index = new Properties();
+        if (indexFile == null || !indexFile.exists()) {
+            return index;
+        }
+        InputStream stream = null;
+        try {
+            stream = new FileInputStream(indexFile);
+            index.load(stream);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read index file. file = [" + indexFile + ']', e);
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+        if (!packages.equals(index.getProperty(PACKAGES_KEY))) {
+            index.clear();
+        }
+        return index;
+    }
+
+    /**
+     * インデックスファイルを保存する。
+     *
+     * @param index インデックス
+     */
+    private void saveIndex(Properties index) {
+        if (indexFile == null) {
+            return;
+        }
+        final File dir = indexFile.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("インデックスファイルの出力先ディレクトリの作成に失敗しました。");
+        }
+        OutputStream stream = null;
+        try {
+            stream = new FileOutputStream(indexFile);
+            index.store(stream, null);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write index file. file = [" + indexFile + ']', e);
+        } finally {
+            FileUtil.closeQuietly(stream);
+        }
+    }
+
+    /**
+     * クラスの完全修飾名のパターンのリストを正規表現に変換する。
+     * <p/>
+     * パターン中の{@code **}は任意の文字列に、{@code *}は{@code .}を含まない任意の文字列にマッチする。
+     *
+     * @param patterns パターンのリスト
+     * @return 正規表現。パターンが指定されていない場合は{@code null}
+     */
+    static Pattern toPattern(List<String> patterns) {
+        if (patterns == null || patterns.isEmpty()) {
+            return null;
+        }
+        final StringBuilder regex = new StringBuilder();
+        for (String pattern : patterns) {
+            if (regex.length() != 0) {
+                regex.append('|');
+            }
+            final String[] parts = pattern.trim().split("\\*\\*", -1);
+            for (int i = 0; i < parts.length; i++) {
+                if (i != 0) {
+                    regex.append(".*");
+                }
+                final String[] segments = parts[i].split("\\*", -1);
+                for (int j = 0; j < segments.length; j++) {
+                    if (j != 0) {
+                        regex.append("[^.]*");
+                    }
+                    regex.append(Pattern.quote(segments[j]));
+                }
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * 文字列のリストをカンマで連結する。
+     *
+     * @param values 文字列のリスト
+     * @return 連結した文字列
+     */
+    private static String join(List<String> values) {
+        final StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            if (builder.length() != 0) {
+                builder.append(',');
+            }
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,171 @@
+package nablarch.codefirst.loader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * データファイルを、レコードの境界で分割したチャンクごとに並行に処理するクラス。
+ * <p/>
+ * チャンクごとにデータファイルの範囲をメモリマップして{@link RecordReader}で読み込み、
+ * {@link ChunkTask}の処理結果をチャンクの順に返す。
+ * 各チャンクのレコード番号はチャンク内の番号となる。
+ * スキップするレコード(ヘッダ行)は、先頭のチャンクに含まれることを前提とする。
+ */
+class ChunkRunner {
+
+    /** コントロールファイル */
+    private final ControlFile controlFile;
+
+    /** 並行に処理するスレッド数 */
+    private final int threads;
+
+    /** エラーメッセージに使用する処理名(例:{@code validate}) */
+    private final String operation;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param controlFile 解析済みのコントロールファイル
+     * @param threads 並行に処理するスレッド数
+     * @param operation エラーメッセージに使用する処理名
+     */
+    ChunkRunner(ControlFile controlFile, int threads, String operation) {
+        this.controlFile = controlFile;
+        this.threads = Math.max(1, threads);
+        this.operation = operation;
+    }
+
+    /**
+     * データファイルを、指定されたチャンクの境界位置で分割して並行に処理する。
+     *
+     * @param dataFile データファイル
+     * @param boundaries チャンクの境界位置(先頭は0、末尾はファイルサイズ。要素数はチャンク数 + 1)
+     * @param task チャンクごとの処理
+     * @param <T> チャンクの処理結果の型
+     * @return チャンクごとの処理結果(チャンクの順)
+     */
+    <T> List<T> run(File dataFile, long[] boundaries, ChunkTask<T> task) {
+        FileInputStream input = null;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            input = new FileInputStream(dataFile);
+            final FileChannel channel = input.getChannel();
+            final List<Future<T>> futures = new ArrayList<Future<T>>();
+            for (int i = 0; i < boundaries.length - 1; i++) {
+                futures.add(executor.submit(new Chunk<T>(channel, boundaries[i], boundaries[i + 1],
+                        i == 0 ? controlFile.getSkip() : 0, task)));
+            }
+            final List<T> results = new ArrayList<T>();
+            for (Future<T> future : futures) {
+                results.add(get(future, dataFile));
+            }
+            return results;
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "failed to " + operation + " data file. data file = [" + dataFile.getAbsolutePath() + ']', e);
+        } finally {
+            executor.shutdownNow();
+            FileUtil.closeQuietly(input);
+        }
+    }
+
+    /**
+     * チャンクの処理結果を取得する。
+     *
+     * @param future チャンクの処理結果
+     * @param dataFile データファイル
+     * @param <T> チャンクの処理結果の型
+     * @return チャンクの処理結果
+     */
+    private <T> T get(Future<T> future, File dataFile) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(
+                    "failed to " + operation + " data file. data file = [" + dataFile.getAbsolutePath() + ']',
+                    e.getCause());
+        }
+    }
+
+    /**
+     * 1つのチャンクの処理。
+     *
+     * @param <T> チャンクの処理結果の型
+     */
+    interface ChunkTask<T> {
+
+        /**
+         * チャンクのレコードを処理する。
+         *
+         * @param reader チャンクのレコードを読み込む{@link RecordReader}
+         * @param skip チャンクの先頭でスキップするレコード数
+         * @return チャンクの処理結果
+         * @throws IOException 読み込みに失敗した場合
+         */
+        T process(RecordReader reader, int skip) throws IOException;
+    }
+
+    /**
+     * 1つのチャンクを処理するタスク。
+     *
+     * @param <T> チャンクの処理結果の型
+     */
+    private class Chunk<T> implements Callable<T> {
+
+        /** データファイルのチャネル */
+        private final FileChannel channel;
+
+        /** チャンクの開始位置 */
+        private final long from;
+
+        /** チャンクの終了位置(この位置は含まない) */
+        private final long to;
+
+        /** スキップするレコード数 */
+        private final int skip;
+
+        /** チャンクの処理 */
+        private final ChunkTask<T> task;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param channel データファイルのチャネル
+         * @param from チャンクの開始位置
+         * @param to チャンクの終了位置(この位置は含まない)
+         * @param skip スキップするレコード数
+         * @param task チャンクの処理
+         */
+        Chunk(FileChannel channel, long from, long to, int skip, ChunkTask<T> task) {
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+            this.skip = skip;
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws IOException {
+            final RecordReader reader = RecordReader.open(controlFile, new MappedRangeInputStream(channel, from, to));
+            try {
+                return task.process(reader, skip);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package nablarch.codefirst.loader;
+
+import java.util.regex.Pattern;
+
+/**
+ * データファイルのカラムごとの実データの統計(最大長、平均長、NULLの割合、数値及び日付の書式)を保持するクラス。
+ * <p/>
+ * 長さはデータファイルの文字コードでのバイト長とする。
+ * 統計は件数の合計で保持するため、チャンクごと又はデータファイルごとに集計した結果を{@link #merge(ColumnProfile)}で併合できる。
+ */
+public class ColumnProfile {
+
+    /** 整数の値のパターン */
+    private static final Pattern INTEGER_VALUE = Pattern.compile("[+-]?\\d+");
+
+    /** 小数の値のパターン */
+    private static final Pattern DECIMAL_VALUE = Pattern.compile("[+-]?(\\d+(\\.\\d*)?|\\.\\d+)");
+
+    /** カラム名 */
+    private final String columnName;
+
+    /** コントロールファイルで指定されたデータ型(CHAR、INTEGER、DECIMAL、DATE、TIMESTAMP) */
+    private final String dataType;
+
+    /** 集計したレコード数 */
+    private long count;
+
+    /** 値がNULL(空)のレコード数 */
+    private long nulls;
+
+    /** 値の最大長(バイト) */
+    private long maxLength;
+
+    /** 値の長さの合計(バイト) */
+    private long totalLength;
+
+    /** 整数の書式の値の数 */
+    private long integerCount;
+
+    /** 小数の書式(整数を含む)の値の数 */
+    private long decimalCount;
+
+    /** 日付書式に従った値の数 */
+    private long dateCount;
+
+    /** 数値の最大桁数(先頭の0を除く) */
+    private int maxPrecision;
+
+    /** 数値の小数部の最大桁数 */
+    private int maxScale;
+
+    /**
+     * 空の統計を生成する。
+     *
+     * @param columnName カラム名
+     * @param dataType コントロールファイルで指定されたデータ型
+     */
+    public ColumnProfile(String columnName, String dataType) {
+        this.columnName = columnName;
+        this.dataType = dataType;
+    }
+
+    /**
+     * 集計済みの統計を生成する。
+     *
+     * @param columnName カラム名
+     * @param dataType コントロールファイルで指定されたデータ型
+     * @param count 集計したレコード数
+     * @param nulls 値がNULLのレコード数
+     * @param maxLength 値の最大長
+     * @param totalLength 値の長さの合計
+     * @param integerCount 整数の書式の値の数
+     * @param decimalCount 小数の書式の値の数
+     * @param dateCount 日付書式に従った値の数
+     * @param maxPrecision 数値の最大桁数
+     * @param maxScale 数値の小数部の最大桁数
+     */
+    public ColumnProfile(String columnName, String dataType, long count, long nulls, long maxLength, long totalLength,
+            long integerCount, long decimalCount, long dateCount, int maxPrecision, int maxScale) {
+        this(columnName, dataType);
+        this.count = count;
+        this.nulls = nulls;
+        this.maxLength = maxLength;
+        this.totalLength = totalLength;
+        this.integerCount = integerCount;
+        this.decimalCount = decimalCount;
+        this.dateCount = dateCount;
+        this.maxPrecision = maxPrecision;
+        this.maxScale = maxScale;
+    }
+
+    /**
+     * 値を集計する。
+     *
+     * @param value 値(空の場合は{@code null})
+     * @param length 値のバイト長
+     * @param date 日付書式に従った値か否か
+     */
+    void add(String value, int length, boolean date) {
+        count++;
+        if (value == null) {
+            nulls++;
+            return;
+        }
+        maxLength = Math.max(maxLength, length);
+        totalLength += length;
+        if (date) {
+            dateCount++;
+        }
+        final String number = value.trim();
+        if (!DECIMAL_VALUE.matcher(number).matches()) {
+            return;
+        }
+        decimalCount++;
+        if (INTEGER_VALUE.matcher(number).matches()) {
+            integerCount++;
+        }
+        final int sign = number.charAt(0) == '+' || number.charAt(0) == '-' ? 1 : 0;
+        final int point = number.indexOf('.');
+        final String integerPart = point < 0 ? number.substring(sign) : number.substring(sign, point);
+        final int scale = point < 0 ? 0 : number.length() - point - 1;
+        int leadingZeros = 0;
+        while (leadingZeros < integerPart.length() && integerPart.charAt(leadingZeros) == '0') {
+            leadingZeros++;
+        }
+        maxPrecision = Math.max(maxPrecision, integerPart.length() - leadingZeros + scale);
+        maxScale = Math.max(maxScale, scale);
+    }
+
+    /**
+     * 他の統計を併合する。
+     *
+     * @param other 同じカラムの統計
+     */
+    public void merge(ColumnProfile other) {
+        if (!columnName.equals(other.columnName)) {
+            throw new IllegalArgumentException("column name does not match. column = [" + columnName
+                    + "], other = [" + other.columnName + ']');
+        }
+        count += other.count;
+        nulls += other.nulls;
+        maxLength = Math.max(maxLength, other.maxLength);
+        totalLength += other.totalLength;
+        integerCount += other.integerCount;
+        decimalCount += other.decimalCount;
+        dateCount += other.dateCount;
+        maxPrecision = Math.max(maxPrecision, other.maxPrecision);
+        maxScale = Math.max(maxScale, other.maxScale);
+    }
+
+    /**
+     * カラム名を取得する。
+     *
+     * @return カラム名
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * コントロールファイルで指定されたデータ型を取得する。
+     *
+     * @return データ型(指定が無い場合は{@code null})
+     */
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * 集計したレコード数を取得する。
+     *
+     * @return 集計したレコード数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 値がNULL(空)のレコード数を取得する。
+     *
+     * @return 値がNULLのレコード数
+     */
+    public long getNulls() {
+        return nulls;
+    }
+
+    /**
+     * 値がNULL(空)のレコードの割合を取得する。
+     *
+     * @return NULLの割合(0~1)
+     */
+    public double getNullRatio() {
+        return count == 0 ? 0 : (double) nulls / count;
+    }
+
+    /**
+     * 値の最大長を取得する。
+     *
+     * @return 値の最大長(バイト)
+     */
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * 値の長さの合計を取得する。
+     *
+     * @return 値の長さの合計(バイト)
+     */
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    /**
+     * NULLを除く値の平均長を取得する。
+     *
+     * @return 値の平均長(バイト)
+     */
+    public double getAverageLength() {
+        return count == nulls ? 0 : (double) totalLength / (count - nulls);
+    }
+
+    /**
+     * 整数の書式の値の数を取得する。
+     *
+     * @return 整数の書式の値の数
+     */
+    public long getIntegerCount() {
+        return integerCount;
+    }
+
+    /**
+     * 小数の書式(整数を含む)の値の数を取得する。
+     *
+     * @return 小数の書式の値の数
+     */
+    public long getDecimalCount() {
+        return decimalCount;
+    }
+
+    /**
+     * 日付書式に従った値の数を取得する。
+     *
+     * @return 日付書式に従った値の数
+     */
+    public long getDateCount() {
+        return dateCount;
+    }
+
+    /**
+     * 数値の最大桁数(先頭の0を除く)を取得する。
+     *
+     * @return 数値の最大桁数
+     */
+    public int getMaxPrecision() {
+        return maxPrecision;
+    }
+
+    /**
+     * 数値の小数部の最大桁数を取得する。
+     *
+     * @return 数値の小数部の最大桁数
+     */
+    public int getMaxScale() {
+        return maxScale;
+    }
+
+    /**
+     * NULLを除く全ての値が従っている書式を取得する。
+     * <p/>
+     * 以下の順に判定する。
+     * <ul>
+     *     <li>{@code EMPTY}:全ての値がNULL</li>
+     *     <li>{@code DATE}、{@code TIMESTAMP}:データ型がDATE又はTIMESTAMPで、全ての値が日付書式に従っている</li>
+     *     <li>{@code INTEGER}:全ての値が整数</li>
+     *     <li>{@code DECIMAL}:全ての値が小数又は整数</li>
+     *     <li>{@code CHAR}:上記以外</li>
+     * </ul>
+     *
+     * @return 書式
+     */
+    public String getFormat() {
+        final long values = count - nulls;
+        if (values == 0) {
+            return "EMPTY";
+        }
+        if (("DATE".equals(dataType) || "TIMESTAMP".equals(dataType)) && dateCount == values) {
+            return dataType;
+        }
+        if (integerCount == values) {
+            return "INTEGER";
+        }
+        if (decimalCount == values) {
+            return "DECIMAL";
+        }
+        return "CHAR";
+    }
+
+    @Override
+    public String toString() {
+        return columnName + "{format=" + getFormat() + ", maxLength=" + maxLength
+                + ", nulls=" + nulls + '/' + count + '}';
+    }
+}
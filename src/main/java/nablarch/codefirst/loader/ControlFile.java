@@ -0,0 +1,267 @@
+package nablarch.codefirst.loader;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link ControlFileParser}で解析したコントロールファイルの内容を保持するクラス。
+ */
+public class ControlFile {
+
+    /** 読み飛ばすレコード数 */
+    private int skip;
+
+    /** データファイルの文字セット */
+    private Charset charset;
+
+    /** 固定長の場合のレコード長(バイト数)。可変長の場合は0 */
+    private int recordSize;
+
+    /** レコードの区切り文字 */
+    private String lineSeparator;
+
+    /** ロード方法(TRUNCATE、APPEND、REPLACE、INSERT) */
+    private String loadMethod = "INSERT";
+
+    /** 空白を保持するか否か */
+    private boolean preserveBlanks;
+
+    /** テーブル名 */
+    private String tableName;
+
+    /** フィールドの区切り文字 */
+    private String fieldSeparator;
+
+    /** クォート文字 */
+    private String quote;
+
+    /** レコード末尾の欠落したフィールドをnullとするか否か */
+    private boolean trailingNullcols;
+
+    /** フィールド */
+    private final List<ControlFileField> fields = new ArrayList<ControlFileField>();
+
+    /**
+     * 読み飛ばすレコード数を取得する。
+     *
+     * @return 読み飛ばすレコード数
+     */
+    public int getSkip() {
+        return skip;
+    }
+
+    /**
+     * 読み飛ばすレコード数を設定する。
+     *
+     * @param skip 読み飛ばすレコード数
+     */
+    void setSkip(int skip) {
+        this.skip = skip;
+    }
+
+    /**
+     * データファイルの文字セットを取得する。
+     *
+     * @return 文字セット
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * データファイルの文字セットを設定する。
+     *
+     * @param charset 文字セット
+     */
+    void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * 固定長か否かを取得する。
+     *
+     * @return 固定長の場合は{@code true}
+     */
+    public boolean isFixedLength() {
+        return recordSize > 0;
+    }
+
+    /**
+     * 固定長の場合のレコード長を取得する。
+     *
+     * @return レコード長(バイト数)
+     */
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * 固定長の場合のレコード長を設定する。
+     *
+     * @param recordSize レコード長(バイト数)
+     */
+    void setRecordSize(int recordSize) {
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * レコードの区切り文字を取得する。
+     *
+     * @return レコードの区切り文字
+     */
+    public String getLineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * レコードの区切り文字を設定する。
+     *
+     * @param lineSeparator レコードの区切り文字
+     */
+    void setLineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    /**
+     * ロード方法を取得する。
+     *
+     * @return ロード方法
+     */
+    public String getLoadMethod() {
+        return loadMethod;
+    }
+
+    /**
+     * ロード方法を設定する。
+     *
+     * @param loadMethod ロード方法
+     */
+    void setLoadMethod(String loadMethod) {
+        this.loadMethod = loadMethod;
+    }
+
+    /**
+     * 空白を保持するか否かを取得する。
+     *
+     * @return 空白を保持する場合は{@code true}
+     */
+    public boolean isPreserveBlanks() {
+        return preserveBlanks;
+    }
+
+    /**
+     * 空白を保持するか否かを設定する。
+     *
+     * @param preserveBlanks 空白を保持する場合は{@code true}
+     */
+    void setPreserveBlanks(boolean preserveBlanks) {
+        this.preserveBlanks = preserveBlanks;
+    }
+
+    /**
+     * テーブル名を取得する。
+     *
+     * @return テーブル名
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * テーブル名を設定する。
+     *
+     * @param tableName テーブル名
+     */
+    void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * フィールドの区切り文字を取得する。
+     *
+     * @return フィールドの区切り文字
+     */
+    public String getFieldSeparator() {
+        return fieldSeparator;
+    }
+
+    /**
+     * フィールドの区切り文字を設定する。
+     *
+     * @param fieldSeparator フィールドの区切り文字
+     */
+    void setFieldSeparator(String fieldSeparator) {
+        this.fieldSeparator = fieldSeparator;
+    }
+
+    /**
+     * クォート文字を取得する。
+     *
+     * @return クォート文字(指定が無い場合は{@code null})
+     */
+    public String getQuote() {
+        return quote;
+    }
+
+    /**
+     * クォート文字を設定する。
+     *
+     * @param quote クォート文字
+     */
+    void setQuote(String quote) {
+        this.quote = quote;
+    }
+
+    /**
+     * レコード末尾の欠落したフィールドをnullとするか否かを取得する。
+     *
+     * @return nullとする場合は{@code true}
+     */
+    public boolean isTrailingNullcols() {
+        return trailingNullcols;
+    }
+
+    /**
+     * レコード末尾の欠落したフィールドをnullとするか否かを設定する。
+     *
+     * @param trailingNullcols nullとする場合は{@code true}
+     */
+    void setTrailingNullcols(boolean trailingNullcols) {
+        this.trailingNullcols = trailingNullcols;
+    }
+
+    /**
+     * フィールドを取得する。
+     *
+     * @return フィールド
+     */
+    public List<ControlFileField> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * フィールドを追加する。
+     *
+     * @param field フィールド
+     */
+    void addField(ControlFileField field) {
+        fields.add(field);
+    }
+
+    /**
+     * データファイルから値を読み込むフィールドの数を取得する。
+     *
+     * @return RECNUMを除いたフィールドの数
+     */
+    int getDataFieldCount() {
+        int count = 0;
+        for (ControlFileField field : fields) {
+            if (!field.isRecnum()) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
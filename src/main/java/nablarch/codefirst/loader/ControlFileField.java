@@ -0,0 +1,269 @@
+package nablarch.codefirst.loader;
+
+import java.nio.charset.Charset;
+import java.sql.Timestamp;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.regex.Pattern;
+
+/**
+ * コントロールファイルのフィールド指定を表すクラス。
+ */
+public class ControlFileField {
+
+    /** INTEGER EXTERNALの値のパターン */
+    private static final Pattern INTEGER_EXTERNAL = Pattern.compile("[+-]?\\d+");
+
+    /** DECIMAL EXTERNALの値のパターン */
+    private static final Pattern DECIMAL_EXTERNAL = Pattern.compile("[+-]?(\\d+(\\.\\d*)?|\\.\\d+)([eE][+-]?\\d+)?");
+
+    /** カラム名 */
+    private final String columnName;
+
+    /** RECNUMか否か */
+    private final boolean recnum;
+
+    /** 開始位置(1始まり) */
+    private final Integer start;
+
+    /** 終了位置(1始まり、開始位置を含む) */
+    private final Integer end;
+
+    /** データ型(CHAR、INTEGER、DECIMAL、DATE、TIMESTAMP) */
+    private final String dataType;
+
+    /** データ型の長さ(バイト) */
+    private final Integer length;
+
+    /** 日付書式 */
+    private final String mask;
+
+    /** 日付書式から変換した{@link SimpleDateFormat}の書式 */
+    private final String datePattern;
+
+    /** 日付書式に小数秒(FF)が含まれるか否か */
+    private final boolean fraction;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param columnName カラム名
+     * @param recnum RECNUMか否か
+     * @param start 開始位置
+     * @param end 終了位置
+     * @param dataType データ型
+     * @param mask 日付書式
+     */
+    public ControlFileField(String columnName, boolean recnum, Integer start, Integer end, String dataType, String mask) {
+        this(columnName, recnum, start, end, dataType, null, mask);
+    }
+
+    /**
+     * データ型の長さを指定したコンストラクタ。
+     *
+     * @param columnName カラム名
+     * @param recnum RECNUMか否か
+     * @param start 開始位置
+     * @param end 終了位置
+     * @param dataType データ型
+     * @param length データ型の長さ(例:{@code CHAR(10)}の{@code 10})
+     * @param mask 日付書式
+     */
+    public ControlFileField(String columnName, boolean recnum, Integer start, Integer end, String dataType,
+            Integer length, String mask) {
+        this.columnName = columnName;
+        this.recnum = recnum;
+        this.start = start;
+        this.end = end;
+        this.dataType = dataType;
+        this.length = length;
+        this.mask = mask;
+        if (mask != null) {
+            fraction = mask.endsWith("FF");
+            final String withoutFraction = fraction ? mask.substring(0, mask.length() - 3) : mask;
+            datePattern = toDatePattern(withoutFraction);
+        } else {
+            fraction = false;
+            datePattern = "DATE".equals(dataType) ? "yyyy-MM-dd" : "yyyy-MM-dd HH:mm:ss";
+        }
+    }
+
+    /**
+     * カラム名を取得する。
+     *
+     * @return カラム名
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+
+    /**
+     * RECNUMか否かを取得する。
+     *
+     * @return RECNUMの場合は{@code true}
+     */
+    public boolean isRecnum() {
+        return recnum;
+    }
+
+    /**
+     * 開始位置を取得する。
+     *
+     * @return 開始位置(POSITIONの指定が無い場合は{@code null})
+     */
+    public Integer getStart() {
+        return start;
+    }
+
+    /**
+     * 終了位置を取得する。
+     *
+     * @return 終了位置(POSITIONの指定が無い場合は{@code null})
+     */
+    public Integer getEnd() {
+        return end;
+    }
+
+    /**
+     * データ型を取得する。
+     *
+     * @return データ型(指定が無い場合は{@code null})
+     */
+    public String getDataType() {
+        return dataType;
+    }
+
+    /**
+     * データ型の長さを取得する。
+     *
+     * @return データ型の長さ(指定が無い場合は{@code null})
+     */
+    public Integer getLength() {
+        return length;
+    }
+
+    /**
+     * 日付書式を取得する。
+     *
+     * @return 日付書式(指定が無い場合は{@code null})
+     */
+    public String getMask() {
+        return mask;
+    }
+
+    /**
+     * フィールドの値をバインドする値に変換する。
+     * <p/>
+     * DATE、TIMESTAMPの場合は日付書式に従って{@link Timestamp}に変換し、それ以外は文字列のまま返す。
+     * 数値への変換はデータベースに委ねる。
+     *
+     * @param value フィールドの値
+     * @return バインドする値
+     * @throws IllegalArgumentException 日付書式に従っていない場合
+     */
+    Object convert(String value) {
+        if (value == null || !("DATE".equals(dataType) || "TIMESTAMP".equals(dataType))) {
+            return value;
+        }
+        String datePart = value;
+        String fractionPart = null;
+        if (fraction) {
+            final int index = value.lastIndexOf('.');
+            if (index >= 0) {
+                datePart = value.substring(0, index);
+                fractionPart = value.substring(index + 1);
+            }
+        }
+        final SimpleDateFormat format = new SimpleDateFormat(datePattern);
+        format.setLenient(false);
+        final ParsePosition position = new ParsePosition(0);
+        final java.util.Date date = format.parse(datePart, position);
+        if (date == null || position.getIndex() != datePart.length()) {
+            throw new IllegalArgumentException(
+                    "value does not match the date mask. column = [" + columnName + "], mask = [" + mask + "], value = [" + value + ']');
+        }
+        final Timestamp timestamp = new Timestamp(date.getTime());
+        if (fractionPart != null && fractionPart.length() != 0) {
+            if (fractionPart.length() > 9 || !isDigits(fractionPart)) {
+                throw new IllegalArgumentException(
+                        "invalid fractional seconds. column = [" + columnName + "], value = [" + value + ']');
+            }
+            final StringBuilder nanos = new StringBuilder(fractionPart);
+            while (nanos.length() < 9) {
+                nanos.append('0');
+            }
+            timestamp.setNanos(Integer.parseInt(nanos.toString()));
+        }
+        return timestamp;
+    }
+
+    /**
+     * フィールドの値がデータ型に従っているか検証する。
+     * <p/>
+     * CHARの場合は、データファイルの文字コードでのバイト長がデータ型の長さを超えていないこと、
+     * INTEGER EXTERNAL、DECIMAL EXTERNALの場合は数値の書式であること、
+     * DATE、TIMESTAMPの場合は日付書式に従っていることを検証する。
+     * 数値の前後の空白は、SQL*Loaderと同様に許容する。
+     *
+     * @param value フィールドの値
+     * @param charset データファイルの文字コード
+     * @throws IllegalArgumentException データ型に従っていない場合
+     */
+    void validate(String value, Charset charset) {
+        if (value == null || dataType == null) {
+            return;
+        }
+        if ("CHAR".equals(dataType)) {
+            // 1文字は最大4バイトのため、文字数から長さを超えないことが明らかな場合はエンコードを省略する
+            if (length != null && start == null && value.length() * 4 > length
+                    && value.getBytes(charset).length > length) {
+                throw new IllegalArgumentException("field exceeds maximum length. column = [" + columnName
+                        + "], length = [" + length + "], value = [" + value + ']');
+            }
+        } else if ("INTEGER".equals(dataType) || "DECIMAL".equals(dataType)) {
+            final Pattern pattern = "INTEGER".equals(dataType) ? INTEGER_EXTERNAL : DECIMAL_EXTERNAL;
+            if (!pattern.matcher(value.trim()).matches()) {
+                throw new IllegalArgumentException("invalid number. column = [" + columnName
+                        + "], type = [" + dataType + " EXTERNAL], value = [" + value + ']');
+            }
+        } else {
+            convert(value);
+        }
+    }
+
+    /**
+     * Oracleの日付書式を{@link SimpleDateFormat}の書式に変換する。
+     *
+     * @param mask Oracleの日付書式
+     * @return {@link SimpleDateFormat}の書式
+     */
+    private static String toDatePattern(String mask) {
+        return mask.replace("HH24", "'H24'")
+                   .replace("YYYY", "yyyy")
+                   .replace("DD", "dd")
+                   .replace("MI", "mm")
+                   .replace("SS", "ss")
+                   .replace("HH", "hh")
+                   .replace("'H24'", "HH");
+    }
+
+    /**
+     * 数字のみで構成された文字列か否かを判定する。
+     *
+     * @param value 文字列
+     * @return 数字のみの場合は{@code true}
+     */
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return columnName;
+    }
+}
@@ -0,0 +1,515 @@
+package nablarch.codefirst.loader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * コントロールファイルを解析するクラス。
+ * <p/>
+ * 本プラグインが生成するコントロールファイルの構文のみをサポートする。
+ * OPTIONSはSKIPのみを解釈し、その他のオプションやUNRECOVERABLE、PARTITIONの指定は読み飛ばす。
+ * 複数のテーブルにロードするコントロールファイル({@code WHEN}句を持つ{@code INTO TABLE}句)及び
+ * LOBファイルからロードするフィールド({@code FILLER}及び{@code LOBFILE}のフィールド)はサポートしない。
+ */
+public class ControlFileParser {
+
+    /** Oracleの文字セット名とJavaの文字セット名の対応 */
+    private static final Map<String, String> CHARSETS = new HashMap<String, String>();
+
+    static {
+        CHARSETS.put("AL32UTF8", "UTF-8");
+        CHARSETS.put("UTF8", "UTF-8");
+        CHARSETS.put("AL16UTF16", "UTF-16BE");
+        CHARSETS.put("JA16SJISTILDE", "windows-31j");
+        CHARSETS.put("JA16SJIS", "windows-31j");
+        CHARSETS.put("JA16EUCTILDE", "EUC-JP");
+        CHARSETS.put("JA16EUC", "EUC-JP");
+        CHARSETS.put("WE8ISO8859P1", "ISO-8859-1");
+        CHARSETS.put("US7ASCII", "US-ASCII");
+    }
+
+    /** ストリーム形式のレコード指定 */
+    private static final Pattern STREAM_RECORD = Pattern.compile("(?i)str\\s+'(.*)'");
+
+    /** 固定長形式のレコード指定 */
+    private static final Pattern FIXED_RECORD = Pattern.compile("(?i)fix\\s+(\\d+)");
+
+    /** 字句の種類 */
+    private enum TokenType {
+        /** 単語 */
+        WORD,
+        /** シングルクォートで囲まれた文字列 */
+        STRING,
+        /** ダブルクォートで囲まれた文字列 */
+        QUOTED_STRING,
+        /** 記号 */
+        SYMBOL,
+        /** 終端 */
+        EOF
+    }
+
+    /** 字句 */
+    private static class Token {
+
+        /** 種類 */
+        private final TokenType type;
+
+        /** 内容 */
+        private final String text;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param type 種類
+         * @param text 内容
+         */
+        Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        /**
+         * 指定された単語か否かを判定する(大文字小文字は区別しない)。
+         *
+         * @param word 単語
+         * @return 指定された単語の場合は{@code true}
+         */
+        boolean isWord(String word) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(word);
+        }
+
+        /**
+         * 指定された記号か否かを判定する。
+         *
+         * @param symbol 記号
+         * @return 指定された記号の場合は{@code true}
+         */
+        boolean isSymbol(char symbol) {
+            return type == TokenType.SYMBOL && text.charAt(0) == symbol;
+        }
+
+        @Override
+        public String toString() {
+            return type == TokenType.EOF ? "<EOF>" : text;
+        }
+    }
+
+    /** 字句 */
+    private List<Token> tokens;
+
+    /** 現在の字句の位置 */
+    private int index;
+
+    /**
+     * コントロールファイルを解析する。
+     * <p/>
+     * コントロールファイルはUTF-8で読み込む。
+     *
+     * @param controlFile コントロールファイル
+     * @return 解析結果
+     */
+    public ControlFile parse(File controlFile) {
+        try {
+            final Reader reader = new InputStreamReader(new FileInputStream(controlFile), "UTF-8");
+            try {
+                return parse(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read control file. file = [" + controlFile.getAbsolutePath() + ']', e);
+        }
+    }
+
+    /**
+     * コントロールファイルを解析する。
+     *
+     * @param reader コントロールファイルのリーダ
+     * @return 解析結果
+     * @throws IOException 読み込みに失敗した場合
+     * @throws IllegalArgumentException サポートしていない構文が含まれる場合
+     */
+    public ControlFile parse(Reader reader) throws IOException {
+        final StringBuilder source = new StringBuilder();
+        final char[] buffer = new char[4096];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            source.append(buffer, 0, read);
+        }
+        tokens = tokenize(source.toString());
+        index = 0;
+
+        final ControlFile controlFile = new ControlFile();
+        controlFile.setCharset(Charset.defaultCharset());
+        controlFile.setLineSeparator("\n");
+
+        if (accept("OPTIONS")) {
+            parseOptions(controlFile);
+        }
+        accept("UNRECOVERABLE");
+        expect("LOAD");
+        accept("DATA");
+        if (accept("CHARACTERSET")) {
+            controlFile.setCharset(toCharset(next(TokenType.WORD).text));
+        }
+        if (accept("INFILE")) {
+            next(TokenType.STRING);
+            if (peek().type == TokenType.QUOTED_STRING) {
+                parseRecordFormat(controlFile, next(TokenType.QUOTED_STRING).text);
+            }
+        }
+        if (peek().isWord("TRUNCATE") || peek().isWord("APPEND") || peek().isWord("REPLACE") || peek().isWord("INSERT")) {
+            controlFile.setLoadMethod(next(TokenType.WORD).text.toUpperCase(Locale.ENGLISH));
+        }
+        if (accept("PRESERVE")) {
+            expect("BLANKS");
+            controlFile.setPreserveBlanks(true);
+        }
+        expect("INTO");
+        expect("TABLE");
+        controlFile.setTableName(next(TokenType.WORD).text);
+        if (accept("PARTITION")) {
+            expectSymbol('(');
+            next(TokenType.WORD);
+            expectSymbol(')');
+        }
+        if (peek().isWord("WHEN")) {
+            throw new IllegalArgumentException("WHEN clause is not supported. table = [" + controlFile.getTableName() + ']');
+        }
+        if (accept("FIELDS")) {
+            expect("TERMINATED");
+            expect("BY");
+            controlFile.setFieldSeparator(unescape(next(TokenType.STRING).text));
+            if (accept("OPTIONALLY")) {
+                expect("ENCLOSED");
+                expect("BY");
+                controlFile.setQuote(unescape(next(TokenType.STRING).text));
+            }
+        }
+        if (accept("TRAILING")) {
+            expect("NULLCOLS");
+            controlFile.setTrailingNullcols(true);
+        }
+        expectSymbol('(');
+        do {
+            controlFile.addField(parseField());
+        } while (acceptSymbol(','));
+        expectSymbol(')');
+        if (peek().type != TokenType.EOF) {
+            throw unexpected(peek());
+        }
+        if (!controlFile.isFixedLength() && controlFile.getFieldSeparator() == null) {
+            throw new IllegalArgumentException("FIELDS TERMINATED BY is required for stream record format.");
+        }
+        return controlFile;
+    }
+
+    /**
+     * OPTIONSを解析する。
+     *
+     * @param controlFile 解析結果
+     */
+    private void parseOptions(ControlFile controlFile) {
+        expectSymbol('(');
+        do {
+            final String name = next(TokenType.WORD).text;
+            expectSymbol('=');
+            final Token value = next(null);
+            if ("SKIP".equalsIgnoreCase(name)) {
+                controlFile.setSkip(toInt(value));
+            }
+        } while (acceptSymbol(','));
+        expectSymbol(')');
+    }
+
+    /**
+     * INFILEのレコード形式を解析する。
+     *
+     * @param controlFile 解析結果
+     * @param format レコード形式
+     */
+    private static void parseRecordFormat(ControlFile controlFile, String format) {
+        final Matcher stream = STREAM_RECORD.matcher(format.trim());
+        if (stream.matches()) {
+            controlFile.setLineSeparator(unescape(stream.group(1)));
+            return;
+        }
+        final Matcher fixed = FIXED_RECORD.matcher(format.trim());
+        if (fixed.matches()) {
+            controlFile.setRecordSize(Integer.parseInt(fixed.group(1)));
+            return;
+        }
+        throw new IllegalArgumentException("unsupported record format. format = [" + format + ']');
+    }
+
+    /**
+     * フィールド指定を解析する。
+     *
+     * @return フィールド
+     */
+    private ControlFileField parseField() {
+        final String columnName = next(TokenType.WORD).text;
+        boolean recnum = false;
+        Integer start = null;
+        Integer end = null;
+        String dataType = null;
+        Integer length = null;
+        String mask = null;
+        while (!peek().isSymbol(',') && !peek().isSymbol(')')) {
+            final Token token = next(TokenType.WORD);
+            final String keyword = token.text.toUpperCase(Locale.ENGLISH);
+            if ("RECNUM".equals(keyword)) {
+                recnum = true;
+            } else if ("POSITION".equals(keyword)) {
+                expectSymbol('(');
+                final Token position = next(TokenType.WORD);
+                final String[] range = position.text.split(":");
+                if (range.length != 2) {
+                    throw unexpected(position);
+                }
+                start = toInt(new Token(TokenType.WORD, range[0]));
+                end = toInt(new Token(TokenType.WORD, range[1]));
+                expectSymbol(')');
+            } else if ("CHAR".equals(keyword)) {
+                dataType = keyword;
+                length = parseLength();
+            } else if ("INTEGER".equals(keyword) || "DECIMAL".equals(keyword)) {
+                expect("EXTERNAL");
+                dataType = keyword;
+                length = parseLength();
+            } else if ("DATE".equals(keyword) || "TIMESTAMP".equals(keyword)) {
+                dataType = keyword;
+                length = parseLength();
+                if (peek().type == TokenType.QUOTED_STRING) {
+                    mask = next(TokenType.QUOTED_STRING).text;
+                }
+            } else if ("FILLER".equals(keyword) || "LOBFILE".equals(keyword)) {
+                throw new IllegalArgumentException("FILLER and LOBFILE fields are not supported. column = [" + columnName + ']');
+            } else {
+                throw new IllegalArgumentException(
+                        "unsupported field specification. column = [" + columnName + "], keyword = [" + token + ']');
+            }
+        }
+        return new ControlFileField(columnName, recnum, start, end, dataType, length, mask);
+    }
+
+    /**
+     * データ型の長さ指定を解析する。
+     *
+     * @return データ型の長さ(指定が無い場合は{@code null})
+     */
+    private Integer parseLength() {
+        if (!acceptSymbol('(')) {
+            return null;
+        }
+        final int length = toInt(next(TokenType.WORD));
+        expectSymbol(')');
+        return length;
+    }
+
+    /**
+     * 現在の字句を読み進めずに取得する。
+     *
+     * @return 現在の字句
+     */
+    private Token peek() {
+        return tokens.get(index);
+    }
+
+    /**
+     * 現在の字句を取得し、読み進める。
+     *
+     * @param type 期待する字句の種類({@code null}の場合は終端以外の任意の種類)
+     * @return 現在の字句
+     * @throws IllegalArgumentException 終端に達している場合、又は字句の種類が異なる場合
+     */
+    private Token next(TokenType type) {
+        final Token token = peek();
+        if (token.type == TokenType.EOF || (type != null && token.type != type)) {
+            throw unexpected(token);
+        }
+        index++;
+        return token;
+    }
+
+    /**
+     * 現在の字句が指定された単語の場合、読み進める。
+     *
+     * @param word 単語
+     * @return 指定された単語の場合は{@code true}
+     */
+    private boolean accept(String word) {
+        if (peek().isWord(word)) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 現在の字句が指定された単語であることを確認し、読み進める。
+     *
+     * @param word 単語
+     * @throws IllegalArgumentException 指定された単語でない場合
+     */
+    private void expect(String word) {
+        if (!accept(word)) {
+            throw new IllegalArgumentException("expected [" + word + "] but was [" + peek() + ']');
+        }
+    }
+
+    /**
+     * 現在の字句が指定された記号の場合、読み進める。
+     *
+     * @param symbol 記号
+     * @return 指定された記号の場合は{@code true}
+     */
+    private boolean acceptSymbol(char symbol) {
+        if (peek().isSymbol(symbol)) {
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 現在の字句が指定された記号であることを確認し、読み進める。
+     *
+     * @param symbol 記号
+     * @throws IllegalArgumentException 指定された記号でない場合
+     */
+    private void expectSymbol(char symbol) {
+        if (!acceptSymbol(symbol)) {
+            throw new IllegalArgumentException("expected [" + symbol + "] but was [" + peek() + ']');
+        }
+    }
+
+    /**
+     * 予期しない字句であることを表す例外を生成する。
+     *
+     * @param token 字句
+     * @return 例外
+     */
+    private static IllegalArgumentException unexpected(Token token) {
+        return new IllegalArgumentException("unexpected token in control file. token = [" + token + ']');
+    }
+
+    /**
+     * 字句を整数に変換する。
+     *
+     * @param token 字句
+     * @return 整数
+     * @throws IllegalArgumentException 整数でない場合
+     */
+    private static int toInt(Token token) {
+        try {
+            return Integer.parseInt(token.text.trim());
+        } catch (NumberFormatException e) {
+            throw unexpected(token);
+        }
+    }
+
+    /**
+     * コントロールファイルを字句に分割する。
+     *
+     * @param source コントロールファイルの内容
+     * @return 字句
+     */
+    private static List<Token> tokenize(String source) {
+        final List<Token> result = new ArrayList<Token>();
+        int i = 0;
+        final int length = source.length();
+        while (i < length) {
+            final char c = source.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '-' && i + 1 < length && source.charAt(i + 1) == '-') {
+                while (i < length && source.charAt(i) != '\n') {
+                    i++;
+                }
+            } else if (c == '(' || c == ')' || c == ',' || c == '=') {
+                result.add(new Token(TokenType.SYMBOL, String.valueOf(c)));
+                i++;
+            } else if (c == '\'') {
+                // 生成したコントロールファイルではクォート文字の「'」がエスケープされずに'''と出力される
+                if (source.startsWith("'''", i) && (i + 3 == length || Character.isWhitespace(source.charAt(i + 3)))) {
+                    result.add(new Token(TokenType.STRING, "'"));
+                    i += 3;
+                    continue;
+                }
+                final StringBuilder text = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= length) {
+                        throw new IllegalArgumentException("unterminated string in control file.");
+                    }
+                    final char ch = source.charAt(i++);
+                    if (ch == '\'') {
+                        if (i < length && source.charAt(i) == '\'') {
+                            text.append('\'');
+                            i++;
+                            continue;
+                        }
+                        break;
+                    }
+                    text.append(ch);
+                }
+                result.add(new Token(TokenType.STRING, text.toString()));
+            } else if (c == '"') {
+                final int end = source.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("unterminated string in control file.");
+                }
+                result.add(new Token(TokenType.QUOTED_STRING, source.substring(i + 1, end)));
+                i = end + 1;
+            } else {
+                final int start = i;
+                while (i < length && !Character.isWhitespace(source.charAt(i))
+                        && "(),='\"".indexOf(source.charAt(i)) < 0) {
+                    i++;
+                }
+                result.add(new Token(TokenType.WORD, source.substring(start, i)));
+            }
+        }
+        result.add(new Token(TokenType.EOF, ""));
+        return result;
+    }
+
+    /**
+     * 文字列中のエスケープシーケンス(\r、\n、\t)を元の文字に戻す。
+     *
+     * @param str 文字列
+     * @return エスケープを解除した文字列
+     */
+    private static String unescape(String str) {
+        return str.replace("\\r", "\r").replace("\\n", "\n").replace("\\t", "\t");
+    }
+
+    /**
+     * Oracleの文字セット名を{@link Charset}に変換する。
+     *
+     * @param oracleCharset Oracleの文字セット名
+     * @return 文字セット
+     */
+    private static Charset toCharset(String oracleCharset) {
+        final String name = CHARSETS.get(oracleCharset.toUpperCase(Locale.ENGLISH));
+        if (name != null) {
+            return Charset.forName(name);
+        }
+        if (Charset.isSupported(oracleCharset)) {
+            return Charset.forName(oracleCharset);
+        }
+        throw new IllegalArgumentException("unsupported character set. charset = [" + oracleCharset + ']');
+    }
+}
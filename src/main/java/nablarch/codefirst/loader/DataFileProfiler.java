@@ -0,0 +1,168 @@
+package nablarch.codefirst.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * コントロールファイルの定義に従ってデータファイルを読み込み、カラムごとの実データの統計を集計するクラス。
+ * <p/>
+ * データファイルはレコードの境界で分割したチャンクごとにメモリマップし、並行に集計する。
+ * チャンクごとの集計結果は{@link ColumnProfile#merge(ColumnProfile)}で併合する。
+ * スキップするレコード(ヘッダ行)及び全てのフィールドが空のレコードは集計しない。
+ * スキップするレコードは、先頭のチャンクに含まれることを前提とする。
+ *
+ * @see DataProfile
+ */
+public class DataFileProfiler {
+
+    /** ASCII文字の確認に使用する文字列 */
+    private static final String ASCII_SAMPLE = "09AZaz ,.-+:";
+
+    /** コントロールファイル */
+    private final ControlFile controlFile;
+
+    /** チャンクごとに並行に集計する{@link ChunkRunner} */
+    private final ChunkRunner chunkRunner;
+
+    /** RECNUMを除くフィールド */
+    private final List<ControlFileField> dataFields = new ArrayList<ControlFileField>();
+
+    /** ASCII文字を1バイトで表す文字コードか否か */
+    private final boolean asciiCompatible;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param controlFile 解析済みのコントロールファイル
+     * @param threads 並行に集計するスレッド数
+     */
+    public DataFileProfiler(ControlFile controlFile, int threads) {
+        this.controlFile = controlFile;
+        this.chunkRunner = new ChunkRunner(controlFile, threads, "profile");
+        for (ControlFileField field : controlFile.getFields()) {
+            if (!field.isRecnum()) {
+                dataFields.add(field);
+            }
+        }
+        final Charset charset = controlFile.getCharset();
+        asciiCompatible = Arrays.equals(ASCII_SAMPLE.getBytes(charset), ASCII_SAMPLE.getBytes(Charset.forName("US-ASCII")));
+    }
+
+    /**
+     * データファイルを分割せずに集計する。
+     *
+     * @param dataFile データファイル
+     * @return カラムごとの統計(フィールドの順)
+     */
+    public List<ColumnProfile> profile(File dataFile) {
+        return profile(dataFile, new long[] {0, dataFile.length()});
+    }
+
+    /**
+     * データファイルを、指定されたチャンクの境界位置で分割して並行に集計する。
+     * <p/>
+     * 境界位置はレコードの境界である必要がある。
+     *
+     * @param dataFile データファイル
+     * @param boundaries チャンクの境界位置(先頭は0、末尾はファイルサイズ。要素数はチャンク数 + 1)
+     * @return カラムごとの統計(フィールドの順)
+     * @see nablarch.codefirst.control.DataFileSplitter#findBoundaries(File, int)
+     */
+    public List<ColumnProfile> profile(File dataFile, long[] boundaries) {
+        final List<List<ColumnProfile>> chunks = chunkRunner.run(dataFile, boundaries,
+                new ChunkRunner.ChunkTask<List<ColumnProfile>>() {
+                    @Override
+                    public List<ColumnProfile> process(RecordReader reader, int skip) throws IOException {
+                        return profileChunk(reader, skip);
+                    }
+                });
+        final List<ColumnProfile> profiles = createProfiles();
+        for (List<ColumnProfile> chunk : chunks) {
+            for (int i = 0; i < profiles.size(); i++) {
+                profiles.get(i).merge(chunk.get(i));
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * 1つのチャンクのレコードを集計する。
+     *
+     * @param reader チャンクのレコードを読み込む{@link RecordReader}
+     * @param skip スキップするレコード数
+     * @return チャンクのカラムごとの統計
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private List<ColumnProfile> profileChunk(RecordReader reader, int skip) throws IOException {
+        final List<ColumnProfile> profiles = createProfiles();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            if (reader.getRecordNumber() <= skip || RecordReader.isAllNull(record)) {
+                continue;
+            }
+            for (int i = 0; i < dataFields.size(); i++) {
+                final String value = i < record.size() ? record.get(i) : null;
+                profiles.get(i).add(value, value == null ? 0 : getByteLength(value),
+                        value != null && isDate(dataFields.get(i), value));
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * 空の統計を生成する。
+     *
+     * @return カラムごとの空の統計
+     */
+    private List<ColumnProfile> createProfiles() {
+        final List<ColumnProfile> profiles = new ArrayList<ColumnProfile>();
+        for (ControlFileField field : dataFields) {
+            profiles.add(new ColumnProfile(field.getColumnName(), field.getDataType()));
+        }
+        return profiles;
+    }
+
+    /**
+     * 値のバイト長を取得する。
+     * <p/>
+     * ASCII文字のみの値は、エンコードせずに文字数をバイト長とする。
+     *
+     * @param value 値
+     * @return バイト長
+     */
+    private int getByteLength(String value) {
+        if (asciiCompatible) {
+            boolean ascii = true;
+            for (int i = 0; i < value.length() && ascii; i++) {
+                ascii = value.charAt(i) < 0x80;
+            }
+            if (ascii) {
+                return value.length();
+            }
+        }
+        return value.getBytes(controlFile.getCharset()).length;
+    }
+
+    /**
+     * 日付書式に従った値か否かを判定する。
+     *
+     * @param field フィールド
+     * @param value 値
+     * @return データ型がDATE又はTIMESTAMPで、日付書式に従っている場合は{@code true}
+     */
+    private static boolean isDate(ControlFileField field, String value) {
+        if (!"DATE".equals(field.getDataType()) && !"TIMESTAMP".equals(field.getDataType())) {
+            return false;
+        }
+        try {
+            field.convert(value);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
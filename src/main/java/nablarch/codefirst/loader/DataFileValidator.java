@@ -0,0 +1,206 @@
+package nablarch.codefirst.loader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * コントロールファイルの定義に従って、ロード前にデータファイルの全レコードを検証するクラス。
+ * <p/>
+ * レコードごとに以下を検証し、不正なレコードをレコード番号(RECNUMと同じ、ヘッダ行を含む1始まりの番号)とともに報告する。
+ * <ul>
+ *     <li>フィールド数がコントロールファイルのフィールド数と一致すること(固定長ファイルの場合はレコード長が不足していないこと)</li>
+ *     <li>{@code CHAR(n)}のフィールドのバイト長が{@code n}を超えていないこと</li>
+ *     <li>{@code INTEGER EXTERNAL}、{@code DECIMAL EXTERNAL}のフィールドが数値の書式であること</li>
+ *     <li>{@code DATE}、{@code TIMESTAMP}のフィールドが日付書式に従っていること</li>
+ * </ul>
+ * データファイルはレコードの境界で分割したチャンクごとに並行に検証する。
+ * 各チャンクのレコード番号はチャンク内の番号として数え、全てのチャンクの検証後に先行するチャンクのレコード数を加算する。
+ * スキップするレコード(ヘッダ行)は、先頭のチャンクに含まれることを前提とする。
+ */
+public class DataFileValidator {
+
+    /** 保持する不正なレコードのエラーメッセージの上限 */
+    private static final int MAX_REJECTED_MESSAGES = 100;
+
+    /** コントロールファイル */
+    private final ControlFile controlFile;
+
+    /** チャンクごとに並行に検証する{@link ChunkRunner} */
+    private final ChunkRunner chunkRunner;
+
+    /** RECNUMを除くフィールド */
+    private final List<ControlFileField> dataFields = new ArrayList<ControlFileField>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param controlFile 解析済みのコントロールファイル
+     * @param threads 並行に検証するスレッド数
+     */
+    public DataFileValidator(ControlFile controlFile, int threads) {
+        this.controlFile = controlFile;
+        this.chunkRunner = new ChunkRunner(controlFile, threads, "validate");
+        for (ControlFileField field : controlFile.getFields()) {
+            if (!field.isRecnum()) {
+                dataFields.add(field);
+            }
+        }
+    }
+
+    /**
+     * データファイルを分割せずに検証する。
+     *
+     * @param dataFile データファイル
+     * @return 検証結果
+     */
+    public ValidationResult validate(File dataFile) {
+        return validate(dataFile, new long[] {0, dataFile.length()});
+    }
+
+    /**
+     * データファイルを、指定されたチャンクの境界位置で分割して並行に検証する。
+     * <p/>
+     * 境界位置はレコードの境界である必要がある。
+     *
+     * @param dataFile データファイル
+     * @param boundaries チャンクの境界位置(先頭は0、末尾はファイルサイズ。要素数はチャンク数 + 1)
+     * @return 検証結果
+     * @see nablarch.codefirst.control.DataFileSplitter#findBoundaries(File, int)
+     */
+    public ValidationResult validate(File dataFile, long[] boundaries) {
+        final long start = System.nanoTime();
+        final List<ChunkResult> chunks = chunkRunner.run(dataFile, boundaries, new ChunkRunner.ChunkTask<ChunkResult>() {
+            @Override
+            public ChunkResult process(RecordReader reader, int skip) throws IOException {
+                return validateChunk(reader, skip);
+            }
+        });
+
+        long offset = 0;
+        long records = 0;
+        long rejected = 0;
+        long discarded = 0;
+        final List<String> rejectedMessages = new ArrayList<String>();
+        for (ChunkResult chunk : chunks) {
+            for (int i = 0; i < chunk.rejectedNumbers.size()
+                    && rejectedMessages.size() < MAX_REJECTED_MESSAGES; i++) {
+                rejectedMessages.add("record " + (offset + chunk.rejectedNumbers.get(i)) + ": "
+                        + chunk.rejectedMessages.get(i));
+            }
+            offset += chunk.records;
+            records += chunk.validated;
+            rejected += chunk.rejected;
+            discarded += chunk.discarded;
+        }
+        return new ValidationResult(records, rejected, discarded, System.nanoTime() - start, rejectedMessages);
+    }
+
+    /**
+     * 1つのチャンクのレコードを検証する。
+     *
+     * @param reader チャンクのレコードを読み込む{@link RecordReader}
+     * @param skip スキップするレコード数
+     * @return チャンクの検証結果
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private ChunkResult validateChunk(RecordReader reader, int skip) throws IOException {
+        final ChunkResult result = new ChunkResult();
+        while (true) {
+            final List<String> record;
+            try {
+                record = reader.next();
+            } catch (IllegalStateException e) {
+                // 閉じられていない囲み文字以降は、レコードの境界を判定できない
+                result.validated++;
+                result.reject(reader.getRecordNumber() + 1, e.getMessage());
+                result.records = reader.getRecordNumber() + 1;
+                return result;
+            }
+            if (record == null) {
+                break;
+            }
+            if (reader.getRecordNumber() <= skip) {
+                continue;
+            }
+            if (RecordReader.isAllNull(record)) {
+                result.discarded++;
+                continue;
+            }
+            result.validated++;
+            try {
+                validateRecord(record);
+            } catch (IllegalArgumentException e) {
+                result.reject(reader.getRecordNumber(), e.getMessage());
+            }
+        }
+        result.records = reader.getRecordNumber();
+        return result;
+    }
+
+    /**
+     * レコードを検証する。
+     * <p/>
+     * 可変長ファイルで{@code TRAILING NULLCOLS}が指定されている場合は、SQL*Loaderと同様に
+     * 末尾のフィールドが不足しているレコードを許容し、不足しているフィールドは{@code null}として扱う。
+     *
+     * @param record レコード
+     * @throws IllegalArgumentException レコードが不正な場合
+     */
+    private void validateRecord(List<String> record) {
+        if (controlFile.isFixedLength()) {
+            if (record.size() < dataFields.size()) {
+                throw new IllegalArgumentException("record is shorter than the record length. column = ["
+                        + dataFields.get(record.size()).getColumnName() + ']');
+            }
+        } else if (record.size() > dataFields.size()
+                || (record.size() < dataFields.size() && !controlFile.isTrailingNullcols())) {
+            throw new IllegalArgumentException("field count does not match. expected = ["
+                    + dataFields.size() + "], actual = [" + record.size() + ']');
+        }
+        for (int i = 0; i < dataFields.size(); i++) {
+            dataFields.get(i).validate(i < record.size() ? record.get(i) : null, controlFile.getCharset());
+        }
+    }
+
+    /**
+     * チャンクの検証結果。
+     */
+    private static class ChunkResult {
+
+        /** チャンク内のレコード数(スキップしたレコードを含む) */
+        private long records;
+
+        /** 検証したレコード数 */
+        private long validated;
+
+        /** 不正なデータを含むレコード数 */
+        private long rejected;
+
+        /** 破棄されるレコード数 */
+        private long discarded;
+
+        /** 不正なレコードのチャンク内のレコード番号 */
+        private final List<Long> rejectedNumbers = new ArrayList<Long>();
+
+        /** 不正なレコードのエラーメッセージ */
+        private final List<String> rejectedMessages = new ArrayList<String>();
+
+        /**
+         * 不正なレコードを記録する。
+         * <p/>
+         * エラーメッセージは上限まで保持する。
+         *
+         * @param recordNumber チャンク内のレコード番号
+         * @param message エラーメッセージ
+         */
+        void reject(long recordNumber, String message) {
+            rejected++;
+            if (rejectedMessages.size() < MAX_REJECTED_MESSAGES) {
+                rejectedNumbers.add(recordNumber);
+                rejectedMessages.add(message);
+            }
+        }
+    }
+}
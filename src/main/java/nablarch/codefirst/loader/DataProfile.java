@@ -0,0 +1,468 @@
+package nablarch.codefirst.loader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import nablarch.core.util.FileUtil;
+
+/**
+ * Beanクラスのデータファイルを{@link DataFileProfiler}で集計した、カラムごとの統計(プロファイル)を保持するクラス。
+ * <p/>
+ * プロファイルはBeanクラスごとに{@code <Beanクラスの完全修飾名>.json}としてJSON形式で出力し、
+ * コントロールファイルの生成時にフィールドの長さを実データに合わせるために使用する。
+ * <pre>
+ * {
+ *   "beanClass": "com.example.Person",
+ *   "dataFiles": ["person.csv"],
+ *   "columns": [
+ *     {"column": "NAME", "dataType": "CHAR", "count": 1000, "nulls": 10, "nullRatio": 0.0100,
+ *      "maxLength": 30, "totalLength": 14850, "avgLength": 15.00, ..., "format": "CHAR"}
+ *   ]
+ * }
+ * </pre>
+ */
+public class DataProfile {
+
+    /** プロファイルのファイルの拡張子 */
+    public static final String FILE_EXTENSION = ".json";
+
+    /** Beanクラスの完全修飾名 */
+    private final String beanClassName;
+
+    /** 集計したデータファイル */
+    private final List<String> dataFiles = new ArrayList<String>();
+
+    /** カラム名とカラムの統計のマッピング(フィールドの順) */
+    private final Map<String, ColumnProfile> columns = new LinkedHashMap<String, ColumnProfile>();
+
+    /**
+     * 空のプロファイルを生成する。
+     *
+     * @param beanClassName Beanクラスの完全修飾名
+     */
+    public DataProfile(String beanClassName) {
+        this.beanClassName = beanClassName;
+    }
+
+    /**
+     * プロファイルのファイルを取得する。
+     *
+     * @param directory プロファイルのディレクトリ
+     * @param beanClassName Beanクラスの完全修飾名
+     * @return プロファイルのファイル
+     */
+    public static File getProfileFile(File directory, String beanClassName) {
+        return new File(directory, beanClassName + FILE_EXTENSION);
+    }
+
+    /**
+     * データファイルの集計結果を追加する。
+     * <p/>
+     * 既に同じカラムの統計がある場合は併合する。
+     *
+     * @param dataFile データファイル
+     * @param profiles カラムごとの統計
+     */
+    public void add(String dataFile, List<ColumnProfile> profiles) {
+        dataFiles.add(dataFile);
+        for (ColumnProfile profile : profiles) {
+            final ColumnProfile current = columns.get(profile.getColumnName());
+            if (current == null) {
+                columns.put(profile.getColumnName(), profile);
+            } else {
+                current.merge(profile);
+            }
+        }
+    }
+
+    /**
+     * Beanクラスの完全修飾名を取得する。
+     *
+     * @return Beanクラスの完全修飾名
+     */
+    public String getBeanClassName() {
+        return beanClassName;
+    }
+
+    /**
+     * 集計したデータファイルを取得する。
+     *
+     * @return 集計したデータファイル
+     */
+    public List<String> getDataFiles() {
+        return Collections.unmodifiableList(dataFiles);
+    }
+
+    /**
+     * カラムごとの統計を取得する。
+     *
+     * @return カラムごとの統計(フィールドの順)
+     */
+    public List<ColumnProfile> getColumns() {
+        return new ArrayList<ColumnProfile>(columns.values());
+    }
+
+    /**
+     * カラムの統計を取得する。
+     *
+     * @param columnName カラム名
+     * @return カラムの統計(集計していないカラムの場合は{@code null})
+     */
+    public ColumnProfile getColumn(String columnName) {
+        return columns.get(columnName);
+    }
+
+    /**
+     * プロファイルをJSON形式で出力する。
+     *
+     * @param file 出力先のファイル
+     */
+    public void write(File file) {
+        final File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IllegalArgumentException("プロファイルの出力先ディレクトリの作成に失敗しました。 ディレクトリ=[" + dir + ']');
+        }
+        Writer writer = null;
+        try {
+            writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+            writer.write("{\n  \"beanClass\": " + quote(beanClassName) + ",\n  \"dataFiles\": [");
+            for (int i = 0; i < dataFiles.size(); i++) {
+                writer.write((i == 0 ? "" : ", ") + quote(dataFiles.get(i)));
+            }
+            writer.write("],\n  \"columns\": [");
+            boolean first = true;
+            for (ColumnProfile column : columns.values()) {
+                writer.write(first ? "\n" : ",\n");
+                first = false;
+                writer.write("    {\"column\": " + quote(column.getColumnName())
+                        + ", \"dataType\": " + (column.getDataType() == null ? "null" : quote(column.getDataType()))
+                        + ", \"count\": " + column.getCount()
+                        + ", \"nulls\": " + column.getNulls()
+                        + ", \"nullRatio\": " + String.format(Locale.ENGLISH, "%.4f", column.getNullRatio())
+                        + ", \"maxLength\": " + column.getMaxLength()
+                        + ", \"totalLength\": " + column.getTotalLength()
+                        + ", \"avgLength\": " + String.format(Locale.ENGLISH, "%.2f", column.getAverageLength())
+                        + ", \"integerCount\": " + column.getIntegerCount()
+                        + ", \"decimalCount\": " + column.getDecimalCount()
+                        + ", \"dateCount\": " + column.getDateCount()
+                        + ", \"maxPrecision\": " + column.getMaxPrecision()
+                        + ", \"maxScale\": " + column.getMaxScale()
+                        + ", \"format\": " + quote(column.getFormat()) + '}');
+            }
+            writer.write("\n  ]\n}\n");
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to write data profile. file = [" + file + ']', e);
+        } finally {
+            FileUtil.closeQuietly(writer);
+        }
+    }
+
+    /**
+     * JSON形式のプロファイルを読み込む。
+     * <p/>
+     * 平均長やNULLの割合など、他の項目から算出できる項目は読み込まない。
+     *
+     * @param file プロファイルのファイル
+     * @return プロファイル
+     */
+    @SuppressWarnings("unchecked")
+    public static DataProfile read(File file) {
+        final Map<String, Object> json;
+        Reader reader = null;
+        try {
+            reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+            final StringBuilder source = new StringBuilder();
+            final char[] buffer = new char[4096];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                source.append(buffer, 0, read);
+            }
+            json = (Map<String, Object>) new JsonParser(source.toString()).parse();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to read data profile. file = [" + file + ']', e);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid data profile. file = [" + file + ']', e);
+        } finally {
+            FileUtil.closeQuietly(reader);
+        }
+
+        final DataProfile profile = new DataProfile((String) json.get("beanClass"));
+        for (Map<String, Object> column : (List<Map<String, Object>>) json.get("columns")) {
+            final ColumnProfile columnProfile = new ColumnProfile(
+                    (String) column.get("column"),
+                    (String) column.get("dataType"),
+                    toLong(column.get("count")),
+                    toLong(column.get("nulls")),
+                    toLong(column.get("maxLength")),
+                    toLong(column.get("totalLength")),
+                    toLong(column.get("integerCount")),
+                    toLong(column.get("decimalCount")),
+                    toLong(column.get("dateCount")),
+                    (int) toLong(column.get("maxPrecision")),
+                    (int) toLong(column.get("maxScale")));
+            profile.columns.put(columnProfile.getColumnName(), columnProfile);
+        }
+        for (Object dataFile : (List<Object>) json.get("dataFiles")) {
+            profile.dataFiles.add((String) dataFile);
+        }
+        return profile;
+    }
+
+    /**
+     * JSONの数値を{@code long}に変換する。
+     *
+     * @param value JSONの数値({@link BigDecimal})
+     * @return 変換した値({@code null}の場合は0)
+     */
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((BigDecimal) value).longValue();
+    }
+
+    /**
+     * JSONの文字列リテラルに変換する。
+     *
+     * @param value 値
+     * @return 文字列リテラル
+     */
+    private static String quote(String value) {
+        final StringBuilder result = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                result.append('\\').append(c);
+            } else if (c < 0x20) {
+                result.append(String.format("\\u%04x", (int) c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.append('"').toString();
+    }
+
+    /**
+     * プロファイルの読み込みに使用する、最小限のJSONパーサ。
+     * <p/>
+     * オブジェクトは{@link Map}、配列は{@link List}、数値は{@link BigDecimal}に変換する。
+     */
+    private static class JsonParser {
+
+        /** JSON */
+        private final String source;
+
+        /** 現在の位置 */
+        private int index;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param source JSON
+         */
+        JsonParser(String source) {
+            this.source = source;
+        }
+
+        /**
+         * JSON全体を1つの値として解析する。
+         *
+         * @return 解析した値
+         * @throws IllegalArgumentException JSONの書式に従っていない場合
+         */
+        Object parse() {
+            final Object value = parseValue();
+            skipWhitespace();
+            if (index != source.length()) {
+                throw error();
+            }
+            return value;
+        }
+
+        /**
+         * 現在の位置から値を解析する。
+         * <p/>
+         * オブジェクトは{@link Map}、配列は{@link List}、数値は{@link BigDecimal}として返す。
+         *
+         * @return 解析した値
+         */
+        private Object parseValue() {
+            skipWhitespace();
+            if (index >= source.length()) {
+                throw error();
+            }
+            final char c = source.charAt(index);
+            if (c == '{') {
+                return parseObject();
+            }
+            if (c == '[') {
+                return parseArray();
+            }
+            if (c == '"') {
+                return parseString();
+            }
+            if (source.startsWith("null", index)) {
+                index += 4;
+                return null;
+            }
+            if (source.startsWith("true", index)) {
+                index += 4;
+                return Boolean.TRUE;
+            }
+            if (source.startsWith("false", index)) {
+                index += 5;
+                return Boolean.FALSE;
+            }
+            final int start = index;
+            while (index < source.length() && "+-.0123456789eE".indexOf(source.charAt(index)) >= 0) {
+                index++;
+            }
+            if (start == index) {
+                throw error();
+            }
+            return new BigDecimal(source.substring(start, index));
+        }
+
+        /**
+         * 現在の位置からオブジェクトを解析する。
+         *
+         * @return 名前と値のマッピング(出現順)
+         */
+        private Map<String, Object> parseObject() {
+            final Map<String, Object> object = new LinkedHashMap<String, Object>();
+            index++;
+            skipWhitespace();
+            if (accept('}')) {
+                return object;
+            }
+            do {
+                skipWhitespace();
+                final String name = parseString();
+                skipWhitespace();
+                expect(':');
+                object.put(name, parseValue());
+                skipWhitespace();
+            } while (accept(','));
+            expect('}');
+            return object;
+        }
+
+        /**
+         * 現在の位置から配列を解析する。
+         *
+         * @return 要素のリスト
+         */
+        private List<Object> parseArray() {
+            final List<Object> array = new ArrayList<Object>();
+            index++;
+            skipWhitespace();
+            if (accept(']')) {
+                return array;
+            }
+            do {
+                array.add(parseValue());
+                skipWhitespace();
+            } while (accept(','));
+            expect(']');
+            return array;
+        }
+
+        /**
+         * 現在の位置から文字列を解析する。
+         *
+         * @return エスケープを解除した文字列
+         */
+        private String parseString() {
+            expect('"');
+            final StringBuilder value = new StringBuilder();
+            while (index < source.length()) {
+                final char c = source.charAt(index++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (index >= source.length()) {
+                    break;
+                }
+                final char escaped = source.charAt(index++);
+                if (escaped == 'u') {
+                    if (index + 4 > source.length()) {
+                        break;
+                    }
+                    value.append((char) Integer.parseInt(source.substring(index, index + 4), 16));
+                    index += 4;
+                } else if (escaped == 'n') {
+                    value.append('\n');
+                } else if (escaped == 'r') {
+                    value.append('\r');
+                } else if (escaped == 't') {
+                    value.append('\t');
+                } else if (escaped == 'b') {
+                    value.append('\b');
+                } else if (escaped == 'f') {
+                    value.append('\f');
+                } else {
+                    value.append(escaped);
+                }
+            }
+            throw error();
+        }
+
+        /**
+         * 現在の位置から空白を読み飛ばす。
+         */
+        private void skipWhitespace() {
+            while (index < source.length() && Character.isWhitespace(source.charAt(index))) {
+                index++;
+            }
+        }
+
+        /**
+         * 現在の位置の文字が指定された文字の場合、読み進める。
+         *
+         * @param c 文字
+         * @return 指定された文字の場合は{@code true}
+         */
+        private boolean accept(char c) {
+            if (index < source.length() && source.charAt(index) == c) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * 現在の位置の文字が指定された文字であることを確認し、読み進める。
+         *
+         * @param c 文字
+         */
+        private void expect(char c) {
+            if (!accept(c)) {
+                throw error();
+            }
+        }
+
+        /**
+         * 現在の位置で解析に失敗したことを表す例外を生成する。
+         *
+         * @return 例外
+         */
+        private IllegalArgumentException error() {
+            return new IllegalArgumentException("unexpected character in JSON. position = [" + index + ']');
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package nablarch.codefirst.loader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+/**
+ * コントロールファイルの定義に従って、データファイルをJDBC経由でロードするクラス。
+ * <p/>
+ * SQL*Loaderの代替として、H2などの組み込みデータベースに対してロードを行い、
+ * コントロールファイルとデータファイルの整合性確認やロード性能の計測に使用する。
+ * <p/>
+ * データファイルは呼び出し元のスレッドで読み込み、{@link #setBatchSize(int)}で指定した件数ごとに
+ * {@link #setWriterThreads(int)}で指定した数の書き込みスレッドへ渡す。
+ * 書き込みスレッドはそれぞれ個別のコネクションを使用し、バッチ単位でコミットする。
+ */
+public class JdbcLoader {
+
+    /** 保持する除外レコードのエラーメッセージの上限 */
+    private static final int MAX_REJECTED_MESSAGES = 100;
+
+    /** 書き込みスレッドへの終了通知 */
+    private static final List<Object[]> END_OF_DATA = new ArrayList<Object[]>();
+
+    /** データソース */
+    private final DataSource dataSource;
+
+    /** バッチサイズ */
+    private int batchSize = 1000;
+
+    /** 書き込みスレッド数 */
+    private int writerThreads = 1;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param dataSource ロード先のデータソース
+     */
+    public JdbcLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * バッチサイズを設定する。
+     *
+     * @param batchSize 1回のバッチ更新でINSERTするレコード数
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0. batchSize = [" + batchSize + ']');
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 書き込みスレッド数を設定する。
+     *
+     * @param writerThreads 書き込みスレッド数
+     */
+    public void setWriterThreads(int writerThreads) {
+        if (writerThreads < 1) {
+            throw new IllegalArgumentException(
+                    "writerThreads must be greater than 0. writerThreads = [" + writerThreads + ']');
+        }
+        this.writerThreads = writerThreads;
+    }
+
+    /**
+     * コントロールファイルの定義に従って、データファイルをロードする。
+     *
+     * @param controlFile コントロールファイル
+     * @param dataFile データファイル
+     * @return ロード結果
+     */
+    public LoadResult load(File controlFile, File dataFile) {
+        return load(new ControlFileParser().parse(controlFile), dataFile);
+    }
+
+    /**
+     * コントロールファイルの定義に従って、データファイルをロードする。
+     * <p/>
+     * 不正なデータを含むレコードは除外してロードを継続する。
+     * データベースへの書き込みに失敗した場合は、ロードを中断して例外を送出する。
+     *
+     * @param controlFile 解析済みのコントロールファイル
+     * @param dataFile データファイル
+     * @return ロード結果
+     */
+    public LoadResult load(ControlFile controlFile, File dataFile) {
+        final long start = System.nanoTime();
+        prepareTable(controlFile);
+
+        final String sql = createInsertSql(controlFile);
+        final BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<List<Object[]>>(writerThreads * 2);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final ExecutorService executor = Executors.newFixedThreadPool(writerThreads);
+        final List<Future<Long>> writers = new ArrayList<Future<Long>>();
+        for (int i = 0; i < writerThreads; i++) {
+            writers.add(executor.submit(new Writer(sql, queue, failure)));
+        }
+
+        long rejected = 0;
+        long discarded = 0;
+        final List<String> rejectedMessages = new ArrayList<String>();
+        try {
+            final RecordReader reader = RecordReader.open(controlFile, new FileInputStream(dataFile));
+            try {
+                List<Object[]> batch = new ArrayList<Object[]>(batchSize);
+                List<String> record;
+                while (failure.get() == null && (record = reader.next()) != null) {
+                    if (reader.getRecordNumber() <= controlFile.getSkip()) {
+                        continue;
+                    }
+                    if (RecordReader.isAllNull(record)) {
+                        discarded++;
+                        continue;
+                    }
+                    final Object[] row;
+                    try {
+                        row = toRow(controlFile, record, reader.getRecordNumber());
+                    } catch (IllegalArgumentException e) {
+                        rejected++;
+                        if (rejectedMessages.size() < MAX_REJECTED_MESSAGES) {
+                            rejectedMessages.add("record " + reader.getRecordNumber() + ": " + e.getMessage());
+                        }
+                        continue;
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        put(queue, batch, failure);
+                        batch = new ArrayList<Object[]>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    put(queue, batch, failure);
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            for (int i = 0; i < writerThreads; i++) {
+                put(queue, END_OF_DATA, null);
+            }
+            executor.shutdown();
+        }
+
+        long loaded = 0;
+        for (Future<Long> writer : writers) {
+            try {
+                loaded += writer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("interrupted while loading. table = [" + controlFile.getTableName() + ']', e);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            }
+        }
+        if (failure.get() != null) {
+            throw new RuntimeException("failed to load data file. table = [" + controlFile.getTableName()
+                    + "], data file = [" + dataFile.getAbsolutePath() + ']', failure.get());
+        }
+        return new LoadResult(loaded, rejected, discarded, System.nanoTime() - start, rejectedMessages);
+    }
+
+    /**
+     * ロード方法に従って、ロード先のテーブルを準備する。
+     * <p/>
+     * TRUNCATEの場合はTRUNCATE TABLE、REPLACEの場合はDELETEでデータを削除する。
+     * INSERTの場合はテーブルが空であることを確認する。
+     *
+     * @param controlFile コントロールファイル
+     */
+    private void prepareTable(ControlFile controlFile) {
+        final String loadMethod = controlFile.getLoadMethod();
+        if ("APPEND".equals(loadMethod)) {
+            return;
+        }
+        try {
+            final Connection connection = dataSource.getConnection();
+            try {
+                final Statement statement = connection.createStatement();
+                try {
+                    if ("TRUNCATE".equals(loadMethod)) {
+                        statement.executeUpdate("TRUNCATE TABLE " + controlFile.getTableName());
+                    } else if ("REPLACE".equals(loadMethod)) {
+                        statement.executeUpdate("DELETE FROM " + controlFile.getTableName());
+                    } else {
+                        final ResultSet rs = statement.executeQuery("SELECT 1 FROM " + controlFile.getTableName());
+                        try {
+                            if (rs.next()) {
+                                throw new IllegalStateException(
+                                        "table must be empty for INSERT. table = [" + controlFile.getTableName() + ']');
+                            }
+                        } finally {
+                            rs.close();
+                        }
+                    }
+                } finally {
+                    statement.close();
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.commit();
+                }
+            } finally {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("failed to prepare table. table = [" + controlFile.getTableName() + ']', e);
+        }
+    }
+
+    /**
+     * INSERT文を組み立てる。
+     *
+     * @param controlFile コントロールファイル
+     * @return INSERT文
+     */
+    private static String createInsertSql(ControlFile controlFile) {
+        final StringBuilder columns = new StringBuilder();
+        final StringBuilder values = new StringBuilder();
+        for (ControlFileField field : controlFile.getFields()) {
+            if (columns.length() != 0) {
+                columns.append(", ");
+                values.append(", ");
+            }
+            columns.append(field.getColumnName());
+            values.append('?');
+        }
+        return "INSERT INTO " + controlFile.getTableName() + " (" + columns + ") VALUES (" + values + ')';
+    }
+
+    /**
+     * レコードをINSERT文にバインドする値に変換する。
+     *
+     * @param controlFile コントロールファイル
+     * @param record レコード
+     * @param recordNumber レコード番号
+     * @return バインドする値
+     * @throws IllegalArgumentException レコードが不正な場合
+     */
+    private static Object[] toRow(ControlFile controlFile, List<String> record, long recordNumber) {
+        final List<ControlFileField> fields = controlFile.getFields();
+        final Object[] row = new Object[fields.size()];
+        int index = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            final ControlFileField field = fields.get(i);
+            if (field.isRecnum()) {
+                row[i] = recordNumber;
+                continue;
+            }
+            if (index >= record.size()) {
+                if (!controlFile.isTrailingNullcols()) {
+                    throw new IllegalArgumentException("column not found before end of logical record. column = ["
+                            + field.getColumnName() + ']');
+                }
+                row[i] = null;
+            } else {
+                row[i] = field.convert(record.get(index));
+            }
+            index++;
+        }
+        return row;
+    }
+
+    /**
+     * 書き込みスレッドへバッチを渡す。
+     * <p/>
+     * 書き込みスレッドが異常終了している場合は、バッチを破棄する。
+     *
+     * @param queue キュー
+     * @param batch バッチ
+     * @param failure 書き込みスレッドの例外(終了通知の場合は{@code null})
+     */
+    private static void put(BlockingQueue<List<Object[]>> queue, List<Object[]> batch,
+            AtomicReference<Throwable> failure) {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                if (failure != null && failure.get() != null) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while loading.", e);
+        }
+    }
+
+    /**
+     * キューからバッチを取り出し、バッチ更新でINSERTする書き込みスレッド。
+     */
+    private class Writer implements Callable<Long> {
+
+        /** INSERT文 */
+        private final String sql;
+
+        /** キュー */
+        private final BlockingQueue<List<Object[]>> queue;
+
+        /** いずれかのスレッドで発生した例外 */
+        private final AtomicReference<Throwable> failure;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param sql INSERT文
+         * @param queue バッチを受け取るキュー
+         * @param failure いずれかのスレッドで発生した例外の格納先
+         */
+        Writer(String sql, BlockingQueue<List<Object[]>> queue, AtomicReference<Throwable> failure) {
+            this.sql = sql;
+            this.queue = queue;
+            this.failure = failure;
+        }
+
+        @Override
+        public Long call() throws Exception {
+            long count = 0;
+            Connection connection = null;
+            PreparedStatement statement = null;
+            int[] parameterTypes = null;
+            try {
+                while (true) {
+                    final List<Object[]> batch = queue.take();
+                    if (batch == END_OF_DATA) {
+                        return count;
+                    }
+                    if (failure.get() != null) {
+                        // 他のスレッドで失敗している場合は、終了通知まで読み捨てる
+                        continue;
+                    }
+                    try {
+                        if (connection == null) {
+                            connection = dataSource.getConnection();
+                            connection.setAutoCommit(false);
+                            statement = connection.prepareStatement(sql);
+                            parameterTypes = getParameterTypes(statement, batch.get(0).length);
+                        }
+                        for (Object[] row : batch) {
+                            for (int i = 0; i < row.length; i++) {
+                                if (row[i] == null) {
+                                    statement.setNull(i + 1, parameterTypes[i]);
+                                } else {
+                                    statement.setObject(i + 1, row[i]);
+                                }
+                            }
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        connection.commit();
+                        count += batch.size();
+                    } catch (SQLException e) {
+                        failure.compareAndSet(null, e);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            } finally {
+                if (statement != null) {
+                    statement.close();
+                }
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        }
+
+        /**
+         * NULLをバインドする際のパラメータの型を取得する。
+         * <p/>
+         * ドライバが型を返さない場合は{@link Types#VARCHAR}とする。
+         *
+         * @param statement ステートメント
+         * @param count パラメータ数
+         * @return パラメータの型
+         */
+        private int[] getParameterTypes(PreparedStatement statement, int count) {
+            final int[] types = new int[count];
+            for (int i = 0; i < count; i++) {
+                try {
+                    types[i] = statement.getParameterMetaData().getParameterType(i + 1);
+                } catch (SQLException e) {
+                    types[i] = Types.VARCHAR;
+                }
+            }
+            return types;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package nablarch.codefirst.loader;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link JdbcLoader}によるロードの結果を保持するクラス。
+ */
+public class LoadResult {
+
+    /** ロードしたレコード数 */
+    private final long loaded;
+
+    /** 不正なデータにより除外したレコード数 */
+    private final long rejected;
+
+    /** 全てのフィールドが空のため破棄したレコード数 */
+    private final long discarded;
+
+    /** ロードに要した時間(ナノ秒) */
+    private final long elapsedNanos;
+
+    /** 除外したレコードのエラーメッセージ */
+    private final List<String> rejectedMessages;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param loaded ロードしたレコード数
+     * @param rejected 除外したレコード数
+     * @param discarded 破棄したレコード数
+     * @param elapsedNanos ロードに要した時間(ナノ秒)
+     * @param rejectedMessages 除外したレコードのエラーメッセージ
+     */
+    public LoadResult(long loaded, long rejected, long discarded, long elapsedNanos, List<String> rejectedMessages) {
+        this.loaded = loaded;
+        this.rejected = rejected;
+        this.discarded = discarded;
+        this.elapsedNanos = elapsedNanos;
+        this.rejectedMessages = Collections.unmodifiableList(rejectedMessages);
+    }
+
+    /**
+     * ロードしたレコード数を取得する。
+     *
+     * @return ロードしたレコード数
+     */
+    public long getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 不正なデータにより除外したレコード数を取得する。
+     *
+     * @return 除外したレコード数
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * 全てのフィールドが空のため破棄したレコード数を取得する。
+     *
+     * @return 破棄したレコード数
+     */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * ロードに要した時間を取得する。
+     *
+     * @return ロードに要した時間(ミリ秒)
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000L;
+    }
+
+    /**
+     * 1秒あたりにロードしたレコード数を取得する。
+     *
+     * @return 1秒あたりのレコード数
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : loaded * 1000000000d / elapsedNanos;
+    }
+
+    /**
+     * 除外したレコードのエラーメッセージを取得する。
+     * <p/>
+     * 保持するメッセージの数には上限があるため、除外したレコード数と一致しない場合がある。
+     *
+     * @return エラーメッセージ
+     */
+    public List<String> getRejectedMessages() {
+        return rejectedMessages;
+    }
+
+    @Override
+    public String toString() {
+        return "loaded=" + loaded
+                + ", rejected=" + rejected
+                + ", discarded=" + discarded
+                + ", elapsed=" + getElapsedMillis() + "ms"
+                + ", rows/sec=" + String.format(Locale.ENGLISH, "%.1f", getRowsPerSecond());
+    }
+}
@@ -0,0 +1,83 @@
+package nablarch.codefirst.loader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * ファイルチャネルの指定された範囲を、メモリマップして読み込む入力ストリーム。
+ * <p/>
+ * 範囲を一定サイズのウィンドウごとにメモリマップするため、複数のスレッドで1つのチャネルを共有して
+ * それぞれ異なる範囲(チャンク)を読み込むことができる。
+ */
+class MappedRangeInputStream extends InputStream {
+
+    /** 1回にメモリマップするサイズ(バイト) */
+    private static final int WINDOW_SIZE = 16 * 1024 * 1024;
+
+    /** ファイルチャネル */
+    private final FileChannel channel;
+
+    /** 終了位置(この位置は含まない) */
+    private final long end;
+
+    /** 次にメモリマップする位置 */
+    private long position;
+
+    /** メモリマップしたウィンドウ */
+    private MappedByteBuffer window;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param channel ファイルチャネル
+     * @param start 開始位置
+     * @param end 終了位置(この位置は含まない)
+     */
+    MappedRangeInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        final int read = Math.min(len, window.remaining());
+        window.get(b, off, read);
+        return read;
+    }
+
+    /**
+     * 読み込み可能なデータが残っていない場合に、次のウィンドウをメモリマップする。
+     *
+     * @return 読み込み可能なデータがある場合は{@code true}
+     * @throws IOException メモリマップに失敗した場合
+     */
+    private boolean fill() throws IOException {
+        if (window != null && window.hasRemaining()) {
+            return true;
+        }
+        if (position >= end) {
+            return false;
+        }
+        final long size = Math.min(WINDOW_SIZE, end - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        position += size;
+        return true;
+    }
+}
@@ -0,0 +1,330 @@
+package nablarch.codefirst.loader;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * コントロールファイルの定義に従って、データファイルをレコード単位に読み込むクラス。
+ * <p/>
+ * 読み込んだレコードは、RECNUMを除くフィールドの値のリストとして返す。
+ * 空のフィールドは{@code null}とし、PRESERVE BLANKSが指定されていない場合はクォートされていない値の前後の空白を除去する。
+ */
+abstract class RecordReader implements Closeable {
+
+    /** 読み込みバッファのサイズ */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** コントロールファイル */
+    protected final ControlFile controlFile;
+
+    /** 読み込んだレコード数 */
+    private long recordNumber;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param controlFile コントロールファイル
+     */
+    protected RecordReader(ControlFile controlFile) {
+        this.controlFile = controlFile;
+    }
+
+    /**
+     * コントロールファイルの定義に応じた{@link RecordReader}を生成する。
+     *
+     * @param controlFile コントロールファイル
+     * @param in データファイルの入力ストリーム
+     * @return {@link RecordReader}
+     */
+    static RecordReader open(ControlFile controlFile, InputStream in) {
+        if (controlFile.isFixedLength()) {
+            return new FixedLengthRecordReader(controlFile, in);
+        }
+        return new DelimitedRecordReader(controlFile, in);
+    }
+
+    /**
+     * 次のレコードを読み込む。
+     * <p/>
+     * レコード末尾のフィールドが欠落している場合、返すリストの要素数はフィールド数より少なくなる。
+     *
+     * @return フィールドの値(データファイルの終端に達した場合は{@code null})
+     * @throws IOException 読み込みに失敗した場合
+     */
+    List<String> next() throws IOException {
+        final List<String> record = readRecord();
+        if (record != null) {
+            recordNumber++;
+        }
+        return record;
+    }
+
+    /**
+     * 最後に読み込んだレコードの番号(1始まり)を取得する。
+     *
+     * @return レコード番号
+     */
+    long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * レコードの全フィールドが{@code null}か否かを判定する。
+     * <p/>
+     * SQL*Loaderは全フィールドが空のレコードをロードせずに破棄するため、破棄するレコードの判定に使用する。
+     *
+     * @param record フィールドの値
+     * @return 全フィールドが{@code null}の場合は{@code true}
+     */
+    static boolean isAllNull(List<String> record) {
+        for (String value : record) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * レコードを読み込む。
+     *
+     * @return フィールドの値(データファイルの終端に達した場合は{@code null})
+     * @throws IOException 読み込みに失敗した場合
+     */
+    protected abstract List<String> readRecord() throws IOException;
+
+    /**
+     * フィールドの値を正規化する。
+     *
+     * @param value フィールドの値
+     * @param quoted クォートされていたか否か
+     * @return 正規化した値
+     */
+    protected String normalize(String value, boolean quoted) {
+        final String result = quoted || controlFile.isPreserveBlanks() ? value : value.trim();
+        return result.length() == 0 ? null : result;
+    }
+
+    /**
+     * 区切り文字でフィールドを区切ったデータファイルを読み込むクラス。
+     */
+    private static class DelimitedRecordReader extends RecordReader {
+
+        /** リーダ */
+        private final Reader reader;
+
+        /** フィールドの区切り文字 */
+        private final String fieldSeparator;
+
+        /** レコードの区切り文字 */
+        private final String lineSeparator;
+
+        /** クォート文字 */
+        private final String quote;
+
+        /** 読み込みバッファ */
+        private final char[] buffer = new char[BUFFER_SIZE];
+
+        /** バッファ内の読み込み位置 */
+        private int position;
+
+        /** バッファ内の有効な文字数 */
+        private int limit;
+
+        /** 終端に達したか否か */
+        private boolean eof;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param controlFile コントロールファイル
+         * @param in データファイルの入力ストリーム
+         */
+        DelimitedRecordReader(ControlFile controlFile, InputStream in) {
+            super(controlFile);
+            reader = new InputStreamReader(in, controlFile.getCharset());
+            fieldSeparator = controlFile.getFieldSeparator();
+            lineSeparator = controlFile.getLineSeparator();
+            quote = controlFile.getQuote() == null || controlFile.getQuote().length() == 0 ? null : controlFile.getQuote();
+        }
+
+        @Override
+        protected List<String> readRecord() throws IOException {
+            if (!ensure(1)) {
+                return null;
+            }
+            final List<String> record = new ArrayList<String>();
+            final StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean fieldStart = true;
+            while (true) {
+                if (!ensure(1)) {
+                    record.add(normalize(field.toString(), quoted));
+                    return record;
+                }
+                if (fieldStart && quote != null && consume(quote)) {
+                    quoted = true;
+                    readQuoted(field);
+                    fieldStart = false;
+                    continue;
+                }
+                fieldStart = false;
+                if (consume(fieldSeparator)) {
+                    record.add(normalize(field.toString(), quoted));
+                    field.setLength(0);
+                    quoted = false;
+                    fieldStart = true;
+                } else if (consume(lineSeparator)) {
+                    record.add(normalize(field.toString(), quoted));
+                    return record;
+                } else {
+                    field.append(buffer[position++]);
+                }
+            }
+        }
+
+        /**
+         * クォートされたフィールドを、閉じクォートまで読み込む。
+         * 連続したクォートはクォート文字そのものとして扱う。
+         *
+         * @param field 読み込んだ値の格納先
+         * @throws IOException 読み込みに失敗した場合
+         */
+        private void readQuoted(StringBuilder field) throws IOException {
+            while (true) {
+                if (!ensure(1)) {
+                    throw new IllegalStateException(
+                            "unterminated quoted field. record number = [" + (getRecordNumber() + 1) + ']');
+                }
+                if (consume(quote)) {
+                    if (consume(quote)) {
+                        field.append(quote);
+                        continue;
+                    }
+                    return;
+                }
+                field.append(buffer[position++]);
+            }
+        }
+
+        /**
+         * 現在位置が指定した文字列と一致する場合、その文字列を読み進める。
+         *
+         * @param str 文字列
+         * @return 一致した場合は{@code true}
+         * @throws IOException 読み込みに失敗した場合
+         */
+        private boolean consume(String str) throws IOException {
+            if (!ensure(str.length())) {
+                return false;
+            }
+            for (int i = 0; i < str.length(); i++) {
+                if (buffer[position + i] != str.charAt(i)) {
+                    return false;
+                }
+            }
+            position += str.length();
+            return true;
+        }
+
+        /**
+         * バッファに指定した文字数が読み込まれていることを保証する。
+         *
+         * @param length 文字数
+         * @return 指定した文字数を読み込めなかった場合(終端に達した場合)は{@code false}
+         * @throws IOException 読み込みに失敗した場合
+         */
+        private boolean ensure(int length) throws IOException {
+            if (limit - position >= length) {
+                return true;
+            }
+            if (eof) {
+                return false;
+            }
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+            while (limit < length) {
+                final int read = reader.read(buffer, limit, buffer.length - limit);
+                if (read == -1) {
+                    eof = true;
+                    return false;
+                }
+                limit += read;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * 固定長のデータファイルを読み込むクラス。
+     */
+    private static class FixedLengthRecordReader extends RecordReader {
+
+        /** 入力ストリーム */
+        private final InputStream in;
+
+        /** レコード */
+        private final byte[] record;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param controlFile コントロールファイル
+         * @param in データファイルの入力ストリーム
+         */
+        FixedLengthRecordReader(ControlFile controlFile, InputStream in) {
+            super(controlFile);
+            this.in = new BufferedInputStream(in, BUFFER_SIZE);
+            record = new byte[controlFile.getRecordSize()];
+        }
+
+        @Override
+        protected List<String> readRecord() throws IOException {
+            int length = 0;
+            while (length < record.length) {
+                final int read = in.read(record, length, record.length - length);
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+            if (length == 0) {
+                return null;
+            }
+            final List<String> values = new ArrayList<String>();
+            for (ControlFileField field : controlFile.getFields()) {
+                if (field.isRecnum()) {
+                    continue;
+                }
+                if (field.getStart() == null || field.getEnd() == null) {
+                    throw new IllegalStateException(
+                            "POSITION is required for fixed length record. column = [" + field.getColumnName() + ']');
+                }
+                if (field.getEnd() > length) {
+                    break;
+                }
+                final int offset = field.getStart() - 1;
+                values.add(normalize(
+                        new String(record, offset, field.getEnd() - offset, controlFile.getCharset()), false));
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package nablarch.codefirst.loader;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * {@link DataFileValidator}による検証の結果を保持するクラス。
+ */
+public class ValidationResult {
+
+    /** 検証したレコード数(スキップしたレコード及び破棄したレコードを除く) */
+    private final long records;
+
+    /** 不正なデータを含むレコード数 */
+    private final long rejected;
+
+    /** 全てのフィールドが空のため破棄されるレコード数 */
+    private final long discarded;
+
+    /** 検証に要した時間(ナノ秒) */
+    private final long elapsedNanos;
+
+    /** 不正なデータを含むレコードのエラーメッセージ */
+    private final List<String> rejectedMessages;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param records 検証したレコード数
+     * @param rejected 不正なデータを含むレコード数
+     * @param discarded 破棄されるレコード数
+     * @param elapsedNanos 検証に要した時間(ナノ秒)
+     * @param rejectedMessages 不正なデータを含むレコードのエラーメッセージ
+     */
+    public ValidationResult(long records, long rejected, long discarded, long elapsedNanos, List<String> rejectedMessages) {
+        this.records = records;
+        this.rejected = rejected;
+        this.discarded = discarded;
+        this.elapsedNanos = elapsedNanos;
+        this.rejectedMessages = Collections.unmodifiableList(rejectedMessages);
+    }
+
+    /**
+     * 検証したレコード数を取得する。
+     *
+     * @return 検証したレコード数(不正なデータを含むレコードを含む)
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * 不正なデータを含むレコード数を取得する。
+     *
+     * @return 不正なデータを含むレコード数
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * 全てのフィールドが空のため破棄されるレコード数を取得する。
+     *
+     * @return 破棄されるレコード数
+     */
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * 不正なデータを含むレコードが無いか否かを取得する。
+     *
+     * @return 不正なデータを含むレコードが無い場合は{@code true}
+     */
+    public boolean isValid() {
+        return rejected == 0;
+    }
+
+    /**
+     * 検証に要した時間を取得する。
+     *
+     * @return 検証に要した時間(ミリ秒)
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000L;
+    }
+
+    /**
+     * 1秒あたりに検証したレコード数を取得する。
+     *
+     * @return 1秒あたりのレコード数
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : records * 1000000000d / elapsedNanos;
+    }
+
+    /**
+     * 不正なデータを含むレコードのエラーメッセージを取得する。
+     * <p/>
+     * エラーメッセージはレコード番号の順に並ぶ。
+     * 保持するメッセージの数には上限があるため、不正なデータを含むレコード数と一致しない場合がある。
+     *
+     * @return エラーメッセージ
+     */
+    public List<String> getRejectedMessages() {
+        return rejectedMessages;
+    }
+
+    @Override
+    public String toString() {
+        return "records=" + records
+                + ", rejected=" + rejected
+                + ", discarded=" + discarded
+                + ", elapsed=" + getElapsedMillis() + "ms"
+                + ", rows/sec=" + String.format(Locale.ENGLISH, "%.1f", getRowsPerSecond());
+    }
+}
@@ -0,0 +1,10 @@
+/**
+ * 生成したコントロールファイルを解釈し、組み込みデータベースへデータファイルをロードする簡易ローダを提供する。
+ * <p/>
+ * Oracleを用意できない環境で、コントロールファイルとデータファイルの整合性確認やロード性能の計測を行うためのもので、
+ * 本プラグインが生成する構文のみをサポートする。
+ * <p/>
+ * 本パッケージは独立したモジュールではなく、プラグインのアーティファクトに含まれる。
+ * 利用側の依存関係に加える場合は、本プラグインのアーティファクトを{@code test}スコープで指定する。
+ */
+package nablarch.codefirst.loader;
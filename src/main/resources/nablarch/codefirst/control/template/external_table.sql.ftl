@@ -0,0 +1,105 @@
+<#if control.tables?has_content>
+<#stop "multi table group is not supported by external table. group = [" + control.beanName + "]">
+</#if>
+<#list control.fields as field>
+<#if field.lobFile>
+<#stop "LOBFILE is not supported by external table. table = [" + control.tableName + "], column = [" + field.columnName + "]">
+</#if>
+</#list>
+<#assign options = control.loadOptions>
+<#assign externalTable = control.tableName + "_EXT">
+<#assign dataFields = []>
+<#list control.fields as field>
+<#if !(field.dataType?? && field.dataType == "RECNUM")>
+<#assign dataFields = dataFields + [field]>
+</#if>
+</#list>
+<#function columnType dataType>
+<#if dataType?starts_with("CHAR(")>
+<#return "VARCHAR2" + dataType[4..]>
+<#elseif dataType?ends_with(" EXTERNAL")>
+<#return "NUMBER">
+<#elseif dataType?starts_with("DATE ")>
+<#return "DATE">
+<#elseif dataType?starts_with("TIMESTAMP ")>
+<#return "TIMESTAMP(9)">
+</#if>
+<#return "VARCHAR2(4000)">
+</#function>
+<#function fieldType dataType>
+<#if dataType?starts_with("DATE ")>
+<#return "CHAR(40) DATE_FORMAT DATE MASK " + dataType[5..]>
+<#elseif dataType?starts_with("TIMESTAMP ")>
+<#return "CHAR(40) DATE_FORMAT TIMESTAMP MASK " + dataType[10..]>
+</#if>
+<#return dataType>
+</#function>
+<#function literal value>
+<#if value?contains("\\")>
+<#return "X'" + value?replace("\\r", "0D")?replace("\\n", "0A")?replace("\\t", "09") + "'">
+<#elseif value == "'">
+<#return "\"'\"">
+</#if>
+<#return "'" + value + "'">
+</#function>
+CREATE TABLE ${externalTable} (
+<#list dataFields as field>
+  ${field.columnName} ${columnType(field.dataType!)}<#if field_has_next>,</#if>
+</#list>
+)
+ORGANIZATION EXTERNAL (
+  TYPE ORACLE_LOADER
+  DEFAULT DIRECTORY ${options.directory!"ETL_DATA_DIR"}
+  ACCESS PARAMETERS (
+<#if control.fixedLength>
+    RECORDS FIXED ${control.recordSize?c}
+    CHARACTERSET ${control.charset}
+    FIELDS
+    (
+<#else>
+    RECORDS DELIMITED BY ${literal(control.lineSeparator)}
+    CHARACTERSET ${control.charset}
+<#if control.requiredHeader>
+    SKIP 1
+</#if>
+    FIELDS TERMINATED BY ${literal(control.fieldSeparator)}
+    OPTIONALLY ENCLOSED BY ${literal(control.quote)}
+    NOTRIM
+    MISSING FIELD VALUES ARE NULL
+    (
+</#if>
+<#list dataFields as field>
+      ${field.columnName}<#if field.position??> POSITION(${field.position})</#if><#if field.dataType??> ${fieldType(field.dataType)}</#if><#if field_has_next>,</#if>
+</#list>
+    )
+  )
+  LOCATION ('${control.beanName}.dat')
+)
+REJECT LIMIT UNLIMITED
+PARALLEL;
+
+ALTER SESSION ENABLE PARALLEL DML;
+
+<#if control.loadMethod == "TRUNCATE">
+TRUNCATE TABLE ${control.tableName};
+
+<#elseif control.loadMethod == "REPLACE">
+DELETE FROM ${control.tableName};
+
+</#if>
+INSERT /*+ APPEND PARALLEL */ INTO ${control.tableName}<#if control.partition??> PARTITION (${control.partition})</#if> (
+<#list control.fields as field>
+  ${field.columnName}<#if field_has_next>,</#if>
+</#list>
+)
+SELECT /*+ PARALLEL */
+<#list control.fields as field>
+<#if field.dataType?? && field.dataType == "RECNUM">
+  ROWNUM<#if control.requiredHeader> + 1</#if><#if field_has_next>,</#if>
+<#else>
+  ${field.columnName}<#if field_has_next>,</#if>
+</#if>
+</#list>
+FROM ${externalTable};
+
+COMMIT;
@@ -0,0 +1,74 @@
+<#-- @ftlvariable name="control" type="nablarch.codefirst.control.ControlDefinition" -->
+<#-- @ftlvariable name="controlFile" type="java.lang.String" -->
+<#assign baseName = controlFile?keep_before_last(".")>
+#!/bin/sh
+#
+# ${controlFile}のデータファイルを、名前付きパイプ経由で展開しながらSQL*Loaderでロードする。
+# 圧縮されたデータファイル(.gz、.zst)は展開後のファイルを作成せずに、展開とロードを並行に行う。
+#
+# 使用方法: ${baseName}.sh <データファイル> [sqlldrの引数(userid=...など)]
+# ログファイル(${baseName}.log)及び不良ファイル(${baseName}.bad)はカレントディレクトリに出力する。
+#
+CONTROL_NAME='${baseName}'
+<#noparse>
+if [ $# -lt 1 ]; then
+  echo "usage: $0 <data file> [sqlldr arguments...]" >&2
+  exit 2
+fi
+DATA_FILE=$1
+shift
+if [ ! -f "$DATA_FILE" ]; then
+  echo "data file not found. file = [$DATA_FILE]" >&2
+  exit 2
+fi
+
+case "$DATA_FILE" in
+  *.gz) DECOMPRESS='gzip -dc' ;;
+  *.zst) DECOMPRESS='zstd -dcq' ;;
+  *) DECOMPRESS='cat' ;;
+esac
+
+SCRIPT_DIR=$(cd "$(dirname "$0")" && pwd) || exit 1
+CONTROL_FILE="$SCRIPT_DIR/$CONTROL_NAME.ctl"
+if ! grep -q "^INFILE ''" "$CONTROL_FILE"; then
+  echo "INFILE '' is not found in control file. file = [$CONTROL_FILE]" >&2
+  exit 2
+fi
+
+# 展開のプロセスを終了する(パイプを開かずにsqlldrが終了した場合や中断された場合に、プロセスが残らないようにする)
+DECOMPRESS_PID=
+stop_decompress() {
+  if [ -n "$DECOMPRESS_PID" ]; then
+    kill $DECOMPRESS_PID 2>/dev/null
+    wait $DECOMPRESS_PID 2>/dev/null
+  fi
+}
+
+WORK_DIR=$(mktemp -d "${TMPDIR:-/tmp}/$CONTROL_NAME.XXXXXX") || exit 1
+trap 'rm -rf "$WORK_DIR"' EXIT
+trap 'stop_decompress; exit 1' HUP INT TERM
+PIPE="$WORK_DIR/$CONTROL_NAME.dat"
+mkfifo "$PIPE" || exit 1
+
+# レコード形式(str/fix)と文字コードはそのままに、データファイルのみ名前付きパイプに置き換える
+sed "s|^INFILE ''|INFILE '$PIPE'|" "$CONTROL_FILE" > "$WORK_DIR/$CONTROL_NAME.ctl" || exit 1
+
+$DECOMPRESS "$DATA_FILE" > "$PIPE" &
+DECOMPRESS_PID=$!
+
+sqlldr control="$WORK_DIR/$CONTROL_NAME.ctl" log="$CONTROL_NAME.log" bad="$CONTROL_NAME.bad" "$@"
+LOAD_STATUS=$?
+
+if [ $LOAD_STATUS -ne 0 ]; then
+  stop_decompress
+  exit $LOAD_STATUS
+fi
+
+wait $DECOMPRESS_PID
+DECOMPRESS_STATUS=$?
+if [ $DECOMPRESS_STATUS -ne 0 ]; then
+  echo "failed to decompress data file. file = [$DATA_FILE], status = [$DECOMPRESS_STATUS]" >&2
+  exit 1
+fi
+exit 0
+</#noparse>
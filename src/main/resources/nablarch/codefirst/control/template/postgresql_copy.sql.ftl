@@ -0,0 +1,69 @@
+<#if control.tables?has_content>
+<#stop "multi table group is not supported by PostgreSQL COPY. group = [" + control.beanName + "]">
+</#if>
+<#list control.fields as field>
+<#if field.lobFile>
+<#stop "LOBFILE is not supported by PostgreSQL COPY. table = [" + control.tableName + "], column = [" + field.columnName + "]">
+</#if>
+</#list>
+<#if control.fixedLength>
+<#stop "fixed-length file is not supported by PostgreSQL COPY. table = [" + control.tableName + "]">
+</#if>
+<#assign options = control.loadOptions>
+<#assign dataColumns = []>
+<#assign lineNumberColumn = "">
+<#list control.fields as field>
+<#if field.dataType?? && field.dataType == "RECNUM">
+<#assign lineNumberColumn = field.columnName>
+<#else>
+<#assign dataColumns = dataColumns + [field.columnName]>
+</#if>
+</#list>
+<#function encoding charset>
+<#if charset == "UTF-8">
+<#return "UTF8">
+<#elseif charset == "windows-31j" || charset == "Shift_JIS">
+<#return "SJIS">
+<#elseif charset == "EUC-JP">
+<#return "EUC_JP">
+</#if>
+<#return charset>
+</#function>
+<#function literal value>
+<#if value?contains("\\")>
+<#return "E'" + value + "'">
+<#elseif value == "'">
+<#return "''''">
+</#if>
+<#return "'" + value + "'">
+</#function>
+<#if lineNumberColumn?has_content>
+<#-- 一時テーブルはスキーマを指定できないため、テーブル名のみを使用する -->
+<#assign copyTable = control.tableName?split(".")?last + "_COPY">
+<#else>
+<#assign copyTable = control.tableName>
+</#if>
+<#assign copyOptions = "FORMAT csv, HEADER " + control.requiredHeader?c + ", DELIMITER " + literal(control.fieldSeparator)
+    + ", QUOTE " + literal(control.quote) + ", ENCODING '" + encoding(control.encoding) + "'">
+\set ON_ERROR_STOP on
+BEGIN;
+<#if control.loadMethod == "TRUNCATE">
+TRUNCATE TABLE ${control.tableName};
+<#elseif control.loadMethod == "REPLACE">
+DELETE FROM ${control.tableName};
+</#if>
+<#if lineNumberColumn?has_content>
+CREATE TEMPORARY TABLE ${copyTable} (LIKE ${control.tableName}) ON COMMIT DROP;
+CREATE TEMPORARY SEQUENCE ${copyTable}_RECNUM START WITH <#if control.requiredHeader>2<#else>1</#if> OWNED BY ${copyTable}.${lineNumberColumn};
+ALTER TABLE ${copyTable} ALTER COLUMN ${lineNumberColumn} SET DEFAULT nextval('${copyTable}_RECNUM');
+</#if>
+<#if options.directory?? && options.directory?has_content>
+COPY ${copyTable} (${dataColumns?join(", ")}) FROM '${options.directory}/${control.beanName}.csv' WITH (${copyOptions});
+<#else>
+\copy ${copyTable} (${dataColumns?join(", ")}) FROM '${control.beanName}.csv' WITH (${copyOptions})
+</#if>
+<#if lineNumberColumn?has_content>
+INSERT INTO ${control.tableName} (${lineNumberColumn}, ${dataColumns?join(", ")})
+SELECT ${lineNumberColumn}, ${dataColumns?join(", ")} FROM ${copyTable};
+</#if>
+COMMIT;
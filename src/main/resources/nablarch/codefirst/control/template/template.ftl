@@ -1,21 +1,67 @@
+<#assign options = control.loadOptions>
 OPTIONS (
 <#if control.requiredHeader>
 SKIP = 1,
 </#if>
-DIRECT = TRUE
+<#if options.rows??>
+ROWS = ${options.rows?c},
+</#if>
+<#if options.bindSize??>
+BINDSIZE = ${options.bindSize?c},
+</#if>
+<#if options.readSize??>
+READSIZE = ${options.readSize?c},
+</#if>
+<#if options.columnArrayRows??>
+COLUMNARRAYROWS = ${options.columnArrayRows?c},
+</#if>
+<#if options.streamSize??>
+STREAMSIZE = ${options.streamSize?c},
+</#if>
+<#if options.multithreading??>
+MULTITHREADING = ${options.multithreading?string("TRUE", "FALSE")},
+</#if>
+<#if options.skipIndexMaintenance??>
+SKIP_INDEX_MAINTENANCE = ${options.skipIndexMaintenance?string("TRUE", "FALSE")},
+</#if>
+<#if options.parallel??>
+PARALLEL = ${options.parallel?string("TRUE", "FALSE")},
+</#if>
+DIRECT = ${options.directPath?string("TRUE", "FALSE")}
 )
+<#if options.unrecoverable?? && options.unrecoverable>
+UNRECOVERABLE
+</#if>
+<#if control.tables?has_content>
+<#assign tables = control.tables>
+<#else>
+<#assign tables = [control]>
+</#if>
 LOAD DATA
 CHARACTERSET ${control.charset}
+<#if control.fixedLength>
+INFILE '' "fix ${control.recordSize?c}"
+${control.loadMethod}
+<#else>
 INFILE '' "str '${control.lineSeparator}'"
-TRUNCATE
+${control.loadMethod}
 PRESERVE BLANKS
-INTO TABLE ${control.tableName}
+</#if>
+<#list tables as table>
+INTO TABLE ${table.tableName}<#if table.partition??> PARTITION (${table.partition})</#if>
+<#if table.condition??>
+WHEN ${table.condition}
+</#if>
+<#if !control.fixedLength>
 FIELDS
 TERMINATED BY '${control.fieldSeparator}'
 OPTIONALLY ENCLOSED BY '${control.quote}'
+</#if>
 TRAILING NULLCOLS
 (
-<#list control.columnNames as columnName>
-${columnName}<#if columnName_has_next>,</#if>
+<#list table.fields as field>
+${field.columnName}<#if field.filler> FILLER</#if><#if field.position??> POSITION(${field.position})</#if><#if field.dataType??> ${field.dataType}</#if><#if field_has_next>,</#if>
 </#list>
-)
\ No newline at end of file
+)<#if table_has_next>
+</#if>
+</#list>
\ No newline at end of file
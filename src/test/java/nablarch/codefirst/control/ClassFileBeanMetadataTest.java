@@ -0,0 +1,185 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.persistence.Entity;
+
+import nablarch.codefirst.control.app.sub.File3Bean;
+import nablarch.codefirst.control.app.sub.NotWorkItemBean;
+import nablarch.common.databind.csv.Csv;
+import nablarch.etl.WorkItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link ClassFileBeanMetadata}のテストクラス。
+ */
+public class ClassFileBeanMetadataTest {
+
+    /** {@link Uninitializable}のクラス初期化が行われたか否か */
+    static final AtomicBoolean INITIALIZED = new AtomicBoolean(false);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ClassLoader loader = getClass().getClassLoader();
+
+    /**
+     * クラスファイルから導出したメタデータが、リフレクションで取得したメタデータと一致すること。
+     */
+    @Test
+    public void testSameAsReflection() throws Exception {
+        assertSameAsReflection(ControlFileGeneratorTest.Person.class);
+        assertSameAsReflection(ControlFileGeneratorTest.PersonCustom.class);
+        assertSameAsReflection(File3Bean.class);
+        assertSameAsReflection(ControlFileGeneratorTest.PersonTyped.class);
+    }
+
+    /**
+     * クラスファイルから導出したロードオプションが、リフレクションで取得したロードオプションと一致すること。
+     */
+    @Test
+    public void testSqlLoaderOptions() throws Exception {
+        final Class<?> beanClass = ControlFileGeneratorTest.PersonLoadOptions.class;
+        final String typeName = SqlLoaderOptions.class.getName();
+        final LoadOptions expected = new LoadOptions().override(new ReflectionBeanMetadata(beanClass).getAnnotation(typeName));
+        final LoadOptions actual = new LoadOptions().override(
+                ClassFileBeanMetadata.create(beanClass.getName(), loader).getAnnotation(typeName));
+
+        assertThat(actual.toString(), is(expected.toString()));
+        assertThat(actual.getRows(), is(50000));
+        assertThat(actual.getSkipIndexMaintenance(), is(true));
+        assertThat(actual.getParallel(), is(nullValue()));
+    }
+
+    /**
+     * CSVのプロパティの指定順がアノテーションの値として取得できること。
+     */
+    @Test
+    public void testCsvAnnotation() throws Exception {
+        final ClassFileBeanMetadata sut = ClassFileBeanMetadata.create(File3Bean.class.getName(), loader);
+
+        final AnnotationValues csv = sut.getAnnotation(ClassFileBeanMetadata.CSV);
+        assertThat(csv.getString("type"), is("DEFAULT"));
+        assertThat(csv.getStringArray("properties").length, is(2));
+        assertThat(csv.getStringArray("properties")[0], is("name"));
+        assertThat(csv.getStringArray("properties")[1], is("code"));
+    }
+
+    /**
+     * WorkItemを継承していないBeanクラスの場合、WorkItemではないと判定されること。
+     */
+    @Test
+    public void testNotWorkItem() throws Exception {
+        final ClassFileBeanMetadata sut = ClassFileBeanMetadata.create(NotWorkItemBean.class.getName(), loader);
+
+        assertThat(sut, is(notNullValue()));
+        assertThat(sut.isWorkItem(), is(false));
+    }
+
+    /**
+     * クラスファイルからメタデータを導出できない場合、{@code null}が返されること。
+     */
+    @Test
+    public void testCannotCreate() throws Exception {
+        assertThat("クラスファイルが存在しない場合",
+                ClassFileBeanMetadata.create("nablarch.codefirst.control.NotFound", loader), is(nullValue()));
+        assertThat("@Csvが付与されていない場合",
+                ClassFileBeanMetadata.create(NoCsvBean.class.getName(), loader), is(nullValue()));
+    }
+
+    /**
+     * クラスファイルからメタデータを読み込む場合、Beanクラスの初期化が行われずにコントロールファイルが生成されること。
+     */
+    @Test
+    public void testExecuteWithoutInitialization() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        final ControlFileGenerationSession session = new ControlFileGenerator().createSession("template/template.ftl");
+
+        session.execute(Uninitializable.class.getName(), loader, dir);
+
+        assertThat("Beanクラスが初期化されていないこと", INITIALIZED.get(), is(false));
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(new File(dir, "Uninitializable.ctl")), "UTF-8"));
+        try {
+            final StringBuilder control = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                control.append(line).append('\n');
+            }
+            assertThat(control.toString(), containsString("INTO TABLE UNINITIALIZABLE"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void assertSameAsReflection(Class<?> beanClass) {
+        final BeanMetadata expected = new ReflectionBeanMetadata(beanClass);
+        final BeanMetadata actual = ClassFileBeanMetadata.create(beanClass.getName(), loader);
+
+        assertThat(actual, is(notNullValue()));
+        assertThat(actual.getClassName(), is(expected.getClassName()));
+        assertThat(actual.getSimpleName(), is(expected.getSimpleName()));
+        assertThat(actual.isWorkItem(), is(expected.isWorkItem()));
+        assertThat(actual.getTableNameWithSchema(), is(expected.getTableNameWithSchema()));
+
+        final CsvLayout expectedLayout = expected.getCsvLayout();
+        final CsvLayout actualLayout = actual.getCsvLayout();
+        assertThat(actualLayout.getCharset(), is(expectedLayout.getCharset()));
+        assertThat(actualLayout.getFieldSeparator(), is(expectedLayout.getFieldSeparator()));
+        assertThat(actualLayout.getLineSeparator(), is(expectedLayout.getLineSeparator()));
+        assertThat(actualLayout.getQuote(), is(expectedLayout.getQuote()));
+        assertThat(actualLayout.isRequiredHeader(), is(expectedLayout.isRequiredHeader()));
+
+        assertThat(toStrings(actual.getProperties()), is(toStrings(expected.getProperties())));
+    }
+
+    private static List<String> toStrings(List<PropertyMetadata> properties) {
+        final List<String> result = new ArrayList<String>();
+        for (PropertyMetadata property : properties) {
+            result.add(property.getName() + ':' + property.getColumnName() + ':' + property.getTypeName()
+                    + ':' + property.getJdbcTypeName() + ':' + property.isLineNumber()
+                    + ':' + SqlLoaderDataTypes.resolve(property, null, null));
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Entity
+    public static class NoCsvBean extends WorkItem {
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"name"}, headers = {"氏名"})
+    @Entity
+    public static class Uninitializable extends WorkItem {
+
+        static {
+            INITIALIZED.set(true);
+        }
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.text.StringContainsInOrder.stringContainsInOrder;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Expectations;
+import mockit.Injectable;
+
+/**
+ * {@link ControlFileAggregatorMojo}のテストクラス。
+ */
+public class ControlFileAggregatorMojoTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ControlFileAggregatorMojo sut = new ControlFileAggregatorMojo();
+
+    @Injectable
+    private MavenProject module1;
+
+    @Injectable
+    private MavenProject module2;
+
+    @Injectable
+    private MavenProject parent;
+
+    private File module2Output;
+
+    @Before
+    public void setUp() throws Exception {
+        sut.templateFilePath = "template/template.ftl";
+        sut.threads = 2;
+        sut.reactorProjects = Arrays.asList(parent, module1, module2);
+        module2Output = folder.newFolder("module2-output");
+
+        // module1: プラグインの設定にclassesを指定し、出力先はデフォルト
+        final Plugin plugin1 = createPlugin(createConfiguration("classes", "class",
+                "nablarch.codefirst.control.app.File1Bean"));
+        // module2: generate-ctrl-fileのexecutionにclassesと出力先を指定
+        final Xpp3Dom configuration2 = createConfiguration("classes", "class",
+                "nablarch.codefirst.control.app.File2Bean");
+        final Xpp3Dom outputPath = new Xpp3Dom("outputPath");
+        outputPath.setValue(module2Output.getAbsolutePath());
+        configuration2.addChild(outputPath);
+        final PluginExecution execution = new PluginExecution();
+        execution.setGoals(Collections.singletonList("generate-ctrl-file"));
+        execution.setConfiguration(configuration2);
+        final Plugin plugin2 = createPlugin(null);
+        plugin2.addExecution(execution);
+
+        final Build build1 = new Build();
+        build1.setDirectory(new File(folder.getRoot(), "module1/target").getAbsolutePath());
+        final Build build2 = new Build();
+        build2.setDirectory(new File(folder.getRoot(), "module2/target").getAbsolutePath());
+
+        new Expectations() {{
+            parent.getBuildPlugins();
+            result = Collections.emptyList();
+            minTimes = 0;
+            module1.getBuildPlugins();
+            result = Collections.singletonList(plugin1);
+            minTimes = 0;
+            module1.getBuild();
+            result = build1;
+            minTimes = 0;
+            module1.getArtifactId();
+            result = "module1";
+            minTimes = 0;
+            module2.getBuildPlugins();
+            result = Collections.singletonList(plugin2);
+            minTimes = 0;
+            module2.getBuild();
+            result = build2;
+            minTimes = 0;
+            module2.getArtifactId();
+            result = "module2";
+            minTimes = 0;
+        }};
+    }
+
+    /**
+     * 各モジュールの設定に従って、モジュールごとの出力先にコントロールファイルが生成されること。
+     * また、生成しないモジュールは対象外となること。
+     */
+    @Test
+    public void testExecute() throws Exception {
+        final List<ControlFileGeneratorMojo> modules = sut.createModules();
+        assertThat("プラグインを設定していないモジュールは対象外", modules.size(), is(2));
+        assertThat(modules.get(0).project, is(module1));
+        assertThat(modules.get(0).indexFile, is(new File(folder.getRoot(), "module1/target/etl/work-item.index")));
+
+        sut.execute();
+
+        final File module1Output = new File(folder.getRoot(), "module1/target/etl/ctrl-file");
+        assertThat(Arrays.asList(module1Output.list()), is(Collections.singletonList("File1Bean.ctl")));
+        assertThat(Arrays.asList(module2Output.list()), is(Collections.singletonList("File2Bean.ctl")));
+    }
+
+    /**
+     * 生成に失敗したBeanクラスがある場合、他のモジュールの生成は継続し、モジュールとともに失敗が報告されること。
+     */
+    @Test
+    public void testFailure() throws Exception {
+        final Xpp3Dom configuration = (Xpp3Dom) ((Plugin) module1.getBuildPlugins().get(0)).getConfiguration();
+        final Xpp3Dom invalid = new Xpp3Dom("class");
+        invalid.setValue("java.lang.String");
+        configuration.getChild("classes").addChild(invalid);
+
+        try {
+            sut.execute();
+            fail("WorkItemを継承していないBeanが指定されたため、例外が発生。");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), stringContainsInOrder(Arrays.asList(
+                    "失敗件数=[1]", "モジュール=[module1] Beanクラス=[java.lang.String]")));
+            assertThat(e.getMessage(), containsString("原因=["));
+        }
+        assertThat(new File(module2Output, "File2Bean.ctl").exists(), is(true));
+    }
+
+    /**
+     * モジュールの設定に{@code multiTableGroups}が指定されている場合、モジュールの出力先にグループのコントロールファイルが生成されること。
+     */
+    @Test
+    public void testMultiTableGroups() throws Exception {
+        final Xpp3Dom configuration = (Xpp3Dom) ((Plugin) module1.getBuildPlugins().get(0)).getConfiguration();
+        final Xpp3Dom group = new Xpp3Dom("multiTableGroup");
+        group.addChild(createValue("name", "Sales"));
+        group.addChild(createValue("discriminator", "1:1"));
+        final Xpp3Dom members = new Xpp3Dom("members");
+        members.addChild(createMember(ControlFileGenerationSessionTest.SalesHeader.class, "H"));
+        members.addChild(createMember(ControlFileGenerationSessionTest.SalesDetail.class, "D"));
+        group.addChild(members);
+        final Xpp3Dom groups = new Xpp3Dom("multiTableGroups");
+        groups.addChild(group);
+        configuration.addChild(groups);
+
+        sut.execute();
+
+        final File module1Output = new File(folder.getRoot(), "module1/target/etl/ctrl-file");
+        final String[] files = module1Output.list();
+        Arrays.sort(files);
+        assertThat(Arrays.asList(files), is(Arrays.asList("File1Bean.ctl", "Sales.ctl")));
+        assertThat(Arrays.asList(module2Output.list()), is(Collections.singletonList("File2Bean.ctl")));
+    }
+
+    private static Xpp3Dom createMember(Class<?> beanClass, String value) {
+        final Xpp3Dom member = new Xpp3Dom("multiTableMember");
+        member.addChild(createValue("className", beanClass.getName()));
+        member.addChild(createValue("value", value));
+        return member;
+    }
+
+    private static Xpp3Dom createValue(String name, String value) {
+        final Xpp3Dom child = new Xpp3Dom(name);
+        child.setValue(value);
+        return child;
+    }
+
+    private static Plugin createPlugin(Xpp3Dom configuration) {
+        final Plugin plugin = new Plugin();
+        plugin.setGroupId("com.nablarch.etl");
+        plugin.setArtifactId("nablarch-etl-maven-plugin");
+        plugin.setConfiguration(configuration);
+        return plugin;
+    }
+
+    private static Xpp3Dom createConfiguration(String listName, String itemName, String value) {
+        final Xpp3Dom configuration = new Xpp3Dom("configuration");
+        final Xpp3Dom list = new Xpp3Dom(listName);
+        final Xpp3Dom item = new Xpp3Dom(itemName);
+        item.setValue(value);
+        list.addChild(item);
+        configuration.addChild(list);
+        return configuration;
+    }
+}
@@ -0,0 +1,521 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import nablarch.common.databind.csv.Csv;
+import nablarch.etl.WorkItem;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link ControlFileGenerationSession}のテストクラス。
+ */
+public class ControlFileGenerationSessionTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * 1つのセッションで複数のBeanクラスのコントロールファイルが生成できること。
+     */
+    @Test
+    public void testExecuteMultipleBeans() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+
+        sut.execute(ControlFileGeneratorTest.Person.class, dir);
+        sut.execute(ControlFileGeneratorTest.PersonCustom.class, dir);
+
+        assertThat(new File(dir, "Person.ctl").exists(), is(true));
+        assertThat(new File(dir, "PersonCustom.ctl").exists(), is(true));
+    }
+
+    /**
+     * {@link java.io.Writer}にコントロールファイルの内容が出力できること。
+     */
+    @Test
+    public void testRender() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/mojo_test.ftl");
+
+        final StringWriter writer = new StringWriter();
+        sut.render(ControlFileGeneratorTest.PersonCustom.class, writer);
+
+        assertThat(writer.toString(), containsString("table=CUSTOM.PERSON_CUSTOM"));
+    }
+
+    /**
+     * 同一のBeanクラスに対しては、キャッシュされた{@link ControlDefinition}が返されること。
+     */
+    @Test
+    public void testControlDefinitionCached() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+
+        final ControlDefinition first = sut.getControlDefinition(ControlFileGeneratorTest.Person.class);
+        assertThat(first.getTableName(), is("PERSON"));
+        assertThat(sut.getControlDefinition(ControlFileGeneratorTest.Person.class), is(sameInstance(first)));
+    }
+
+    /**
+     * テンプレートファイルが存在しない場合、セッションの生成時に例外が送出されること。
+     */
+    @Test
+    public void testTemplateNotFound() throws Exception {
+        try {
+            new ControlFileGenerator().createSession("template/notfound.ftl");
+            fail("テンプレートファイルが存在しないため例外が発生。");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), is("failed to generate control file."));
+        }
+    }
+
+    /**
+     * 固定長ファイルのBeanクラスの場合、位置を指定したコントロールファイルが生成されること。
+     */
+    @Test
+    public void testExecuteFixedLength() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+
+        sut.execute(new FixedLengthBeanMetadata(), dir);
+
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(new File(dir, "FixedLengthBean.ctl")), "UTF-8"));
+        try {
+            assertThat(reader.readLine(), is("OPTIONS ("));
+            assertThat("固定長ファイルはヘッダを持たないこと", reader.readLine(), is("DIRECT = TRUE"));
+            assertThat(reader.readLine(), is(")"));
+            assertThat(reader.readLine(), is("LOAD DATA"));
+            assertThat(reader.readLine(), is("CHARACTERSET JA16SJISTILDE"));
+            assertThat("レコード長は行区切り文字を含むこと", reader.readLine(), is("INFILE '' \"fix 22\""));
+            assertThat(reader.readLine(), is("TRUNCATE"));
+            assertThat(reader.readLine(), is("INTO TABLE FIXED_LENGTH_BEAN"));
+            assertThat(reader.readLine(), is("TRAILING NULLCOLS"));
+            assertThat(reader.readLine(), is("("));
+            assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
+            assertThat(reader.readLine(), is("CODE POSITION(1:4) CHAR(4),"));
+            assertThat(reader.readLine(), is("AMOUNT POSITION(5:12) INTEGER EXTERNAL,"));
+            assertThat(reader.readLine(), is("NAME POSITION(13:20) CHAR(8)"));
+            assertThat(reader.readLine(), is(")"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 固定長ファイルのBeanクラスで外部表のテンプレートを指定した場合、位置を指定した外部表のDDLが生成されること。
+     */
+    @Test
+    public void testExecuteFixedLengthExternalTable() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession(
+                OutputFormat.ORACLE_EXTERNAL_TABLE.getTemplateFile());
+
+        sut.execute(new FixedLengthBeanMetadata(), dir);
+
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(new File(dir, "FixedLengthBean.sql")), "UTF-8"));
+        try {
+            assertThat(reader.readLine(), is("CREATE TABLE FIXED_LENGTH_BEAN_EXT ("));
+            assertThat(reader.readLine(), is("  CODE VARCHAR2(4),"));
+            assertThat(reader.readLine(), is("  AMOUNT NUMBER,"));
+            assertThat(reader.readLine(), is("  NAME VARCHAR2(8)"));
+            assertThat(reader.readLine(), is(")"));
+            assertThat(reader.readLine(), is("ORGANIZATION EXTERNAL ("));
+            assertThat(reader.readLine(), is("  TYPE ORACLE_LOADER"));
+            assertThat(reader.readLine(), is("  DEFAULT DIRECTORY ETL_DATA_DIR"));
+            assertThat(reader.readLine(), is("  ACCESS PARAMETERS ("));
+            assertThat("レコード長は行区切り文字を含むこと", reader.readLine(), is("    RECORDS FIXED 22"));
+            assertThat(reader.readLine(), is("    CHARACTERSET JA16SJISTILDE"));
+            assertThat(reader.readLine(), is("    FIELDS"));
+            assertThat(reader.readLine(), is("    ("));
+            assertThat(reader.readLine(), is("      CODE POSITION(1:4) CHAR(4),"));
+            assertThat(reader.readLine(), is("      AMOUNT POSITION(5:12) INTEGER EXTERNAL,"));
+            assertThat(reader.readLine(), is("      NAME POSITION(13:20) CHAR(8)"));
+            assertThat(reader.readLine(), is("    )"));
+            assertThat(reader.readLine(), is("  )"));
+            assertThat(reader.readLine(), is("  LOCATION ('FixedLengthBean.dat')"));
+            String line;
+            while ((line = reader.readLine()) != null && !line.startsWith("SELECT")) {
+                // 選択リストの開始まで読み飛ばす
+            }
+            assertThat("固定長ファイルはヘッダを持たないため行番号はROWNUMとなること", reader.readLine(), is("  ROWNUM,"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 固定長ファイルのBeanクラスでPostgreSQLのCOPYのテンプレートを指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testExecuteFixedLengthPostgresqlCopy() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession(
+                OutputFormat.POSTGRESQL_COPY.getTemplateFile());
+        try {
+            sut.execute(new FixedLengthBeanMetadata(), temporaryFolder.newFolder());
+            fail("COPYは固定長ファイルに対応しないため例外が発生。");
+        } catch (RuntimeException e) {
+            assertThat(e.getCause().getMessage(), containsString("fixed-length file is not supported by PostgreSQL COPY."));
+        }
+    }
+
+    /**
+     * ロードオプションでディレクトリを指定した場合、サーバ側のCOPYでデータファイルを読み込むこと。
+     */
+    @Test
+    public void testRenderPostgresqlCopyDirectory() throws Exception {
+        final LoadOptions loadOptions = new LoadOptions();
+        loadOptions.setDirectory("/var/lib/etl");
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession(
+                new ControlFileGenerationSettings(OutputFormat.POSTGRESQL_COPY.getTemplateFile()).setLoadOptions(loadOptions));
+
+        final StringWriter writer = new StringWriter();
+        sut.render(ControlFileGeneratorTest.Person.class, writer);
+
+        assertThat(writer.toString(), containsString("\nCOPY PERSON_COPY (PERSON_ID, AGE, NAME) FROM '/var/lib/etl/Person.csv'"
+                + " WITH (FORMAT csv, HEADER true, DELIMITER ',', QUOTE '\"', ENCODING 'UTF8');\n"));
+    }
+
+    /**
+     * 生成内容が空の場合も、存在しないファイルは空のファイルとして生成されること。
+     */
+    @Test
+    public void testExecute_emptyContent() throws Exception {
+        final File templateDirectory = temporaryFolder.newFolder();
+        new File(templateDirectory, "empty.ftl").createNewFile();
+        final File dir = temporaryFolder.newFolder();
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession(
+                new ControlFileGenerationSettings("empty.ftl").setTemplateDirectory(templateDirectory));
+
+        sut.execute(ControlFileGeneratorTest.Person.class, dir);
+
+        final File file = new File(dir, "Person.ctl");
+        assertThat(file.isFile(), is(true));
+        assertThat(file.length(), is(0L));
+    }
+
+    /**
+     * 生成するファイルの拡張子は、標準のテンプレートファイルの場合は出力形式の拡張子、
+     * それ以外のテンプレートファイルの場合は指定された拡張子(未指定の場合は{@code .ctl})となること。
+     */
+    @Test
+    public void testOutputExtension() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        new ControlFileGenerator().createSession(OutputFormat.POSTGRESQL_COPY.getTemplateFile())
+                .execute(ControlFileGeneratorTest.Person.class, dir);
+        new ControlFileGenerator().createSession("template/mojo_test.ftl")
+                .execute(ControlFileGeneratorTest.PersonCustom.class, dir);
+        new ControlFileGenerator().createSession(
+                new ControlFileGenerationSettings("template/mojo_test.ftl").setOutputExtension(".sql"))
+                .execute(ControlFileGeneratorTest.PersonLoadOptions.class, dir);
+
+        final String[] files = dir.list();
+        Arrays.sort(files);
+        assertThat(files, is(new String[] {"Person.sql", "PersonCustom.ctl", "PersonLoadOptions.sql"}));
+    }
+
+    /**
+     * 固定長ファイルで{@link SqlLoaderLobFile}が付与されたプロパティは、位置を指定した{@code FILLER}フィールドと
+     * {@code LOBFILE}のフィールドが出力されること。
+     */
+    @Test
+    public void testRenderFixedLengthLobFile() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+        final FixedLengthBeanMetadata metadata = new FixedLengthBeanMetadata();
+        metadata.properties.set(1, property("name", "NAME", "java.lang.String", field(13, 8),
+                new AnnotationValues(SqlLoaderLobFile.class.getName(), new HashMap<String, Object>())));
+
+        final String actual = new String(sut.generate(metadata).get("FixedLengthBean.ctl"), "UTF-8");
+        assertThat(actual, containsString("AMOUNT POSITION(5:12) INTEGER EXTERNAL,\n"
+                + "NAME_LOBFILE FILLER POSITION(13:20) CHAR(8),\n"
+                + "NAME LOBFILE(NAME_LOBFILE) TERMINATED BY EOF NULLIF NAME_LOBFILE = BLANKS\n"
+                + ")"));
+    }
+
+    /**
+     * 固定長ファイルのフィールドがレコードの範囲外の場合、例外が送出されること。
+     */
+    @Test
+    public void testExecuteFixedLengthOutOfRecord() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+        final FixedLengthBeanMetadata metadata = new FixedLengthBeanMetadata();
+        metadata.properties.add(property("remarks", "REMARKS", "java.lang.String", field(18, 5)));
+        try {
+            sut.execute(metadata, temporaryFolder.newFolder());
+            fail("フィールドがレコードの範囲外のため例外が発生。");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("property = [remarks], offset = [18], length = [5]"));
+        }
+    }
+
+    /**
+     * Beanクラスのグループから、Beanクラスごとの{@code INTO TABLE ... WHEN}句を持つ1つのコントロールファイルが生成されること。
+     */
+    @Test
+    public void testExecuteMultiTableGroup() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+        final File dir = temporaryFolder.newFolder();
+
+        sut.execute(group("Sales", "1:1", SalesHeader.class, "H", SalesDetail.class, "D"), getClass().getClassLoader(), dir);
+
+        assertThat(dir.list(), is(new String[] {"Sales.ctl"}));
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "Sales.ctl")), "UTF-8"));
+        try {
+            assertThat(reader.readLine(), is("OPTIONS ("));
+            assertThat(reader.readLine(), is("SKIP = 1,"));
+            assertThat(reader.readLine(), is("DIRECT = TRUE"));
+            assertThat(reader.readLine(), is(")"));
+            assertThat(reader.readLine(), is("LOAD DATA"));
+            assertThat(reader.readLine(), is("CHARACTERSET AL32UTF8"));
+            assertThat(reader.readLine(), is("INFILE '' \"str '\\r\\n'\""));
+            assertThat(reader.readLine(), is("TRUNCATE"));
+            assertThat(reader.readLine(), is("PRESERVE BLANKS"));
+            assertThat(reader.readLine(), is("INTO TABLE SALES_HEADER"));
+            assertThat(reader.readLine(), is("WHEN (1:1) = 'H'"));
+            assertThat(reader.readLine(), is("FIELDS"));
+            assertThat(reader.readLine(), is("TERMINATED BY ','"));
+            assertThat(reader.readLine(), is("OPTIONALLY ENCLOSED BY '\"'"));
+            assertThat(reader.readLine(), is("TRAILING NULLCOLS"));
+            assertThat(reader.readLine(), is("("));
+            assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
+            assertThat(reader.readLine(), is("RECORD_TYPE CHAR(765),"));
+            assertThat(reader.readLine(), is("SLIP_NUMBER CHAR(765)"));
+            assertThat(reader.readLine(), is(")"));
+            assertThat(reader.readLine(), is("INTO TABLE SALES_DETAIL"));
+            assertThat(reader.readLine(), is("WHEN (1:1) = 'D'"));
+            assertThat(reader.readLine(), is("FIELDS"));
+            assertThat(reader.readLine(), is("TERMINATED BY ','"));
+            assertThat(reader.readLine(), is("OPTIONALLY ENCLOSED BY '\"'"));
+            assertThat(reader.readLine(), is("TRAILING NULLCOLS"));
+            assertThat(reader.readLine(), is("("));
+            assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
+            assertThat("2番目以降のテーブルはレコードの先頭から読み込むこと", reader.readLine(), is("RECORD_TYPE POSITION(1) CHAR(765),"));
+            assertThat(reader.readLine(), is("SLIP_NUMBER CHAR(765),"));
+            assertThat(reader.readLine(), is("ITEM_CODE CHAR(765)"));
+            assertThat(reader.readLine(), is(")"));
+            assertThat(reader.readLine(), is(nullValue()));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * レコード種別の識別項目にカラム名を指定した場合、カラム名の条件となること。
+     * また、カラムを持たないBeanクラスが含まれる場合は例外が送出されること。
+     */
+    @Test
+    public void testMultiTableGroupColumnDiscriminator() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+
+        final ControlDefinition control = sut.getControlDefinition(
+                group("Sales", "RECORD_TYPE", SalesHeader.class, "H", SalesDetail.class, "D'"), getClass().getClassLoader());
+        assertThat(control.getBeanName(), is("Sales"));
+        assertThat(control.getTables().size(), is(2));
+        assertThat(control.getTables().get(0).getCondition(), is("RECORD_TYPE = 'H'"));
+        assertThat("シングルクォートはエスケープすること", control.getTables().get(1).getCondition(), is("RECORD_TYPE = 'D'''"));
+
+        try {
+            sut.getControlDefinition(group("Sales", "ITEM_CODE", SalesHeader.class, "H", SalesDetail.class, "D"),
+                    getClass().getClassLoader());
+            fail("識別項目のカラムを持たないBeanクラスが含まれるため例外が発生。");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("discriminator column is not found. group = [Sales], class = ["
+                    + SalesHeader.class.getName() + "], discriminator = [ITEM_CODE]"));
+        }
+    }
+
+    /**
+     * データファイルのフォーマットが異なるBeanクラスを含むグループの場合、例外が送出されること。
+     */
+    @Test
+    public void testMultiTableGroupDifferentFormat() throws Exception {
+        final ControlFileGenerationSession sut = new ControlFileGenerator().createSession("template/template.ftl");
+        try {
+            sut.execute(group("Sales", "1:1", SalesHeader.class, "H", SalesTsv.class, "T"),
+                    getClass().getClassLoader(), temporaryFolder.newFolder());
+            fail("データファイルのフォーマットが異なるため例外が発生。");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("data file format must be same in multi table group. group = [Sales], class = ["
+                    + SalesTsv.class.getName() + ']'));
+        }
+    }
+
+    private static MultiTableGroup group(String name, String discriminator, Object... classAndValues) {
+        final MultiTableGroup group = new MultiTableGroup();
+        group.setName(name);
+        group.setDiscriminator(discriminator);
+        for (int i = 0; i < classAndValues.length; i += 2) {
+            final MultiTableMember member = new MultiTableMember();
+            member.setClassName(((Class<?>) classAndValues[i]).getName());
+            member.setValue((String) classAndValues[i + 1]);
+            group.getMembers().add(member);
+        }
+        return group;
+    }
+
+    private static AnnotationValues field(int offset, int length) {
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("offset", offset);
+        values.put("length", length);
+        return new AnnotationValues(ClassFileBeanMetadata.FIELD, values);
+    }
+
+    private static PropertyMetadata property(String name, String columnName, String typeName, AnnotationValues... annotations) {
+        return new PropertyMetadata(name, columnName, typeName, typeName, false, Arrays.asList(annotations));
+    }
+
+    /**
+     * 固定長ファイルのBeanクラスのメタデータ。
+     */
+    private static class FixedLengthBeanMetadata implements BeanMetadata {
+
+        final List<PropertyMetadata> properties = new ArrayList<PropertyMetadata>(Arrays.asList(
+                new PropertyMetadata("lineNumber", "LINE_NUMBER", "java.lang.Long", "java.lang.Long", true,
+                        new ArrayList<AnnotationValues>()),
+                property("name", "NAME", "java.lang.String", field(13, 8)),
+                property("code", "CODE", "java.lang.String", field(1, 4)),
+                property("amount", "AMOUNT", "java.lang.Long", field(5, 8))));
+
+        @Override
+        public String getClassName() {
+            return "example.FixedLengthBean";
+        }
+
+        @Override
+        public String getSimpleName() {
+            return "FixedLengthBean";
+        }
+
+        @Override
+        public boolean isWorkItem() {
+            return true;
+        }
+
+        @Override
+        public String getTableNameWithSchema() {
+            return "FIXED_LENGTH_BEAN";
+        }
+
+        @Override
+        public CsvLayout getCsvLayout() {
+            return null;
+        }
+
+        @Override
+        public AnnotationValues getAnnotation(String typeName) {
+            if (!ClassFileBeanMetadata.FIXED_LENGTH.equals(typeName)) {
+                return null;
+            }
+            final Map<String, Object> values = new HashMap<String, Object>();
+            values.put("length", 20);
+            values.put("charset", "MS932");
+            values.put("lineSeparator", "\r\n");
+            values.put("multiLayout", false);
+            return new AnnotationValues(typeName, values);
+        }
+
+        @Override
+        public List<PropertyMetadata> getProperties() {
+            return properties;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"recordType", "slipNumber"}, headers = {"種別", "伝票番号"})
+    @Entity
+    @Table(name = "SALES_HEADER")
+    public static class SalesHeader extends WorkItem {
+
+        private String recordType;
+
+        private String slipNumber;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+
+        public String getSlipNumber() {
+            return slipNumber;
+        }
+
+        public void setSlipNumber(String slipNumber) {
+            this.slipNumber = slipNumber;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"recordType", "slipNumber", "itemCode"}, headers = {"種別", "伝票番号", "商品"})
+    @Entity
+    @Table(name = "SALES_DETAIL")
+    public static class SalesDetail extends WorkItem {
+
+        private String recordType;
+
+        private String slipNumber;
+
+        private String itemCode;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+
+        public String getSlipNumber() {
+            return slipNumber;
+        }
+
+        public void setSlipNumber(String slipNumber) {
+            this.slipNumber = slipNumber;
+        }
+
+        public String getItemCode() {
+            return itemCode;
+        }
+
+        public void setItemCode(String itemCode) {
+            this.itemCode = itemCode;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.TSV, properties = {"recordType"}, headers = {"種別"})
+    @Entity
+    @Table(name = "SALES_TSV")
+    public static class SalesTsv extends WorkItem {
+
+        private String recordType;
+
+        public String getRecordType() {
+            return recordType;
+        }
+
+        public void setRecordType(String recordType) {
+            this.recordType = recordType;
+        }
+    }
+}
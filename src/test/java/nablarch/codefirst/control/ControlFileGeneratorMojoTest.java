@@ -3,17 +3,22 @@ package nablarch.codefirst.control;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.text.StringContainsInOrder.stringContainsInOrder;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.hamcrest.CoreMatchers;
 
@@ -23,8 +28,13 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
+import mockit.Expectations;
 import mockit.Mocked;
 
+import nablarch.codefirst.control.app.File1Bean;
+import nablarch.codefirst.loader.ColumnProfile;
+import nablarch.codefirst.loader.DataProfile;
+
 /**
  * {@link ControlFileGeneratorMojo}のテストクラス。
  */
@@ -84,6 +94,27 @@ public class ControlFileGeneratorMojoTest {
         assertThat(result, stringContainsInOrder(expected));
     }
 
+    /**
+     * テンプレートファイルを指定せずに外部表の出力形式を指定した場合、外部表のDDLが拡張子{@code .sql}のファイルに生成されること。
+     */
+    @Test
+    public void testOutputFormatExternalTable() throws Exception {
+        sut.templateFilePath = null;
+        sut.outputFormat = OutputFormat.ORACLE_EXTERNAL_TABLE;
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+        }};
+
+        sut.execute();
+
+        final File[] files = folder.getRoot().listFiles();
+        assertThat("1ファイル出力されること", files.length, is(1));
+        assertThat("ファイル名はBeanクラス名.sql", files[0].getName(), is("File1Bean.sql"));
+        assertThat(readFile(files[0]), stringContainsInOrder(Arrays.asList(
+                "CREATE TABLE file_bean_EXT", "TYPE ORACLE_LOADER", "LOCATION ('File1Bean.dat')",
+                "INSERT /*+ APPEND PARALLEL */ INTO file_bean", "FROM file_bean_EXT;")));
+    }
+
     /**
      * 複数のBeanを指定した場合でも正しく生成できること。
      *
@@ -115,22 +146,342 @@ public class ControlFileGeneratorMojoTest {
     }
 
     /**
-     * 指定したクラスが存在しない場合、{@link IllegalArgumentException}が送出されること。
+     * 指定したクラスが存在しない場合、他のBeanクラスの生成は継続し、生成の失敗として{@link MojoFailureException}が送出されること。
      */
     @Test
     public void testClassNotFound() throws Exception {
         // -------------------------------------------------- setup expected exeption
-        expectedException.expect(IllegalArgumentException.class);
-        expectedException.expectMessage(
-                CoreMatchers.is("指定されたBeanクラスが存在しません。"
-                        + " Beanクラス=[nablarch.codefirst.control.app.File1BeanNotFound]"));
+        expectedException.expect(MojoFailureException.class);
+        expectedException.expectMessage(stringContainsInOrder(Arrays.asList("失敗件数=[1]",
+                "Beanクラス=[nablarch.codefirst.control.app.File1BeanNotFound] 原因=[指定されたBeanクラスが存在しません。")));
 
 
         // -------------------------------------------------- execute
         sut.classes = new ArrayList<String>() {{
             add("nablarch.codefirst.control.app.File1BeanNotFound");
+            add("nablarch.codefirst.control.app.File1Bean");
+        }};
+        try {
+            sut.execute();
+        } finally {
+            assertThat(new File(folder.getRoot(), "File1Bean.ctl").exists(), is(true));
+        }
+    }
+
+    /**
+     * インクリメンタル生成の場合、生成元に変更がないBeanクラスのコントロールファイルは生成がスキップされること。
+     */
+    @Test
+    public void testIncremental() throws Exception {
+        final File output = folder.newFolder("output");
+        sut.outputPath = output;
+        sut.incremental = true;
+        sut.fingerprintFile = new File(folder.getRoot(), "cache/ctrl-file.fingerprint");
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+            add("nablarch.codefirst.control.app.File2Bean");
+        }};
+
+        sut.execute();
+        assertThat("フィンガープリントが保存されること", sut.fingerprintFile.exists(), is(true));
+
+        final File file1 = new File(output, "File1Bean.ctl");
+        final File file2 = new File(output, "File2Bean.ctl");
+        assertThat(file1.setLastModified(1000L), is(true));
+        assertThat(file2.delete(), is(true));
+
+        sut.execute();
+        assertThat("変更がないため生成がスキップされること", file1.lastModified(), is(1000L));
+        assertThat("コントロールファイルが存在しない場合は生成されること", file2.exists(), is(true));
+
+        sut.templateFilePath = "template/mojo_test.ftl";
+        sut.execute();
+        assertThat("テンプレートが変わった場合は再生成されること", readFile(file1), containsString("table=file_bean"));
+    }
+
+    /**
+     * インクリメンタル生成でない場合でも、生成内容が同一のコントロールファイルは書き換えられないこと。
+     */
+    @Test
+    public void testNotRewriteSameContent() throws Exception {
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
         }};
+
         sut.execute();
+        final File file = new File(folder.getRoot(), "File1Bean.ctl");
+        assertThat(file.setLastModified(1000L), is(true));
+
+        sut.execute();
+        assertThat(file.lastModified(), is(1000L));
+    }
+
+    /**
+     * launcherScriptを指定した場合、コントロールファイルごとに実行可能な起動スクリプトが生成されること。
+     */
+    @Test
+    public void testLauncherScript() throws Exception {
+        sut.launcherScript = true;
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+            add("nablarch.codefirst.control.ControlFileGeneratorTest$PersonSessions");
+        }};
+
+        sut.execute();
+
+        final File script = new File(folder.getRoot(), "File1Bean.sh");
+        assertThat(script.canExecute(), is(true));
+        final String content = readFile(script);
+        assertThat("先頭行はシバンであること", content.startsWith("#!/bin/sh\n"), is(true));
+        assertThat(content, stringContainsInOrder(Arrays.asList(
+                "CONTROL_NAME='File1Bean'", "mkfifo \"$PIPE\"", "INFILE '$PIPE'", "sqlldr control=")));
+        assertThat("中断された場合も展開のプロセスを終了すること", content,
+                containsString("trap 'stop_decompress; exit 1' HUP INT TERM"));
+        assertThat("セッションごとのコントロールファイルにも生成されること",
+                readFile(new File(folder.getRoot(), "PersonSessions_3.sh")), containsString("CONTROL_NAME='PersonSessions_3'"));
+        assertThat(new File(folder.getRoot(), "PersonSessions.sh").exists(), is(false));
+    }
+
+    /**
+     * SQL*Loader以外の出力形式の場合、launcherScriptを指定しても起動スクリプトは生成されないこと。
+     */
+    @Test
+    public void testLauncherScriptNotSqlLoader() throws Exception {
+        sut.launcherScript = true;
+        sut.templateFilePath = null;
+        sut.outputFormat = OutputFormat.POSTGRESQL_COPY;
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+        }};
+
+        sut.execute();
+
+        assertThat(folder.getRoot().list(), is(new String[] {"File1Bean.sql"}));
+    }
+
+    /**
+     * 複数スレッドで並行に生成した場合でも、全てのBeanのファイルが生成できること。
+     */
+    @Test
+    public void testParallel() throws Exception {
+        sut.threads = 4;
+        sut.templateFilePath = "template/mojo_test.ftl";
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+            add("nablarch.codefirst.control.app.File2Bean");
+            add("nablarch.codefirst.control.ControlFileGeneratorTest$Person");
+            add("nablarch.codefirst.control.ControlFileGeneratorTest$PersonCustom");
+        }};
+
+        sut.execute();
+
+        assertThat(folder.getRoot().listFiles().length, is(4));
+        assertThat(readFile(new File(folder.getRoot(), "PersonCustom.ctl")), containsString("table=CUSTOM.PERSON_CUSTOM"));
+    }
+
+    /**
+     * メモリ予算を指定した場合、サイズの推奨値のレポートが出力されること。
+     */
+    @Test
+    public void testMemoryBudget() throws Exception {
+        sut.memoryBudget = 1048576;
+        sut.sizingReportFile = new File(folder.getRoot(), "report/load-sizing.csv");
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+        }};
+
+        sut.execute();
+
+        assertThat(readFile(new File(folder.getRoot(), "File1Bean.ctl")), containsString("COLUMNARRAYROWS = "));
+        assertThat(readFile(sut.sizingReportFile), containsString("nablarch.codefirst.control.app.File1Bean,file_bean,"));
+    }
+
+    /**
+     * プロファイルのディレクトリを指定した場合、CHAR(n)の長さが実データの最大長に余裕率を加えた長さとなること。
+     */
+    @Test
+    public void testProfileDirectory() throws Exception {
+        final File profileDirectory = folder.newFolder("profile");
+        final DataProfile profile = new DataProfile(File1Bean.class.getName());
+        profile.add("file1.csv", Collections.singletonList(
+                new ColumnProfile("NAME", "CHAR", 100, 0, 10, 500, 0, 0, 0, 0, 0)));
+        profile.write(DataProfile.getProfileFile(profileDirectory, File1Bean.class.getName()));
+        sut.profileDirectory = profileDirectory;
+        sut.profileMargin = 20;
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+            add("nablarch.codefirst.control.app.File2Bean");
+        }};
+
+        sut.execute();
+
+        assertThat(readFile(new File(folder.getRoot(), "File1Bean.ctl")), containsString("NAME CHAR(12)"));
+        assertThat("プロファイルが無いBeanクラスは変更されないこと",
+                readFile(new File(folder.getRoot(), "File2Bean.ctl")), not(containsString("CHAR(12)")));
+    }
+
+    /**
+     * 処理フェーズの計測を有効にした場合、Beanクラスごとのフェーズの計測結果がレポートに出力されること。
+     */
+    @Test
+    public void testTimingReport() throws Exception {
+        sut.timingReport = true;
+        sut.timingReportFile = new File(folder.getRoot(), "report/generation-timings.json");
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+        }};
+
+        sut.execute();
+
+        final String report = readFile(sut.timingReportFile);
+        assertThat(report, containsString("{\"target\": \"template/template.ftl\", \"phase\": \"CREATE_TEMPLATE\""));
+        assertThat(report, containsString("{\"target\": \"nablarch.codefirst.control.app.File1Bean\", \"phase\": \"CLASS_LOAD\""));
+        assertThat(report, containsString("\"phase\": \"CREATE_CONTROL_DEFINITION\""));
+        assertThat(report, containsString("\"phase\": \"TEMPLATE_PROCESS\""));
+        assertThat(report, containsString("\"phase\": \"WRITE\""));
+        assertThat(report, containsString("\"totals\""));
+    }
+
+    /**
+     * クラスファイルからメタデータを読み込む場合も、同じ内容のコントロールファイルが生成されること。
+     */
+    @Test
+    public void testClassFileMetadata() throws Exception {
+        sut.classFileMetadata = true;
+        sut.templateFilePath = "template/mojo_test.ftl";
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1Bean");
+            add("nablarch.codefirst.control.app.sub.File3Bean");
+            add("nablarch.codefirst.control.ControlFileGeneratorTest$PersonCustom");
+        }};
+
+        sut.execute();
+
+        assertThat(folder.getRoot().listFiles().length, is(3));
+        assertThat(readFile(new File(folder.getRoot(), "File1Bean.ctl")), containsString("table=file_bean"));
+        assertThat(readFile(new File(folder.getRoot(), "File3Bean.ctl")), containsString("table=file3_bean"));
+        assertThat(readFile(new File(folder.getRoot(), "PersonCustom.ctl")), containsString("table=CUSTOM.PERSON_CUSTOM"));
+    }
+
+    /**
+     * クラスファイルからメタデータを読み込む場合に、指定したクラスが存在しない場合、
+     * 生成の失敗として{@link MojoFailureException}が送出されること。
+     */
+    @Test
+    public void testClassFileMetadataClassNotFound() throws Exception {
+        expectedException.expect(MojoFailureException.class);
+        expectedException.expectMessage(stringContainsInOrder(Arrays.asList("失敗件数=[1]",
+                "Beanクラス=[nablarch.codefirst.control.app.File1BeanNotFound] 原因=[指定されたBeanクラスが存在しません。")));
+
+        sut.classFileMetadata = true;
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.app.File1BeanNotFound");
+        }};
+        sut.execute();
+    }
+
+    /**
+     * 生成に失敗したBeanが複数ある場合、全ての失敗が1つの{@link MojoFailureException}に集約されること。
+     * また、失敗したBean以外のファイルは生成されること。
+     */
+    @Test
+    public void testFailuresAggregated() throws Exception {
+        sut.threads = 2;
+        sut.classes = new ArrayList<String>() {{
+            add("nablarch.codefirst.control.ControlFileGeneratorTest$PersonNotExtendsWorkItem");
+            add("nablarch.codefirst.control.app.File1Bean");
+            add("java.lang.String");
+        }};
+
+        try {
+            sut.execute();
+            fail("WorkItemを継承していないBeanが指定されたため、例外が発生。");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), stringContainsInOrder(Arrays.asList(
+                    "失敗件数=[2]",
+                    "Beanクラス=[nablarch.codefirst.control.ControlFileGeneratorTest$PersonNotExtendsWorkItem]",
+                    "Beanクラス=[java.lang.String]")));
+            assertThat(e.getMessage(), not(containsString("File1Bean")));
+        }
+        assertThat(new File(folder.getRoot(), "File1Bean.ctl").exists(), is(true));
+    }
+
+    /**
+     * packagesを指定した場合、パッケージから検索したBeanのファイルが生成されること。
+     */
+    @Test
+    public void testPackages() throws Exception {
+        final String testClassesDir = new File(
+                File1Bean.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        new Expectations() {{
+            mockProject.getRuntimeClasspathElements();
+            result = Collections.singletonList(testClassesDir);
+        }};
+        final File output = folder.newFolder("output");
+        sut.outputPath = output;
+        sut.indexFile = new File(folder.getRoot(), "work-item.index");
+        sut.templateFilePath = "template/mojo_test.ftl";
+        sut.packages = Collections.singletonList("nablarch.codefirst.control.app");
+        sut.excludes = Collections.singletonList("**.File2Bean");
+
+        sut.execute();
+
+        final String[] files = output.list();
+        Arrays.sort(files);
+        assertThat(files, is(new String[] {"File1Bean.ctl", "File3Bean.ctl"}));
+        assertThat(readFile(new File(output, "File3Bean.ctl")), containsString("table=file3_bean"));
+        assertThat("インデックスファイルが保存されること", sut.indexFile.exists(), is(true));
+    }
+
+    /**
+     * classesもpackagesも指定されていない場合、{@link IllegalArgumentException}が送出されること。
+     */
+    @Test
+    public void testNoTarget() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("classes又はpackagesを指定してください。");
+
+        sut.execute();
+    }
+
+    /**
+     * multiTableGroupsのみを指定した場合、グループごとのコントロールファイルが生成されること。
+     * また、生成に失敗したグループは失敗件数に含まれること。
+     */
+    @Test
+    public void testMultiTableGroups() throws Exception {
+        final MultiTableGroup sales = new MultiTableGroup();
+        sales.setName("Sales");
+        sales.setDiscriminator("1:1");
+        sales.getMembers().add(member(ControlFileGenerationSessionTest.SalesHeader.class, "H"));
+        sales.getMembers().add(member(ControlFileGenerationSessionTest.SalesDetail.class, "D"));
+        final MultiTableGroup invalid = new MultiTableGroup();
+        invalid.setName("Invalid");
+        invalid.setDiscriminator("1:1");
+        invalid.getMembers().add(member(ControlFileGenerationSessionTest.SalesHeader.class, "H"));
+        invalid.getMembers().add(member(ControlFileGenerationSessionTest.SalesTsv.class, "T"));
+        sut.multiTableGroups = Arrays.asList(sales, invalid);
+
+        try {
+            sut.execute();
+            fail("データファイルのフォーマットが異なるグループが指定されたため、例外が発生。");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), stringContainsInOrder(Arrays.asList(
+                    "失敗件数=[1]", "グループ=[Invalid]", "data file format must be same")));
+        }
+        assertThat(folder.getRoot().list(), is(new String[] {"Sales.ctl"}));
+        final String content = readFile(new File(folder.getRoot(), "Sales.ctl"));
+        assertThat(content, stringContainsInOrder(Arrays.asList(
+                "INTO TABLE SALES_HEADER", "WHEN (1:1) = 'H'", "INTO TABLE SALES_DETAIL", "WHEN (1:1) = 'D'")));
+        assertThat(content, containsString(")\nINTO TABLE SALES_DETAIL"));
+        assertThat("最後のフィールド指定の後に改行を出力しないこと", content.endsWith(")"), is(true));
+    }
+
+    private static MultiTableMember member(Class<?> beanClass, String value) {
+        final MultiTableMember member = new MultiTableMember();
+        member.setClassName(beanClass.getName());
+        member.setValue(value);
+        return member;
     }
 
     private String readFile(File file) throws Exception {
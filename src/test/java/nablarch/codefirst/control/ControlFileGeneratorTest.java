@@ -1,5 +1,7 @@
 package nablarch.codefirst.control;
 
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -8,10 +10,15 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
 
 import nablarch.common.databind.csv.Csv;
 import nablarch.common.databind.csv.CsvDataBindConfig;
@@ -72,10 +79,421 @@ public class ControlFileGeneratorTest {
         assertThat(reader.readLine(), is("TRAILING NULLCOLS"));
         assertThat(reader.readLine(), is("("));
         assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
-        assertThat(reader.readLine(), is("PERSON_ID,"));
-        assertThat(reader.readLine(), is("AGE,"));
-        assertThat(reader.readLine(), is("NAME"));
+        assertThat(reader.readLine(), is("PERSON_ID INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("AGE INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("NAME CHAR(768)"));
+        assertThat(reader.readLine(), is(")"));
+    }
+
+    /**
+     * プロパティの型に応じたデータ型がフィールドに出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_dataTypes() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(PersonTyped.class, "template/template.ftl", dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonTyped.ctl")), "UTF-8"));
+        String line;
+        while ((line = reader.readLine()) != null && !line.equals("(")) {
+            // フィールド指定の開始まで読み飛ばす
+        }
+        assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
+        assertThat(reader.readLine(), is("CODE CHAR(30),"));
+        assertThat(reader.readLine(), is("REMARKS CHAR(765),"));
+        assertThat(reader.readLine(), is("COUNT INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("AMOUNT DECIMAL EXTERNAL,"));
+        assertThat(reader.readLine(), is("BIRTHDAY DATE \"YYYY-MM-DD\","));
+        assertThat(reader.readLine(), is("CLOSING_DATE DATE \"YYYYMMDD\","));
+        assertThat(reader.readLine(), is("UPDATED_AT TIMESTAMP \"YYYY-MM-DD HH24:MI:SS.FF\","));
+        assertThat(reader.readLine(), is("CREATED_AT TIMESTAMP \"YYYY/MM/DD HH24:MI:SS\","));
+        assertThat(reader.readLine(), is("DATA"));
+        assertThat(reader.readLine(), is(")"));
+    }
+
+    /**
+     * 外部表のテンプレートを指定した場合、外部表のDDLとインサート文が拡張子{@code .sql}のファイルに出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_externalTable() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(Person.class, OutputFormat.ORACLE_EXTERNAL_TABLE.getTemplateFile(), dir);
+
+        assertThat(new File(dir, "Person.ctl").exists(), is(false));
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "Person.sql")), "UTF-8"));
+        assertThat(reader.readLine(), is("CREATE TABLE PERSON_EXT ("));
+        assertThat(reader.readLine(), is("  PERSON_ID NUMBER,"));
+        assertThat(reader.readLine(), is("  AGE NUMBER,"));
+        assertThat(reader.readLine(), is("  NAME VARCHAR2(768)"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("ORGANIZATION EXTERNAL ("));
+        assertThat(reader.readLine(), is("  TYPE ORACLE_LOADER"));
+        assertThat(reader.readLine(), is("  DEFAULT DIRECTORY ETL_DATA_DIR"));
+        assertThat(reader.readLine(), is("  ACCESS PARAMETERS ("));
+        assertThat(reader.readLine(), is("    RECORDS DELIMITED BY X'0D0A'"));
+        assertThat(reader.readLine(), is("    CHARACTERSET AL32UTF8"));
+        assertThat(reader.readLine(), is("    SKIP 1"));
+        assertThat(reader.readLine(), is("    FIELDS TERMINATED BY ','"));
+        assertThat(reader.readLine(), is("    OPTIONALLY ENCLOSED BY '\"'"));
+        assertThat(reader.readLine(), is("    NOTRIM"));
+        assertThat(reader.readLine(), is("    MISSING FIELD VALUES ARE NULL"));
+        assertThat(reader.readLine(), is("    ("));
+        assertThat(reader.readLine(), is("      PERSON_ID INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("      AGE INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("      NAME CHAR(768)"));
+        assertThat(reader.readLine(), is("    )"));
+        assertThat(reader.readLine(), is("  )"));
+        assertThat(reader.readLine(), is("  LOCATION ('Person.dat')"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("REJECT LIMIT UNLIMITED"));
+        assertThat(reader.readLine(), is("PARALLEL;"));
+        assertThat(reader.readLine(), is(""));
+        assertThat(reader.readLine(), is("ALTER SESSION ENABLE PARALLEL DML;"));
+        assertThat(reader.readLine(), is(""));
+        assertThat(reader.readLine(), is("TRUNCATE TABLE PERSON;"));
+        assertThat(reader.readLine(), is(""));
+        assertThat(reader.readLine(), is("INSERT /*+ APPEND PARALLEL */ INTO PERSON ("));
+        assertThat(reader.readLine(), is("  LINE_NUMBER,"));
+        assertThat(reader.readLine(), is("  PERSON_ID,"));
+        assertThat(reader.readLine(), is("  AGE,"));
+        assertThat(reader.readLine(), is("  NAME"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("SELECT /*+ PARALLEL */"));
+        assertThat(reader.readLine(), is("  ROWNUM + 1,"));
+        assertThat(reader.readLine(), is("  PERSON_ID,"));
+        assertThat(reader.readLine(), is("  AGE,"));
+        assertThat(reader.readLine(), is("  NAME"));
+        assertThat(reader.readLine(), is("FROM PERSON_EXT;"));
+        assertThat(reader.readLine(), is(""));
+        assertThat(reader.readLine(), is("COMMIT;"));
+        assertThat(reader.readLine(), is(nullValue()));
+    }
+
+    /**
+     * 外部表のテンプレートを指定した場合、プロパティの型に応じた列の型とフィールドの型が出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_externalTable_dataTypes() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(PersonTyped.class, OutputFormat.ORACLE_EXTERNAL_TABLE.getTemplateFile(), dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonTyped.sql")), "UTF-8"));
+        assertThat(reader.readLine(), is("CREATE TABLE PERSON_TYPED_EXT ("));
+        assertThat(reader.readLine(), is("  CODE VARCHAR2(30),"));
+        assertThat(reader.readLine(), is("  REMARKS VARCHAR2(765),"));
+        assertThat(reader.readLine(), is("  COUNT NUMBER,"));
+        assertThat(reader.readLine(), is("  AMOUNT NUMBER,"));
+        assertThat(reader.readLine(), is("  BIRTHDAY DATE,"));
+        assertThat(reader.readLine(), is("  CLOSING_DATE DATE,"));
+        assertThat(reader.readLine(), is("  UPDATED_AT TIMESTAMP(9),"));
+        assertThat(reader.readLine(), is("  CREATED_AT TIMESTAMP(9),"));
+        assertThat(reader.readLine(), is("  DATA VARCHAR2(4000)"));
+        assertThat(reader.readLine(), is(")"));
+        String line;
+        while ((line = reader.readLine()) != null && !line.equals("    (")) {
+            // フィールド指定の開始まで読み飛ばす
+        }
+        assertThat(reader.readLine(), is("      CODE CHAR(30),"));
+        assertThat(reader.readLine(), is("      REMARKS CHAR(765),"));
+        assertThat(reader.readLine(), is("      COUNT INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("      AMOUNT DECIMAL EXTERNAL,"));
+        assertThat(reader.readLine(), is("      BIRTHDAY CHAR(40) DATE_FORMAT DATE MASK \"YYYY-MM-DD\","));
+        assertThat(reader.readLine(), is("      CLOSING_DATE CHAR(40) DATE_FORMAT DATE MASK \"YYYYMMDD\","));
+        assertThat(reader.readLine(), is("      UPDATED_AT CHAR(40) DATE_FORMAT TIMESTAMP MASK \"YYYY-MM-DD HH24:MI:SS.FF\","));
+        assertThat(reader.readLine(), is("      CREATED_AT CHAR(40) DATE_FORMAT TIMESTAMP MASK \"YYYY/MM/DD HH24:MI:SS\","));
+        assertThat(reader.readLine(), is("      DATA"));
+        assertThat(reader.readLine(), is("    )"));
+    }
+
+    /**
+     * PostgreSQLのCOPYのテンプレートを指定した場合、一時テーブルで行番号を採番するスクリプトが出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_postgresqlCopy() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(Person.class, OutputFormat.POSTGRESQL_COPY.getTemplateFile(), dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "Person.sql")), "UTF-8"));
+        assertThat(reader.readLine(), is("\\set ON_ERROR_STOP on"));
+        assertThat(reader.readLine(), is("BEGIN;"));
+        assertThat(reader.readLine(), is("TRUNCATE TABLE PERSON;"));
+        assertThat(reader.readLine(), is("CREATE TEMPORARY TABLE PERSON_COPY (LIKE PERSON) ON COMMIT DROP;"));
+        assertThat("ヘッダ行の分、行番号は2から採番すること", reader.readLine(),
+                is("CREATE TEMPORARY SEQUENCE PERSON_COPY_RECNUM START WITH 2 OWNED BY PERSON_COPY.LINE_NUMBER;"));
+        assertThat(reader.readLine(), is("ALTER TABLE PERSON_COPY ALTER COLUMN LINE_NUMBER SET DEFAULT nextval('PERSON_COPY_RECNUM');"));
+        assertThat(reader.readLine(), is("\\copy PERSON_COPY (PERSON_ID, AGE, NAME) FROM 'Person.csv'"
+                + " WITH (FORMAT csv, HEADER true, DELIMITER ',', QUOTE '\"', ENCODING 'UTF8')"));
+        assertThat(reader.readLine(), is("INSERT INTO PERSON (LINE_NUMBER, PERSON_ID, AGE, NAME)"));
+        assertThat(reader.readLine(), is("SELECT LINE_NUMBER, PERSON_ID, AGE, NAME FROM PERSON_COPY;"));
+        assertThat(reader.readLine(), is("COMMIT;"));
+        assertThat(reader.readLine(), is(nullValue()));
+    }
+
+    /**
+     * PostgreSQLのCOPYのテンプレートを指定した場合、{@link CsvFormat}の設定がCOPYのオプションに出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_postgresqlCopy_csvFormat() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(PersonCustom.class, OutputFormat.POSTGRESQL_COPY.getTemplateFile(), dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonCustom.sql")), "UTF-8"));
+        assertThat(reader.readLine(), is("\\set ON_ERROR_STOP on"));
+        assertThat(reader.readLine(), is("BEGIN;"));
+        assertThat(reader.readLine(), is("TRUNCATE TABLE CUSTOM.PERSON_CUSTOM;"));
+        assertThat("一時テーブルはスキーマを指定しないこと", reader.readLine(),
+                is("CREATE TEMPORARY TABLE PERSON_CUSTOM_COPY (LIKE CUSTOM.PERSON_CUSTOM) ON COMMIT DROP;"));
+        assertThat(reader.readLine(),
+                is("CREATE TEMPORARY SEQUENCE PERSON_CUSTOM_COPY_RECNUM START WITH 1 OWNED BY PERSON_CUSTOM_COPY.LINE_NUMBER;"));
+        reader.readLine();
+        assertThat(reader.readLine(), is("\\copy PERSON_CUSTOM_COPY (PERSON_ID, AGE, NAME) FROM 'PersonCustom.csv'"
+                + " WITH (FORMAT csv, HEADER false, DELIMITER E'\\t', QUOTE '''', ENCODING 'SJIS')"));
+        assertThat(reader.readLine(), is("INSERT INTO CUSTOM.PERSON_CUSTOM (LINE_NUMBER, PERSON_ID, AGE, NAME)"));
+    }
+
+    /**
+     * {@link SqlLoaderPartitions}でパーティションを指定した場合、パーティションごとのコントロールファイルとマニフェストファイルが生成されること。
+     * また、パーティションを指定する前に生成した単一のコントロールファイルは削除されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_partitions() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        assertThat(new File(dir, "PersonPartitioned.ctl").createNewFile(), is(true));
+        sut.execute(PersonPartitioned.class, "template/template.ftl", dir);
+
+        assertThat("単一のコントロールファイルは残らないこと", new File(dir, "PersonPartitioned.ctl").exists(), is(false));
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonPartitioned_1.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat(reader.readLine(), is("SKIP = 1,"));
+        assertThat(reader.readLine(), is("PARALLEL = TRUE,"));
+        assertThat(reader.readLine(), is("DIRECT = TRUE"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("LOAD DATA"));
+        assertThat(reader.readLine(), is("CHARACTERSET AL32UTF8"));
+        assertThat(reader.readLine(), is("INFILE '' \"str '\\r\\n'\""));
+        assertThat(reader.readLine(), is("APPEND"));
+        assertThat(reader.readLine(), is("PRESERVE BLANKS"));
+        assertThat(reader.readLine(), is("INTO TABLE PERSON_PARTITIONED PARTITION (P2023)"));
+        reader.close();
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonPartitioned_2.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat("2番目以降のセッションもヘッダを読み飛ばすこと", reader.readLine(), is("SKIP = 1,"));
+        assertThat(reader.readLine(), is("PARALLEL = TRUE,"));
+        assertThat(reader.readLine(), is("DIRECT = TRUE"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("LOAD DATA"));
+        assertThat(reader.readLine(), is("CHARACTERSET AL32UTF8"));
+        assertThat(reader.readLine(), is("INFILE '' \"str '\\r\\n'\""));
+        assertThat(reader.readLine(), is("APPEND"));
+        assertThat(reader.readLine(), is("PRESERVE BLANKS"));
+        assertThat(reader.readLine(), is("INTO TABLE PERSON_PARTITIONED PARTITION (P2024)"));
+        reader.close();
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonPartitioned.manifest")), "UTF-8"));
+        assertThat(reader.readLine(), is("table=PERSON_PARTITIONED"));
+        assertThat(reader.readLine(), is("sessions=2"));
+        assertThat(reader.readLine(), is("session.1.controlFile=PersonPartitioned_1.ctl"));
+        assertThat(reader.readLine(), is("session.1.partition=P2023"));
+        assertThat(reader.readLine(), is("session.2.controlFile=PersonPartitioned_2.ctl"));
+        assertThat(reader.readLine(), is("session.2.partition=P2024"));
+        assertThat(reader.readLine(), is(nullValue()));
+    }
+
+    /**
+     * {@link SqlLoaderPartitions}でセッション数を指定した場合、パーティションを指定しないコントロールファイルがセッション数分生成されること。
+     * また、{@link SqlLoaderPartitions#headerInEachFile()}が{@code false}の場合、1番目のセッションのみヘッダを読み飛ばすこと。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_sessions() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(PersonSessions.class, "template/template.ftl", dir);
+
+        assertThat(new File(dir, "PersonSessions_3.ctl").exists(), is(true));
+        assertThat(new File(dir, "PersonSessions_4.ctl").exists(), is(false));
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonSessions_1.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat("1番目のセッションはヘッダを読み飛ばすこと", reader.readLine(), is("SKIP = 1,"));
+        reader.close();
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonSessions_3.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat("headerInEachFile=falseの場合、2番目以降のセッションはヘッダを読み飛ばさないこと",
+                reader.readLine(), is("PARALLEL = TRUE,"));
+        String line;
+        while ((line = reader.readLine()) != null && !line.startsWith("INTO TABLE")) {
+            // INTO TABLE句まで読み飛ばす
+        }
+        assertThat(line, is("INTO TABLE PERSON_SESSIONS"));
+        reader.close();
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonSessions.manifest")), "UTF-8"));
+        assertThat(reader.readLine(), is("table=PERSON_SESSIONS"));
+        assertThat(reader.readLine(), is("sessions=3"));
+        assertThat(reader.readLine(), is("session.1.controlFile=PersonSessions_1.ctl"));
+        assertThat(reader.readLine(), is("session.2.controlFile=PersonSessions_2.ctl"));
+        assertThat(reader.readLine(), is("session.3.controlFile=PersonSessions_3.ctl"));
+        assertThat(reader.readLine(), is(nullValue()));
+    }
+
+    /**
+     * {@link SqlLoaderLobFile}が付与されたプロパティは、LOBファイルのパスの{@code FILLER}フィールドと
+     * {@code LOBFILE}のフィールドが出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_lobFile() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(PersonDocument.class, "template/template.ftl", dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonDocument.ctl")), "UTF-8"));
+        String line;
+        while ((line = reader.readLine()) != null && !line.equals("(")) {
+            // フィールド指定まで読み飛ばす
+        }
+        assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
+        assertThat(reader.readLine(), is("PERSON_ID INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("RESUME_LOBFILE FILLER CHAR(100),"));
+        assertThat(reader.readLine(), is("RESUME LOBFILE(RESUME_LOBFILE) TERMINATED BY EOF NULLIF RESUME_LOBFILE = BLANKS,"));
+        assertThat(reader.readLine(), is("PHOTO_LOBFILE FILLER CHAR(255),"));
+        assertThat(reader.readLine(), is("PHOTO LOBFILE(PHOTO_LOBFILE CHARACTERSET JA16SJISTILDE) TERMINATED BY EOF NULLIF PHOTO_LOBFILE = BLANKS"));
+        assertThat(reader.readLine(), is(")"));
+
+        final ControlDefinition control = new ControlFileGenerator().createSession("template/template.ftl")
+                .getControlDefinition(PersonDocument.class);
+        // PERSON_ID(20) + RESUME_LOBFILE(100) + PHOTO_LOBFILE(255) + 囲み文字(2 * 3) + 列区切り文字(2) + 行区切り文字(2)
+        assertThat("LOBの長さはレコード長に含まないこと", LoadSizingAdvisor.estimateRecordLength(control), is(385));
+    }
+
+    /**
+     * {@link SqlLoaderLobFile}が付与されたプロパティは外部表では生成できないこと。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_lobFile_externalTable() throws Exception {
+        try {
+            sut.execute(PersonDocument.class, "template/external_table.sql.ftl", temporaryFolder.newFolder());
+            fail("外部表ではLOBファイルをサポートしないため例外が発生。");
+        } catch (InvalidTemplateFormatException e) {
+            assertThat(e.getCause().getMessage(), containsString(
+                    "LOBFILE is not supported by external table. table = [PERSON_DOCUMENT], column = [RESUME]"));
+        }
+    }
+
+    /**
+     * {@link SqlLoaderOptions}で指定したロードオプションがコントロールファイルに出力されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_sqlLoaderOptions() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        sut.execute(PersonLoadOptions.class, "template/template.ftl", dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonLoadOptions.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat(reader.readLine(), is("SKIP = 1,"));
+        assertThat(reader.readLine(), is("ROWS = 50000,"));
+        assertThat(reader.readLine(), is("READSIZE = 20971520,"));
+        assertThat(reader.readLine(), is("MULTITHREADING = FALSE,"));
+        assertThat(reader.readLine(), is("SKIP_INDEX_MAINTENANCE = TRUE,"));
+        assertThat(reader.readLine(), is("DIRECT = TRUE"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("UNRECOVERABLE"));
+        assertThat(reader.readLine(), is("LOAD DATA"));
+    }
+
+    /**
+     * ロードオプションのデフォルト値が出力され、{@link SqlLoaderOptions}の指定値が優先されること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_defaultLoadOptions() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        LoadOptions defaults = new LoadOptions();
+        defaults.setParallel(true);
+        defaults.setRows(1000);
+        defaults.setBindSize(1048576);
+        defaults.setColumnArrayRows(5000);
+        defaults.setStreamSize(256000);
+        defaults.setMultithreading(true);
+        defaults.setUnrecoverable(true);
+        ControlFileGenerationSession session = sut.createSession(
+                new ControlFileGenerationSettings("template/template.ftl").setLoadOptions(defaults));
+        session.execute(Person.class, dir);
+        session.execute(PersonLoadOptions.class, dir);
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "Person.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat(reader.readLine(), is("SKIP = 1,"));
+        assertThat(reader.readLine(), is("ROWS = 1000,"));
+        assertThat(reader.readLine(), is("BINDSIZE = 1048576,"));
+        assertThat(reader.readLine(), is("COLUMNARRAYROWS = 5000,"));
+        assertThat(reader.readLine(), is("STREAMSIZE = 256000,"));
+        assertThat(reader.readLine(), is("MULTITHREADING = TRUE,"));
+        assertThat(reader.readLine(), is("PARALLEL = TRUE,"));
+        assertThat(reader.readLine(), is("DIRECT = TRUE"));
         assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("UNRECOVERABLE"));
+        assertThat(reader.readLine(), is("LOAD DATA"));
+        reader.close();
+
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(dir, "PersonLoadOptions.ctl")), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat(reader.readLine(), is("SKIP = 1,"));
+        assertThat(reader.readLine(), is("ROWS = 50000,"));
+        assertThat(reader.readLine(), is("BINDSIZE = 1048576,"));
+        assertThat(reader.readLine(), is("READSIZE = 20971520,"));
+        assertThat(reader.readLine(), is("COLUMNARRAYROWS = 5000,"));
+        assertThat(reader.readLine(), is("STREAMSIZE = 256000,"));
+        assertThat(reader.readLine(), is("MULTITHREADING = FALSE,"));
+        assertThat(reader.readLine(), is("SKIP_INDEX_MAINTENANCE = TRUE,"));
+        assertThat(reader.readLine(), is("PARALLEL = TRUE,"));
+        assertThat(reader.readLine(), is("DIRECT = TRUE"));
+        assertThat(reader.readLine(), is(")"));
+        assertThat(reader.readLine(), is("UNRECOVERABLE"));
+        assertThat(reader.readLine(), is("LOAD DATA"));
+    }
+
+    /**
+     * 生成内容が既存ファイルと同一の場合はファイルが書き換えられず、異なる場合は書き換えられること。
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testExecute_notRewriteSameContent() throws Exception {
+        File dir = temporaryFolder.newFolder();
+        File file = new File(dir, "Person.ctl");
+        sut.execute(Person.class, "template/template.ftl", dir);
+        assertThat(file.setLastModified(1000L), is(true));
+
+        sut.execute(Person.class, "template/template.ftl", dir);
+        assertThat("内容が同一のため書き換えられないこと", file.lastModified(), is(1000L));
+
+        sut.execute(Person.class, "template/template_custom.ftl", dir);
+        reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        assertThat(reader.readLine(), is("OPTIONS ("));
+        assertThat(reader.readLine(), is("SKIP = 1,"));
+        assertThat("内容が異なるため書き換えられること", reader.readLine(), is(")"));
     }
 
     /**
@@ -104,9 +522,9 @@ public class ControlFileGeneratorTest {
         assertThat(reader.readLine(), is("TRAILING NULLCOLS"));
         assertThat(reader.readLine(), is("("));
         assertThat(reader.readLine(), is("LINE_NUMBER RECNUM,"));
-        assertThat(reader.readLine(), is("PERSON_ID,"));
-        assertThat(reader.readLine(), is("AGE,"));
-        assertThat(reader.readLine(), is("NAME"));
+        assertThat(reader.readLine(), is("PERSON_ID INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("AGE INTEGER EXTERNAL,"));
+        assertThat(reader.readLine(), is("NAME CHAR(512)"));
         assertThat(reader.readLine(), is(")"));
     }
 
@@ -271,6 +689,197 @@ public class ControlFileGeneratorTest {
         }
     }
 
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"personId", "resume", "photo"}, headers = {"ID", "経歴書", "写真"})
+    @Entity
+    public static class PersonDocument extends WorkItem {
+        public Long personId;
+        public String resume;
+        public byte[] photo;
+
+        @Column(name = "PERSON_ID")
+        public Long getPersonId() {
+            return personId;
+        }
+
+        public void setPersonId(Long personId) {
+            this.personId = personId;
+        }
+
+        @Column(name = "RESUME", length = 1000000)
+        @SqlLoaderLobFile(fileNameLength = 100)
+        public String getResume() {
+            return resume;
+        }
+
+        public void setResume(String resume) {
+            this.resume = resume;
+        }
+
+        @Column(name = "PHOTO")
+        @SqlLoaderLobFile(charset = "Windows-31J")
+        public byte[] getPhoto() {
+            return photo;
+        }
+
+        public void setPhoto(byte[] photo) {
+            this.photo = photo;
+        }
+    }
+
+    @SqlLoaderOptions(
+            rows = 50000,
+            readSize = 20971520,
+            multithreading = SqlLoaderOptions.Flag.FALSE,
+            skipIndexMaintenance = SqlLoaderOptions.Flag.TRUE,
+            unrecoverable = SqlLoaderOptions.Flag.TRUE)
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"personId", "name"}, headers = {"ID", "氏名"})
+    @Entity
+    public static class PersonLoadOptions extends WorkItem {
+        public Long personId;
+        public String name;
+
+        @Column(name = "PERSON_ID", length = 9, nullable = false, unique = true)
+        public Long getPersonId() {
+            return personId;
+        }
+
+        public void setPersonId(Long personId) {
+            this.personId = personId;
+        }
+
+        @Column(name = "NAME", length = 256, nullable = true, unique = false)
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    @Csv(type = Csv.CsvType.DEFAULT,
+            properties = {"code", "remarks", "count", "amount", "birthday", "closingDate", "updatedAt", "createdAt", "data"},
+            headers = {"コード", "備考", "件数", "金額", "誕生日", "締め日", "更新日時", "作成日時", "データ"})
+    @Entity
+    public static class PersonTyped extends WorkItem {
+        public String code;
+        public String remarks;
+        public Integer count;
+        public BigDecimal amount;
+        public java.sql.Date birthday;
+        public Date closingDate;
+        public Timestamp updatedAt;
+        public Date createdAt;
+        public byte[] data;
+
+        @Column(name = "CODE", length = 10)
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public String getRemarks() {
+            return remarks;
+        }
+
+        public void setRemarks(String remarks) {
+            this.remarks = remarks;
+        }
+
+        public Integer getCount() {
+            return count;
+        }
+
+        public void setCount(Integer count) {
+            this.count = count;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public java.sql.Date getBirthday() {
+            return birthday;
+        }
+
+        public void setBirthday(java.sql.Date birthday) {
+            this.birthday = birthday;
+        }
+
+        @Temporal(TemporalType.DATE)
+        @SqlLoaderField(mask = "YYYYMMDD")
+        public Date getClosingDate() {
+            return closingDate;
+        }
+
+        public void setClosingDate(Date closingDate) {
+            this.closingDate = closingDate;
+        }
+
+        public Timestamp getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public void setUpdatedAt(Timestamp updatedAt) {
+            this.updatedAt = updatedAt;
+        }
+
+        @Temporal(TemporalType.TIMESTAMP)
+        @SqlLoaderField(mask = "YYYY/MM/DD HH24:MI:SS")
+        public Date getCreatedAt() {
+            return createdAt;
+        }
+
+        public void setCreatedAt(Date createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        public void setData(byte[] data) {
+            this.data = data;
+        }
+    }
+
+    @SqlLoaderPartitions(partitions = {"P2023", "P2024"})
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"personId"}, headers = {"ID"})
+    @Entity
+    public static class PersonPartitioned extends WorkItem {
+        public Long personId;
+
+        public Long getPersonId() {
+            return personId;
+        }
+
+        public void setPersonId(Long personId) {
+            this.personId = personId;
+        }
+    }
+
+    @SqlLoaderPartitions(sessions = 3, headerInEachFile = false)
+    @Csv(type = Csv.CsvType.DEFAULT, properties = {"personId"}, headers = {"ID"})
+    @Entity
+    public static class PersonSessions extends WorkItem {
+        public Long personId;
+
+        public Long getPersonId() {
+            return personId;
+        }
+
+        public void setPersonId(Long personId) {
+            this.personId = personId;
+        }
+    }
+
     @Csv(type = Csv.CsvType.DEFAULT, properties = {"personId", "age", "name"}, headers = {"ID", "年齢", "氏名"})
     @Entity
     public static class PersonNotExtendsWorkItem {
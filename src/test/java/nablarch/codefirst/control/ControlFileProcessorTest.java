@@ -0,0 +1,263 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import nablarch.core.util.FileUtil;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link ControlFileProcessor}のテストクラス。
+ */
+public class ControlFileProcessorTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /** 出力先を指定するオプション */
+    private static final String OUTPUT_PATH_OPTION = "-A" + ControlFileProcessor.OUTPUT_PATH + "=etl/ctrl-file";
+
+    /** 型ごとのデータ型を確認するBeanクラス */
+    private static final String TYPED_BEAN = "package app;\n"
+            + "import java.math.BigDecimal;\n"
+            + "import java.sql.Timestamp;\n"
+            + "import java.util.Date;\n"
+            + "import javax.persistence.*;\n"
+            + "import nablarch.common.databind.csv.Csv;\n"
+            + "import nablarch.codefirst.control.SqlLoaderField;\n"
+            + "import nablarch.codefirst.control.SqlLoaderOptions;\n"
+            + "@Csv(type = Csv.CsvType.TSV, properties = {\"code\", \"amount\", \"closingDate\", \"updatedAt\"}, headers = {\"a\", \"b\", \"c\", \"d\"})\n"
+            + "@Entity\n"
+            + "@Table(name = \"TYPED\", schema = \"ETL\")\n"
+            + "@SqlLoaderOptions(rows = 1000)\n"
+            + "public class TypedBean extends nablarch.etl.WorkItem {\n"
+            + "    private String code;\n"
+            + "    private BigDecimal amount;\n"
+            + "    private Date closingDate;\n"
+            + "    private Timestamp updatedAt;\n"
+            + "    @Column(name = \"CD\", length = 10)\n"
+            + "    public String getCode() { return code; }\n"
+            + "    public void setCode(String code) { this.code = code; }\n"
+            + "    public BigDecimal getAmount() { return amount; }\n"
+            + "    public void setAmount(BigDecimal amount) { this.amount = amount; }\n"
+            + "    @Temporal(TemporalType.DATE)\n"
+            + "    @SqlLoaderField(mask = \"YYYYMMDD\")\n"
+            + "    public Date getClosingDate() { return closingDate; }\n"
+            + "    public void setClosingDate(Date closingDate) { this.closingDate = closingDate; }\n"
+            + "    public Timestamp getUpdatedAt() { return updatedAt; }\n"
+            + "    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }\n"
+            + "    @Transient\n"
+            + "    public String getIgnored() { return null; }\n"
+            + "}\n";
+
+    /**
+     * コンパイル中の要素から生成したコントロールファイルが、コンパイル後のクラスからリフレクションで生成したものと一致すること。
+     */
+    @Test
+    public void testSameAsReflection() throws Exception {
+        final File output = temporaryFolder.newFolder();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(output, Arrays.asList(OUTPUT_PATH_OPTION), TYPED_BEAN);
+        assertThat(errors.toString(), errors.isEmpty(), is(true));
+
+        final URLClassLoader loader = new URLClassLoader(new URL[] {output.toURI().toURL()}, getClass().getClassLoader());
+        final StringWriter expected = new StringWriter();
+        new ControlFileGenerator().createSession("template/template.ftl").render(loader.loadClass("app.TypedBean"), expected);
+
+        final String actual = read(new File(output, "etl/ctrl-file/TypedBean.ctl"));
+        assertThat(actual, is(expected.toString()));
+        assertThat(actual, containsString("INTO TABLE ETL.TYPED"));
+        assertThat(actual, containsString("ROWS = 1000,"));
+        assertThat(actual, containsString("CLOSING_DATE DATE \"YYYYMMDD\""));
+    }
+
+    /**
+     * オプションで出力先と出力形式を指定できること。
+     */
+    @Test
+    public void testOptions() throws Exception {
+        final File output = temporaryFolder.newFolder();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(output, Arrays.asList(
+                "-A" + ControlFileProcessor.OUTPUT_PATH + "=sql",
+                "-A" + ControlFileProcessor.OUTPUT_FORMAT + "=ORACLE_EXTERNAL_TABLE"), TYPED_BEAN);
+        assertThat(errors.toString(), errors.isEmpty(), is(true));
+
+        assertThat(new File(output, "etl/ctrl-file/TypedBean.ctl").exists(), is(false));
+        assertThat(read(new File(output, "sql/TypedBean.sql")), containsString("CREATE TABLE ETL.TYPED_EXT ("));
+    }
+
+    /**
+     * 出力先のオプションを指定しない場合、コントロールファイルは生成されず、
+     * 生成できないBeanクラスもコンパイルエラーとならないこと。
+     */
+    @Test
+    public void testNotEnabled() throws Exception {
+        final File output = temporaryFolder.newFolder();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(output, Arrays.<String>asList(), TYPED_BEAN,
+                "package app;\n"
+                        + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.CUSTOM, properties = {}, headers = {})\n"
+                        + "@javax.persistence.Entity\n"
+                        + "public class CustomBean extends nablarch.etl.WorkItem {\n"
+                        + "}\n");
+        assertThat(errors.toString(), errors.isEmpty(), is(true));
+
+        assertThat(new File(output, "app/TypedBean.class").exists(), is(true));
+        assertThat(new File(output, "etl").exists(), is(false));
+    }
+
+    /**
+     * {@code WorkItem}を継承していないBeanクラス及び{@code @Entity}が付与されていないBeanクラスは対象外とすること。
+     */
+    @Test
+    public void testNotTarget() throws Exception {
+        final File output = temporaryFolder.newFolder();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(output, Arrays.asList(OUTPUT_PATH_OPTION),
+                "package app;\n"
+                        + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT, properties = {}, headers = {})\n"
+                        + "@javax.persistence.Entity\n"
+                        + "public class NotWorkItemBean {\n"
+                        + "}\n",
+                "package app;\n"
+                        + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT, properties = {}, headers = {})\n"
+                        + "public class NotEntityBean extends nablarch.etl.WorkItem {\n"
+                        + "}\n");
+        assertThat(errors.toString(), errors.isEmpty(), is(true));
+
+        assertThat(new File(output, "etl").exists(), is(false));
+    }
+
+    /**
+     * 抽象クラス、インタフェース及び非staticの内部クラスは対象外とし、staticのネストしたクラスは対象とすること。
+     */
+    @Test
+    public void testNotConcreteClass() throws Exception {
+        final File output = temporaryFolder.newFolder();
+        final String annotations =
+                "    @nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                        + " properties = {\"code\"}, headers = {\"code\"})\n"
+                        + "    @javax.persistence.Entity\n";
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(output, Arrays.asList(OUTPUT_PATH_OPTION),
+                "package app;\n"
+                        + "public class Holder {\n"
+                        + annotations
+                        + "    public abstract static class AbstractBean extends nablarch.etl.WorkItem {\n"
+                        + "        public String getCode() { return null; }\n"
+                        + "    }\n"
+                        + annotations
+                        + "    public interface InterfaceBean {\n"
+                        + "        String getCode();\n"
+                        + "    }\n"
+                        + annotations
+                        + "    public class InnerBean extends nablarch.etl.WorkItem {\n"
+                        + "        public String getCode() { return null; }\n"
+                        + "    }\n"
+                        + annotations
+                        + "    public static class NestedBean extends nablarch.etl.WorkItem {\n"
+                        + "        public String getCode() { return null; }\n"
+                        + "    }\n"
+                        + "}\n");
+        assertThat(errors.toString(), errors.isEmpty(), is(true));
+
+        assertThat(new File(output, "etl/ctrl-file").list(), is(new String[] {"NestedBean.ctl"}));
+    }
+
+    /**
+     * コントロールファイルを生成できないBeanクラスは、コンパイルエラーとなること。
+     */
+    @Test
+    public void testInvalidBean() throws Exception {
+        final File output = temporaryFolder.newFolder();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = compile(output, Arrays.asList(OUTPUT_PATH_OPTION),
+                "package app;\n"
+                        + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.CUSTOM, properties = {}, headers = {})\n"
+                        + "@javax.persistence.Entity\n"
+                        + "public class CustomBean extends nablarch.etl.WorkItem {\n"
+                        + "}\n");
+
+        assertThat(errors.size(), is(1));
+        assertThat(errors.get(0).getMessage(null), containsString(
+                "failed to generate control file. class = [app.CustomBean]"));
+        assertThat(errors.get(0).getMessage(null), containsString("CsvFormat annotation is required for CUSTOM type."));
+    }
+
+    /**
+     * アノテーションプロセッサを指定してソースをコンパイルする。
+     *
+     * @param output クラスファイルの出力先
+     * @param options コンパイラのオプション
+     * @param sources ソース
+     * @return エラー
+     */
+    private static List<Diagnostic<? extends JavaFileObject>> compile(File output, List<String> options, String... sources) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final List<JavaFileObject> units = new ArrayList<JavaFileObject>();
+        for (final String source : sources) {
+            final String name = source.substring(source.indexOf("class ") + 6, source.indexOf(' ', source.indexOf("class ") + 6));
+            units.add(new SimpleJavaFileObject(URI.create("string:///app/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            });
+        }
+        final List<String> arguments = new ArrayList<String>(options);
+        arguments.addAll(Arrays.asList(
+                "-d", output.getAbsolutePath(), "-classpath", System.getProperty("java.class.path"), "-encoding", "UTF-8"));
+
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        final JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, arguments, null, units);
+        task.setProcessors(Arrays.asList(new ControlFileProcessor()));
+        task.call();
+
+        final List<Diagnostic<? extends JavaFileObject>> errors = new ArrayList<Diagnostic<? extends JavaFileObject>>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic);
+            }
+        }
+        return errors;
+    }
+
+    private static String read(File file) throws Exception {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            FileUtil.closeQuietly(in);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import nablarch.codefirst.control.app.File1Bean;
+import nablarch.codefirst.control.app.File2Bean;
+
+/**
+ * {@link ControlFileRenderer}のテストクラス。
+ */
+public class ControlFileRendererTest {
+
+    private static final String TEMPLATE_FILE = "template/template.ftl";
+
+    /**
+     * ファイルに出力する場合と同じ内容が生成され、2回目以降はキャッシュした内容が返されること。
+     */
+    @Test
+    public void testRender() throws Exception {
+        final ControlFileRenderer sut = new ControlFileRenderer();
+
+        final StringWriter expected = new StringWriter();
+        new ControlFileGenerator().createSession(TEMPLATE_FILE).render(File1Bean.class, expected);
+
+        final String content = sut.render(File1Bean.class, TEMPLATE_FILE);
+        assertThat(content, is(expected.toString()));
+        assertThat("キャッシュした内容が返されること", sut.render(File1Bean.class, TEMPLATE_FILE), sameInstance(content));
+
+        final StringWriter writer = new StringWriter();
+        sut.render(File1Bean.class, TEMPLATE_FILE, writer);
+        assertThat(writer.toString(), is(content));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sut.render(File1Bean.class, TEMPLATE_FILE, out);
+        assertThat(out.toString("UTF-8"), is(content));
+        assertThat(sut.getCacheSize(), is(1));
+    }
+
+    /**
+     * 最大件数を超えた場合、最も長く使用されていない内容が破棄されること。
+     */
+    @Test
+    public void testEviction() throws Exception {
+        final ControlFileRenderer sut = new ControlFileRenderer(2);
+
+        final String file1 = sut.render(File1Bean.class, TEMPLATE_FILE);
+        final String file2 = sut.render(File2Bean.class, TEMPLATE_FILE);
+        sut.render(File1Bean.class, TEMPLATE_FILE);
+        final String copyFile1 = sut.render(File1Bean.class, "template/postgresql_copy.sql.ftl");
+
+        assertThat(sut.getCacheSize(), is(2));
+        assertThat("最近使用した内容は残ること", sut.render(File1Bean.class, TEMPLATE_FILE), sameInstance(file1));
+        assertThat(sut.render(File1Bean.class, "template/postgresql_copy.sql.ftl"), sameInstance(copyFile1));
+        final String regenerated = sut.render(File2Bean.class, TEMPLATE_FILE);
+        assertThat("破棄された内容は再生成されること", regenerated, not(sameInstance(file2)));
+        assertThat(regenerated, is(file2));
+    }
+
+    /**
+     * 複数のスレッドから同時に要求した場合も、生成は1回のみ行われること。
+     */
+    @Test
+    public void testConcurrentRender() throws Exception {
+        final ControlFileRenderer sut = new ControlFileRenderer();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> futures = new ArrayList<Future<String>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() {
+                        return sut.render(File2Bean.class, TEMPLATE_FILE);
+                    }
+                }));
+            }
+            final String first = futures.get(0).get();
+            for (Future<String> future : futures) {
+                assertThat(future.get(), sameInstance(first));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 生成に失敗した場合、失敗はキャッシュされないこと。
+     */
+    @Test
+    public void testFailure() throws Exception {
+        final ControlFileRenderer sut = new ControlFileRenderer();
+        try {
+            sut.render(String.class, TEMPLATE_FILE);
+            fail("WorkItemを継承していないクラスが指定されたため、例外が発生。");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("beanClass should extend"));
+        }
+        assertThat(sut.getCacheSize(), is(0));
+    }
+
+    /**
+     * {@link SqlLoaderPartitions}が付与されたBeanクラスを指定した場合、例外が発生すること。
+     */
+    @Test
+    public void testPartitions() throws Exception {
+        final ControlFileRenderer sut = new ControlFileRenderer();
+        try {
+            sut.render(ControlFileGeneratorTest.PersonSessions.class, TEMPLATE_FILE);
+            fail("SqlLoaderPartitionsが付与されたBeanクラスが指定されたため、例外が発生。");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), containsString("SqlLoaderPartitions is not supported in ControlFileRenderer."));
+            assertThat(e.getMessage(), containsString(ControlFileGeneratorTest.PersonSessions.class.getName()));
+        }
+    }
+
+    /**
+     * 最大件数に0以下を指定した場合、例外が発生すること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxEntries() throws Exception {
+        new ControlFileRenderer(0);
+    }
+}
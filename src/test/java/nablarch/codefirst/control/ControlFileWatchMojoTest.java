@@ -0,0 +1,161 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Scanner;
+import java.util.Set;
+
+import javax.tools.ToolProvider;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+/**
+ * {@link ControlFileWatchMojo}のテストクラス。
+ */
+public class ControlFileWatchMojoTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Mocked
+    private MavenProject mockProject;
+
+    private final ControlFileWatchMojo sut = new ControlFileWatchMojo();
+
+    private File classesDir;
+
+    private File templateDir;
+
+    @Before
+    public void setUp() throws Exception {
+        classesDir = folder.newFolder("classes");
+        templateDir = folder.newFolder("templates");
+        new Expectations() {{
+            mockProject.getRuntimeClasspathElements();
+            result = Collections.singletonList(classesDir.getAbsolutePath());
+        }};
+        sut.project = mockProject;
+        sut.outputPath = folder.newFolder("output");
+        sut.watchDirectory = classesDir;
+        sut.templateDirectory = templateDir;
+        sut.templateFilePath = "watch.ftl";
+        sut.classes = Collections.singletonList("app.WatchBean");
+    }
+
+    /**
+     * Beanクラスのクラスファイルが変更された場合、そのBeanクラスのコントロールファイルのみ再生成されること。
+     */
+    @Test
+    public void testClassChanged() throws Exception {
+        writeTemplate("table=${control.tableName}");
+        compileBean("WatchBean", "FIRST");
+        compileBean("OtherBean", "OTHER");
+        sut.startWatching();
+
+        assertThat("変更がない場合は再生成しないこと", sut.poll().isEmpty(), is(true));
+
+        compileBean("WatchBean", "SECOND");
+        compileBean("OtherBean", "OTHER2");
+        final Set<String> regenerated = sut.poll();
+
+        assertThat(regenerated, is(Collections.singleton("app.WatchBean")));
+        assertThat(read(new File(sut.outputPath, "WatchBean.ctl")), is("table=SECOND"));
+        assertThat("生成対象でないBeanクラスは生成しないこと", new File(sut.outputPath, "OtherBean.ctl").exists(), is(false));
+        assertThat(sut.poll().isEmpty(), is(true));
+    }
+
+    /**
+     * テンプレートファイルが変更された場合、テンプレートファイルを解析し直して再生成されること。
+     */
+    @Test
+    public void testTemplateChanged() throws Exception {
+        writeTemplate("table=${control.tableName}");
+        compileBean("WatchBean", "FIRST");
+        sut.startWatching();
+
+        writeTemplate("into ${control.tableName}");
+        assertThat(sut.poll(), is(Collections.singleton("app.WatchBean")));
+        assertThat(read(new File(sut.outputPath, "WatchBean.ctl")), is("into FIRST"));
+
+        writeTemplate("invalid ${control.notFound");
+        assertThat("テンプレートファイルが不正な場合は再生成しないこと", sut.poll().isEmpty(), is(true));
+        assertThat(read(new File(sut.outputPath, "WatchBean.ctl")), is("into FIRST"));
+    }
+
+    /**
+     * パッケージを指定した場合、追加されたBeanクラスのコントロールファイルが生成されること。
+     */
+    @Test
+    public void testClassAdded() throws Exception {
+        writeTemplate("table=${control.tableName}");
+        compileBean("WatchBean", "FIRST");
+        sut.classes = null;
+        sut.packages = Collections.singletonList("app");
+        sut.indexFile = new File(folder.getRoot(), "work-item.index");
+        sut.startWatching();
+
+        compileBean("AddedBean", "ADDED");
+
+        assertThat(sut.poll(), is(Collections.singleton("app.AddedBean")));
+        assertThat(read(new File(sut.outputPath, "AddedBean.ctl")), containsString("table=ADDED"));
+    }
+
+    private void writeTemplate(String content) throws Exception {
+        final File template = new File(templateDir, "watch.ftl");
+        final long lastModified = template.lastModified();
+        write(template, content);
+        // 更新日時の精度が低いファイルシステムでも変更を検出できるように、更新日時を進める
+        template.setLastModified(Math.max(System.currentTimeMillis(), lastModified + 2000));
+    }
+
+    private void compileBean(String name, String tableName) throws Exception {
+        final File source = new File(folder.getRoot(), "src/app/" + name + ".java");
+        source.getParentFile().mkdirs();
+        write(source, "package app;\n"
+                + "@nablarch.common.databind.csv.Csv(type = nablarch.common.databind.csv.Csv.CsvType.DEFAULT,"
+                + " properties = {\"name\"}, headers = {\"name\"})\n"
+                + "@javax.persistence.Entity\n"
+                + "@javax.persistence.Table(name = \"" + tableName + "\")\n"
+                + "public class " + name + " extends nablarch.etl.WorkItem {\n"
+                + "    public String getName() { return null; }\n"
+                + "}\n");
+        final File classFile = new File(classesDir, "app/" + name + ".class");
+        final long lastModified = classFile.lastModified();
+        final int result = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-d", classesDir.getAbsolutePath(), "-classpath", System.getProperty("java.class.path"),
+                source.getAbsolutePath());
+        assertThat(result, is(0));
+        classFile.setLastModified(Math.max(System.currentTimeMillis(), lastModified + 2000));
+    }
+
+    private static void write(File file, String content) throws Exception {
+        final OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String read(File file) throws Exception {
+        final Scanner scanner = new Scanner(file, "UTF-8");
+        try {
+            return scanner.useDelimiter("\\A").next();
+        } finally {
+            scanner.close();
+        }
+    }
+}
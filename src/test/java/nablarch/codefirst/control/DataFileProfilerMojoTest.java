@@ -0,0 +1,103 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import nablarch.codefirst.loader.DataProfile;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Mocked;
+
+/**
+ * {@link DataFileProfilerMojo}のテストクラス。
+ */
+public class DataFileProfilerMojoTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final DataFileProfilerMojo sut = new DataFileProfilerMojo();
+
+    @Mocked
+    private MavenProject mockProject;
+
+    /**
+     * 複数のデータファイルの集計結果を併合したプロファイルが出力されること。
+     */
+    @Test
+    public void testProfile() throws Exception {
+        sut.project = mockProject;
+        sut.beanClass = ControlFileGeneratorTest.Person.class.getName();
+        sut.dataFiles = Arrays.asList(
+                write("person_1.csv", "ID,年齢,氏名\r\n1,20,山田\r\n2,,田中\r\n"),
+                write("person_2.csv", "ID,年齢,氏名\r\n3,30,Smith\r\n"));
+        sut.profileDirectory = new File(folder.getRoot(), "profile");
+        sut.threads = 2;
+
+        sut.execute();
+
+        final DataProfile actual = DataProfile.read(DataProfile.getProfileFile(sut.profileDirectory, sut.beanClass));
+        assertThat(actual.getDataFiles().size(), is(2));
+        assertThat(actual.getColumn("PERSON_ID").getCount(), is(3L));
+        assertThat(actual.getColumn("AGE").getNulls(), is(1L));
+        assertThat(actual.getColumn("NAME").getMaxLength(), is(6L));
+    }
+
+    /**
+     * テンプレートの設定を指定した場合、{@code generate-ctrl-file}と同じテンプレートで生成したコントロールファイルで集計すること。
+     */
+    @Test
+    public void testTemplateDirectory() throws Exception {
+        // ヘッダ行を読み飛ばさないテンプレート
+        final String template = read(getClass().getResourceAsStream("/nablarch/codefirst/control/template/template.ftl"))
+                .replace("<#if control.requiredHeader>\nSKIP = 1,\n</#if>\n", "");
+        final File templateDirectory = folder.newFolder("templates");
+        write("templates/no-skip.ftl", template);
+        sut.project = mockProject;
+        sut.beanClass = ControlFileGeneratorTest.Person.class.getName();
+        sut.dataFiles = Arrays.asList(write("person.csv", "ID,年齢,氏名\r\n1,20,山田\r\n"));
+        sut.profileDirectory = new File(folder.getRoot(), "profile");
+        sut.templateDirectory = templateDirectory;
+        sut.templateFilePath = "no-skip.ftl";
+
+        sut.execute();
+
+        final DataProfile actual = DataProfile.read(DataProfile.getProfileFile(sut.profileDirectory, sut.beanClass));
+        assertThat("ヘッダ行もデータとして集計されること", actual.getColumn("PERSON_ID").getCount(), is(2L));
+    }
+
+    private static String read(InputStream in) throws Exception {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private File write(String name, String content) throws Exception {
+        final File file = new File(folder.getRoot(), name);
+        final FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(content.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+        return file;
+    }
+}
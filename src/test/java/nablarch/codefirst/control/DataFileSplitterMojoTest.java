@@ -0,0 +1,86 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+import org.apache.maven.project.MavenProject;
+import org.hamcrest.CoreMatchers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Mocked;
+
+/**
+ * {@link DataFileSplitterMojo}のテストクラス。
+ */
+public class DataFileSplitterMojoTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    private final DataFileSplitterMojo sut = new DataFileSplitterMojo();
+
+    @Mocked
+    private MavenProject mockProject;
+
+    @Before
+    public void setUp() throws Exception {
+        sut.project = mockProject;
+        sut.outputPath = folder.newFolder("out");
+        sut.dataFile = new File(folder.getRoot(), "person.csv");
+        final FileOutputStream stream = new FileOutputStream(sut.dataFile);
+        try {
+            stream.write("ID\r\n1\r\n2\r\n3\r\n4\r\n".getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * チャンク数を指定しない場合、{@link SqlLoaderPartitions}のセッション数に分割されること。
+     */
+    @Test
+    public void testSessionCount() throws Exception {
+        sut.beanClass = ControlFileGeneratorTest.PersonSessions.class.getName();
+
+        sut.execute();
+
+        assertThat(new File(sut.outputPath, "person_3.csv").exists(), is(true));
+        assertThat(new File(sut.outputPath, "person_4.csv").exists(), is(false));
+    }
+
+    /**
+     * チャンク数を指定した場合、指定した数に分割されること。
+     */
+    @Test
+    public void testChunks() throws Exception {
+        sut.beanClass = ControlFileGeneratorTest.Person.class.getName();
+        sut.chunks = 2;
+
+        sut.execute();
+
+        assertThat(new File(sut.outputPath, "person_2.csv").exists(), is(true));
+        assertThat(new File(sut.outputPath, "person_3.csv").exists(), is(false));
+    }
+
+    /**
+     * チャンク数もSqlLoaderPartitionsも指定されていない場合、例外が送出されること。
+     */
+    @Test
+    public void testNoChunks() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(CoreMatchers.containsString("chunksを指定するか"));
+
+        sut.beanClass = ControlFileGeneratorTest.Person.class.getName();
+        sut.execute();
+    }
+}
@@ -0,0 +1,152 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link DataFileSplitter}のテストクラス。
+ */
+public class DataFileSplitterTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * 囲み文字内の行区切り文字ではレコードが分割されず、連結すると元のファイルに戻ること。
+     */
+    @Test
+    public void testSplitQuotedLineSeparator() throws Exception {
+        final StringBuilder data = new StringBuilder("ID,NAME\r\n");
+        for (int i = 0; i < 100; i++) {
+            data.append(i).append(",\"line1\r\nline2 \"\"quoted\"\"\r\n").append(i).append("\"\r\n");
+        }
+        final File dataFile = write("person.csv", data.toString());
+
+        final DataFileSplitter sut = new DataFileSplitter(UTF8, '"', "\r\n", 4);
+        // セグメントをまたいだ囲み文字の偶奇の引き継ぎを検証するため、セグメントを小さくする
+        sut.setSegmentSize(37);
+        final List<File> chunks = sut.split(dataFile, 3, temporaryFolder.newFolder());
+
+        assertThat(chunks.size(), is(3));
+        assertThat(chunks.get(0).getName(), is("person_1.csv"));
+        assertThat(chunks.get(2).getName(), is("person_3.csv"));
+
+        final StringBuilder joined = new StringBuilder();
+        for (File chunk : chunks) {
+            final String content = read(chunk);
+            assertThat("チャンクはレコードの終端で終わること", content.endsWith("\"\r\n"), is(true));
+            assertThat("チャンクは囲み文字の数が偶数であること", count(content, '"') % 2, is(0));
+            joined.append(content);
+        }
+        assertThat(joined.toString(), is(data.toString()));
+        assertThat("ヘッダは1番目のチャンクにのみ含まれること", read(chunks.get(0)).startsWith("ID,NAME\r\n"), is(true));
+        assertThat(read(chunks.get(1)).startsWith("ID,NAME"), is(false));
+    }
+
+    /**
+     * レコード数がチャンク数より少ない場合、空のチャンクが出力されること。
+     */
+    @Test
+    public void testSplitFewRecords() throws Exception {
+        final File dataFile = write("small", "1,a\n2,b\n");
+
+        final List<File> chunks = new DataFileSplitter(UTF8, '"', "\n", 2).split(dataFile, 4, temporaryFolder.newFolder());
+
+        assertThat(chunks.size(), is(4));
+        assertThat(chunks.get(0).getName(), is("small_1"));
+        final StringBuilder joined = new StringBuilder();
+        int empty = 0;
+        for (File chunk : chunks) {
+            joined.append(read(chunk));
+            if (chunk.length() == 0) {
+                empty++;
+            }
+        }
+        assertThat(joined.toString(), is("1,a\n2,b\n"));
+        assertThat(empty, is(2));
+    }
+
+    /**
+     * 固定長ファイルの場合、レコード長の倍数の位置で分割されること。
+     */
+    @Test
+    public void testSplitFixedLength() throws Exception {
+        final File dataFile = write("fixed.dat", "AAAA\r\nBBBB\r\nCCCC\r\nDDDD\r\nEEEE\r\n");
+
+        final List<File> chunks = new DataFileSplitter(6, 2).split(dataFile, 2, temporaryFolder.newFolder());
+
+        assertThat(read(chunks.get(0)), is("AAAA\r\nBBBB\r\n"));
+        assertThat(read(chunks.get(1)), is("CCCC\r\nDDDD\r\nEEEE\r\n"));
+    }
+
+    /**
+     * Beanクラスのフォーマット定義から分割の設定が取得されること。
+     */
+    @Test
+    public void testForBean() throws Exception {
+        final File dataFile = write("custom.tsv", "1\t'a\nb'\n2\t'c'\n");
+
+        final List<File> chunks = DataFileSplitter.forBean(ControlFileGeneratorTest.PersonCustom.class, 1)
+                .split(dataFile, 2, temporaryFolder.newFolder());
+
+        assertThat(read(chunks.get(0)), is("1\t'a\nb'\n"));
+        assertThat(read(chunks.get(1)), is("2\t'c'\n"));
+    }
+
+    /**
+     * チャンク数が0以下の場合、例外が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidChunks() throws Exception {
+        new DataFileSplitter(UTF8, '"', "\n", 1).split(write("a.csv", "1\n"), 0, temporaryFolder.newFolder());
+    }
+
+    private File write(String name, String content) throws Exception {
+        final File file = new File(temporaryFolder.getRoot(), name);
+        final FileOutputStream stream = new FileOutputStream(file);
+        try {
+            stream.write(content.getBytes(UTF8));
+        } finally {
+            stream.close();
+        }
+        return file;
+    }
+
+    private static String read(File file) throws Exception {
+        final FileInputStream stream = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, length);
+            }
+            return output.toString("UTF-8");
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static int count(String content, char c) {
+        int count = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == c) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
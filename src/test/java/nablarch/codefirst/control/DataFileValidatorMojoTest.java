@@ -0,0 +1,145 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Mocked;
+
+/**
+ * {@link DataFileValidatorMojo}のテストクラス。
+ */
+public class DataFileValidatorMojoTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final DataFileValidatorMojo sut = new DataFileValidatorMojo();
+
+    @Mocked
+    private MavenProject mockProject;
+
+    @Before
+    public void setUp() throws Exception {
+        sut.project = mockProject;
+        sut.beanClass = ControlFileGeneratorTest.Person.class.getName();
+        sut.dataFile = new File(folder.getRoot(), "person.csv");
+        sut.threads = 2;
+        sut.failOnError = true;
+    }
+
+    /**
+     * 不正なレコードが無い場合、正常に終了すること。
+     */
+    @Test
+    public void testValid() throws Exception {
+        write("ID,年齢,氏名\r\n1,20,山田\r\n2,,田中\r\n");
+
+        sut.execute();
+    }
+
+    /**
+     * 不正なレコードがある場合、ビルドが失敗すること。
+     */
+    @Test
+    public void testRejected() throws Exception {
+        write("ID,年齢,氏名\r\n1,20,山田\r\n2,abc,田中\r\n");
+
+        try {
+            sut.execute();
+            fail();
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), containsString("件数=[1]"));
+        }
+    }
+
+    /**
+     * failOnErrorがfalseの場合、不正なレコードがあってもビルドが失敗しないこと。
+     */
+    @Test
+    public void testRejectedWithoutFailure() throws Exception {
+        write("ID,年齢,氏名\r\n1,20,山田\r\n2,abc,田中\r\n");
+        sut.failOnError = false;
+
+        sut.execute();
+    }
+
+    /**
+     * テンプレートの設定を指定した場合、{@code generate-ctrl-file}と同じテンプレートで生成したコントロールファイルで検証すること。
+     */
+    @Test
+    public void testTemplateDirectory() throws Exception {
+        write("ID,年齢,氏名\r\n1,20,山田\r\n");
+        // ヘッダ行を読み飛ばさないテンプレート
+        final String template = read(getClass().getResourceAsStream("/nablarch/codefirst/control/template/template.ftl"))
+                .replace("<#if control.requiredHeader>\nSKIP = 1,\n</#if>\n", "");
+        final File templateDirectory = folder.newFolder("templates");
+        final FileOutputStream stream = new FileOutputStream(new File(templateDirectory, "no-skip.ftl"));
+        try {
+            stream.write(template.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+        sut.templateDirectory = templateDirectory;
+        sut.templateFilePath = "no-skip.ftl";
+
+        try {
+            sut.execute();
+            fail("ヘッダ行がデータとして検証されるため、ビルドが失敗する。");
+        } catch (MojoFailureException e) {
+            assertThat(e.getMessage(), containsString("件数=[1]"));
+        }
+    }
+
+    /**
+     * {@link SqlLoaderLobFile}が付与されたBeanクラスは、検証できないことが報告されること。
+     */
+    @Test
+    public void testLobFile() throws Exception {
+        write("ID,経歴書,写真\r\n1,resume.txt,photo.jpg\r\n");
+        sut.beanClass = ControlFileGeneratorTest.PersonDocument.class.getName();
+
+        try {
+            sut.execute();
+            fail("LOBファイルからロードするBeanクラスは検証できないため、例外が発生。");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("SqlLoaderLobFileが付与されたプロパティを持つBeanクラス"));
+            assertThat(e.getMessage(), containsString("Beanクラス=[" + ControlFileGeneratorTest.PersonDocument.class.getName() + ']'));
+        }
+    }
+
+    private static String read(InputStream in) throws Exception {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toString("UTF-8");
+        } finally {
+            in.close();
+        }
+    }
+
+    private void write(String content) throws Exception {
+        final FileOutputStream stream = new FileOutputStream(sut.dataFile);
+        try {
+            stream.write(content.getBytes("UTF-8"));
+        } finally {
+            stream.close();
+        }
+    }
+}
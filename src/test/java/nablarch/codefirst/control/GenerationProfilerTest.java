@@ -0,0 +1,105 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.codefirst.control.GenerationProfiler.Phase;
+import nablarch.codefirst.control.GenerationProfiler.Record;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link GenerationProfiler}のテストクラス。
+ */
+public class GenerationProfilerTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final GenerationProfiler sut = new GenerationProfiler();
+
+    /**
+     * セッションにプロファイラを指定した場合、テンプレートの解析とBeanクラスごとのフェーズが計測されること。
+     */
+    @Test
+    public void testSession() throws Exception {
+        final ControlFileGenerationSession session = new ControlFileGenerator().createSession(
+                new ControlFileGenerationSettings("template/template.ftl").setProfiler(sut));
+        session.execute(ControlFileGeneratorTest.Person.class, temporaryFolder.getRoot());
+
+        final List<Record> records = sut.getRecords();
+        assertThat(records.size(), is(4));
+        assertThat(records.get(0).getTarget(), is("template/template.ftl"));
+        assertThat(records.get(0).getPhase(), is(Phase.CREATE_TEMPLATE));
+        final String beanName = ControlFileGeneratorTest.Person.class.getName();
+        assertThat(records.get(1).getTarget(), is(beanName));
+        assertThat(records.get(1).getPhase(), is(Phase.CREATE_CONTROL_DEFINITION));
+        assertThat(records.get(2).getPhase(), is(Phase.TEMPLATE_PROCESS));
+        assertThat(records.get(3).getPhase(), is(Phase.WRITE));
+        for (Record record : records) {
+            assertTrue(record.getElapsedNanos() >= 0);
+        }
+    }
+
+    /**
+     * プロファイラを指定しない場合、計測されないこと。
+     */
+    @Test
+    public void testDisabled() throws Exception {
+        GenerationProfiler.DISABLED.start("target", Phase.WRITE).end();
+        new ControlFileGenerator().createSession("template/template.ftl")
+                .execute(ControlFileGeneratorTest.Person.class, temporaryFolder.getRoot());
+
+        assertThat(GenerationProfiler.DISABLED.getRecords().isEmpty(), is(true));
+    }
+
+    /**
+     * 拡張子に応じて、CSV形式又はJSON形式のレポートが出力されること。
+     */
+    @Test
+    public void testWriteReport() throws Exception {
+        sut.start("a,\"b\"", Phase.CLASS_LOAD).end();
+        sut.start("c", Phase.CLASS_LOAD).end();
+
+        final File csv = new File(temporaryFolder.getRoot(), "report/timings.csv");
+        sut.writeReport(csv);
+        final List<String> lines = readLines(csv);
+        assertThat(lines.size(), is(3));
+        assertThat(lines.get(0), is("target,phase,elapsedMicros,allocatedBytes"));
+        assertThat(lines.get(1), containsString("\"a,\"\"b\"\"\",CLASS_LOAD,"));
+        assertThat(lines.get(2), containsString("c,CLASS_LOAD,"));
+
+        final File json = new File(temporaryFolder.getRoot(), "timings.json");
+        sut.writeReport(json);
+        final String content = readLines(json).toString();
+        assertThat(content, containsString("{\"target\": \"a,\\\"b\\\"\", \"phase\": \"CLASS_LOAD\""));
+        assertThat(content, containsString("{\"phase\": \"CLASS_LOAD\", \"count\": 2,"));
+        assertThat(content, not(containsString("WRITE")));
+    }
+
+    private static List<String> readLines(File file) throws Exception {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            final List<String> lines = new ArrayList<String>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+            return lines;
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link LoadSizingAdvisor}のテストクラス。
+ */
+public class LoadSizingAdvisorTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * フィールド指定から1レコードの最大長及びバインド配列の1行あたりのサイズが推定されること。
+     */
+    @Test
+    public void testEstimate() throws Exception {
+        final ControlDefinition control = new ControlFileGenerator().createSession("template/template.ftl")
+                .getControlDefinition(ControlFileGeneratorTest.Person.class);
+
+        // PERSON_ID(20) + AGE(20) + NAME(256 * 3) + 囲み文字(2 * 3) + 列区切り文字(2) + 行区切り文字(2)
+        assertThat(LoadSizingAdvisor.estimateRecordLength(control), is(818));
+        // LINE_NUMBER(20) + PERSON_ID(20) + AGE(20) + NAME(256 * 3) + オーバーヘッド(4 * 4)
+        assertThat(LoadSizingAdvisor.estimateBindRowSize(control), is(844));
+    }
+
+    /**
+     * 日時及び位置を指定したフィールドの最大長が推定されること。
+     */
+    @Test
+    public void testEstimateFieldLength() throws Exception {
+        assertThat(LoadSizingAdvisor.estimateFieldLength(new FieldDefinition("A", "DATE \"YYYYMMDD\"")), is(17));
+        assertThat(LoadSizingAdvisor.estimateFieldLength(new FieldDefinition("A", "DECIMAL EXTERNAL")), is(40));
+        assertThat(LoadSizingAdvisor.estimateFieldLength(new FieldDefinition("A", null)), is(255));
+        assertThat(LoadSizingAdvisor.estimateFieldLength(new FieldDefinition("A", "INTEGER EXTERNAL", "5:12")), is(8));
+    }
+
+    /**
+     * ダイレクト・パス・ロードの場合、メモリ予算に収まる読み込みバッファ、列配列及びストリームバッファのサイズが
+     * コントロールファイルに出力され、データ保存の間隔となる{@code ROWS}及び使用されない{@code BINDSIZE}は出力されないこと。
+     */
+    @Test
+    public void testAdviseDirectPath() throws Exception {
+        final LoadSizingAdvisor sut = new LoadSizingAdvisor(1000000);
+        final ControlFileGenerationSession session = new ControlFileGenerator()
+                .createSession(new ControlFileGenerationSettings("template/template.ftl").setSizingAdvisor(sut));
+
+        final StringWriter writer = new StringWriter();
+        session.render(ControlFileGeneratorTest.Person.class, writer);
+        // 列配列:(1000000 - 500000) / 2 / 844 = 296行、ストリームバッファ:1000000 - 500000 - 296 * 844
+        assertThat(writer.toString(), startsWith("OPTIONS (\n"
+                + "SKIP = 1,\n"
+                + "READSIZE = 500000,\n"
+                + "COLUMNARRAYROWS = 296,\n"
+                + "STREAMSIZE = 250176,\n"
+                + "DIRECT = TRUE\n"
+                + ")\n"));
+
+        final File report = new File(temporaryFolder.getRoot(), "report/load-sizing.csv");
+        sut.writeReport(report);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(report), "UTF-8"));
+        try {
+            assertThat(reader.readLine(), is("bean,table,path,recordLength,bindRowSize,rows,bindSize,readSize,columnArrayRows,streamSize"));
+            assertThat(reader.readLine(), is(ControlFileGeneratorTest.Person.class.getName() + ",PERSON,DIRECT,818,844,,,500000,296,250176"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 従来型パス・ロードの場合、メモリ予算に収まる推奨値がコントロールファイルに出力され、レポートに記録されること。
+     */
+    @Test
+    public void testAdviseConventionalPath() throws Exception {
+        final LoadSizingAdvisor sut = new LoadSizingAdvisor(1000000);
+        final LoadOptions defaultOptions = new LoadOptions();
+        defaultOptions.setDirect(false);
+        final ControlFileGenerationSession session = new ControlFileGenerator()
+                .createSession(new ControlFileGenerationSettings("template/template.ftl")
+                        .setLoadOptions(defaultOptions)
+                        .setSizingAdvisor(sut));
+
+        final StringWriter writer = new StringWriter();
+        session.render(ControlFileGeneratorTest.Person.class, writer);
+        assertThat(writer.toString(), startsWith("OPTIONS (\n"
+                + "SKIP = 1,\n"
+                + "ROWS = 592,\n"
+                + "BINDSIZE = 499648,\n"
+                + "READSIZE = 500000,\n"
+                + "DIRECT = FALSE\n"
+                + ")\n"));
+
+        final File report = new File(temporaryFolder.getRoot(), "report/load-sizing.csv");
+        sut.writeReport(report);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(report), "UTF-8"));
+        try {
+            reader.readLine();
+            assertThat(reader.readLine(), is(ControlFileGeneratorTest.Person.class.getName() + ",PERSON,CONVENTIONAL,818,844,592,499648,500000,,"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 明示的に指定されたロードオプションは変更されないこと。
+     */
+    @Test
+    public void testExplicitOptionsPreferred() throws Exception {
+        final LoadSizingAdvisor sut = new LoadSizingAdvisor(1000000);
+        final LoadOptions defaultOptions = new LoadOptions();
+        defaultOptions.setDirect(false);
+        final ControlDefinition control = new ControlFileGenerator()
+                .createSession(new ControlFileGenerationSettings("template/template.ftl")
+                        .setLoadOptions(defaultOptions)
+                        .setSizingAdvisor(sut))
+                .getControlDefinition(ControlFileGeneratorTest.PersonLoadOptions.class);
+
+        final LoadOptions options = control.getLoadOptions();
+        assertThat("@SqlLoaderOptionsの指定値", options.getRows(), is(50000));
+        assertThat("@SqlLoaderOptionsの指定値", options.getReadSize(), is(20971520));
+        assertThat("指定された行数から算出されること", options.getBindSize(),
+                is(50000 * LoadSizingAdvisor.estimateBindRowSize(control)));
+    }
+
+    /**
+     * メモリ予算が0以下の場合、例外が送出されること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBudget() throws Exception {
+        new LoadSizingAdvisor(0);
+    }
+}
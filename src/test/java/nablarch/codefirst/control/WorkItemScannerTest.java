@@ -0,0 +1,167 @@
+package nablarch.codefirst.control;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import nablarch.codefirst.control.app.File1Bean;
+
+/**
+ * {@link WorkItemScanner}のテストクラス。
+ */
+public class WorkItemScannerTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<String> PACKAGES = Collections.singletonList("nablarch.codefirst.control.app");
+
+    /**
+     * ディレクトリから、WorkItemを継承し@Csv及び@Entityが付与されたクラスが検索できること。
+     * スーパクラスが間接的にWorkItemを継承している場合も検索対象となること。
+     */
+    @Test
+    public void testScanDirectory() throws Exception {
+        final WorkItemScanner sut = new WorkItemScanner(PACKAGES, getClass().getClassLoader(), null, 2);
+
+        final List<String> actual = sut.scan(Collections.singletonList(testClassesDir()), null, null);
+
+        assertThat(actual, is(Arrays.asList(
+                "nablarch.codefirst.control.app.File1Bean",
+                "nablarch.codefirst.control.app.File2Bean",
+                "nablarch.codefirst.control.app.sub.File3Bean")));
+    }
+
+    /**
+     * includes及びexcludesで検索結果が絞り込めること。
+     */
+    @Test
+    public void testIncludesAndExcludes() throws Exception {
+        final WorkItemScanner sut = new WorkItemScanner(PACKAGES, getClass().getClassLoader(), null, 1);
+
+        assertThat(sut.scan(Collections.singletonList(testClassesDir()),
+                Collections.singletonList("nablarch.codefirst.control.app.*"), null),
+                is(Arrays.asList("nablarch.codefirst.control.app.File1Bean", "nablarch.codefirst.control.app.File2Bean")));
+
+        assertThat(sut.scan(Collections.singletonList(testClassesDir()),
+                Collections.singletonList("nablarch.**"), Arrays.asList("**.File1Bean", "*.*.*.*.File2*")),
+                is(Collections.singletonList("nablarch.codefirst.control.app.sub.File3Bean")));
+    }
+
+    /**
+     * jarファイルから検索できること。
+     * また、jarファイルに変更がない場合はインデックスの検索結果が使用され、変更があった場合は再検索されること。
+     */
+    @Test
+    public void testScanJarWithIndex() throws Exception {
+        final File jar = createJar();
+        final File indexFile = new File(folder.getRoot(), "index/work-item.index");
+        final WorkItemScanner sut = new WorkItemScanner(PACKAGES, getClass().getClassLoader(), indexFile, 1);
+        final List<String> expected = Arrays.asList(
+                "nablarch.codefirst.control.app.File1Bean",
+                "nablarch.codefirst.control.app.File2Bean",
+                "nablarch.codefirst.control.app.sub.File3Bean");
+
+        assertThat(sut.scan(Collections.singletonList(jar.getPath()), null, null), is(expected));
+        assertThat("インデックスファイルが保存されること", indexFile.exists(), is(true));
+
+        // インデックスの検索結果を書き換え、インデックスが使用されることを確認する
+        final Properties index = load(indexFile);
+        final String key = "element." + jar.getPath();
+        final String value = index.getProperty(key);
+        assertThat(value, containsString("nablarch.codefirst.control.app.File1Bean>nablarch.etl.WorkItem"));
+        index.setProperty(key, value.substring(0, value.indexOf('|') + 1) + "dummy.Bean>nablarch.etl.WorkItem");
+        store(index, indexFile);
+        assertThat(new WorkItemScanner(PACKAGES, getClass().getClassLoader(), indexFile, 1)
+                .scan(Collections.singletonList(jar.getPath()), null, null), is(Collections.singletonList("dummy.Bean")));
+
+        // jarファイルが変更された場合は再検索されること
+        assertThat(jar.setLastModified(jar.lastModified() - 10000L), is(true));
+        assertThat(new WorkItemScanner(PACKAGES, getClass().getClassLoader(), indexFile, 1)
+                .scan(Collections.singletonList(jar.getPath()), null, null), is(expected));
+    }
+
+    /**
+     * 検索対象のパッケージが変わった場合は、インデックスが使用されないこと。
+     */
+    @Test
+    public void testIndexInvalidatedByPackages() throws Exception {
+        final File indexFile = new File(folder.getRoot(), "work-item.index");
+        new WorkItemScanner(PACKAGES, getClass().getClassLoader(), indexFile, 1)
+                .scan(Collections.singletonList(testClassesDir()), null, null);
+
+        final List<String> actual = new WorkItemScanner(
+                Collections.singletonList("nablarch.codefirst.control.app.sub"), getClass().getClassLoader(), indexFile, 1)
+                .scan(Collections.singletonList(testClassesDir()), null, null);
+
+        assertThat(actual, is(Collections.singletonList("nablarch.codefirst.control.app.sub.File3Bean")));
+    }
+
+    private String testClassesDir() throws Exception {
+        return new File(File1Bean.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    }
+
+    private File createJar() throws Exception {
+        final File root = new File(testClassesDir());
+        final File jar = folder.newFile("beans.jar");
+        final JarOutputStream stream = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            for (String name : Arrays.asList(
+                    "nablarch/codefirst/control/app/File1Bean.class",
+                    "nablarch/codefirst/control/app/File2Bean.class",
+                    "nablarch/codefirst/control/app/sub/File3Bean.class",
+                    "nablarch/codefirst/control/app/sub/NotWorkItemBean.class",
+                    "nablarch/codefirst/control/ControlFileGeneratorTest$Person.class")) {
+                stream.putNextEntry(new JarEntry(name));
+                final FileInputStream input = new FileInputStream(new File(root, name));
+                try {
+                    final byte[] buffer = new byte[4096];
+                    int length;
+                    while ((length = input.read(buffer)) != -1) {
+                        stream.write(buffer, 0, length);
+                    }
+                } finally {
+                    input.close();
+                }
+                stream.closeEntry();
+            }
+        } finally {
+            stream.close();
+        }
+        return jar;
+    }
+
+    private Properties load(File file) throws Exception {
+        final Properties properties = new Properties();
+        final FileInputStream stream = new FileInputStream(file);
+        try {
+            properties.load(stream);
+        } finally {
+            stream.close();
+        }
+        return properties;
+    }
+
+    private void store(Properties properties, File file) throws Exception {
+        final FileOutputStream stream = new FileOutputStream(file);
+        try {
+            properties.store(stream, null);
+        } finally {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package nablarch.codefirst.control.app.sub;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+import nablarch.codefirst.control.app.File1Bean;
+import nablarch.common.databind.csv.Csv;
+
+@Csv(
+        type = Csv.CsvType.DEFAULT,
+        properties = {"name", "code"},
+        headers = {"なまえ", "コード"}
+)
+@Entity
+@Table(name = "file3_bean")
+public class File3Bean extends File1Bean {
+
+    private String code;
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+}
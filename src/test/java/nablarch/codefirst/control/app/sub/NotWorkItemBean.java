@@ -0,0 +1,24 @@
+package nablarch.codefirst.control.app.sub;
+
+import javax.persistence.Entity;
+
+import nablarch.common.databind.csv.Csv;
+
+@Csv(
+        type = Csv.CsvType.DEFAULT,
+        properties = {"name"},
+        headers = {"なまえ"}
+)
+@Entity
+public class NotWorkItemBean {
+
+    private String name;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
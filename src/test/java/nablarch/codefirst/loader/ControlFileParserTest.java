@@ -0,0 +1,152 @@
+package nablarch.codefirst.loader;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import nablarch.codefirst.control.ControlFileGenerator;
+import nablarch.codefirst.control.ControlFileGeneratorTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link ControlFileParser}のテストクラス。
+ */
+public class ControlFileParserTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ControlFileParser sut = new ControlFileParser();
+
+    /**
+     * 生成したデフォルト形式のコントロールファイルが解析できること。
+     */
+    @Test
+    public void testParseGenerated() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        new ControlFileGenerator().execute(ControlFileGeneratorTest.Person.class, "template/template.ftl", dir);
+
+        final ControlFile actual = sut.parse(new File(dir, "Person.ctl"));
+
+        assertThat(actual.getSkip(), is(1));
+        assertThat(actual.getCharset(), is(Charset.forName("UTF-8")));
+        assertThat(actual.isFixedLength(), is(false));
+        assertThat(actual.getLineSeparator(), is("\r\n"));
+        assertThat(actual.getLoadMethod(), is("TRUNCATE"));
+        assertThat(actual.isPreserveBlanks(), is(true));
+        assertThat(actual.getTableName(), is("PERSON"));
+        assertThat(actual.getFieldSeparator(), is(","));
+        assertThat(actual.getQuote(), is("\""));
+        assertThat(actual.isTrailingNullcols(), is(true));
+
+        final List<ControlFileField> fields = actual.getFields();
+        assertThat(fields.size(), is(4));
+        assertThat(fields.get(0).getColumnName(), is("LINE_NUMBER"));
+        assertThat(fields.get(0).isRecnum(), is(true));
+        assertThat(fields.get(1).getColumnName(), is("PERSON_ID"));
+        assertThat(fields.get(1).isRecnum(), is(false));
+        assertThat(fields.get(1).getDataType(), is("INTEGER"));
+        assertThat(fields.get(3).getColumnName(), is("NAME"));
+        assertThat(fields.get(3).getDataType(), is("CHAR"));
+        assertThat(fields.get(3).getLength(), is(768));
+        assertThat(fields.get(1).getLength(), is(nullValue()));
+    }
+
+    /**
+     * 生成したカスタム形式(タブ区切り、シングルクォート)のコントロールファイルが解析できること。
+     */
+    @Test
+    public void testParseGeneratedCustom() throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        new ControlFileGenerator().execute(ControlFileGeneratorTest.PersonCustom.class, "template/template.ftl", dir);
+
+        final ControlFile actual = sut.parse(new File(dir, "PersonCustom.ctl"));
+
+        assertThat(actual.getCharset(), is(Charset.forName("windows-31j")));
+        assertThat(actual.getLineSeparator(), is("\n"));
+        assertThat(actual.getFieldSeparator(), is("\t"));
+        assertThat(actual.getQuote(), is("'"));
+        assertThat(actual.getTableName(), is("CUSTOM.PERSON_CUSTOM"));
+    }
+
+    /**
+     * 固定長のレコード形式、POSITION、日付書式、PARTITIONが解析できること。
+     */
+    @Test
+    public void testParseFixedLength() throws Exception {
+        final ControlFile actual = sut.parse(new StringReader(
+                "OPTIONS (\nROWS = 100,\nDIRECT = TRUE\n)\n"
+                        + "UNRECOVERABLE\n"
+                        + "LOAD DATA\n"
+                        + "CHARACTERSET AL32UTF8\n"
+                        + "INFILE '' \"fix 20\"\n"
+                        + "APPEND\n"
+                        + "INTO TABLE SALES PARTITION (P2024)\n"
+                        + "TRAILING NULLCOLS\n"
+                        + "(\n"
+                        + "LINE_NUMBER RECNUM,\n"
+                        + "CODE POSITION(1:4) CHAR(4),\n"
+                        + "SOLD_AT POSITION(5:18) DATE \"YYYYMMDDHH24MISS\"\n"
+                        + ")\n"));
+
+        assertThat(actual.getSkip(), is(0));
+        assertThat(actual.isFixedLength(), is(true));
+        assertThat(actual.getRecordSize(), is(20));
+        assertThat(actual.getLoadMethod(), is("APPEND"));
+        assertThat(actual.getTableName(), is("SALES"));
+        assertThat(actual.getFieldSeparator(), is(nullValue()));
+
+        final ControlFileField soldAt = actual.getFields().get(2);
+        assertThat(soldAt.getStart(), is(5));
+        assertThat(soldAt.getEnd(), is(18));
+        assertThat(soldAt.getDataType(), is("DATE"));
+        assertThat(soldAt.getMask(), is("YYYYMMDDHH24MISS"));
+    }
+
+    /**
+     * サポートしていない構文が含まれる場合、例外が送出されること。
+     */
+    @Test
+    public void testUnsupported() throws Exception {
+        try {
+            sut.parse(new StringReader("LOAD DATA INFILE 'a.dat' INTO TABLE T FIELDS TERMINATED BY ',' (A RAW)"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("keyword = [RAW]"));
+        }
+        try {
+            sut.parse(new StringReader("LOAD DATA INFILE 'a.dat' INTO TABLE T FIELDS TERMINATED BY ',' (A_LOBFILE FILLER CHAR(10))"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("FILLER and LOBFILE fields are not supported. column = [A_LOBFILE]"));
+        }
+        try {
+            sut.parse(new StringReader("LOAD DATA CHARACTERSET UNKNOWN_CHARSET INFILE '' INTO TABLE T (A)"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("charset = [UNKNOWN_CHARSET]"));
+        }
+        try {
+            sut.parse(new StringReader("LOAD DATA INFILE '' INTO TABLE T (A)"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("FIELDS TERMINATED BY is required"));
+        }
+        try {
+            sut.parse(new StringReader("LOAD DATA INFILE '' INTO TABLE T WHEN (1:1) = 'H' FIELDS TERMINATED BY ',' (A)"));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), containsString("WHEN clause is not supported. table = [T]"));
+        }
+    }
+}
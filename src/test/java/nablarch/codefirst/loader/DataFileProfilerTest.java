@@ -0,0 +1,151 @@
+package nablarch.codefirst.loader;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+import nablarch.codefirst.control.ControlFileGenerator;
+import nablarch.codefirst.control.ControlFileGeneratorTest;
+import nablarch.codefirst.control.DataFileSplitter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link DataFileProfiler}のテストクラス。
+ */
+public class DataFileProfilerTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * チャンクに分割して並行に集計した結果が、分割せずに集計した結果と一致すること。
+     */
+    @Test
+    public void testProfileChunks() throws Exception {
+        final ControlFile controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final StringBuilder data = new StringBuilder("ID,年齢,氏名\r\n");
+        for (int i = 1; i <= 1000; i++) {
+            data.append(i).append(',');
+            if (i % 4 != 0) {
+                data.append(i % 100);
+            }
+            data.append(',').append(i == 500 ? "\"山田\r\n太郎\"" : "name" + i).append("\r\n");
+        }
+        data.append("\r\n");
+        final File dataFile = write(data.toString(), "UTF-8");
+        final long[] boundaries = DataFileSplitter.forBean(ControlFileGeneratorTest.Person.class, 4)
+                .findBoundaries(dataFile, 4);
+
+        final List<ColumnProfile> actual = new DataFileProfiler(controlFile, 4).profile(dataFile, boundaries);
+
+        assertThat(actual.size(), is(3));
+        final ColumnProfile id = actual.get(0);
+        assertThat(id.getColumnName(), is("PERSON_ID"));
+        assertThat("ヘッダ行及び空行は集計しないこと", id.getCount(), is(1000L));
+        assertThat(id.getMaxLength(), is(4L));
+        assertThat(id.getFormat(), is("INTEGER"));
+        assertThat(id.getMaxPrecision(), is(4));
+
+        final ColumnProfile age = actual.get(1);
+        assertThat(age.getNulls(), is(250L));
+        assertThat(age.getNullRatio(), is(0.25));
+        assertThat(age.getMaxLength(), is(2L));
+
+        final ColumnProfile name = actual.get(2);
+        assertThat(name.getFormat(), is("CHAR"));
+        assertThat("マルチバイト文字はバイト長で集計すること", name.getMaxLength(), is(14L));
+
+        final List<ColumnProfile> single = new DataFileProfiler(controlFile, 1).profile(dataFile);
+        for (int i = 0; i < actual.size(); i++) {
+            assertThat(single.get(i).toString(), is(actual.get(i).toString()));
+            assertThat(single.get(i).getTotalLength(), is(actual.get(i).getTotalLength()));
+        }
+    }
+
+    /**
+     * 数値及び日付の書式が判定されること。
+     */
+    @Test
+    public void testFormat() throws Exception {
+        final ControlFile controlFile = new ControlFileParser().parse(new StringReader("LOAD DATA\n"
+                + "CHARACTERSET AL32UTF8\n"
+                + "INFILE '' \"str '\\n'\"\n"
+                + "APPEND\n"
+                + "INTO TABLE SALES\n"
+                + "FIELDS TERMINATED BY ','\n"
+                + "TRAILING NULLCOLS\n"
+                + "(\n"
+                + "SOLD_ON DATE \"YYYY-MM-DD\",\n"
+                + "AMOUNT DECIMAL EXTERNAL,\n"
+                + "NOTE CHAR(10),\n"
+                + "EMPTY CHAR(10)\n"
+                + ")\n"));
+        final File dataFile = write("2024-01-31,-012.50,1\n2024-02-01,3,x\n", "UTF-8");
+
+        final List<ColumnProfile> actual = new DataFileProfiler(controlFile, 1).profile(dataFile);
+
+        assertThat(actual.get(0).getFormat(), is("DATE"));
+        assertThat(actual.get(1).getFormat(), is("DECIMAL"));
+        assertThat(actual.get(1).getMaxPrecision(), is(4));
+        assertThat(actual.get(1).getMaxScale(), is(2));
+        assertThat(actual.get(2).getFormat(), is("CHAR"));
+        assertThat(actual.get(3).getFormat(), is("EMPTY"));
+        assertThat(actual.get(3).getNullRatio(), is(1.0));
+    }
+
+    /**
+     * JSON形式で出力したプロファイルが読み込めること。
+     */
+    @Test
+    public void testWriteAndRead() throws Exception {
+        final DataProfile profile = new DataProfile("com.example.Person");
+        profile.add("data/person_1.csv", Arrays.asList(
+                new ColumnProfile("NAME", "CHAR", 10, 2, 30, 120, 0, 0, 0, 0, 0),
+                new ColumnProfile("NOTE", null, 10, 10, 0, 0, 0, 0, 0, 0, 0)));
+        profile.add("data/\"person\"_2.csv", Arrays.asList(
+                new ColumnProfile("NAME", "CHAR", 5, 0, 40, 100, 0, 0, 0, 0, 0),
+                new ColumnProfile("NOTE", null, 5, 5, 0, 0, 0, 0, 0, 0, 0)));
+        final File file = new File(temporaryFolder.getRoot(), "profile/com.example.Person.json");
+        profile.write(file);
+
+        final DataProfile actual = DataProfile.read(file);
+
+        assertThat(actual.getBeanClassName(), is("com.example.Person"));
+        assertThat(actual.getDataFiles().get(1), is("data/\"person\"_2.csv"));
+        final ColumnProfile name = actual.getColumn("NAME");
+        assertThat(name.getCount(), is(15L));
+        assertThat(name.getNulls(), is(2L));
+        assertThat(name.getMaxLength(), is(40L));
+        assertThat(name.getTotalLength(), is(220L));
+        assertThat(actual.getColumn("NOTE").getDataType(), is(nullValue()));
+        assertThat(actual.getColumn("NOTE").getFormat(), is("EMPTY"));
+    }
+
+    private ControlFile generate(Class<?> beanClass, String fileName) throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        new ControlFileGenerator().execute(beanClass, "template/template.ftl", dir);
+        return new ControlFileParser().parse(new File(dir, fileName));
+    }
+
+    private File write(String content, String charset) throws Exception {
+        final File file = temporaryFolder.newFile();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), charset);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+}
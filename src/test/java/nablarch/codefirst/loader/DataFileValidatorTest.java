@@ -0,0 +1,190 @@
+package nablarch.codefirst.loader;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.codefirst.control.ControlFileGenerator;
+import nablarch.codefirst.control.ControlFileGeneratorTest;
+import nablarch.codefirst.control.DataFileSplitter;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link DataFileValidator}のテストクラス。
+ */
+public class DataFileValidatorTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * チャンクに分割して並行に検証した場合も、不正なレコードがファイル全体でのレコード番号で報告されること。
+     */
+    @Test
+    public void testValidateChunks() throws Exception {
+        final ControlFile controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final StringBuilder data = new StringBuilder("ID,年齢,氏名\r\n");
+        final StringBuilder longName = new StringBuilder();
+        for (int i = 0; i < 257; i++) {
+            longName.append('あ');
+        }
+        for (int i = 1; i <= 1000; i++) {
+            if (i == 10) {
+                data.append("x10,10,name\r\n");
+            } else if (i == 300) {
+                data.append("300,30,\"multi\r\nline\"\r\n");
+            } else if (i == 500) {
+                data.append("500,50,").append(longName).append("\r\n");
+            } else if (i == 999) {
+                data.append("999,99,name,extra\r\n");
+            } else {
+                data.append(i).append(',').append(i % 100).append(",name").append(i).append("\r\n");
+            }
+        }
+        final File dataFile = write(data.toString(), "UTF-8");
+        final long[] boundaries = DataFileSplitter.forBean(ControlFileGeneratorTest.Person.class, 4)
+                .findBoundaries(dataFile, 4);
+
+        final ValidationResult result = new DataFileValidator(controlFile, 4).validate(dataFile, boundaries);
+
+        assertThat(result.getRecords(), is(1000L));
+        assertThat(result.getRejected(), is(3L));
+        assertThat(result.isValid(), is(false));
+        final List<String> messages = result.getRejectedMessages();
+        assertThat(messages.size(), is(3));
+        assertThat(messages.get(0), startsWith("record 11: invalid number. column = [PERSON_ID]"));
+        assertThat(messages.get(1), startsWith("record 501: field exceeds maximum length. column = [NAME], length = [768]"));
+        assertThat(messages.get(2), is("record 1000: field count does not match. expected = [3], actual = [4]"));
+        assertThat("分割せずに検証した結果と一致すること",
+                new DataFileValidator(controlFile, 1).validate(dataFile).getRejectedMessages(), is(messages));
+    }
+
+    /**
+     * 可変長ファイルで、{@code @Column}の{@code length}の文字数までのマルチバイト文字の値が不正とならないこと。
+     */
+    @Test
+    public void testValidateMultibyte() throws Exception {
+        final ControlFile controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            name.append('あ');
+        }
+        final File dataFile = write("ID,年齢,氏名\r\n1,20," + name + "\r\n2,30,\"" + name + "\"\r\n", "UTF-8");
+
+        final ValidationResult result = new DataFileValidator(controlFile, 1).validate(dataFile);
+
+        assertThat(result.getRecords(), is(2L));
+        assertThat(result.getRejectedMessages().toString(), result.isValid(), is(true));
+    }
+
+    /**
+     * 固定長ファイルで、日付書式、数値の書式及びレコード長が検証されること。
+     */
+    @Test
+    public void testValidateFixedLength() throws Exception {
+        final ControlFile controlFile = new ControlFileParser().parse(new StringReader("LOAD DATA\n"
+                + "CHARACTERSET AL32UTF8\n"
+                + "INFILE '' \"fix 15\"\n"
+                + "APPEND\n"
+                + "INTO TABLE EVENT\n"
+                + "TRAILING NULLCOLS\n"
+                + "(\n"
+                + "LINE_NUMBER RECNUM,\n"
+                + "CODE POSITION(1:4) CHAR(4),\n"
+                + "HELD_AT POSITION(5:12) DATE \"YYYYMMDD\",\n"
+                + "QTY POSITION(13:14) INTEGER EXTERNAL\n"
+                + ")\n"));
+        final File dataFile = write("A00120240101 1\n"
+                + "A00220241301 2\n"
+                + "A00320240102x3\n"
+                + "A004202401", "UTF-8");
+
+        final ValidationResult result = new DataFileValidator(controlFile, 2).validate(dataFile, new long[] {0, 30, 55});
+
+        assertThat(result.getRecords(), is(4L));
+        assertThat(result.getRejected(), is(3L));
+        final List<String> messages = result.getRejectedMessages();
+        assertThat(messages.get(0), startsWith("record 2: value does not match the date mask. column = [HELD_AT]"));
+        assertThat(messages.get(1), is("record 3: invalid number. column = [QTY], type = [INTEGER EXTERNAL], value = [x3]"));
+        assertThat(messages.get(2), is("record 4: record is shorter than the record length. column = [HELD_AT]"));
+        assertThat(result.toString(), containsString("records=4, rejected=3"));
+    }
+
+    /**
+     * 可変長ファイルで{@code TRAILING NULLCOLS}が指定されている場合、末尾のフィールドが不足しているレコードは不正とならず、
+     * 指定されていない場合は不正となること。
+     */
+    @Test
+    public void testValidateTrailingNullcols() throws Exception {
+        final String controlFile = "LOAD DATA\n"
+                + "CHARACTERSET AL32UTF8\n"
+                + "INFILE '' \"str '\\n'\"\n"
+                + "APPEND\n"
+                + "INTO TABLE SALES\n"
+                + "FIELDS TERMINATED BY ','\n"
+                + "%s"
+                + "(\n"
+                + "SOLD_ON DATE \"YYYY-MM-DD\",\n"
+                + "AMOUNT INTEGER EXTERNAL,\n"
+                + "NOTE CHAR(10)\n"
+                + ")\n";
+        final File dataFile = write("2024-01-31,1,note\n2024-02-01,2\n2024-02-02\n2024-02-03,x\n", "UTF-8");
+
+        final ValidationResult result = new DataFileValidator(new ControlFileParser().parse(
+                new StringReader(String.format(controlFile, "TRAILING NULLCOLS\n"))), 1).validate(dataFile);
+
+        assertThat(result.getRecords(), is(4L));
+        assertThat(result.getRejectedMessages(), is(Collections.singletonList(
+                "record 4: invalid number. column = [AMOUNT], type = [INTEGER EXTERNAL], value = [x]")));
+
+        final ValidationResult withoutNullcols = new DataFileValidator(new ControlFileParser().parse(
+                new StringReader(String.format(controlFile, ""))), 1).validate(dataFile);
+
+        assertThat(withoutNullcols.getRejected(), is(3L));
+        assertThat(withoutNullcols.getRejectedMessages().get(0), is(
+                "record 2: field count does not match. expected = [3], actual = [2]"));
+    }
+
+    /**
+     * 閉じられていない囲み文字がある場合、そのレコードが不正なレコードとして報告されること。
+     */
+    @Test
+    public void testUnterminatedQuote() throws Exception {
+        final ControlFile controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final File dataFile = write("ID,年齢,氏名\r\n1,20,山田\r\n2,30,\"田中\r\n", "UTF-8");
+
+        final ValidationResult result = new DataFileValidator(controlFile, 1).validate(dataFile);
+
+        assertThat(result.getRecords(), is(2L));
+        assertThat(result.getRejectedMessages().get(0), is("record 3: unterminated quoted field. record number = [3]"));
+    }
+
+    private ControlFile generate(Class<?> beanClass, String fileName) throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        new ControlFileGenerator().execute(beanClass, "template/template.ftl", dir);
+        return new ControlFileParser().parse(new File(dir, fileName));
+    }
+
+    private File write(String content, String charset) throws Exception {
+        final File file = temporaryFolder.newFile();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), charset);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,280 @@
+package nablarch.codefirst.loader;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.codefirst.control.ControlFileGenerator;
+import nablarch.codefirst.control.ControlFileGeneratorTest;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * {@link JdbcLoader}のテストクラス。
+ */
+public class JdbcLoaderTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private JdbcDataSource dataSource;
+
+    private Connection connection;
+
+    private JdbcLoader sut;
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:loader;DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
+        execute("CREATE TABLE PERSON (LINE_NUMBER BIGINT, PERSON_ID BIGINT, AGE INT, NAME VARCHAR(256))");
+        sut = new JdbcLoader(dataSource);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        execute("DROP ALL OBJECTS");
+        connection.close();
+    }
+
+    /**
+     * 生成したコントロールファイルに従って、CSVファイルがロードできること。
+     */
+    @Test
+    public void testLoadGenerated() throws Exception {
+        execute("INSERT INTO PERSON VALUES (99, 99, 99, 'before')");
+        final File controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final File dataFile = write("ID,年齢,氏名\r\n"
+                + "1,20,山田\r\n"
+                + "2,,\"田中, \"\"太郎\"\"\"\r\n"
+                + "3, 40 ,  鈴木  \r\n"
+                + "\r\n"
+                + "4,50\r\n", "UTF-8");
+
+        final LoadResult result = sut.load(controlFile, dataFile);
+
+        assertThat(result.getLoaded(), is(4L));
+        assertThat(result.getRejected(), is(0L));
+        assertThat(result.getDiscarded(), is(1L));
+
+        final List<String> rows = select("SELECT * FROM PERSON ORDER BY PERSON_ID");
+        assertThat("TRUNCATEによりロード前のデータが削除されていること", rows.size(), is(4));
+        assertThat(rows.get(0), is("2|1|20|山田"));
+        assertThat(rows.get(1), is("3|2|null|田中, \"太郎\""));
+        assertThat("PRESERVE BLANKSにより空白が保持されること", rows.get(2), is("4|3|40|  鈴木  "));
+        assertThat("TRAILING NULLCOLSにより欠落したフィールドがnullとなること", rows.get(3), is("6|4|50|null"));
+    }
+
+    /**
+     * 複数の書き込みスレッドで、バッチサイズごとにロードできること。
+     */
+    @Test
+    public void testLoadWithWriterThreads() throws Exception {
+        final File controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final StringBuilder data = new StringBuilder("ID,年齢,氏名\r\n");
+        for (int i = 1; i <= 1000; i++) {
+            data.append(i).append(',').append(i % 100).append(",name").append(i).append("\r\n");
+        }
+        final File dataFile = write(data.toString(), "UTF-8");
+
+        sut.setBatchSize(7);
+        sut.setWriterThreads(4);
+        final LoadResult result = sut.load(controlFile, dataFile);
+
+        assertThat(result.getLoaded(), is(1000L));
+        assertTrue(result.getRowsPerSecond() > 0);
+        assertThat(result.toString(), containsString("loaded=1000"));
+        assertThat(select("SELECT COUNT(*), SUM(PERSON_ID), MIN(LINE_NUMBER), MAX(LINE_NUMBER) FROM PERSON").get(0),
+                is("1000|500500|2|1001"));
+    }
+
+    /**
+     * 不正なデータを含むレコードが除外され、残りのレコードがロードされること。
+     */
+    @Test
+    public void testRejected() throws Exception {
+        execute("CREATE TABLE EVENT (CODE VARCHAR(4), HELD_AT TIMESTAMP, NOTE VARCHAR(10))");
+        final File controlFile = write("OPTIONS (\nDIRECT = TRUE\n)\n"
+                + "LOAD DATA\n"
+                + "CHARACTERSET AL32UTF8\n"
+                + "INFILE '' \"str '\\n'\"\n"
+                + "APPEND\n"
+                + "INTO TABLE EVENT\n"
+                + "FIELDS\n"
+                + "TERMINATED BY '\\t'\n"
+                + "(\n"
+                + "CODE CHAR(4),\n"
+                + "HELD_AT TIMESTAMP \"YYYY-MM-DD HH24:MI:SS.FF\",\n"
+                + "NOTE CHAR(10)\n"
+                + ")\n", "UTF-8");
+        final File dataFile = write("A001\t2024-01-02 03:04:05.123456\t note \n"
+                + "A002\t2024-13-01 00:00:00.0\tx\n"
+                + "A003\t2024-01-02 03:04:05.1\n", "UTF-8");
+
+        final LoadResult result = sut.load(controlFile, dataFile);
+
+        assertThat(result.getLoaded(), is(1L));
+        assertThat(result.getRejected(), is(2L));
+        assertThat(result.getRejectedMessages().get(0), containsString("record 2: value does not match the date mask"));
+        assertThat(result.getRejectedMessages().get(1), containsString("record 3: column not found"));
+
+        final ResultSet rs = connection.createStatement().executeQuery("SELECT * FROM EVENT");
+        try {
+            assertTrue(rs.next());
+            assertThat(rs.getString("CODE"), is("A001"));
+            final Timestamp expected = Timestamp.valueOf("2024-01-02 03:04:05.123456");
+            assertThat(rs.getTimestamp("HELD_AT"), is(expected));
+            assertThat("PRESERVE BLANKSが無い場合は前後の空白が除去されること", rs.getString("NOTE"), is("note"));
+        } finally {
+            rs.close();
+        }
+    }
+
+    /**
+     * 固定長のデータファイルがロードできること。
+     */
+    @Test
+    public void testLoadFixedLength() throws Exception {
+        execute("CREATE TABLE SALES (LINE_NUMBER BIGINT, CODE VARCHAR(4), AMOUNT DECIMAL(5), SOLD_ON DATE)");
+        final File controlFile = write("LOAD DATA\n"
+                + "CHARACTERSET JA16SJISTILDE\n"
+                + "INFILE '' \"fix 19\"\n"
+                + "TRUNCATE\n"
+                + "INTO TABLE SALES\n"
+                + "TRAILING NULLCOLS\n"
+                + "(\n"
+                + "LINE_NUMBER RECNUM,\n"
+                + "CODE POSITION(1:4) CHAR(4),\n"
+                + "AMOUNT POSITION(5:9) DECIMAL EXTERNAL,\n"
+                + "SOLD_ON POSITION(10:17) DATE \"YYYYMMDD\"\n"
+                + ")\n", "UTF-8");
+        final File dataFile = write("あい0012320240101\r\n"
+                + "B002     20240102\r\n", "windows-31j");
+
+        final LoadResult result = sut.load(controlFile, dataFile);
+
+        assertThat(result.getLoaded(), is(2L));
+        final List<String> rows = select("SELECT * FROM SALES ORDER BY LINE_NUMBER");
+        assertThat(rows.get(0), is("1|あい|123|2024-01-01"));
+        assertThat(rows.get(1), is("2|B002|null|2024-01-02"));
+    }
+
+    /**
+     * データベースへの書き込みに失敗した場合、例外が送出されること。
+     */
+    @Test
+    public void testWriteFailure() throws Exception {
+        final File controlFile = generate(ControlFileGeneratorTest.Person.class, "Person.ctl");
+        final File dataFile = write("ID,年齢,氏名\r\n1,abc,山田\r\n", "UTF-8");
+
+        sut.setWriterThreads(2);
+        try {
+            sut.load(controlFile, dataFile);
+            fail();
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("failed to load data file. table = [PERSON]"));
+        }
+    }
+
+    /**
+     * INSERTの場合、ロード先のテーブルが空でなければ例外が送出されること。
+     */
+    @Test
+    public void testInsertIntoNotEmptyTable() throws Exception {
+        execute("INSERT INTO PERSON VALUES (1, 1, 1, 'x')");
+        final File controlFile = write("LOAD DATA INFILE '' INTO TABLE PERSON FIELDS TERMINATED BY ',' (PERSON_ID)", "UTF-8");
+
+        try {
+            sut.load(controlFile, write("2\n", "UTF-8"));
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("table must be empty for INSERT. table = [PERSON]"));
+        }
+        assertThat(select("SELECT COUNT(*) FROM PERSON").get(0), is("1"));
+    }
+
+    /**
+     * バッチサイズ、書き込みスレッド数に不正な値を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void testInvalidSettings() throws Exception {
+        try {
+            sut.setBatchSize(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("batchSize must be greater than 0. batchSize = [0]"));
+        }
+        try {
+            sut.setWriterThreads(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("writerThreads must be greater than 0. writerThreads = [0]"));
+        }
+    }
+
+    private File generate(Class<?> beanClass, String fileName) throws Exception {
+        final File dir = temporaryFolder.newFolder();
+        new ControlFileGenerator().execute(beanClass, "template/template.ftl", dir);
+        return new File(dir, fileName);
+    }
+
+    private File write(String content, String charset) throws Exception {
+        final File file = temporaryFolder.newFile();
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), charset);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private void execute(String sql) throws Exception {
+        final Statement statement = connection.createStatement();
+        try {
+            statement.execute(sql);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private List<String> select(String sql) throws Exception {
+        final List<String> rows = new ArrayList<String>();
+        final Statement statement = connection.createStatement();
+        try {
+            final ResultSet rs = statement.executeQuery(sql);
+            while (rs.next()) {
+                final StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                    if (i > 1) {
+                        row.append('|');
+                    }
+                    row.append(rs.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        } finally {
+            statement.close();
+        }
+        return rows;
+    }
+}